@@ -0,0 +1,526 @@
+package managers;
+
+import models.Emprestimo;
+import models.Livro;
+import models.Usuario;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Arquivo do histórico de empréstimos devolvidos (camada fria)
+ * Os empréstimos devolvidos ficam primeiro em memória e depois são gravados em disco,
+ * compactados com GZIP e particionados por mês do empréstimo (emprestimos-AAAA-MM.gz).
+ * Cada arquivamento acrescenta um membro GZIP ao fim da partição, sem regravar o que já estava nela.
+ * O bloqueio do objeto protege apenas o estado em memória; a gravação em disco roda fora dele,
+ * de modo que adicionar (chamado a cada devolução) nunca espera pelo disco.
+ * Sem diretório configurado, o histórico permanece apenas em memória
+ */
+public class ArquivoEmprestimos {
+    private static final String PREFIXO = "emprestimos-";
+    private static final String EXTENSAO = ".gz";
+    private static final char SEPARADOR = ';';
+    private static final String NULO = "\\0";
+
+    private Path diretorio;
+    private List<Emprestimo> recentes;
+    // Lote retirado de recentes que está sendo gravado (vazio fora de um arquivamento)
+    private List<Emprestimo> emGravacao;
+    // Tamanho confirmado de cada partição: os leitores não passam dele, e um membro
+    // que ainda está sendo acrescentado fica de fora até o seu lote sair da memória
+    private final Map<YearMonth, Long> tamanhos;
+    private long quantidadeEmDisco;
+    private ScheduledExecutorService agendador;
+    // Serializa os arquivamentos (e a troca de diretório), sem bloquear quem adiciona ou lê
+    private final Object gravacao;
+
+    /**
+     * Construtor padrão (histórico somente em memória)
+     */
+    public ArquivoEmprestimos() {
+        this.recentes = new ArrayList<>();
+        this.emGravacao = new ArrayList<>();
+        this.tamanhos = new TreeMap<>();
+        this.quantidadeEmDisco = 0;
+        this.gravacao = new Object();
+    }
+
+    /**
+     * Recebe um empréstimo devolvido para o histórico
+     * @param emprestimo Empréstimo já devolvido
+     */
+    public synchronized void adicionar(Emprestimo emprestimo) {
+        recentes.add(emprestimo);
+    }
+
+    /**
+     * Define o diretório em que as partições do histórico são gravadas
+     * Partições já existentes no diretório passam a fazer parte do histórico. Uma partição cujo
+     * último membro ficou incompleto (o processo parou durante um arquivamento) é reparada,
+     * mantendo os registros completos lidos antes do ponto de corte
+     * @param diretorio Diretório do arquivo
+     * @throws IOException se o diretório não puder ser criado ou lido
+     */
+    public void configurarDiretorio(Path diretorio) throws IOException {
+        synchronized (gravacao) {
+            Files.createDirectories(diretorio);
+            Map<YearMonth, Long> encontradas = new TreeMap<>();
+            long total = 0;
+            for (Map.Entry<YearMonth, Path> particao : listarParticoes(diretorio).entrySet()) {
+                total += contarOuReparar(particao.getValue());
+                encontradas.put(particao.getKey(), Files.size(particao.getValue()));
+            }
+            synchronized (this) {
+                this.diretorio = diretorio;
+                this.tamanhos.clear();
+                this.tamanhos.putAll(encontradas);
+                this.quantidadeEmDisco = total;
+            }
+        }
+    }
+
+    public synchronized Path getDiretorio() {
+        return diretorio;
+    }
+
+    /**
+     * Grava em disco os empréstimos devolvidos que ainda estão em memória
+     * O lote pendente é retirado da memória sob o bloqueio, e cada mês é acrescentado à sua partição
+     * como um novo membro GZIP fora dele; o custo de cada arquivamento é o tamanho do lote, e não o
+     * da partição. Os empréstimos de um mês deixam a memória no mesmo instante em que o tamanho
+     * confirmado da partição passa a incluí-los, de modo que nenhuma leitura os vê duas vezes.
+     * Se a gravação de um mês falhar, a partição volta ao tamanho anterior
+     * @return Quantidade de empréstimos gravados
+     * @throws IOException se a gravação falhar (os empréstimos dos meses não gravados voltam para a memória)
+     */
+    public int arquivar() throws IOException {
+        synchronized (gravacao) {
+            Path destino;
+            List<Emprestimo> lote;
+            synchronized (this) {
+                if (diretorio == null || recentes.isEmpty()) {
+                    return 0;
+                }
+                destino = diretorio;
+                lote = recentes;
+                recentes = emGravacao;
+                emGravacao = lote;
+            }
+
+            // Agrupa por partição mensal para abrir cada arquivo uma única vez
+            Map<YearMonth, List<Emprestimo>> porMes = new TreeMap<>();
+            for (Emprestimo emprestimo : lote) {
+                porMes.computeIfAbsent(YearMonth.from(emprestimo.getDataEmprestimo()), mes -> new ArrayList<>())
+                        .add(emprestimo);
+            }
+
+            int gravados = 0;
+            try {
+                for (Map.Entry<YearMonth, List<Emprestimo>> particao : porMes.entrySet()) {
+                    YearMonth mes = particao.getKey();
+                    long tamanhoAnterior;
+                    synchronized (this) {
+                        tamanhoAnterior = tamanhos.getOrDefault(mes, 0L);
+                    }
+                    long tamanhoNovo = acrescentarMembro(destino.resolve(PREFIXO + mes + EXTENSAO),
+                            tamanhoAnterior, particao.getValue());
+                    synchronized (this) {
+                        tamanhos.put(mes, tamanhoNovo);
+                        emGravacao.removeIf(emprestimo -> YearMonth.from(emprestimo.getDataEmprestimo()).equals(mes));
+                        quantidadeEmDisco += particao.getValue().size();
+                    }
+                    gravados += particao.getValue().size();
+                }
+            } finally {
+                synchronized (this) {
+                    // O que não foi gravado volta para a memória, antes dos devolvidos durante a gravação
+                    if (!emGravacao.isEmpty()) {
+                        emGravacao.addAll(recentes);
+                        recentes.clear();
+                        List<Emprestimo> restantes = emGravacao;
+                        emGravacao = recentes;
+                        recentes = restantes;
+                    }
+                }
+            }
+            return gravados;
+        }
+    }
+
+    /**
+     * Inicia o arquivamento periódico em segundo plano
+     * @param intervalo Intervalo entre os arquivamentos
+     * @param unidade Unidade de tempo do intervalo
+     */
+    public synchronized void iniciarArquivamentoAutomatico(long intervalo, TimeUnit unidade) {
+        pararArquivamentoAutomatico();
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "arquivo-emprestimos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                arquivar();
+            } catch (IOException e) {
+                // Os empréstimos continuam em memória e serão gravados na próxima execução
+                System.err.println("Falha ao arquivar empréstimos: " + e.getMessage());
+            }
+        }, intervalo, intervalo, unidade);
+    }
+
+    /**
+     * Interrompe o arquivamento periódico, se estiver ativo
+     */
+    public synchronized void pararArquivamentoAutomatico() {
+        if (agendador != null) {
+            agendador.shutdown();
+            agendador = null;
+        }
+    }
+
+    /**
+     * Obtém a quantidade total de empréstimos no histórico (memória e disco)
+     * @return Número de empréstimos arquivados
+     */
+    public synchronized long getQuantidade() {
+        return quantidadeEmDisco + emGravacao.size() + recentes.size();
+    }
+
+    /**
+     * Percorre os empréstimos do histórico cuja data de empréstimo está no período informado
+     * Apenas as partições mensais que cruzam o período são lidas do disco. Sob o bloqueio são
+     * copiados só os tamanhos confirmados dessas partições e os empréstimos do período em memória;
+     * a leitura do disco e a ação rodam depois, sem bloquear adicionar nem o arquivamento
+     * @param inicio Data inicial (inclusiva), ou null para sem limite
+     * @param fim Data final (inclusiva), ou null para sem limite
+     * @param usuarios Resolve o ID gravado para o usuário do catálogo (pode retornar null)
+     * @param livros Resolve o ISBN gravado para o livro do catálogo (pode retornar null)
+     * @param acao Ação executada para cada empréstimo
+     * @throws UncheckedIOException se a leitura do disco falhar
+     */
+    public void paraCada(LocalDate inicio, LocalDate fim, Function<String, Usuario> usuarios,
+                         Function<String, Livro> livros, Consumer<Emprestimo> acao) {
+        Map<Path, Long> particoes = new LinkedHashMap<>();
+        List<Emprestimo> emMemoria = new ArrayList<>();
+        synchronized (this) {
+            if (diretorio != null) {
+                for (Map.Entry<YearMonth, Long> particao : tamanhos.entrySet()) {
+                    if (mesNoPeriodo(particao.getKey(), inicio, fim)) {
+                        particoes.put(diretorio.resolve(PREFIXO + particao.getKey() + EXTENSAO), particao.getValue());
+                    }
+                }
+            }
+            copiarDoPeriodo(emGravacao, inicio, fim, emMemoria);
+            copiarDoPeriodo(recentes, inicio, fim, emMemoria);
+        }
+
+        try {
+            for (Map.Entry<Path, Long> particao : particoes.entrySet()) {
+                try (BufferedReader leitor = abrirLeitor(particao.getKey(), particao.getValue())) {
+                    String linha;
+                    while ((linha = leitor.readLine()) != null) {
+                        Emprestimo emprestimo = lerLinha(linha, usuarios, livros);
+                        if (dentroDoPeriodo(emprestimo.getDataEmprestimo(), inicio, fim)) {
+                            acao.accept(emprestimo);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o histórico de empréstimos", e);
+        }
+        for (Emprestimo emprestimo : emMemoria) {
+            acao.accept(emprestimo);
+        }
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Acrescenta os empréstimos à partição como um novo membro GZIP, a partir do tamanho confirmado
+     * Qualquer resto de uma tentativa anterior depois desse ponto é sobrescrito e cortado;
+     * se a gravação falhar, a partição volta ao tamanho confirmado
+     * @return Novo tamanho da partição, já gravado no disco
+     */
+    private static long acrescentarMembro(Path arquivo, long tamanhoAnterior, List<Emprestimo> emprestimos)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            try {
+                canal.position(tamanhoAnterior);
+                // O escritor não é fechado: fechá-lo fecharia o canal antes do force
+                GZIPOutputStream compactador = new GZIPOutputStream(Channels.newOutputStream(canal), 8192);
+                BufferedWriter escritor = new BufferedWriter(new OutputStreamWriter(compactador, StandardCharsets.UTF_8));
+                for (Emprestimo emprestimo : emprestimos) {
+                    escritor.write(formatarLinha(emprestimo));
+                    escritor.newLine();
+                }
+                escritor.flush();
+                compactador.finish();
+                long tamanhoNovo = canal.position();
+                canal.truncate(tamanhoNovo);
+                canal.force(true);
+                return tamanhoNovo;
+            } catch (IOException e) {
+                try {
+                    canal.truncate(tamanhoAnterior);
+                } catch (IOException falhaAoCortar) {
+                    e.addSuppressed(falhaAoCortar);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Conta os registros de uma partição; se o último membro estiver incompleto, regrava a partição
+     * (num arquivo temporário, trocado de uma vez) apenas com os registros completos
+     * @return Quantidade de registros da partição
+     */
+    private static long contarOuReparar(Path particao) throws IOException {
+        long total = 0;
+        try (BufferedReader leitor = abrirLeitor(particao, Files.size(particao))) {
+            while (leitor.readLine() != null) {
+                total++;
+            }
+            return total;
+        } catch (EOFException e) {
+            // Membro cortado no meio: segue para a regravação abaixo
+        }
+        Path temporario = particao.resolveSibling(particao.getFileName() + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                GZIPOutputStream compactador = new GZIPOutputStream(Channels.newOutputStream(canal), 8192);
+                BufferedWriter escritor = new BufferedWriter(new OutputStreamWriter(compactador, StandardCharsets.UTF_8));
+                if (total > 0) {
+                    // Sem registros completos não há o que copiar, e o cabeçalho pode nem ter sido gravado
+                    try (BufferedReader leitor = abrirLeitor(particao, Files.size(particao))) {
+                        for (long i = 0; i < total; i++) {
+                            escritor.write(leitor.readLine());
+                            escritor.newLine();
+                        }
+                    }
+                }
+                escritor.flush();
+                compactador.finish();
+                canal.force(true);
+            }
+            Files.move(temporario, particao, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        return total;
+    }
+
+    private static void copiarDoPeriodo(List<Emprestimo> origem, LocalDate inicio, LocalDate fim,
+                                        List<Emprestimo> destino) {
+        for (Emprestimo emprestimo : origem) {
+            if (dentroDoPeriodo(emprestimo.getDataEmprestimo(), inicio, fim)) {
+                destino.add(emprestimo);
+            }
+        }
+    }
+
+    private static boolean dentroDoPeriodo(LocalDate data, LocalDate inicio, LocalDate fim) {
+        return (inicio == null || !data.isBefore(inicio)) && (fim == null || !data.isAfter(fim));
+    }
+
+    private static boolean mesNoPeriodo(YearMonth mes, LocalDate inicio, LocalDate fim) {
+        return (inicio == null || !mes.isBefore(YearMonth.from(inicio)))
+                && (fim == null || !mes.isAfter(YearMonth.from(fim)));
+    }
+
+    private static Map<YearMonth, Path> listarParticoes(Path diretorio) throws IOException {
+        Map<YearMonth, Path> particoes = new TreeMap<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO + "*" + EXTENSAO)) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                particoes.put(YearMonth.parse(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length())),
+                        arquivo);
+            }
+        }
+        return particoes;
+    }
+
+    /**
+     * Abre a partição para leitura até o tamanho informado
+     * GZIPInputStream lê em sequência todos os membros acrescentados ao arquivo; o limite deixa
+     * de fora um membro que outro arquivamento esteja acrescentando neste momento
+     */
+    private static BufferedReader abrirLeitor(Path particao, long tamanho) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new EntradaLimitada(Files.newInputStream(particao), tamanho)),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Entrada que termina depois de uma quantidade fixa de bytes
+     */
+    private static class EntradaLimitada extends FilterInputStream {
+        private long restantes;
+
+        private EntradaLimitada(InputStream entrada, long limite) {
+            super(entrada);
+            this.restantes = limite;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (restantes <= 0) {
+                return -1;
+            }
+            int lido = super.read();
+            if (lido >= 0) {
+                restantes--;
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) throws IOException {
+            if (restantes <= 0) {
+                return -1;
+            }
+            int lidos = super.read(destino, inicio, (int) Math.min(tamanho, restantes));
+            if (lidos > 0) {
+                restantes -= lidos;
+            }
+            return lidos;
+        }
+
+        @Override
+        public long skip(long quantidade) throws IOException {
+            long pulados = super.skip(Math.min(quantidade, restantes));
+            restantes -= pulados;
+            return pulados;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), restantes);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    private static String formatarLinha(Emprestimo emprestimo) {
+        StringBuilder linha = new StringBuilder();
+        linha.append(escapar(emprestimo.getUsuario().getId())).append(SEPARADOR)
+                .append(escapar(emprestimo.getUsuario().getNome())).append(SEPARADOR)
+                .append(escapar(emprestimo.getLivro().getIsbn())).append(SEPARADOR)
+                .append(escapar(emprestimo.getLivro().getTitulo())).append(SEPARADOR)
+                .append(emprestimo.getDataEmprestimo()).append(SEPARADOR)
+                .append(emprestimo.getDataDevolucaoPrevista()).append(SEPARADOR)
+                .append(emprestimo.getDataDevolucao()).append(SEPARADOR)
+                .append(emprestimo.getMulta()).append(SEPARADOR)
+                .append(escapar(emprestimo.getObservacoes()));
+        return linha.toString();
+    }
+
+    private static Emprestimo lerLinha(String linha, Function<String, Usuario> usuarios, Function<String, Livro> livros) {
+        List<String> campos = dividir(linha);
+        String idUsuario = campos.get(0);
+        String isbn = campos.get(2);
+
+        // Registros de usuários ou livros que já saíram do catálogo são reconstruídos de forma parcial
+        Usuario usuario = usuarios.apply(idUsuario);
+        if (usuario == null) {
+            usuario = new Usuario(campos.get(1), idUsuario, null, null);
+        }
+        Livro livro = livros.apply(isbn);
+        if (livro == null) {
+            livro = new Livro(campos.get(3), null, isbn, null, 0, null);
+        }
+
+        Emprestimo emprestimo = new Emprestimo(usuario, livro, LocalDate.parse(campos.get(4)));
+        emprestimo.setDataDevolucaoPrevista(LocalDate.parse(campos.get(5)));
+        emprestimo.setDataDevolucao(LocalDate.parse(campos.get(6)));
+        emprestimo.setStatus("DEVOLVIDO");
+        emprestimo.setMulta(Double.parseDouble(campos.get(7)));
+        emprestimo.setObservacoes(campos.get(8));
+        return emprestimo;
+    }
+
+    private static String escapar(String valor) {
+        if (valor == null) {
+            return NULO;
+        }
+        StringBuilder resultado = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '\\' || c == SEPARADOR) {
+                resultado.append('\\').append(c);
+            } else if (c == '\n') {
+                resultado.append("\\n");
+            } else if (c == '\r') {
+                resultado.append("\\r");
+            } else {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    private static List<String> dividir(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean nulo = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '\\' && i + 1 < linha.length()) {
+                char proximo = linha.charAt(++i);
+                if (proximo == 'n') {
+                    atual.append('\n');
+                } else if (proximo == 'r') {
+                    atual.append('\r');
+                } else if (proximo == '0') {
+                    nulo = true;
+                } else {
+                    atual.append(proximo);
+                }
+            } else if (c == SEPARADOR) {
+                campos.add(nulo ? null : atual.toString());
+                atual.setLength(0);
+                nulo = false;
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(nulo ? null : atual.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,170 @@
+package managers;
+
+import models.Livro;
+import models.Usuario;
+import persistencia.CodificadorBinario;
+import persistencia.DecodificadorBinario;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Arquivo dos livros e usuários removidos do catálogo
+ * Cada remoção (unitária ou em lote) vira um lote, gravado no formato binário do catálogo em um
+ * arquivo próprio (removidos-AAAA-MM-DD-NNNN.btk). Sem diretório configurado, os registros
+ * removidos permanecem apenas em memória
+ */
+public class ArquivoRemovidos {
+    private static final String PREFIXO = "removidos-";
+    private static final String EXTENSAO = ".btk";
+
+    private Path diretorio;
+    private final List<Livro> livros;
+    private final List<Usuario> usuarios;
+
+    /**
+     * Construtor padrão (arquivo somente em memória)
+     */
+    public ArquivoRemovidos() {
+        this.livros = new ArrayList<>();
+        this.usuarios = new ArrayList<>();
+    }
+
+    /**
+     * Define o diretório em que os lotes de registros removidos são gravados
+     * Os registros que estavam em memória são gravados em um lote no diretório
+     * @param diretorio Diretório do arquivo
+     * @throws IOException se o diretório não puder ser criado ou a gravação falhar
+     */
+    public synchronized void configurarDiretorio(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        this.diretorio = diretorio;
+        if (!livros.isEmpty() || !usuarios.isEmpty()) {
+            gravarLote(livros, usuarios, LocalDate.now());
+            livros.clear();
+            usuarios.clear();
+        }
+    }
+
+    public synchronized Path getDiretorio() {
+        return diretorio;
+    }
+
+    /**
+     * Arquiva um lote de registros removidos
+     * Deve ser chamado antes de os registros saírem do catálogo, para que uma falha de gravação
+     * cancele a remoção em vez de perder os registros
+     * @param livrosRemovidos Livros removidos (pode ser vazio)
+     * @param usuariosRemovidos Usuários removidos (pode ser vazio)
+     * @param data Data da remoção (usada no nome do arquivo)
+     * @throws UncheckedIOException se a gravação em disco falhar
+     */
+    public synchronized void arquivar(Collection<Livro> livrosRemovidos, Collection<Usuario> usuariosRemovidos,
+                                      LocalDate data) {
+        if (livrosRemovidos.isEmpty() && usuariosRemovidos.isEmpty()) {
+            return;
+        }
+        if (diretorio == null) {
+            livros.addAll(livrosRemovidos);
+            usuarios.addAll(usuariosRemovidos);
+            return;
+        }
+        try {
+            gravarLote(livrosRemovidos, usuariosRemovidos, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao arquivar os registros removidos", e);
+        }
+    }
+
+    /**
+     * Lê todos os livros arquivados (memória e disco)
+     * @return Livros removidos, na ordem em que foram arquivados
+     * @throws UncheckedIOException se a leitura do disco falhar
+     */
+    public synchronized List<Livro> getLivros() {
+        List<Livro> resultado = new ArrayList<>();
+        lerLotes(resultado, null);
+        resultado.addAll(livros);
+        return resultado;
+    }
+
+    /**
+     * Lê todos os usuários arquivados (memória e disco)
+     * @return Usuários removidos, na ordem em que foram arquivados
+     * @throws UncheckedIOException se a leitura do disco falhar
+     */
+    public synchronized List<Usuario> getUsuarios() {
+        List<Usuario> resultado = new ArrayList<>();
+        lerLotes(null, resultado);
+        resultado.addAll(usuarios);
+        return resultado;
+    }
+
+    // Métodos auxiliares
+
+    private void gravarLote(Collection<Livro> livrosRemovidos, Collection<Usuario> usuariosRemovidos,
+                            LocalDate data) throws IOException {
+        CodificadorBinario codificador = new CodificadorBinario();
+        for (Livro livro : livrosRemovidos) {
+            codificador.escreverLivro(livro);
+        }
+        for (Usuario usuario : usuariosRemovidos) {
+            codificador.escreverUsuario(usuario);
+        }
+        // Vários lotes no mesmo dia recebem números sequenciais
+        int sequencia = 1;
+        Path arquivo;
+        do {
+            arquivo = diretorio.resolve(PREFIXO + data + String.format("-%04d", sequencia++) + EXTENSAO);
+        } while (Files.exists(arquivo));
+        ImagemIndices.gravarAtomicamente(arquivo, codificador.finalizar());
+    }
+
+    private void lerLotes(List<Livro> livrosLidos, List<Usuario> usuariosLidos) {
+        if (diretorio == null) {
+            return;
+        }
+        try {
+            for (Path lote : listarLotes()) {
+                DecodificadorBinario decodificador = new DecodificadorBinario(ByteBuffer.wrap(Files.readAllBytes(lote)));
+                while (decodificador.temProximo()) {
+                    if (decodificador.proximoTipo() == CodificadorBinario.TIPO_LIVRO) {
+                        Livro livro = decodificador.lerLivro();
+                        if (livrosLidos != null) {
+                            livrosLidos.add(livro);
+                        }
+                    } else {
+                        Usuario usuario = decodificador.lerUsuario();
+                        if (usuariosLidos != null) {
+                            usuariosLidos.add(usuario);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler os registros removidos", e);
+        }
+    }
+
+    /**
+     * Lista os arquivos de lote em ordem de data e de sequência
+     */
+    private List<Path> listarLotes() throws IOException {
+        TreeSet<Path> lotes = new TreeSet<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO + "*" + EXTENSAO)) {
+            for (Path arquivo : arquivos) {
+                lotes.add(arquivo);
+            }
+        }
+        return new ArrayList<>(lotes);
+    }
+}
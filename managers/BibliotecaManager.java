@@ -3,21 +3,150 @@ package managers;
 import models.Livro;
 import models.Usuario;
 import models.Emprestimo;
+import models.OuvinteAlteracaoLivro;
+import models.OuvinteAlteracaoUsuario;
+import models.PoliticaEmprestimo;
+import models.TabelaSimbolos;
+import models.Isbn;
+import models.MapaDisponibilidade;
+import models.LancamentoMulta;
+import persistencia.CodificadorBinario;
+import persistencia.DecodificadorBinario;
+import persistencia.RepositorioBiblioteca;
+import persistencia.RepositorioMemoria;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Classe gerenciadora que controla todas as operações do sistema de biblioteca
  * Implementa padrão Singleton para garantir uma única instância
+ * As operações públicas são sincronizadas e podem ser chamadas de várias threads
  */
 public class BibliotecaManager {
     // Atributos privados para encapsulamento
     private List<Livro> livros;
     private List<Usuario> usuarios;
-    private List<Emprestimo> emprestimos;
+    private List<Emprestimo> emprestimos; // apenas empréstimos em aberto (ativos ou atrasados)
+    
+    // Empréstimos em aberto agrupados pela data prevista de devolução
+    private IndiceVencimentos indiceVencimentos;
+    
+    // Filas de reservas de cada livro, indexadas pelo ordinal
+    private Map<Integer, Deque<Usuario>> reservasPorOrdinal;
+    
+    // Multas e pagamentos, com o saldo devedor mantido em cada usuário
+    private LivroCaixaMultas livroCaixa;
+    
+    // Armazenamento que recebe cada alteração de livros, usuários e empréstimos (em memória por padrão)
+    private RepositorioBiblioteca repositorio;
+    
+    // Histórico de empréstimos devolvidos (camada fria, em memória ou em disco)
+    private ArquivoEmprestimos historico;
+    
+    // Livros e usuários removidos do catálogo
+    private ArquivoRemovidos arquivoRemovidos;
+    
+    // Empréstimos e devoluções agregados por minuto, hora e dia
+    private SerieCirculacao serieCirculacao;
+    
+    // Quantidade de empréstimos já realizados de cada livro, indexada pelo ordinal
+    private int[] emprestimosPorOrdinal;
+    
+    // Coocorrência de empréstimos para recomendações
+    private MotorRecomendacao motorRecomendacao;
+    
+    // Políticas de empréstimo compiladas por categoria de usuário e gênero
+    private MotorPoliticas motorPoliticas;
+    
+    // Índices pelas chaves únicas, mantidos a cada alteração avisada pelos modelos
+    private IndiceIsbn livrosPorIsbn;
+    private Map<String, Usuario> usuariosPorId;
+    
+    // Autocompletar de usuários por nome, e-mail e telefone
+    private IndiceUsuarios indiceUsuarios;
+    
+    // Livros indexados pelo ordinal atribuído na entrada do catálogo (null após remoção)
+    private List<Livro> livrosPorOrdinal;
+    private IndiceBitmapLivros indiceBitmap;
+    
+    // Disponibilidade de todos os livros em um mapa de bits denso, pelo ordinal (lido sem bloqueio)
+    private final MapaDisponibilidade disponibilidade;
+    
+    // Índices de busca tolerante a erros de digitação sobre título e autor
+    private IndiceBuscaAproximada indiceTitulos;
+    private IndiceBuscaAproximada indiceAutores;
+    
+    // Cache de resultados de buscas e de trechos de relatórios
+    private CacheConsultas<List<Livro>> cacheBuscas;
+    private CacheConsultas<String> cacheRelatorios;
+    private static final int CAPACIDADE_CACHE_BUSCAS = 1000;
+    private static final int CAPACIDADE_CACHE_RELATORIOS = 16;
+    private static final long TTL_CACHE_MILLIS = 5 * 60 * 1000;
+    
+    // Arquivos do catálogo salvo em disco: dados no formato binário e imagem dos índices
+    private static final String ARQUIVO_DADOS = "catalogo.btk";
+    private static final String ARQUIVO_IMAGEM = "catalogo.idx";
+    // Registros lidos por consulta ao carregar de um repositório
+    private static final int TAMANHO_PAGINA_REPOSITORIO = 1000;
+    
+    // Carimbos de versão incrementados pelas alterações que afetam cada consulta
+    private long versaoTitulos;
+    private long versaoAutores;
+    private long versaoPopulares;
+    
+    // Versão geral dos dados, incrementada por qualquer escrita, e último retrato publicado
+    private volatile long versaoDados;
+    private volatile SnapshotBiblioteca snapshotAtual;
+    // Páginas do catálogo publicadas para os retratos; os escritores marcam as que alteram
+    private final PaginasCatalogo paginasCatalogo;
+    
+    // Com carga sob demanda, livros e usuários que não estão na memória são buscados no repositório
+    private boolean cargaSobDemanda;
+    // Ordinais dos livros descarregados, pela chave do ISBN, para que voltem com os mesmos contadores
+    private final MapaLongos<Integer> ordinaisDescarregados;
+    
+    // Contador mantido incrementalmente para os relatórios
+    private int usuariosAtivos;
+    
+    // Relógio que define a data de hoje (substituível por um relógio simulado)
+    private volatile Clock relogio;
+    
+    // Data de hoje calculada a partir do relógio, válida até a próxima meia-noite ou mudança de fuso
+    private volatile DiaCorrente diaCorrente;
+    
+    // Recebe as alterações feitas pelos setters dos livros do catálogo
+    private final OuvinteAlteracaoLivro ouvinteLivros = this::aoAlterarLivro;
+    
+    // Recebe as alterações feitas pelos setters dos usuários do catálogo
+    private final OuvinteAlteracaoUsuario ouvinteUsuarios = this::aoAlterarUsuario;
     
     // Instância única (Singleton)
     private static BibliotecaManager instancia;
@@ -29,13 +158,36 @@ public class BibliotecaManager {
         this.livros = new ArrayList<>();
         this.usuarios = new ArrayList<>();
         this.emprestimos = new ArrayList<>();
+        this.indiceVencimentos = new IndiceVencimentos();
+        this.reservasPorOrdinal = new HashMap<>();
+        this.livroCaixa = new LivroCaixaMultas();
+        this.repositorio = new RepositorioMemoria();
+        this.historico = new ArquivoEmprestimos();
+        this.arquivoRemovidos = new ArquivoRemovidos();
+        this.serieCirculacao = new SerieCirculacao();
+        this.emprestimosPorOrdinal = new int[16];
+        this.motorRecomendacao = new MotorRecomendacao();
+        this.motorPoliticas = new MotorPoliticas();
+        this.livrosPorIsbn = new IndiceIsbn();
+        this.usuariosPorId = new HashMap<>();
+        this.indiceUsuarios = new IndiceUsuarios();
+        this.livrosPorOrdinal = new ArrayList<>();
+        this.disponibilidade = new MapaDisponibilidade();
+        this.indiceBitmap = new IndiceBitmapLivros(disponibilidade);
+        this.paginasCatalogo = new PaginasCatalogo();
+        this.ordinaisDescarregados = new MapaLongos<>();
+        this.indiceTitulos = new IndiceBuscaAproximada();
+        this.indiceAutores = new IndiceBuscaAproximada();
+        this.cacheBuscas = new CacheConsultas<>(CAPACIDADE_CACHE_BUSCAS, TTL_CACHE_MILLIS);
+        this.cacheRelatorios = new CacheConsultas<>(CAPACIDADE_CACHE_RELATORIOS, TTL_CACHE_MILLIS);
+        this.relogio = Clock.systemDefaultZone();
     }
     
     /**
      * Obtém a instância única do BibliotecaManager
      * @return Instância única do gerenciador
      */
-    public static BibliotecaManager getInstancia() {
+    public static synchronized BibliotecaManager getInstancia() {
         if (instancia == null) {
             instancia = new BibliotecaManager();
         }
@@ -49,44 +201,224 @@ public class BibliotecaManager {
      * @param livro Livro a ser adicionado
      * @return true se foi adicionado com sucesso, false caso contrário
      */
-    public boolean adicionarLivro(Livro livro) {
-        if (livro != null && !livros.contains(livro)) {
+    public synchronized boolean adicionarLivro(Livro livro) {
+        if (livro == null || livrosPorIsbn.contem(livro)) {
+            return false;
+        }
+        // Gravado antes de entrar no catálogo: se o repositório falhar, nada muda na memória
+        repositorio.salvarLivro(livro);
+        return incluirLivro(livro);
+    }
+    
+    /**
+     * Inclui um livro no catálogo em memória e nos índices, sem gravá-lo no repositório
+     * @return true se foi incluído, false se for null ou o ISBN já estiver cadastrado
+     */
+    private boolean incluirLivro(Livro livro) {
+        if (livro != null && !livrosPorIsbn.contem(livro)) {
             livros.add(livro);
+            livrosPorIsbn.colocar(livro);
+            // Ordinais não são reaproveitados, para que nenhum índice confunda livros diferentes;
+            // um livro descarregado da memória volta com o seu próprio ordinal
+            Integer ordinalDescarregado = livro.getChaveIsbn() != Isbn.CHAVE_INVALIDA
+                    ? ordinaisDescarregados.obter(livro.getChaveIsbn()) : null;
+            if (ordinalDescarregado != null) {
+                ordinaisDescarregados.remover(livro.getChaveIsbn());
+                livro.setOrdinal(ordinalDescarregado);
+                livrosPorOrdinal.set(ordinalDescarregado, livro);
+            } else {
+                livro.setOrdinal(livrosPorOrdinal.size());
+                livrosPorOrdinal.add(livro);
+            }
+            livro.setMapaDisponibilidade(disponibilidade);
+            indiceBitmap.adicionar(livro);
+            indexarTexto(livro);
+            livro.setOuvinte(ouvinteLivros);
+            paginasCatalogo.marcar(livro.getOrdinal());
+            versaoDados++;
+            versaoTitulos++;
+            versaoAutores++;
+            versaoPopulares++;
             return true;
         }
         return false;
     }
     
+    /**
+     * Adiciona vários livros ao sistema de uma só vez (carga em lote)
+     * Autor, gênero e editora já chegam codificados pelas tabelas de símbolos na construção dos livros
+     * @param novosLivros Livros a serem adicionados
+     * @return Quantidade de livros efetivamente adicionados
+     */
+    public synchronized int adicionarLivros(Collection<Livro> novosLivros) {
+        if (novosLivros == null) {
+            return 0;
+        }
+        if (livros instanceof ArrayList) {
+            ((ArrayList<Livro>) livros).ensureCapacity(livros.size() + novosLivros.size());
+        }
+        // Os livros aceitos são gravados no repositório de uma só vez, antes de entrarem no catálogo
+        List<Livro> aceitos = new ArrayList<>(novosLivros.size());
+        Set<Livro> vistos = new HashSet<>();
+        for (Livro livro : novosLivros) {
+            if (livro != null && !livrosPorIsbn.contem(livro) && vistos.add(livro)) {
+                aceitos.add(livro);
+            }
+        }
+        try {
+            repositorio.salvarLivros(aceitos);
+        } catch (RuntimeException e) {
+            // Os lotes já confirmados pelo repositório são excluídos
+            compensar(e, () -> repositorio.removerLivros(isbnsDe(aceitos)));
+            throw e;
+        }
+        for (Livro livro : aceitos) {
+            incluirLivro(livro);
+        }
+        return aceitos.size();
+    }
+    
     /**
      * Remove um livro do sistema
+     * O livro removido é guardado no arquivo de removidos
      * @param livro Livro a ser removido
      * @return true se foi removido com sucesso, false caso contrário
      */
-    public boolean removerLivro(Livro livro) {
-        if (livro != null && livros.contains(livro)) {
+    public synchronized boolean removerLivro(Livro livro) {
+        Livro cadastrado = livro != null ? livrosPorIsbn.buscar(livro.getIsbn()) : null;
+        if (cadastrado != null) {
             // Verifica se o livro não está emprestado
-            if (!livro.isDisponivel()) {
+            if (!podeRemover(cadastrado)) {
                 return false; // Não pode remover livro emprestado
             }
-            livros.remove(livro);
+            // Excluído do repositório antes do catálogo; se o arquivo de removidos falhar, o livro é regravado
+            repositorio.removerLivro(cadastrado.getIsbn());
+            try {
+                arquivoRemovidos.arquivar(Collections.singletonList(cadastrado), Collections.emptyList(), hoje());
+            } catch (RuntimeException e) {
+                compensar(e, () -> repositorio.salvarLivro(cadastrado));
+                throw e;
+            }
+            livros.remove(cadastrado);
+            desindexarLivro(cadastrado);
+            versaoDados++;
+            versaoTitulos++;
+            versaoAutores++;
+            versaoPopulares++;
             return true;
         }
         return false;
     }
     
+    /**
+     * Remove de uma só vez os livros que atendem a um critério (por exemplo, no descarte anual do acervo)
+     * Livros emprestados são mantidos. A lista de livros é percorrida uma única vez, os removidos são
+     * guardados no arquivo de removidos antes de sair do catálogo e o repositório os exclui em lote
+     * @param criterio Critério de remoção
+     * @return Livros removidos
+     * @throws java.io.UncheckedIOException se o arquivo de removidos não puder ser gravado (nada é removido)
+     * @throws IllegalStateException se o repositório falhar (nada é removido)
+     */
+    public synchronized List<Livro> removerLivros(Predicate<Livro> criterio) {
+        List<Livro> removidos = new ArrayList<>();
+        for (Livro livro : livros) {
+            if (podeRemover(livro) && criterio.test(livro)) {
+                removidos.add(livro);
+            }
+        }
+        if (removidos.isEmpty()) {
+            return removidos;
+        }
+        repositorio.removerLivros(isbnsDe(removidos));
+        try {
+            arquivoRemovidos.arquivar(removidos, Collections.emptyList(), hoje());
+        } catch (RuntimeException e) {
+            compensar(e, () -> repositorio.salvarLivros(removidos));
+            throw e;
+        }
+        
+        Set<Livro> selecionados = Collections.newSetFromMap(new IdentityHashMap<>(removidos.size() * 2));
+        selecionados.addAll(removidos);
+        livros.removeIf(selecionados::contains);
+        for (Livro livro : removidos) {
+            desindexarLivro(livro);
+        }
+        versaoDados++;
+        versaoTitulos++;
+        versaoAutores++;
+        versaoPopulares++;
+        return removidos;
+    }
+    
+    /**
+     * Remove de uma só vez os livros de um conjunto de ISBNs (ver removerLivros)
+     * @param isbns ISBNs dos livros, com ou sem hífens; ISBNs não cadastrados são ignorados
+     * @return Livros removidos
+     */
+    public synchronized List<Livro> removerLivrosPorIsbn(Collection<String> isbns) {
+        Set<Livro> selecionados = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String isbn : isbns) {
+            Livro livro = livrosPorIsbn.buscar(isbn);
+            if (livro != null) {
+                selecionados.add(livro);
+            }
+        }
+        return selecionados.isEmpty() ? new ArrayList<>() : removerLivros(selecionados::contains);
+    }
+    
+    private static boolean podeRemover(Livro livro) {
+        return livro.isDisponivel();
+    }
+    
+    private static List<String> isbnsDe(List<Livro> livros) {
+        List<String> isbns = new ArrayList<>(livros.size());
+        for (Livro livro : livros) {
+            isbns.add(livro.getIsbn());
+        }
+        return isbns;
+    }
+    
+    /**
+     * Retira um livro de todos os índices e o desvincula do catálogo (a lista de livros é tratada por quem chama)
+     */
+    private void desindexarLivro(Livro livro) {
+        reservasPorOrdinal.remove(livro.getOrdinal());
+        motorRecomendacao.removerLivro(livro.getOrdinal());
+        retirarDaMemoria(livro);
+    }
+    
+    /**
+     * Retira um livro dos índices em memória, sem mexer nas reservas nem nas recomendações do seu ordinal
+     */
+    private void retirarDaMemoria(Livro livro) {
+        livrosPorIsbn.remover(livro.getIsbn(), livro);
+        indiceBitmap.remover(livro);
+        indiceTitulos.remover(livro.getOrdinal(), livro.getTitulo());
+        indiceAutores.remover(livro.getOrdinal(), livro.getAutor());
+        livrosPorOrdinal.set(livro.getOrdinal(), null);
+        livro.setMapaDisponibilidade(null);
+        disponibilidade.definir(livro.getOrdinal(), false);
+        paginasCatalogo.marcar(livro.getOrdinal());
+        livro.setOrdinal(-1);
+        livro.setOuvinte(null);
+    }
+    
     /**
      * Busca livros por título
      * @param titulo Título ou parte do título a ser buscado
      * @return Lista de livros que correspondem à busca
      */
-    public List<Livro> buscarLivroPorTitulo(String titulo) {
+    public synchronized List<Livro> buscarLivroPorTitulo(String titulo) {
         if (titulo == null || titulo.trim().isEmpty()) {
             return new ArrayList<>();
         }
         
-        return livros.stream()
-                .filter(livro -> livro.getTitulo().toLowerCase().contains(titulo.toLowerCase()))
-                .collect(Collectors.toList());
+        String termo = titulo.toLowerCase();
+        List<Livro> resultado = cacheBuscas.obter("titulo:" + termo, versaoTitulos, () ->
+                livros.stream()
+                        .filter(livro -> livro.getTitulo().toLowerCase().contains(termo))
+                        .collect(Collectors.toList()));
+        return new ArrayList<>(resultado);
     }
     
     /**
@@ -94,34 +426,217 @@ public class BibliotecaManager {
      * @param autor Nome do autor ou parte do nome
      * @return Lista de livros que correspondem à busca
      */
-    public List<Livro> buscarLivroPorAutor(String autor) {
+    public synchronized List<Livro> buscarLivroPorAutor(String autor) {
         if (autor == null || autor.trim().isEmpty()) {
             return new ArrayList<>();
         }
         
-        return livros.stream()
-                .filter(livro -> livro.getAutor().toLowerCase().contains(autor.toLowerCase()))
-                .collect(Collectors.toList());
+        if (cargaSobDemanda) {
+            // Os livros do autor que estão só no repositório entram no catálogo antes da busca
+            for (Livro livro : repositorio.buscarLivrosPorAutor(autor)) {
+                if (!livrosPorIsbn.contem(livro)) {
+                    incluirLivroDoRepositorio(livro);
+                }
+            }
+        }
+        String termo = autor.toLowerCase();
+        List<Livro> resultado = cacheBuscas.obter("autor:" + termo, versaoAutores, () ->
+                livros.stream()
+                        .filter(livro -> livro.getAutor().toLowerCase().contains(termo))
+                        .collect(Collectors.toList()));
+        return new ArrayList<>(resultado);
+    }
+    
+    /**
+     * Busca livros por título tolerando erros de digitação e acentos
+     * Cada palavra digitada precisa corresponder, com pequena distância de edição, a uma palavra do título
+     * @param titulo Palavras do título, possivelmente com erros
+     * @return Livros encontrados, do mais parecido para o menos parecido
+     */
+    public synchronized List<Livro> buscarLivroPorTituloAproximado(String titulo) {
+        return livrosDosOrdinais(indiceTitulos.buscar(titulo));
+    }
+    
+    /**
+     * Busca livros por autor tolerando erros de digitação e acentos
+     * Por exemplo, "Tolkin" encontra "J.R.R. Tolkien" e "Machado de Asis" encontra "Machado de Assis"
+     * @param autor Palavras do nome do autor, possivelmente com erros
+     * @return Livros encontrados, do mais parecido para o menos parecido
+     */
+    public synchronized List<Livro> buscarLivroPorAutorAproximado(String autor) {
+        return livrosDosOrdinais(indiceAutores.buscar(autor));
+    }
+    
+    private List<Livro> livrosDosOrdinais(int[] ordinais) {
+        List<Livro> resultado = new ArrayList<>(ordinais.length);
+        for (int ordinal : ordinais) {
+            Livro livro = livrosPorOrdinal.get(ordinal);
+            if (livro != null) {
+                resultado.add(livro);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Indexa título e autor de um livro com ordinal já atribuído para a busca aproximada
+     * @param livro Livro do catálogo
+     */
+    private void indexarTexto(Livro livro) {
+        indiceTitulos.adicionar(livro.getOrdinal(), livro.getTitulo());
+        indiceAutores.adicionar(livro.getOrdinal(), livro.getAutor());
+    }
+    
+    /**
+     * Busca livros de um gênero (comparação exata)
+     * A comparação é feita pelo código do gênero na tabela de símbolos
+     * @param genero Gênero literário
+     * @return Lista de livros do gênero
+     */
+    public synchronized List<Livro> buscarLivrosPorGenero(String genero) {
+        int codigo = TabelaSimbolos.GENEROS.buscarCodigo(genero);
+        if (codigo == TabelaSimbolos.CODIGO_NULO) {
+            return new ArrayList<>();
+        }
+        
+        List<Livro> resultado = new ArrayList<>();
+        for (Livro livro : livros) {
+            if (livro.getCodigoGenero() == codigo) {
+                resultado.add(livro);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Busca livros de uma editora (comparação exata)
+     * A comparação é feita pelo código da editora na tabela de símbolos
+     * @param editora Nome da editora
+     * @return Lista de livros da editora
+     */
+    public synchronized List<Livro> buscarLivrosPorEditora(String editora) {
+        int codigo = TabelaSimbolos.EDITORAS.buscarCodigo(editora);
+        if (codigo == TabelaSimbolos.CODIGO_NULO) {
+            return new ArrayList<>();
+        }
+        
+        List<Livro> resultado = new ArrayList<>();
+        for (Livro livro : livros) {
+            if (livro.getCodigoEditora() == codigo) {
+                resultado.add(livro);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Conta os livros do catálogo agrupados por gênero
+     * @return Mapa de gênero para quantidade de livros
+     */
+    public synchronized Map<String, Integer> contarLivrosPorGenero() {
+        int[] contagem = new int[TabelaSimbolos.GENEROS.getTamanho()];
+        for (Livro livro : livros) {
+            int codigo = livro.getCodigoGenero();
+            if (codigo >= 0 && codigo < contagem.length) {
+                contagem[codigo]++;
+            }
+        }
+        return agruparContagem(contagem, TabelaSimbolos.GENEROS);
+    }
+    
+    /**
+     * Conta os livros do catálogo agrupados por editora
+     * @return Mapa de editora para quantidade de livros
+     */
+    public synchronized Map<String, Integer> contarLivrosPorEditora() {
+        int[] contagem = new int[TabelaSimbolos.EDITORAS.getTamanho()];
+        for (Livro livro : livros) {
+            int codigo = livro.getCodigoEditora();
+            if (codigo >= 0 && codigo < contagem.length) {
+                contagem[codigo]++;
+            }
+        }
+        return agruparContagem(contagem, TabelaSimbolos.EDITORAS);
+    }
+    
+    /**
+     * Converte uma contagem indexada por código em um mapa por texto
+     * @param contagem Quantidade por código
+     * @param tabela Tabela de símbolos usada para decodificar os códigos
+     * @return Mapa de texto para quantidade, apenas com quantidades positivas
+     */
+    private Map<String, Integer> agruparContagem(int[] contagem, TabelaSimbolos tabela) {
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (int codigo = 0; codigo < contagem.length; codigo++) {
+            if (contagem[codigo] > 0) {
+                resultado.put(tabela.decodificar(codigo), contagem[codigo]);
+            }
+        }
+        return resultado;
     }
     
     /**
      * Obtém todos os livros disponíveis
      * @return Lista de livros disponíveis
      */
-    public List<Livro> getLivrosDisponiveis() {
-        return livros.stream()
-                .filter(Livro::estaDisponivel)
-                .collect(Collectors.toList());
+    public synchronized List<Livro> getLivrosDisponiveis() {
+        // Varredura palavra a palavra do mapa de disponibilidade, sem consultar cada livro
+        List<Livro> resultado = new ArrayList<>(disponibilidade.contar());
+        disponibilidade.paraCada(ordinal -> resultado.add(livrosPorOrdinal.get(ordinal)));
+        return resultado;
+    }
+    
+    /**
+     * Conta os livros disponíveis sem montar a lista
+     * @return Quantidade de livros disponíveis
+     */
+    public int getQuantidadeLivrosDisponiveis() {
+        return disponibilidade.contar();
+    }
+    
+    /**
+     * Filtra livros combinando os índices de bitmap
+     * Exemplo: livros disponíveis de fantasia publicados a partir de 2000
+     * @param genero Gênero exato, ou null para não filtrar por gênero
+     * @param editora Editora exata, ou null para não filtrar por editora
+     * @param anoMinimo Ano mínimo de publicação (inclusivo), ou null
+     * @param anoMaximo Ano máximo de publicação (inclusivo), ou null
+     * @param somenteDisponiveis true para retornar apenas livros disponíveis
+     * @return Lista de livros que atendem a todos os filtros
+     */
+    public synchronized List<Livro> filtrarLivros(String genero, String editora, Integer anoMinimo, Integer anoMaximo,
+                                     boolean somenteDisponiveis) {
+        BitmapCompactado resultado = indiceBitmap.filtrar(genero, editora, anoMinimo, anoMaximo, somenteDisponiveis);
+        if (resultado == null) {
+            return getLivros();
+        }
+        return resolverOrdinais(resultado);
+    }
+    
+    /**
+     * Converte um bitmap de ordinais na lista de livros correspondente
+     * @param ordinais Bitmap de ordinais
+     * @return Lista de livros na ordem de entrada no catálogo
+     */
+    private List<Livro> resolverOrdinais(BitmapCompactado ordinais) {
+        List<Livro> resultado = new ArrayList<>(ordinais.getCardinalidade());
+        ordinais.paraCada(ordinal -> resultado.add(livrosPorOrdinal.get(ordinal)));
+        return resultado;
     }
     
     /**
      * Obtém todos os livros emprestados
      * @return Lista de livros emprestados
      */
-    public List<Livro> getLivrosEmprestados() {
-        return livros.stream()
-                .filter(livro -> !livro.estaDisponivel())
-                .collect(Collectors.toList());
+    public synchronized List<Livro> getLivrosEmprestados() {
+        List<Livro> resultado = new ArrayList<>();
+        for (int ordinal = 0; ordinal < livrosPorOrdinal.size(); ordinal++) {
+            Livro livro = livrosPorOrdinal.get(ordinal);
+            if (livro != null && !disponibilidade.estaDisponivel(ordinal)) {
+                resultado.add(livro);
+            }
+        }
+        return resultado;
     }
     
     // Métodos de gerenciamento de usuários
@@ -131,9 +646,29 @@ public class BibliotecaManager {
      * @param usuario Usuário a ser adicionado
      * @return true se foi adicionado com sucesso, false caso contrário
      */
-    public boolean adicionarUsuario(Usuario usuario) {
-        if (usuario != null && !usuarios.contains(usuario)) {
+    public synchronized boolean adicionarUsuario(Usuario usuario) {
+        if (usuario == null || usuariosPorId.containsKey(usuario.getId())) {
+            return false;
+        }
+        // Gravado antes de entrar no cadastro: se o repositório falhar, nada muda na memória
+        repositorio.salvarUsuario(usuario);
+        return incluirUsuario(usuario);
+    }
+    
+    /**
+     * Inclui um usuário no cadastro em memória, sem gravá-lo no repositório
+     * @return true se foi incluído, false se for null ou o ID já estiver cadastrado
+     */
+    private boolean incluirUsuario(Usuario usuario) {
+        if (usuario != null && !usuariosPorId.containsKey(usuario.getId())) {
             usuarios.add(usuario);
+            usuariosPorId.put(usuario.getId(), usuario);
+            indiceUsuarios.adicionar(usuario);
+            usuario.setOuvinte(ouvinteUsuarios);
+            if (usuario.isAtivo()) {
+                usuariosAtivos++;
+            }
+            versaoDados++;
             return true;
         }
         return false;
@@ -144,31 +679,146 @@ public class BibliotecaManager {
      * @param usuario Usuário a ser removido
      * @return true se foi removido com sucesso, false caso contrário
      */
-    public boolean removerUsuario(Usuario usuario) {
-        if (usuario != null && usuarios.contains(usuario)) {
-            // Verifica se o usuário não tem livros emprestados
-            if (usuario.getQuantidadeLivrosEmprestados() > 0) {
-                return false; // Não pode remover usuário com livros emprestados
+    public synchronized boolean removerUsuario(Usuario usuario) {
+        Usuario cadastrado = usuario != null ? usuariosPorId.get(usuario.getId()) : null;
+        if (cadastrado != null) {
+            // Verifica se o usuário não tem livros emprestados nem multas a pagar
+            if (!podeRemover(cadastrado)) {
+                return false; // Não pode remover usuário com livros emprestados ou multas pendentes
             }
-            usuarios.remove(usuario);
+            repositorio.removerUsuario(cadastrado.getId());
+            try {
+                arquivoRemovidos.arquivar(Collections.emptyList(), Collections.singletonList(cadastrado), hoje());
+            } catch (RuntimeException e) {
+                compensar(e, () -> repositorio.salvarUsuario(cadastrado));
+                throw e;
+            }
+            usuarios.remove(cadastrado);
+            desindexarUsuario(cadastrado);
+            cancelarReservas(reservante -> reservante == cadastrado);
+            versaoDados++;
             return true;
         }
         return false;
     }
     
+    /**
+     * Remove de uma só vez os usuários que atendem a um critério
+     * Usuários com livros emprestados ou multas pendentes são mantidos. A lista de usuários e as filas
+     * de reserva são percorridas uma única vez, os removidos são guardados no arquivo de removidos
+     * antes de sair do catálogo e o repositório os exclui em lote
+     * @param criterio Critério de remoção
+     * @return Usuários removidos
+     * @throws java.io.UncheckedIOException se o arquivo de removidos não puder ser gravado (nada é removido)
+     * @throws IllegalStateException se o repositório falhar (nada é removido)
+     */
+    public synchronized List<Usuario> removerUsuarios(Predicate<Usuario> criterio) {
+        List<Usuario> removidos = new ArrayList<>();
+        for (Usuario usuario : usuarios) {
+            if (podeRemover(usuario) && criterio.test(usuario)) {
+                removidos.add(usuario);
+            }
+        }
+        if (removidos.isEmpty()) {
+            return removidos;
+        }
+        List<String> ids = new ArrayList<>(removidos.size());
+        for (Usuario usuario : removidos) {
+            ids.add(usuario.getId());
+        }
+        repositorio.removerUsuarios(ids);
+        try {
+            arquivoRemovidos.arquivar(Collections.emptyList(), removidos, hoje());
+        } catch (RuntimeException e) {
+            compensar(e, () -> repositorio.salvarUsuarios(removidos));
+            throw e;
+        }
+        
+        Set<Usuario> selecionados = Collections.newSetFromMap(new IdentityHashMap<>(removidos.size() * 2));
+        selecionados.addAll(removidos);
+        usuarios.removeIf(selecionados::contains);
+        cancelarReservas(selecionados::contains);
+        for (Usuario usuario : removidos) {
+            desindexarUsuario(usuario);
+        }
+        versaoDados++;
+        return removidos;
+    }
+    
+    /**
+     * Remove de uma só vez os usuários de um conjunto de IDs (ver removerUsuarios)
+     * @param ids IDs dos usuários; IDs não cadastrados são ignorados
+     * @return Usuários removidos
+     */
+    public synchronized List<Usuario> removerUsuariosPorId(Collection<String> ids) {
+        Set<Usuario> selecionados = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String id : ids) {
+            Usuario usuario = usuariosPorId.get(id);
+            if (usuario != null) {
+                selecionados.add(usuario);
+            }
+        }
+        return selecionados.isEmpty() ? new ArrayList<>() : removerUsuarios(selecionados::contains);
+    }
+    
+    /**
+     * Remove os usuários inativos que não têm livros emprestados nem multas pendentes
+     * @return Usuários removidos
+     */
+    public synchronized List<Usuario> removerUsuariosInativos() {
+        return removerUsuarios(usuario -> !usuario.isAtivo());
+    }
+    
+    private static boolean podeRemover(Usuario usuario) {
+        return usuario.getQuantidadeLivrosEmprestados() == 0 && usuario.getSaldoDevedorCentavos() <= 0;
+    }
+    
+    /**
+     * Retira um usuário dos índices e o desvincula do catálogo
+     * (a lista de usuários e as filas de reserva são tratadas por quem chama)
+     */
+    private void desindexarUsuario(Usuario usuario) {
+        usuariosPorId.remove(usuario.getId());
+        indiceUsuarios.remover(usuario);
+        usuario.setOuvinte(null);
+        motorRecomendacao.removerUsuario(usuario);
+        if (usuario.isAtivo()) {
+            usuariosAtivos--;
+        }
+    }
+    
+    /**
+     * Obtém o arquivo dos livros e usuários removidos
+     * @return Arquivo de removidos (permite configurar um diretório em disco)
+     */
+    public ArquivoRemovidos getArquivoRemovidos() {
+        return arquivoRemovidos;
+    }
+    
     /**
      * Busca usuário por nome
+     * Cada palavra digitada deve ser o começo de uma palavra do nome, sem diferenciar maiúsculas e acentos
      * @param nome Nome ou parte do nome a ser buscado
      * @return Lista de usuários que correspondem à busca
      */
-    public List<Usuario> buscarUsuarioPorNome(String nome) {
+    public synchronized List<Usuario> buscarUsuarioPorNome(String nome) {
         if (nome == null || nome.trim().isEmpty()) {
             return new ArrayList<>();
         }
-        
-        return usuarios.stream()
-                .filter(usuario -> usuario.getNome().toLowerCase().contains(nome.toLowerCase()))
-                .collect(Collectors.toList());
+        return indiceUsuarios.buscar(nome, 0, true);
+    }
+    
+    /**
+     * Sugere usuários enquanto o nome, o e-mail ou o telefone é digitado
+     * @param texto Texto digitado até agora
+     * @param limite Quantidade máxima de sugestões
+     * @return Até limite usuários em que cada palavra digitada começa uma palavra do nome, e-mail ou telefone
+     */
+    public synchronized List<Usuario> autocompletarUsuarios(String texto, int limite) {
+        if (texto == null || limite <= 0) {
+            return new ArrayList<>();
+        }
+        return indiceUsuarios.buscar(texto, limite, false);
     }
     
     /**
@@ -176,11 +826,26 @@ public class BibliotecaManager {
      * @param id ID do usuário
      * @return Usuário encontrado ou null se não encontrado
      */
-    public Usuario buscarUsuarioPorId(String id) {
-        return usuarios.stream()
-                .filter(usuario -> usuario.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+    public synchronized Usuario buscarUsuarioPorId(String id) {
+        Usuario usuario = usuariosPorId.get(id);
+        if (usuario == null && cargaSobDemanda && id != null) {
+            usuario = carregarUsuario(repositorio, id);
+        }
+        return usuario;
+    }
+    
+    /**
+     * Busca livro por ISBN
+     * Aceita o ISBN com ou sem hífens, e o ISBN-10 encontra o livro cadastrado pelo ISBN-13
+     * @param isbn ISBN do livro
+     * @return Livro encontrado ou null se não encontrado
+     */
+    public synchronized Livro buscarLivroPorIsbn(String isbn) {
+        Livro livro = livrosPorIsbn.buscar(isbn);
+        if (livro == null && cargaSobDemanda && isbn != null) {
+            livro = carregarLivro(repositorio, isbn);
+        }
+        return livro;
     }
     
     // Métodos de gerenciamento de empréstimos
@@ -191,7 +856,7 @@ public class BibliotecaManager {
      * @param livro Livro a ser emprestado
      * @return true se o empréstimo foi realizado com sucesso, false caso contrário
      */
-    public boolean realizarEmprestimo(Usuario usuario, Livro livro) {
+    public synchronized boolean realizarEmprestimo(Usuario usuario, Livro livro) {
         if (usuario == null || livro == null) {
             return false;
         }
@@ -211,10 +876,46 @@ public class BibliotecaManager {
             return false;
         }
         
+        // Livros reservados são emprestados na ordem da fila
+        Deque<Usuario> reservas = filaDeReservas(livro.getOrdinal());
+        if (reservas != null && reservas.peekFirst() != usuario) {
+            return false;
+        }
+        
+        // Aplica a política da categoria do usuário e do gênero do livro
+        PoliticaEmprestimo politica = motorPoliticas.politicaPara(usuario, livro);
+        if (politica.getLimiteEmprestimos() > 0
+                && usuario.getQuantidadeLivrosEmprestados() >= politica.getLimiteEmprestimos()) {
+            return false;
+        }
+        
         // Realiza o empréstimo
-        if (livro.emprestar() && usuario.adicionarLivro(livro)) {
-            Emprestimo emprestimo = new Emprestimo(usuario, livro, LocalDate.now());
-            emprestimos.add(emprestimo);
+        DiaCorrente dia = diaCorrente();
+        Emprestimo emprestimo = new Emprestimo(usuario, livro, dia.data,
+                dia.dataPrevista(politica.getPrazoDias()), politica);
+        if (livro.emprestar()) {
+            if (!usuario.adicionarEmprestimo(emprestimo)) {
+                livro.devolver(); // Desfaz a marcação do livro
+                return false;
+            }
+            // Gravado antes dos índices: se o repositório falhar, as duas marcações acima são desfeitas
+            try {
+                repositorio.salvarEmprestimo(emprestimo);
+            } catch (RuntimeException e) {
+                usuario.removerLivro(livro);
+                compensar(e, livro::devolver);
+                throw e;
+            }
+            incluirNosEmAberto(emprestimo);
+            indiceVencimentos.adicionar(emprestimo);
+            if (reservas != null) {
+                removerReserva(livro.getOrdinal(), usuario);
+            }
+            registrarEmprestimoDoLivro(livro);
+            motorRecomendacao.registrarEmprestimo(usuario, livro.getOrdinal());
+            serieCirculacao.registrarEmprestimo(dia.segundosLocais(), livro.getCodigoGenero());
+            versaoDados++;
+            versaoPopulares++;
             return true;
         }
         
@@ -227,7 +928,7 @@ public class BibliotecaManager {
      * @param livro Livro a ser devolvido
      * @return true se a devolução foi realizada com sucesso, false caso contrário
      */
-    public boolean realizarDevolucao(Usuario usuario, Livro livro) {
+    public synchronized boolean realizarDevolucao(Usuario usuario, Livro livro) {
         if (usuario == null || livro == null) {
             return false;
         }
@@ -237,53 +938,421 @@ public class BibliotecaManager {
             return false;
         }
         
-        // Realiza a devolução
-        if (livro.devolver() && usuario.removerLivro(livro)) {
-            // Atualiza o empréstimo correspondente
-            Emprestimo emprestimo = buscarEmprestimoAtivo(usuario, livro);
+        // O usuário guarda a ligação direta com o empréstimo em aberto
+        Emprestimo emprestimo = usuario.getEmprestimoAtivo(livro);
+        if (emprestimo == null) {
+            // Livro registrado no usuário sem passar pelo gerenciador
+            emprestimo = buscarEmprestimoAtivo(usuario, livro);
+        }
+        
+        // O empréstimo é fechado e a multa lançada primeiro na memória; o estado anterior do empréstimo
+        // fica em variáveis locais para desfazer a devolução se o livro ou o repositório falharem
+        DiaCorrente dia = diaCorrente();
+        LocalDate devolucaoAnterior = null;
+        String statusAnterior = null;
+        double multaAnterior = 0;
+        LancamentoMulta multa = null;
+        if (emprestimo != null) {
+            devolucaoAnterior = emprestimo.getDataDevolucao();
+            statusAnterior = emprestimo.getStatus();
+            multaAnterior = emprestimo.getMulta();
+            emprestimo.realizarDevolucao(dia.data);
+            multa = livroCaixa.registrarMulta(emprestimo);
+        }
+        
+        // Realiza a devolução; o empréstimo é a última gravação, e só depois dela os índices mudam
+        boolean devolvido;
+        try {
+            devolvido = livro.devolver();
+            if (devolvido && emprestimo != null) {
+                try {
+                    repositorio.salvarUsuario(usuario); // saldo devedor
+                    repositorio.salvarEmprestimo(emprestimo);
+                } catch (RuntimeException e) {
+                    // O livro volta a constar como emprestado e o saldo é regravado sem a multa
+                    compensar(e, livro::emprestar);
+                    desfazerDevolucao(emprestimo, multa, devolucaoAnterior, statusAnterior, multaAnterior);
+                    compensar(e, () -> repositorio.salvarUsuario(usuario));
+                    throw e;
+                }
+            }
+        } catch (RuntimeException e) {
+            if (emprestimo != null && emprestimo.foiDevolvido()) {
+                desfazerDevolucao(emprestimo, multa, devolucaoAnterior, statusAnterior, multaAnterior);
+            }
+            throw e;
+        }
+        if (!devolvido) {
             if (emprestimo != null) {
-                emprestimo.realizarDevolucao(LocalDate.now());
+                desfazerDevolucao(emprestimo, multa, devolucaoAnterior, statusAnterior, multaAnterior);
             }
-            return true;
+            return false;
         }
         
-        return false;
+        usuario.removerLivro(livro);
+        paginasCatalogo.marcar(livro.getOrdinal());
+        serieCirculacao.registrarDevolucao(dia.segundosLocais(), livro.getCodigoGenero());
+        // Empréstimos devolvidos saem da lista em aberto e vão para o histórico
+        if (emprestimo != null) {
+            removerDosEmAberto(emprestimo);
+            indiceVencimentos.remover(emprestimo);
+            historico.adicionar(emprestimo);
+        }
+        versaoDados++;
+        return true;
     }
     
     /**
-     * Busca um empréstimo ativo para usuário e livro específicos
-     * @param usuario Usuário do empréstimo
-     * @param livro Livro do empréstimo
-     * @return Empréstimo ativo ou null se não encontrado
+     * Desfaz na memória uma devolução que não chegou ao fim: estorna a multa e restaura o empréstimo
      */
-    private Emprestimo buscarEmprestimoAtivo(Usuario usuario, Livro livro) {
-        return emprestimos.stream()
-                .filter(emprestimo -> emprestimo.getUsuario().equals(usuario) && 
-                                     emprestimo.getLivro().equals(livro) && 
-                                     emprestimo.estaAtivo())
-                .findFirst()
-                .orElse(null);
+    private void desfazerDevolucao(Emprestimo emprestimo, LancamentoMulta multa, LocalDate devolucaoAnterior,
+                                   String statusAnterior, double multaAnterior) {
+        if (multa != null) {
+            livroCaixa.estornar(multa);
+        }
+        emprestimo.setDataDevolucao(devolucaoAnterior);
+        emprestimo.setStatus(statusAnterior);
+        emprestimo.setMulta(multaAnterior);
     }
     
     /**
-     * Obtém todos os empréstimos ativos
-     * @return Lista de empréstimos ativos
+     * Renova um empréstimo em aberto por mais um prazo da política do empréstimo
+     * Não é permitida quando o livro tem reservas, quando o empréstimo está em atraso
+     * ou quando o limite de renovações da política já foi atingido
+     * @param usuario Usuário do empréstimo
+     * @param livro Livro emprestado
+     * @return true se o empréstimo foi renovado, false caso contrário
      */
-    public List<Emprestimo> getEmprestimosAtivos() {
-        return emprestimos.stream()
-                .filter(Emprestimo::estaAtivo)
-                .collect(Collectors.toList());
+    public synchronized boolean renovarEmprestimo(Usuario usuario, Livro livro) {
+        if (usuario == null || livro == null || !usuario.temLivroEmprestado(livro)) {
+            return false;
+        }
+        
+        Emprestimo emprestimo = usuario.getEmprestimoAtivo(livro);
+        if (emprestimo == null) {
+            emprestimo = buscarEmprestimoAtivo(usuario, livro);
+        }
+        if (emprestimo == null || filaDeReservas(livro.getOrdinal()) != null) {
+            return false;
+        }
+        
+        // Apenas o grupo do dia anterior e o do novo dia são alterados no índice
+        LocalDate dataPrevistaAnterior = emprestimo.getDataDevolucaoPrevista();
+        if (!emprestimo.renovar(hoje())) {
+            return false;
+        }
+        // Gravado antes do índice; se o repositório falhar, a renovação é desfeita
+        try {
+            repositorio.salvarEmprestimo(emprestimo);
+        } catch (RuntimeException e) {
+            emprestimo.setDataDevolucaoPrevista(dataPrevistaAnterior);
+            emprestimo.setRenovacoes(emprestimo.getRenovacoes() - 1);
+            throw e;
+        }
+        indiceVencimentos.reindexar(emprestimo, dataPrevistaAnterior);
+        versaoDados++;
+        return true;
     }
     
     /**
-     * Obtém todos os empréstimos em atraso
-     * @return Lista de empréstimos em atraso
+     * Registra o pagamento de multas de um usuário
+     * @param usuario Usuário cadastrado que pagou
+     * @param valor Valor pago (o que exceder o saldo devedor é ignorado)
+     * @return true se o pagamento foi lançado, false caso contrário
      */
-    public List<Emprestimo> getEmprestimosAtrasados() {
-        return emprestimos.stream()
-                .filter(emprestimo -> emprestimo.verificarAtraso())
-                .collect(Collectors.toList());
-    }
+    public synchronized boolean registrarPagamento(Usuario usuario, double valor) {
+        if (usuario == null || usuariosPorId.get(usuario.getId()) != usuario) {
+            return false;
+        }
+        LancamentoMulta pagamento = livroCaixa.registrarPagamento(usuario, valor, hoje());
+        if (pagamento == null) {
+            return false;
+        }
+        try {
+            repositorio.salvarUsuario(usuario);
+        } catch (RuntimeException e) {
+            livroCaixa.estornar(pagamento);
+            throw e;
+        }
+        versaoDados++;
+        return true;
+    }
+    
+    /**
+     * Obtém o livro-caixa de multas e pagamentos
+     * @return Livro-caixa de multas
+     */
+    public LivroCaixaMultas getLivroCaixa() {
+        return livroCaixa;
+    }
+    
+    /**
+     * Obtém a série temporal de empréstimos e devoluções
+     * @return Série agregada por minuto, hora e dia (total e por gênero)
+     */
+    public SerieCirculacao getSerieCirculacao() {
+        return serieCirculacao;
+    }
+    
+    // Métodos de reservas
+    
+    /**
+     * Entra na fila de reservas de um livro emprestado
+     * @param usuario Usuário que deseja o livro
+     * @param livro Livro do catálogo
+     * @return true se a reserva foi registrada, false caso contrário
+     */
+    public synchronized boolean reservarLivro(Usuario usuario, Livro livro) {
+        if (usuario == null || livro == null || livro.getOrdinal() < 0) {
+            return false;
+        }
+        // Livros disponíveis podem ser emprestados diretamente
+        if (livro.estaDisponivel() && !reservasPorOrdinal.containsKey(livro.getOrdinal())) {
+            return false;
+        }
+        if (usuario.temLivroEmprestado(livro)) {
+            return false;
+        }
+        Deque<Usuario> reservas = reservasPorOrdinal.computeIfAbsent(livro.getOrdinal(), o -> new ArrayDeque<>());
+        for (Usuario reservante : reservas) {
+            if (reservante == usuario) {
+                return false; // Usuário já está na fila
+            }
+        }
+        reservas.addLast(usuario);
+        versaoDados++;
+        return true;
+    }
+    
+    /**
+     * Sai da fila de reservas de um livro
+     * @param usuario Usuário que havia reservado
+     * @param livro Livro reservado
+     * @return true se a reserva existia e foi cancelada
+     */
+    public synchronized boolean cancelarReserva(Usuario usuario, Livro livro) {
+        if (usuario == null || livro == null || !removerReserva(livro.getOrdinal(), usuario)) {
+            return false;
+        }
+        versaoDados++;
+        return true;
+    }
+    
+    /**
+     * Obtém a quantidade de usuários aguardando um livro
+     * @param livro Livro do catálogo
+     * @return Tamanho da fila de reservas
+     */
+    public synchronized int getQuantidadeReservas(Livro livro) {
+        Deque<Usuario> reservas = livro != null ? reservasPorOrdinal.get(livro.getOrdinal()) : null;
+        return reservas != null ? reservas.size() : 0;
+    }
+    
+    /**
+     * Obtém a fila de reservas de um livro
+     * Sem nenhuma reserva no catálogo (o caso comum) responde sem converter o ordinal em chave do mapa
+     * @param ordinal Ordinal do livro
+     * @return Fila de reservas, ou null se o livro não tem reservas
+     */
+    private Deque<Usuario> filaDeReservas(int ordinal) {
+        return reservasPorOrdinal.isEmpty() ? null : reservasPorOrdinal.get(ordinal);
+    }
+    
+    /**
+     * Retira um usuário da fila de um livro, descartando filas vazias
+     * @param ordinal Ordinal do livro
+     * @param usuario Usuário a ser retirado
+     * @return true se o usuário estava na fila
+     */
+    private boolean removerReserva(int ordinal, Usuario usuario) {
+        Deque<Usuario> reservas = reservasPorOrdinal.get(ordinal);
+        if (reservas == null) {
+            return false;
+        }
+        boolean removido = reservas.removeIf(reservante -> reservante == usuario);
+        if (reservas.isEmpty()) {
+            reservasPorOrdinal.remove(ordinal);
+        }
+        return removido;
+    }
+    
+    /**
+     * Retira os usuários removidos do catálogo de todas as filas de reservas, em uma única passagem
+     * @param removido Identifica os usuários removidos
+     */
+    private void cancelarReservas(Predicate<Usuario> removido) {
+        Iterator<Deque<Usuario>> filas = reservasPorOrdinal.values().iterator();
+        while (filas.hasNext()) {
+            Deque<Usuario> reservas = filas.next();
+            reservas.removeIf(removido);
+            if (reservas.isEmpty()) {
+                filas.remove();
+            }
+        }
+    }
+    
+    /**
+     * Busca um empréstimo em aberto (ativo ou atrasado) para usuário e livro específicos
+     * @param usuario Usuário do empréstimo
+     * @param livro Livro do empréstimo
+     * @return Empréstimo em aberto ou null se não encontrado
+     */
+    private Emprestimo buscarEmprestimoAtivo(Usuario usuario, Livro livro) {
+        return emprestimos.stream()
+                .filter(emprestimo -> emprestimo.getUsuario().equals(usuario) && 
+                                     emprestimo.getLivro().equals(livro) && 
+                                     !emprestimo.foiDevolvido())
+                .findFirst()
+                .orElse(null);
+    }
+    
+    /**
+     * Inclui um empréstimo no fim da lista de empréstimos em aberto, guardando a sua posição
+     * @param emprestimo Empréstimo em aberto
+     */
+    private void incluirNosEmAberto(Emprestimo emprestimo) {
+        emprestimo.setPosicaoEmAberto(emprestimos.size());
+        emprestimos.add(emprestimo);
+    }
+    
+    /**
+     * Remove um empréstimo da lista de empréstimos em aberto em tempo constante
+     * O último empréstimo da lista ocupa a posição liberada. Compara por identidade,
+     * pois equals considera apenas usuário e livro
+     * @param emprestimo Empréstimo a ser removido
+     */
+    private void removerDosEmAberto(Emprestimo emprestimo) {
+        int posicao = emprestimo.getPosicaoEmAberto();
+        if (posicao < 0 || posicao >= emprestimos.size() || emprestimos.get(posicao) != emprestimo) {
+            // Posição desatualizada: procura o empréstimo na lista
+            posicao = -1;
+            for (int i = 0; i < emprestimos.size() && posicao < 0; i++) {
+                if (emprestimos.get(i) == emprestimo) {
+                    posicao = i;
+                }
+            }
+            if (posicao < 0) {
+                return;
+            }
+        }
+        Emprestimo ultimo = emprestimos.remove(emprestimos.size() - 1);
+        if (ultimo != emprestimo) {
+            emprestimos.set(posicao, ultimo);
+            ultimo.setPosicaoEmAberto(posicao);
+        }
+        emprestimo.setPosicaoEmAberto(-1);
+    }
+    
+    /**
+     * Incrementa o contador de empréstimos de um livro
+     * @param livro Livro emprestado
+     */
+    private void registrarEmprestimoDoLivro(Livro livro) {
+        int ordinal = livro.getOrdinal();
+        if (ordinal < 0) {
+            return;
+        }
+        if (ordinal >= emprestimosPorOrdinal.length) {
+            emprestimosPorOrdinal = Arrays.copyOf(emprestimosPorOrdinal,
+                    Math.max(ordinal + 1, emprestimosPorOrdinal.length * 2));
+        }
+        emprestimosPorOrdinal[ordinal]++;
+        paginasCatalogo.marcar(ordinal);
+    }
+    
+    /**
+     * Obtém os empréstimos devolvidos cuja data de empréstimo está no período informado
+     * Lê apenas as partições do histórico que cruzam o período
+     * @param inicio Data inicial (inclusiva), ou null para sem limite
+     * @param fim Data final (inclusiva), ou null para sem limite
+     * @return Lista de empréstimos devolvidos no período
+     */
+    public List<Emprestimo> getHistoricoEmprestimos(LocalDate inicio, LocalDate fim) {
+        // O disco é lido fora do bloqueio; só a ligação de cada registro ao catálogo o obtém
+        List<Emprestimo> resultado = new ArrayList<>();
+        historico.paraCada(inicio, fim, this::usuarioEmMemoria, this::livroEmMemoria, resultado::add);
+        return resultado;
+    }
+    
+    private synchronized Usuario usuarioEmMemoria(String id) {
+        return usuariosPorId.get(id);
+    }
+    
+    private synchronized Livro livroEmMemoria(String isbn) {
+        return livrosPorIsbn.buscar(isbn);
+    }
+    
+    /**
+     * Obtém o arquivo do histórico de empréstimos devolvidos
+     * Permite configurar o diretório em disco e o arquivamento em segundo plano
+     * @return Arquivo do histórico
+     */
+    public ArquivoEmprestimos getArquivoHistorico() {
+        return historico;
+    }
+    
+    /**
+     * Recomenda livros emprestados pelos mesmos usuários que emprestaram o livro informado
+     * @param livro Livro de referência
+     * @param quantidade Quantidade máxima de recomendações
+     * @return Lista de livros recomendados, do mais para o menos relacionado
+     */
+    public synchronized List<Livro> recomendarLivros(Livro livro, int quantidade) {
+        List<Livro> recomendados = new ArrayList<>();
+        if (livro == null || quantidade <= 0) {
+            return recomendados;
+        }
+        for (int ordinal : motorRecomendacao.recomendar(livro.getOrdinal(), quantidade)) {
+            Livro recomendado = livrosPorOrdinal.get(ordinal);
+            if (recomendado != null) { // livros removidos do catálogo são ignorados
+                recomendados.add(recomendado);
+            }
+        }
+        return recomendados;
+    }
+    
+    /**
+     * Obtém todos os empréstimos ativos
+     * @return Lista de empréstimos ativos
+     */
+    public synchronized List<Emprestimo> getEmprestimosAtivos() {
+        return emprestimos.stream()
+                .filter(Emprestimo::estaAtivo)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Obtém todos os empréstimos em atraso
+     * Consulta apenas os dias já vencidos do índice de vencimentos
+     * @return Lista de empréstimos em atraso, em ordem de data prevista de devolução
+     */
+    public synchronized List<Emprestimo> getEmprestimosAtrasados() {
+        LocalDate hoje = hoje();
+        List<Emprestimo> atrasados = indiceVencimentos.getVencidos(hoje);
+        for (Emprestimo emprestimo : atrasados) {
+            emprestimo.verificarAtraso(hoje); // marca o status como atrasado
+        }
+        return atrasados;
+    }
+    
+    /**
+     * Obtém os empréstimos em aberto com devolução prevista dentro do período informado
+     * Consulta apenas os dias do período no índice de vencimentos
+     * @param inicio Data inicial (inclusiva)
+     * @param fim Data final (inclusiva)
+     * @return Lista de empréstimos, em ordem de data prevista de devolução
+     */
+    public synchronized List<Emprestimo> getVencimentosEntre(LocalDate inicio, LocalDate fim) {
+        return indiceVencimentos.getVencimentosEntre(inicio, fim);
+    }
+    
+    /**
+     * Obtém a data de hoje segundo o relógio da biblioteca
+     * @return Data atual
+     */
+    public LocalDate getDataAtual() {
+        return hoje();
+    }
     
     // Métodos de relatórios
     
@@ -292,7 +1361,7 @@ public class BibliotecaManager {
      * @return String com o relatório
      */
     public String gerarRelatorioLivrosEmprestados() {
-        List<Livro> livrosEmprestados = getLivrosEmprestados();
+        List<Livro> livrosEmprestados = capturarSnapshot().getLivrosEmprestados();
         StringBuilder relatorio = new StringBuilder();
         relatorio.append("=== RELATÓRIO DE LIVROS EMPRESTADOS ===\n");
         relatorio.append("Total de livros emprestados: ").append(livrosEmprestados.size()).append("\n\n");
@@ -306,23 +1375,49 @@ public class BibliotecaManager {
     
     /**
      * Gera relatório de usuários com multas
+     * O bloqueio do catálogo dura apenas a cópia dos saldos devedores; os lançamentos são copiados
+     * sob o bloqueio do próprio livro-caixa, e toda a formatação acontece fora dos dois
      * @return String com o relatório
      */
     public String gerarRelatorioUsuariosComMultas() {
-        List<Emprestimo> emprestimosComMulta = emprestimos.stream()
-                .filter(emprestimo -> emprestimo.getMulta() > 0)
-                .collect(Collectors.toList());
+        List<String> devedores = new ArrayList<>();
+        List<Long> saldos = new ArrayList<>();
+        List<LancamentoMulta> lancamentos;
+        synchronized (this) {
+            for (Usuario usuario : usuarios) {
+                if (usuario.getSaldoDevedorCentavos() > 0) {
+                    devedores.add(usuario.getNome());
+                    saldos.add(usuario.getSaldoDevedorCentavos());
+                }
+            }
+            lancamentos = livroCaixa.getLancamentos();
+        }
         
+        // As multas vêm do livro-caixa, sem percorrer o histórico de empréstimos
+        int quantidadeMultas = 0;
+        StringBuilder multas = new StringBuilder();
+        for (LancamentoMulta lancamento : lancamentos) {
+            if (lancamento.ehMulta()) {
+                quantidadeMultas++;
+                multas.append("Usuário: ").append(lancamento.getUsuario().getNome())
+                        .append(" | Livro: ").append(lancamento.getTituloLivro())
+                        .append(" | Multa: R$ ").append(String.format("%.2f", lancamento.getValor()))
+                        .append(" | Dias de atraso: ").append(lancamento.getDiasAtraso())
+                        .append("\n");
+            }
+        }
         StringBuilder relatorio = new StringBuilder();
         relatorio.append("=== RELATÓRIO DE USUÁRIOS COM MULTAS ===\n");
-        relatorio.append("Total de empréstimos com multa: ").append(emprestimosComMulta.size()).append("\n\n");
+        relatorio.append("Total de empréstimos com multa: ").append(quantidadeMultas).append("\n\n");
+        relatorio.append(multas);
         
-        for (Emprestimo emprestimo : emprestimosComMulta) {
-            relatorio.append("Usuário: ").append(emprestimo.getUsuario().getNome())
-                    .append(" | Livro: ").append(emprestimo.getLivro().getTitulo())
-                    .append(" | Multa: R$ ").append(String.format("%.2f", emprestimo.getMulta()))
-                    .append(" | Dias de atraso: ").append(emprestimo.getDiasAtraso())
-                    .append("\n");
+        // Saldo devedor atual, mantido incrementalmente em cada usuário
+        if (!devedores.isEmpty()) {
+            relatorio.append("\nSaldo devedor por usuário:\n");
+            for (int i = 0; i < devedores.size(); i++) {
+                relatorio.append(devedores.get(i)).append(": R$ ")
+                        .append(String.format("%.2f", saldos.get(i) / 100.0)).append("\n");
+            }
         }
         
         return relatorio.toString();
@@ -333,46 +1428,831 @@ public class BibliotecaManager {
      * @return String com o relatório completo
      */
     public String gerarRelatorioGeral() {
+        // Todos os números vêm do mesmo retrato, mesmo que empréstimos ocorram durante a formatação
+        SnapshotBiblioteca snapshot = capturarSnapshot();
         StringBuilder relatorio = new StringBuilder();
         relatorio.append("=== RELATÓRIO GERAL DA BIBLIOTECA ===\n\n");
         
         // Estatísticas gerais
         relatorio.append("ESTATÍSTICAS GERAIS:\n");
-        relatorio.append("Total de livros: ").append(livros.size()).append("\n");
-        relatorio.append("Livros disponíveis: ").append(getLivrosDisponiveis().size()).append("\n");
-        relatorio.append("Livros emprestados: ").append(getLivrosEmprestados().size()).append("\n");
-        relatorio.append("Total de usuários: ").append(usuarios.size()).append("\n");
-        relatorio.append("Usuários ativos: ").append(usuarios.stream().filter(Usuario::isAtivo).count()).append("\n");
-        relatorio.append("Total de empréstimos: ").append(emprestimos.size()).append("\n");
-        relatorio.append("Empréstimos ativos: ").append(getEmprestimosAtivos().size()).append("\n");
-        relatorio.append("Empréstimos em atraso: ").append(getEmprestimosAtrasados().size()).append("\n\n");
+        relatorio.append("Total de livros: ").append(snapshot.getTotalLivros()).append("\n");
+        relatorio.append("Livros disponíveis: ").append(snapshot.getLivrosDisponiveis()).append("\n");
+        relatorio.append("Livros emprestados: ").append(snapshot.getQuantidadeLivrosEmprestados()).append("\n");
+        relatorio.append("Total de usuários: ").append(snapshot.getTotalUsuarios()).append("\n");
+        relatorio.append("Usuários ativos: ").append(snapshot.getUsuariosAtivos()).append("\n");
+        relatorio.append("Total de empréstimos: ").append(snapshot.getTotalEmprestimos()).append("\n");
+        relatorio.append("Empréstimos ativos: ").append(snapshot.getEmprestimosAtivos()).append("\n");
+        relatorio.append("Empréstimos em atraso: ").append(snapshot.getEmprestimosAtrasados()).append("\n\n");
         
         // Livros mais populares
         relatorio.append("LIVROS MAIS POPULARES:\n");
+        relatorio.append(snapshot.getTrechoLivrosPopulares());
+        
+        return relatorio.toString();
+    }
+    
+    /**
+     * Obtém um retrato consistente de toda a biblioteca
+     * Enquanto nenhuma escrita acontecer, o último retrato publicado é reaproveitado sem bloqueio;
+     * caso contrário, um novo retrato é capturado (o bloqueio dura apenas a leitura dos contadores
+     * e a cópia das páginas do catálogo alteradas desde o retrato anterior)
+     * @return Retrato imutável da versão atual
+     */
+    public SnapshotBiblioteca capturarSnapshot() {
+        SnapshotBiblioteca snapshot = snapshotAtual;
+        if (snapshot != null && snapshot.getVersao() == versaoDados
+                && snapshot.getDataCaptura().equals(hoje())) {
+            return snapshot;
+        }
+        return capturarNovoSnapshot();
+    }
+    
+    /**
+     * Captura e publica um novo retrato a partir do estado atual
+     * Sob o bloqueio só são lidos os contadores e publicadas as páginas do catálogo; as cópias dos
+     * livros emprestados e o trecho dos populares são montados depois, a partir das páginas imutáveis.
+     * A captura não altera nada: os atrasos são contados pelo índice de vencimentos, sem mudar o status
+     * @return Retrato recém-capturado
+     */
+    private SnapshotBiblioteca capturarNovoSnapshot() {
+        long versao;
+        long versaoTrecho;
+        LocalDate data;
+        int totalLivros;
+        int disponiveis;
+        int totalUsuarios;
+        int ativosUsuarios;
+        long totalEmprestimos;
+        int atrasados;
+        int ativos;
+        PaginasCatalogo.Pagina[] paginas;
+        synchronized (this) {
+            versao = versaoDados;
+            versaoTrecho = versaoPopulares;
+            data = hoje();
+            totalLivros = livros.size();
+            disponiveis = disponibilidade.contar();
+            totalUsuarios = usuarios.size();
+            ativosUsuarios = usuariosAtivos;
+            totalEmprestimos = emprestimos.size() + historico.getQuantidade();
+            atrasados = indiceVencimentos.contarVencidos(data);
+            ativos = emprestimos.size() - atrasados;
+            paginas = paginasCatalogo.publicar(livrosPorOrdinal, emprestimosPorOrdinal);
+        }
+        
+        List<Livro> copiasEmprestados = new ArrayList<>();
+        for (PaginasCatalogo.Pagina pagina : paginas) {
+            for (int i = 0; i < pagina.getTamanho(); i++) {
+                if (pagina.getEmprestado(i) != null) {
+                    copiasEmprestados.add(pagina.getEmprestado(i));
+                }
+            }
+        }
+        String populares = cacheRelatorios.obter("populares", versaoTrecho, () -> gerarTrechoLivrosPopulares(paginas));
+        
+        SnapshotBiblioteca snapshot = new SnapshotBiblioteca(versao, data, totalLivros, disponiveis,
+                totalUsuarios, ativosUsuarios, totalEmprestimos, ativos, atrasados, copiasEmprestados, populares);
+        // Um retrato mais antigo, terminado depois, não substitui o mais novo
+        synchronized (this) {
+            if (snapshotAtual == null || snapshotAtual.getVersao() <= versao) {
+                snapshotAtual = snapshot;
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Gera o trecho do relatório geral com os livros mais populares
+     * @param paginas Páginas publicadas do catálogo
+     * @return String com um livro por linha e sua quantidade de empréstimos
+     */
+    private static String gerarTrechoLivrosPopulares(PaginasCatalogo.Pagina[] paginas) {
+        StringBuilder trecho = new StringBuilder();
         // Implementação simplificada - em um sistema real seria mais complexo
+        for (PaginasCatalogo.Pagina pagina : paginas) {
+            for (int i = 0; i < pagina.getTamanho(); i++) {
+                int emprestimosDoLivro = pagina.getEmprestimos(i);
+                if (pagina.getTitulo(i) != null && emprestimosDoLivro > 0) {
+                    trecho.append(pagina.getTitulo(i)).append(": ").append(emprestimosDoLivro).append(" empréstimos\n");
+                }
+            }
+        }
+        return trecho.toString();
+    }
+    
+    /**
+     * Trata a alteração de um atributo de um livro do catálogo
+     * O livro é gravado no repositório antes de qualquer índice mudar: se a gravação falhar,
+     * a exceção chega ao setter, que restaura o valor anterior, e o catálogo fica como estava.
+     * Incrementa apenas as versões das consultas afetadas pelo campo alterado
+     * @param livro Livro alterado
+     * @param campo Nome do campo alterado
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    private synchronized void aoAlterarLivro(Livro livro, String campo, Object valorAnterior) {
+        if (Livro.CAMPO_ISBN.equals(campo)) {
+            String isbnAnterior = (String) valorAnterior;
+            if (!livro.estaDisponivel()) {
+                // O ISBN é a chave do livro nos empréstimos em aberto do usuário
+                throw new IllegalArgumentException("Não é possível alterar o ISBN de um livro emprestado");
+            }
+            Livro existente = livrosPorIsbn.buscar(livro.getIsbn());
+            if (existente != null && existente != livro) {
+                // Livro.setIsbn restaura o valor anterior ao receber esta exceção
+                throw new IllegalArgumentException("ISBN já cadastrado no catálogo: " + livro.getIsbn());
+            }
+            // O registro novo é gravado antes de o antigo ser excluído
+            repositorio.salvarLivro(livro);
+            try {
+                repositorio.removerLivro(isbnAnterior);
+            } catch (RuntimeException e) {
+                compensar(e, () -> repositorio.removerLivro(livro.getIsbn()));
+                throw e;
+            }
+            livrosPorIsbn.remover(isbnAnterior, livro);
+            livrosPorIsbn.colocar(livro);
+            // A contagem de popularidade compara livros pelo ISBN
+            versaoPopulares++;
+        } else if (!Livro.CAMPO_DISPONIVEL.equals(campo)) {
+            // A disponibilidade não é gravada: os empréstimos em aberto já a registram
+            repositorio.salvarLivro(livro);
+        }
+        versaoDados++;
+        paginasCatalogo.marcar(livro.getOrdinal());
+        indiceBitmap.atualizar(livro, campo, valorAnterior);
+        if (Livro.CAMPO_TITULO.equals(campo)) {
+            indiceTitulos.remover(livro.getOrdinal(), (String) valorAnterior);
+            indiceTitulos.adicionar(livro.getOrdinal(), livro.getTitulo());
+            versaoTitulos++;
+            versaoPopulares++;
+        } else if (Livro.CAMPO_AUTOR.equals(campo)) {
+            indiceAutores.remover(livro.getOrdinal(), (String) valorAnterior);
+            indiceAutores.adicionar(livro.getOrdinal(), livro.getAutor());
+            versaoAutores++;
+        }
+    }
+    
+    /**
+     * Trata a alteração de um atributo de um usuário do catálogo
+     * Como nos livros, o repositório é gravado antes dos índices; se a gravação falhar,
+     * o setter restaura o valor anterior. Mantém o índice por ID atualizado sem precisar reconstruí-lo
+     * @param usuario Usuário alterado
+     * @param campo Nome do campo alterado
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    private synchronized void aoAlterarUsuario(Usuario usuario, String campo, Object valorAnterior) {
+        if (Usuario.CAMPO_ID.equals(campo)) {
+            String idAnterior = (String) valorAnterior;
+            Usuario existente = usuariosPorId.get(usuario.getId());
+            if (existente != null && existente != usuario) {
+                // Usuario.setId restaura o valor anterior ao receber esta exceção
+                throw new IllegalArgumentException("ID já cadastrado no catálogo: " + usuario.getId());
+            }
+            gravarNovoId(usuario, idAnterior);
+            if (usuariosPorId.get(idAnterior) == usuario) {
+                usuariosPorId.remove(idAnterior);
+            }
+            usuariosPorId.put(usuario.getId(), usuario);
+            versaoDados++;
+            return;
+        }
+        repositorio.salvarUsuario(usuario);
+        versaoDados++;
+        if (Usuario.CAMPO_NOME.equals(campo) || Usuario.CAMPO_EMAIL.equals(campo)
+                || Usuario.CAMPO_TELEFONE.equals(campo)) {
+            indiceUsuarios.atualizar(usuario);
+        } else if (Usuario.CAMPO_ATIVO.equals(campo)) {
+            boolean estavaAtivo = (Boolean) valorAnterior;
+            if (estavaAtivo != usuario.isAtivo()) {
+                usuariosAtivos += usuario.isAtivo() ? 1 : -1;
+            }
+        }
+    }
+    
+    /**
+     * Grava no repositório a troca de ID de um usuário: o registro novo, os empréstimos em aberto
+     * apontando para ele e, por último, a exclusão do registro antigo
+     * Se alguma gravação falhar, os empréstimos voltam a apontar para o ID anterior e o registro novo é excluído
+     */
+    private void gravarNovoId(Usuario usuario, String idAnterior) {
+        List<Emprestimo> doUsuario = new ArrayList<>();
+        for (Emprestimo emprestimo : emprestimos) {
+            if (emprestimo.getUsuario() == usuario) {
+                doUsuario.add(emprestimo);
+            }
+        }
+        String idNovo = usuario.getId();
+        repositorio.salvarUsuario(usuario);
+        try {
+            for (Emprestimo emprestimo : doUsuario) {
+                repositorio.salvarEmprestimo(emprestimo);
+            }
+            repositorio.removerUsuario(idAnterior);
+        } catch (RuntimeException e) {
+            compensar(e, () -> {
+                // O ID anterior volta sem avisar o catálogo, apenas para regravar os empréstimos
+                usuario.setOuvinte(null);
+                try {
+                    usuario.setId(idAnterior);
+                    for (Emprestimo emprestimo : doUsuario) {
+                        repositorio.salvarEmprestimo(emprestimo);
+                    }
+                    repositorio.removerUsuario(idNovo);
+                } finally {
+                    usuario.setId(idNovo);
+                    usuario.setOuvinte(ouvinteUsuarios);
+                }
+            });
+            throw e;
+        }
+    }
+    
+    /**
+     * Desfaz, na medida do possível, uma gravação parcial no repositório depois de uma falha
+     * A falha original é a que chega a quem chamou; uma falha da própria compensação fica anexada a ela
+     * @param falha Falha original
+     * @param desfazer Gravações que desfazem o que já foi gravado
+     */
+    private static void compensar(RuntimeException falha, Runnable desfazer) {
+        try {
+            desfazer.run();
+        } catch (RuntimeException e) {
+            falha.addSuppressed(e);
+        }
+    }
+    
+    /**
+     * Obtém o cache de resultados das buscas por título e autor
+     * @return Cache de buscas (permite consultar estatísticas de acerto)
+     */
+    public CacheConsultas<List<Livro>> getCacheBuscas() {
+        return cacheBuscas;
+    }
+    
+    /**
+     * Obtém o cache de trechos de relatórios
+     * @return Cache de relatórios (permite consultar estatísticas de acerto)
+     */
+    public CacheConsultas<String> getCacheRelatorios() {
+        return cacheRelatorios;
+    }
+    
+    /**
+     * Obtém o motor de políticas de empréstimo
+     * As políticas carregadas passam a valer para os próximos empréstimos
+     * @return Motor de políticas (permite carregar um arquivo de regras)
+     */
+    public MotorPoliticas getMotorPoliticas() {
+        return motorPoliticas;
+    }
+    
+    /**
+     * Substitui o relógio usado como data de hoje em empréstimos, devoluções, renovações e relatórios
+     * Permite reproduzir cargas com tempo simulado
+     * @param relogio Novo relógio
+     */
+    public void setRelogio(Clock relogio) {
+        if (relogio == null) {
+            throw new IllegalArgumentException("Relógio é obrigatório");
+        }
+        this.relogio = relogio;
+        this.diaCorrente = null;
+    }
+    
+    /**
+     * Obtém o relógio usado como data de hoje
+     * @return Relógio atual
+     */
+    public Clock getRelogio() {
+        return relogio;
+    }
+    
+    private LocalDate hoje() {
+        return diaCorrente().data;
+    }
+    
+    /**
+     * Obtém o dia corrente do relógio, recalculando-o apenas quando o relógio sai do intervalo guardado
+     * Equivale a LocalDate.now(relogio), sem criar objetos na maioria das chamadas
+     */
+    private DiaCorrente diaCorrente() {
+        Clock atual = relogio;
+        long segundos = Math.floorDiv(atual.millis(), 1000L);
+        DiaCorrente dia = diaCorrente;
+        if (dia == null || dia.relogio != atual || segundos < dia.inicio || segundos >= dia.fim) {
+            dia = new DiaCorrente(atual, segundos);
+            diaCorrente = dia;
+        }
+        return dia;
+    }
+    
+    /**
+     * Data de hoje de um relógio e o intervalo de instantes em que ela e o deslocamento do fuso não mudam
+     * Também guarda as datas previstas de devolução de hoje por prazo, reaproveitadas por todos
+     * os empréstimos do dia
+     */
+    private static final class DiaCorrente {
+        private final Clock relogio;
+        private final LocalDate data;
+        private final int deslocamento; // segundos do fuso em relação ao UTC
+        private final long inicio; // primeiro segundo (época) em que data e deslocamento valem
+        private final long fim; // primeiro segundo (época) em que deixam de valer
+        private LocalDate[] previstas;
+        
+        private DiaCorrente(Clock relogio, long segundos) {
+            ZoneId zona = relogio.getZone();
+            ZoneRules regras = zona.getRules();
+            Instant instante = Instant.ofEpochSecond(segundos);
+            this.relogio = relogio;
+            this.deslocamento = regras.getOffset(instante).getTotalSeconds();
+            this.data = LocalDate.ofEpochDay(Math.floorDiv(segundos + deslocamento, 86400L));
+            long inicioDia = data.atStartOfDay(zona).toEpochSecond();
+            long fimDia = data.plusDays(1).atStartOfDay(zona).toEpochSecond();
+            ZoneOffsetTransition anterior = regras.previousTransition(instante);
+            ZoneOffsetTransition proxima = regras.nextTransition(instante);
+            this.inicio = anterior != null ? Math.max(inicioDia, anterior.toEpochSecond()) : inicioDia;
+            this.fim = proxima != null ? Math.min(fimDia, proxima.toEpochSecond()) : fimDia;
+            this.previstas = new LocalDate[0];
+        }
+        
+        /**
+         * Data de hoje mais o prazo informado, calculada uma vez por prazo
+         */
+        private LocalDate dataPrevista(int prazoDias) {
+            if (prazoDias < 0) {
+                return data.plusDays(prazoDias);
+            }
+            LocalDate[] atuais = previstas;
+            if (prazoDias >= atuais.length) {
+                atuais = Arrays.copyOf(atuais, prazoDias + 1);
+                previstas = atuais;
+            }
+            LocalDate prevista = atuais[prazoDias];
+            if (prevista == null) {
+                prevista = data.plusDays(prazoDias);
+                atuais[prazoDias] = prevista;
+            }
+            return prevista;
+        }
+        
+        /**
+         * Data e hora local de agora em segundos desde a época, sem aplicar fuso (como na série de circulação)
+         */
+        private long segundosLocais() {
+            return Math.floorDiv(relogio.millis(), 1000L) + deslocamento;
+        }
+    }
+    
+    // Métodos de persistência do catálogo
+    
+    /**
+     * Salva livros, usuários, empréstimos em aberto e o livro-caixa de multas no formato binário,
+     * junto com a imagem dos índices
+     * @param diretorio Diretório de destino
+     * @throws IOException se a gravação falhar
+     */
+    public synchronized void salvarCatalogo(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        CodificadorBinario codificador = new CodificadorBinario();
         for (Livro livro : livros) {
-            long emprestimosDoLivro = emprestimos.stream()
-                    .filter(emprestimo -> emprestimo.getLivro().equals(livro))
-                    .count();
-            if (emprestimosDoLivro > 0) {
-                relatorio.append(livro.getTitulo()).append(": ").append(emprestimosDoLivro).append(" empréstimos\n");
+            codificador.escreverLivro(livro);
+        }
+        for (Usuario usuario : usuarios) {
+            codificador.escreverUsuario(usuario);
+        }
+        for (Emprestimo emprestimo : emprestimos) {
+            codificador.escreverEmprestimo(emprestimo);
+        }
+        livroCaixa.paraCada(codificador::escreverLancamento);
+        ByteBuffer dados = codificador.finalizar();
+        long tamanhoDados = dados.remaining();
+        long crcDados = ImagemIndices.calcularCrc(dados.duplicate());
+        
+        // Os dados são gravados primeiro; uma imagem antiga que sobrar é descartada na carga pelo CRC
+        ImagemIndices.gravarAtomicamente(diretorio.resolve(ARQUIVO_DADOS), dados);
+        ImagemIndices.gravar(diretorio.resolve(ARQUIVO_IMAGEM), tamanhoDados, crcDados, livros,
+                livrosPorOrdinal.size(), emprestimosPorOrdinal, indiceBitmap, indiceTitulos, indiceAutores);
+    }
+    
+    /**
+     * Carrega um catálogo salvo por salvarCatalogo
+     * O arquivo de dados é mapeado em memória. Se a imagem dos índices corresponder aos dados,
+     * ordinais, tabelas de símbolos, índices de bitmap e de busca aproximada vêm dela; caso contrário
+     * os índices são reconstruídos a partir dos dados e uma nova imagem é gravada. O catálogo lido só
+     * é copiado para o repositório se ele ainda não o contiver (ver repositorioContem)
+     * @param diretorio Diretório com os arquivos do catálogo
+     * @return true se a imagem dos índices foi usada, false se os índices foram reconstruídos
+     * @throws IOException se o arquivo de dados não puder ser lido
+     * @throws IllegalStateException se o catálogo atual não estiver vazio
+     */
+    public synchronized boolean carregarCatalogo(Path diretorio) throws IOException {
+        if (!livros.isEmpty() || !usuarios.isEmpty()) {
+            throw new IllegalStateException("O catálogo só pode ser carregado enquanto estiver vazio");
+        }
+        
+        List<Livro> livrosLidos = new ArrayList<>();
+        List<Usuario> usuariosLidos = new ArrayList<>();
+        List<Emprestimo> emprestimosLidos = new ArrayList<>();
+        List<LancamentoMulta> lancamentosLidos = new ArrayList<>();
+        boolean politicasGravadas;
+        ImagemIndices imagem;
+        long tamanhoDados;
+        long crcDados;
+        try (FileChannel canal = FileChannel.open(diretorio.resolve(ARQUIVO_DADOS), StandardOpenOption.READ)) {
+            tamanhoDados = canal.size();
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanhoDados);
+            crcDados = ImagemIndices.calcularCrc(dados.duplicate());
+            
+            // As tabelas de símbolos precisam ser restauradas antes de criar os livros
+            imagem = ImagemIndices.ler(diretorio.resolve(ARQUIVO_IMAGEM), tamanhoDados, crcDados, disponibilidade);
+            if (imagem != null && !imagem.restaurarTabelas()) {
+                imagem = null;
             }
+            
+            DecodificadorBinario decodificador = new DecodificadorBinario(dados);
+            // Antes da versão 2 a política não era gravada e é recalculada pelas regras atuais
+            politicasGravadas = decodificador.getVersao() >= 2;
+            while (decodificador.temProximo()) {
+                int tipo = decodificador.proximoTipo();
+                if (tipo == CodificadorBinario.TIPO_LIVRO) {
+                    livrosLidos.add(decodificador.lerLivro());
+                } else if (tipo == CodificadorBinario.TIPO_USUARIO) {
+                    usuariosLidos.add(decodificador.lerUsuario());
+                } else if (tipo == CodificadorBinario.TIPO_LANCAMENTO) {
+                    lancamentosLidos.add(decodificador.lerLancamento());
+                } else {
+                    emprestimosLidos.add(decodificador.lerEmprestimo());
+                }
+            }
+        }
+        if (imagem != null && imagem.getOrdinais().length != livrosLidos.size()) {
+            imagem = null;
         }
         
-        return relatorio.toString();
+        if (imagem != null) {
+            // Ordinais, bitmaps e índices de busca aproximada vêm prontos da imagem
+            int[] ordinais = imagem.getOrdinais();
+            for (int i = 0; i < imagem.getProximoOrdinal(); i++) {
+                livrosPorOrdinal.add(null);
+            }
+            for (int i = 0; i < livrosLidos.size(); i++) {
+                Livro livro = livrosLidos.get(i);
+                livro.setOrdinal(ordinais[i]);
+                livros.add(livro);
+                livrosPorIsbn.colocar(livro);
+                livrosPorOrdinal.set(ordinais[i], livro);
+                livro.setMapaDisponibilidade(disponibilidade);
+                livro.setOuvinte(ouvinteLivros);
+            }
+            indiceBitmap = imagem.getIndiceBitmap();
+            indiceTitulos = imagem.getIndiceTitulos();
+            indiceAutores = imagem.getIndiceAutores();
+            int[] contadores = imagem.getEmprestimosPorOrdinal();
+            emprestimosPorOrdinal = contadores.length > 0 ? contadores : new int[16];
+        } else {
+            for (Livro livro : livrosLidos) {
+                incluirLivro(livro);
+            }
+        }
+        for (Usuario usuario : usuariosLidos) {
+            incluirUsuario(usuario);
+        }
+        for (Emprestimo emprestimo : emprestimosLidos) {
+            restaurarEmprestimo(emprestimo, politicasGravadas);
+        }
+        for (LancamentoMulta lancamento : lancamentosLidos) {
+            livroCaixa.restaurar(lancamento);
+        }
+        if (!repositorioContem(repositorio, livros.size(), usuarios.size(), emprestimos.size())) {
+            gravarTudo(repositorio);
+        }
+        // Livros e contadores vindos da imagem não passam por incluirLivro
+        paginasCatalogo.marcarTodas();
+        versaoDados++;
+        versaoTitulos++;
+        versaoAutores++;
+        versaoPopulares++;
+        
+        if (imagem == null) {
+            ImagemIndices.gravar(diretorio.resolve(ARQUIVO_IMAGEM), tamanhoDados, crcDados, livros,
+                    livrosPorOrdinal.size(), emprestimosPorOrdinal, indiceBitmap, indiceTitulos, indiceAutores);
+            return false;
+        }
+        return true;
+    }
+    
+    // Métodos do repositório
+    
+    /**
+     * Troca o repositório que recebe as alterações
+     * Livros, usuários e empréstimos em aberto atuais são copiados para o novo repositório
+     * @param repositorio Novo repositório
+     */
+    public synchronized void setRepositorio(RepositorioBiblioteca repositorio) {
+        if (repositorio == null) {
+            throw new IllegalArgumentException("Repositório não pode ser null");
+        }
+        gravarTudo(repositorio);
+        this.repositorio = repositorio;
+    }
+    
+    public synchronized RepositorioBiblioteca getRepositorio() {
+        return repositorio;
+    }
+    
+    /**
+     * Carrega livros, usuários e empréstimos em aberto de um repositório e passa a gravar nele
+     * Os registros são lidos página a página
+     * @param repositorio Repositório de origem
+     * @throws IllegalStateException se o catálogo atual não estiver vazio
+     */
+    public synchronized void carregarRepositorio(RepositorioBiblioteca repositorio) {
+        if (repositorio == null) {
+            throw new IllegalArgumentException("Repositório não pode ser null");
+        }
+        if (!livros.isEmpty() || !usuarios.isEmpty()) {
+            throw new IllegalStateException("O catálogo só pode ser carregado enquanto estiver vazio");
+        }
+        
+        List<Livro> paginaLivros = repositorio.listarLivros(null, TAMANHO_PAGINA_REPOSITORIO);
+        while (!paginaLivros.isEmpty()) {
+            for (Livro livro : paginaLivros) {
+                incluirLivroDoRepositorio(livro);
+            }
+            Livro ultimo = paginaLivros.get(paginaLivros.size() - 1);
+            String apos = ultimo.getIsbn() == null ? "" : Isbn.normalizar(ultimo.getIsbn());
+            paginaLivros = repositorio.listarLivros(apos, TAMANHO_PAGINA_REPOSITORIO);
+        }
+        List<Usuario> paginaUsuarios = repositorio.listarUsuarios(null, TAMANHO_PAGINA_REPOSITORIO);
+        while (!paginaUsuarios.isEmpty()) {
+            for (Usuario usuario : paginaUsuarios) {
+                incluirUsuario(usuario);
+            }
+            Usuario ultimo = paginaUsuarios.get(paginaUsuarios.size() - 1);
+            String apos = ultimo.getId() == null ? "" : ultimo.getId();
+            paginaUsuarios = repositorio.listarUsuarios(apos, TAMANHO_PAGINA_REPOSITORIO);
+        }
+        for (Emprestimo emprestimo : repositorio.listarEmprestimosEmAberto(usuariosPorId::get, livrosPorIsbn::buscar)) {
+            restaurarEmprestimo(emprestimo, false);
+        }
+        this.repositorio = repositorio;
+        versaoDados++;
+        versaoTitulos++;
+        versaoAutores++;
+        versaoPopulares++;
+    }
+    
+    /**
+     * Passa a usar um repositório que pode ser maior que a memória
+     * Carrega apenas os empréstimos em aberto, com os seus usuários e livros. Os demais registros
+     * entram no catálogo quando procurados pela chave (buscarLivroPorIsbn, buscarUsuarioPorId) ou pelo
+     * autor (buscarLivroPorAutor), e descarregarInativos devolve ao repositório o que não está em uso.
+     * Listagens, buscas por título, filtros e relatórios consideram apenas o que está na memória
+     * @param repositorio Repositório de origem
+     * @throws IllegalStateException se o catálogo atual não estiver vazio
+     */
+    public synchronized void carregarRepositorioSobDemanda(RepositorioBiblioteca repositorio) {
+        if (repositorio == null) {
+            throw new IllegalArgumentException("Repositório não pode ser null");
+        }
+        if (!livros.isEmpty() || !usuarios.isEmpty()) {
+            throw new IllegalStateException("O catálogo só pode ser carregado enquanto estiver vazio");
+        }
+        
+        for (Emprestimo emprestimo : repositorio.listarEmprestimosEmAberto(id -> carregarUsuario(repositorio, id),
+                isbn -> carregarLivro(repositorio, isbn))) {
+            restaurarEmprestimo(emprestimo, false);
+        }
+        this.repositorio = repositorio;
+        this.cargaSobDemanda = true;
+        versaoDados++;
+        versaoTitulos++;
+        versaoAutores++;
+        versaoPopulares++;
+    }
+    
+    public synchronized boolean isCargaSobDemanda() {
+        return cargaSobDemanda;
+    }
+    
+    /**
+     * Tira da memória os livros disponíveis e sem reservas, e os usuários sem empréstimos, multas
+     * ou reservas (apenas com carga sob demanda). Os registros continuam no repositório e voltam ao
+     * serem procurados; cada livro volta com o seu ordinal, mantendo popularidade e recomendações
+     * @return Quantidade de livros e usuários descarregados
+     * @throws IllegalStateException se a carga sob demanda não estiver ativa
+     */
+    public synchronized int descarregarInativos() {
+        if (!cargaSobDemanda) {
+            throw new IllegalStateException("A carga sob demanda não está ativa");
+        }
+        Set<Livro> livrosInativos = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Livro livro : livros) {
+            if (livro.estaDisponivel() && !reservasPorOrdinal.containsKey(livro.getOrdinal())) {
+                livrosInativos.add(livro);
+            }
+        }
+        Set<Usuario> reservantes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Deque<Usuario> fila : reservasPorOrdinal.values()) {
+            reservantes.addAll(fila);
+        }
+        Set<Usuario> usuariosInativos = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Usuario usuario : usuarios) {
+            if (podeRemover(usuario) && !reservantes.contains(usuario)) {
+                usuariosInativos.add(usuario);
+            }
+        }
+        
+        livros.removeIf(livrosInativos::contains);
+        for (Livro livro : livrosInativos) {
+            if (livro.getChaveIsbn() != Isbn.CHAVE_INVALIDA) {
+                ordinaisDescarregados.definir(livro.getChaveIsbn(), livro.getOrdinal());
+                retirarDaMemoria(livro);
+            } else {
+                // Sem chave numérica o livro volta com outro ordinal
+                desindexarLivro(livro);
+            }
+        }
+        usuarios.removeIf(usuariosInativos::contains);
+        for (Usuario usuario : usuariosInativos) {
+            desindexarUsuario(usuario);
+        }
+        if (!livrosInativos.isEmpty() || !usuariosInativos.isEmpty()) {
+            versaoDados++;
+            versaoTitulos++;
+            versaoAutores++;
+            versaoPopulares++;
+        }
+        return livrosInativos.size() + usuariosInativos.size();
+    }
+    
+    /**
+     * Obtém um usuário da memória ou, se ausente, do repositório informado (incluindo-o no cadastro)
+     */
+    private Usuario carregarUsuario(RepositorioBiblioteca origem, String id) {
+        Usuario usuario = usuariosPorId.get(id);
+        if (usuario == null) {
+            usuario = origem.buscarUsuarioPorId(id);
+            if (usuario != null && !incluirUsuario(usuario)) {
+                usuario = usuariosPorId.get(usuario.getId());
+            }
+        }
+        return usuario;
+    }
+    
+    /**
+     * Obtém um livro da memória ou, se ausente, do repositório informado (incluindo-o no catálogo)
+     */
+    private Livro carregarLivro(RepositorioBiblioteca origem, String isbn) {
+        Livro livro = livrosPorIsbn.buscar(isbn);
+        if (livro == null) {
+            livro = origem.buscarLivroPorIsbn(isbn);
+            if (livro != null && !incluirLivroDoRepositorio(livro)) {
+                livro = livrosPorIsbn.buscar(livro.getIsbn());
+            }
+        }
+        return livro;
+    }
+    
+    /**
+     * Inclui no catálogo um livro lido de um repositório
+     * O repositório não grava a disponibilidade a cada empréstimo, então o livro entra disponível;
+     * os empréstimos em aberto restaurados em seguida marcam os livros emprestados
+     * @return false se já existia um livro com o mesmo ISBN
+     */
+    private boolean incluirLivroDoRepositorio(Livro livro) {
+        if (!incluirLivro(livro)) {
+            return false;
+        }
+        disponibilidade.definir(livro.getOrdinal(), true);
+        return true;
+    }
+    
+    /**
+     * Registra um empréstimo em aberto lido de um armazenamento
+     * O livro do empréstimo passa a constar como emprestado no catálogo, pois a disponibilidade
+     * é registrada pelos empréstimos em aberto e não pelo livro gravado.
+     * O usuário é ligado ao empréstimo mesmo que hoje não pudesse emprestar (inativo, no limite ou devendo)
+     * @param manterPolitica true para manter a política gravada com o empréstimo, false para aplicar a atual
+     * @throws IllegalStateException se o empréstimo não tem usuário ou o livro já está ligado a ele
+     */
+    private void restaurarEmprestimo(Emprestimo emprestimo, boolean manterPolitica) {
+        Usuario usuario = emprestimo.getUsuario();
+        if (usuario == null || !usuario.restaurarEmprestimo(emprestimo)) {
+            throw new IllegalStateException("Empréstimo em aberto sem usuário ou duplicado: "
+                    + (usuario != null ? usuario.getId() : null) + " / "
+                    + (emprestimo.getLivro() != null ? emprestimo.getLivro().getIsbn() : null));
+        }
+        if (!manterPolitica) {
+            emprestimo.setPolitica(motorPoliticas.politicaPara(usuario, emprestimo.getLivro()));
+        }
+        incluirNosEmAberto(emprestimo);
+        indiceVencimentos.adicionar(emprestimo);
+        Livro livro = emprestimo.getLivro();
+        if (livro != null && livro.getOrdinal() >= 0 && livrosPorOrdinal.get(livro.getOrdinal()) == livro) {
+            disponibilidade.definir(livro.getOrdinal(), false);
+            paginasCatalogo.marcar(livro.getOrdinal());
+        }
+    }
+    
+    /**
+     * Verifica se o repositório já guarda um catálogo do tamanho informado
+     * Como toda alteração é gravada no repositório, um repositório com as mesmas quantidades
+     * de livros, usuários e empréstimos em aberto é o mesmo de onde o catálogo salvo veio,
+     * e regravá-lo a cada carga seria apenas escrita repetida
+     */
+    private static boolean repositorioContem(RepositorioBiblioteca destino, int quantidadeLivros,
+                                             int quantidadeUsuarios, int quantidadeEmprestimos) {
+        return destino.contarLivros() == quantidadeLivros && destino.contarUsuarios() == quantidadeUsuarios
+                && destino.contarEmprestimosEmAberto() == quantidadeEmprestimos;
+    }
+    
+    /**
+     * Grava livros, usuários e empréstimos em aberto atuais em um repositório
+     */
+    private void gravarTudo(RepositorioBiblioteca destino) {
+        destino.salvarLivros(livros);
+        destino.salvarUsuarios(usuarios);
+        for (Emprestimo emprestimo : emprestimos) {
+            destino.salvarEmprestimo(emprestimo);
+        }
     }
     
     // Getters para acesso às listas (retornam cópias para evitar modificação externa)
     
-    public List<Livro> getLivros() {
+    public synchronized List<Livro> getLivros() {
         return new ArrayList<>(livros);
     }
     
-    public List<Usuario> getUsuarios() {
+    public synchronized List<Usuario> getUsuarios() {
         return new ArrayList<>(usuarios);
     }
     
-    public List<Emprestimo> getEmprestimos() {
+    /**
+     * Obtém o limite dos ordinais já atribuídos (todos os livros têm ordinal menor que ele)
+     * @return Próximo ordinal a ser atribuído
+     */
+    public synchronized int getLimiteOrdinais() {
+        return livrosPorOrdinal.size();
+    }
+    
+    /**
+     * Obtém os livros do catálogo com ordinal dentro da faixa informada
+     * Permite percorrer o catálogo em partições estáveis sem copiar a lista inteira
+     * @param inicio Primeiro ordinal (inclusivo)
+     * @param fim Último ordinal (exclusivo)
+     * @return Livros da faixa em ordem de ordinal (livros removidos são ignorados)
+     */
+    public synchronized List<Livro> getLivrosPorOrdinal(int inicio, int fim) {
+        int limite = Math.min(fim, livrosPorOrdinal.size());
+        List<Livro> resultado = new ArrayList<>(Math.max(0, limite - inicio));
+        for (int ordinal = Math.max(0, inicio); ordinal < limite; ordinal++) {
+            Livro livro = livrosPorOrdinal.get(ordinal);
+            if (livro != null) {
+                resultado.add(livro);
+            }
+        }
+        return resultado;
+    }
+    
+    public synchronized int getQuantidadeLivros() {
+        return livros.size();
+    }
+    
+    public synchronized int getQuantidadeUsuarios() {
+        return usuarios.size();
+    }
+    
+    /**
+     * Obtém uma faixa dos usuários cadastrados, na ordem de cadastro
+     * @param inicio Posição inicial (inclusiva)
+     * @param fim Posição final (exclusiva)
+     * @return Usuários da faixa
+     */
+    public synchronized List<Usuario> getUsuarios(int inicio, int fim) {
+        int limite = Math.min(fim, usuarios.size());
+        if (inicio >= limite) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(usuarios.subList(Math.max(0, inicio), limite));
+    }
+    
+    /**
+     * Obtém os empréstimos em aberto, ativos ou atrasados
+     * @return Lista com os empréstimos ainda não devolvidos
+     */
+    public synchronized List<Emprestimo> getEmprestimosEmAberto() {
         return new ArrayList<>(emprestimos);
     }
+    
+    /**
+     * Obtém todos os empréstimos, em aberto e do histórico
+     * Pode ler todo o histórico do disco; prefira getEmprestimosAtivos ou getHistoricoEmprestimos
+     * @return Lista com os empréstimos em aberto seguidos do histórico
+     */
+    public List<Emprestimo> getEmprestimos() {
+        List<Emprestimo> todos = getEmprestimosEmAberto();
+        historico.paraCada(null, null, this::usuarioEmMemoria, this::livroEmMemoria, todos::add);
+        return todos;
+    }
 } 
\ No newline at end of file
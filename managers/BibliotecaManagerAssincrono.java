@@ -0,0 +1,265 @@
+package managers;
+
+import models.Emprestimo;
+import models.Livro;
+import models.Usuario;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fachada assíncrona do BibliotecaManager
+ * Cada operação retorna um CompletableFuture executado em um pool de threads com fila limitada
+ * e tempo limite. Buscas e empréstimos usam um pool separado dos relatórios e operações em lote,
+ * para que tarefas lentas não ocupem as threads do balcão de empréstimos.
+ * Os relatórios do gerenciador formatam fora do seu bloqueio, e as cargas em lote entram em lotes
+ * pequenos, liberando o bloqueio entre eles. Uma tarefa que estoura o tempo limite é cancelada:
+ * se ainda estiver na fila não chega a rodar. Operações já iniciadas não são interrompidas, para não
+ * abandonar uma gravação pela metade; apenas a carga em lote é interrompida, parando no lote seguinte
+ */
+public class BibliotecaManagerAssincrono implements AutoCloseable {
+    private final BibliotecaManager biblioteca;
+    private final ExecutorService executorOperacoes;
+    private final ExecutorService executorRelatorios;
+    private final long tempoLimiteMillis;
+
+    // Configurações padrão dos pools
+    private static final int THREADS_OPERACOES_PADRAO = 4;
+    private static final int THREADS_RELATORIOS_PADRAO = 1;
+    private static final int CAPACIDADE_FILA_PADRAO = 1000;
+    private static final long TEMPO_LIMITE_PADRAO_MILLIS = 30_000;
+    // Livros incluídos a cada vez que a carga em lote obtém o bloqueio do gerenciador
+    private static final int TAMANHO_LOTE = 500;
+
+    /**
+     * Construtor com as configurações padrão
+     * @param biblioteca Gerenciador da biblioteca
+     */
+    public BibliotecaManagerAssincrono(BibliotecaManager biblioteca) {
+        this(biblioteca, THREADS_OPERACOES_PADRAO, THREADS_RELATORIOS_PADRAO, CAPACIDADE_FILA_PADRAO,
+                TEMPO_LIMITE_PADRAO_MILLIS);
+    }
+
+    /**
+     * Construtor com pools criados a partir das configurações informadas
+     * @param biblioteca Gerenciador da biblioteca
+     * @param threadsOperacoes Threads para buscas e empréstimos
+     * @param threadsRelatorios Threads para relatórios e operações em lote
+     * @param capacidadeFila Tarefas que podem aguardar em cada fila antes de serem recusadas
+     * @param tempoLimiteMillis Tempo máximo de cada operação em milissegundos
+     */
+    public BibliotecaManagerAssincrono(BibliotecaManager biblioteca, int threadsOperacoes, int threadsRelatorios,
+                                       int capacidadeFila, long tempoLimiteMillis) {
+        this(biblioteca,
+                criarPool("biblioteca-operacoes", threadsOperacoes, capacidadeFila),
+                criarPool("biblioteca-relatorios", threadsRelatorios, capacidadeFila),
+                tempoLimiteMillis);
+    }
+
+    /**
+     * Construtor com executores fornecidos pelo chamador
+     * @param biblioteca Gerenciador da biblioteca
+     * @param executorOperacoes Executor para buscas e empréstimos
+     * @param executorRelatorios Executor para relatórios e operações em lote
+     * @param tempoLimiteMillis Tempo máximo de cada operação em milissegundos
+     */
+    public BibliotecaManagerAssincrono(BibliotecaManager biblioteca, ExecutorService executorOperacoes,
+                                       ExecutorService executorRelatorios, long tempoLimiteMillis) {
+        if (biblioteca == null || executorOperacoes == null || executorRelatorios == null) {
+            throw new IllegalArgumentException("Biblioteca e executores são obrigatórios");
+        }
+        this.biblioteca = biblioteca;
+        this.executorOperacoes = executorOperacoes;
+        this.executorRelatorios = executorRelatorios;
+        this.tempoLimiteMillis = tempoLimiteMillis;
+    }
+
+    // Buscas
+
+    public CompletableFuture<List<Livro>> buscarLivroPorTitulo(String titulo) {
+        return executar(executorOperacoes, () -> biblioteca.buscarLivroPorTitulo(titulo));
+    }
+
+    public CompletableFuture<List<Livro>> buscarLivroPorAutor(String autor) {
+        return executar(executorOperacoes, () -> biblioteca.buscarLivroPorAutor(autor));
+    }
+
+    public CompletableFuture<List<Livro>> filtrarLivros(String genero, String editora, Integer anoMinimo,
+                                                        Integer anoMaximo, boolean somenteDisponiveis) {
+        return executar(executorOperacoes,
+                () -> biblioteca.filtrarLivros(genero, editora, anoMinimo, anoMaximo, somenteDisponiveis));
+    }
+
+    public CompletableFuture<List<Usuario>> buscarUsuarioPorNome(String nome) {
+        return executar(executorOperacoes, () -> biblioteca.buscarUsuarioPorNome(nome));
+    }
+
+    public CompletableFuture<List<Usuario>> autocompletarUsuarios(String texto, int limite) {
+        return executar(executorOperacoes, () -> biblioteca.autocompletarUsuarios(texto, limite));
+    }
+
+    public CompletableFuture<Usuario> buscarUsuarioPorId(String id) {
+        return executar(executorOperacoes, () -> biblioteca.buscarUsuarioPorId(id));
+    }
+
+    // Empréstimos
+
+    public CompletableFuture<Boolean> realizarEmprestimo(Usuario usuario, Livro livro) {
+        return executar(executorOperacoes, () -> biblioteca.realizarEmprestimo(usuario, livro));
+    }
+
+    public CompletableFuture<Boolean> realizarDevolucao(Usuario usuario, Livro livro) {
+        return executar(executorOperacoes, () -> biblioteca.realizarDevolucao(usuario, livro));
+    }
+
+    // Relatórios e operações em lote (executadas no pool de relatórios)
+
+    /**
+     * Adiciona livros em lotes de TAMANHO_LOTE, para que empréstimos possam acontecer entre os lotes
+     * Se a tarefa for cancelada (por exemplo, pelo tempo limite), os lotes já incluídos permanecem
+     * @param novosLivros Livros a serem adicionados
+     * @return Futuro com a quantidade de livros efetivamente adicionados
+     */
+    public CompletableFuture<Integer> adicionarLivros(Collection<Livro> novosLivros) {
+        return executar(executorRelatorios, () -> adicionarEmLotes(novosLivros), true);
+    }
+
+    public CompletableFuture<List<Emprestimo>> getEmprestimosAtrasados() {
+        return executar(executorRelatorios, biblioteca::getEmprestimosAtrasados);
+    }
+
+    public CompletableFuture<String> gerarRelatorioGeral() {
+        return executar(executorRelatorios, biblioteca::gerarRelatorioGeral);
+    }
+
+    public CompletableFuture<String> gerarRelatorioLivrosEmprestados() {
+        return executar(executorRelatorios, biblioteca::gerarRelatorioLivrosEmprestados);
+    }
+
+    public CompletableFuture<String> gerarRelatorioUsuariosComMultas() {
+        return executar(executorRelatorios, biblioteca::gerarRelatorioUsuariosComMultas);
+    }
+
+    /**
+     * Encerra os pools de threads, aguardando as tarefas em andamento
+     */
+    @Override
+    public void close() {
+        executorOperacoes.shutdown();
+        executorRelatorios.shutdown();
+        try {
+            executorOperacoes.awaitTermination(tempoLimiteMillis, TimeUnit.MILLISECONDS);
+            executorRelatorios.awaitTermination(tempoLimiteMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Submete uma tarefa ao executor aplicando o tempo limite, sem interrompê-la depois de iniciada
+     * @param executor Executor da tarefa
+     * @param tarefa Tarefa a ser executada
+     * @return Futuro com o resultado da tarefa
+     */
+    private <T> CompletableFuture<T> executar(ExecutorService executor, Supplier<T> tarefa) {
+        return executar(executor, tarefa, false);
+    }
+
+    /**
+     * Submete uma tarefa ao executor aplicando o tempo limite
+     * Se a fila estiver cheia, retorna um futuro já concluído com RejectedExecutionException.
+     * Ao estourar o tempo limite, o futuro falha com TimeoutException e a tarefa é cancelada: se ainda
+     * estiver na fila não chega a rodar, e se já estiver rodando só é interrompida quando permitido
+     * @param executor Executor da tarefa
+     * @param tarefa Tarefa a ser executada
+     * @param interromper true se a tarefa verifica a interrupção em pontos seguros (como entre lotes)
+     * @return Futuro com o resultado da tarefa
+     */
+    private <T> CompletableFuture<T> executar(ExecutorService executor, Supplier<T> tarefa, boolean interromper) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Future<?> execucao;
+        try {
+            execucao = executor.submit(() -> {
+                if (resultado.isDone()) {
+                    return; // Expirou enquanto aguardava na fila
+                }
+                try {
+                    resultado.complete(tarefa.get());
+                } catch (Throwable e) {
+                    resultado.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        resultado.orTimeout(tempoLimiteMillis, TimeUnit.MILLISECONDS).whenComplete((valor, erro) -> {
+            if (erro instanceof TimeoutException) {
+                execucao.cancel(interromper);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Inclui os livros no gerenciador lote a lote, parando se a thread for interrompida
+     * @param novosLivros Livros a serem adicionados
+     * @return Quantidade de livros efetivamente adicionados
+     * @throws CancellationException se a tarefa foi cancelada entre dois lotes
+     */
+    private int adicionarEmLotes(Collection<Livro> novosLivros) {
+        if (novosLivros == null) {
+            return 0;
+        }
+        int adicionados = 0;
+        List<Livro> lote = new ArrayList<>(Math.min(TAMANHO_LOTE, novosLivros.size()));
+        for (Livro livro : novosLivros) {
+            lote.add(livro);
+            if (lote.size() == TAMANHO_LOTE) {
+                adicionados += adicionarLote(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            adicionados += adicionarLote(lote);
+        }
+        return adicionados;
+    }
+
+    private int adicionarLote(List<Livro> lote) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Carga em lote cancelada");
+        }
+        return biblioteca.adicionarLivros(lote);
+    }
+
+    /**
+     * Cria um pool de tamanho fixo com fila limitada
+     * @param nome Prefixo do nome das threads
+     * @param threads Quantidade de threads
+     * @param capacidadeFila Capacidade da fila de espera
+     * @return Pool de threads configurado
+     */
+    private static ExecutorService criarPool(String nome, int threads, int capacidadeFila) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = tarefa -> {
+            Thread thread = new Thread(tarefa, nome + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), fabrica, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,480 @@
+package managers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto compactado de inteiros não negativos no estilo Roaring
+ * Os valores são divididos em blocos de 65536 pela parte alta (16 bits);
+ * cada bloco guarda a parte baixa em um array ordenado quando tem poucos valores
+ * ou em um mapa de bits de 1024 longs quando fica denso
+ */
+public class BitmapCompactado {
+    // Acima desse número de valores um bloco passa a ser mapa de bits
+    private static final int LIMITE_ARRAY = 4096;
+    private static final int PALAVRAS_POR_BLOCO = 1024;
+
+    // Partes altas em ordem crescente, blocos e quantidade de valores de cada bloco
+    private char[] chaves;
+    private Object[] blocos; // char[] (array ordenado) ou long[] (mapa de bits)
+    private int[] cardinalidades;
+    private int quantidadeBlocos;
+
+    /**
+     * Construtor padrão (conjunto vazio)
+     */
+    public BitmapCompactado() {
+        this.chaves = new char[4];
+        this.blocos = new Object[4];
+        this.cardinalidades = new int[4];
+        this.quantidadeBlocos = 0;
+    }
+
+    /**
+     * Adiciona um valor ao conjunto
+     * @param valor Valor não negativo
+     * @return true se o valor não estava presente
+     */
+    public boolean adicionar(int valor) {
+        char alta = (char) (valor >>> 16);
+        char baixa = (char) valor;
+        int indice = buscarBloco(alta);
+        if (indice < 0) {
+            indice = -indice - 1;
+            inserirBloco(indice, alta, new char[4], 0);
+        }
+
+        Object bloco = blocos[indice];
+        int cardinalidade = cardinalidades[indice];
+        if (bloco instanceof long[]) {
+            long[] bits = (long[]) bloco;
+            long mascara = 1L << baixa;
+            if ((bits[baixa >>> 6] & mascara) != 0) {
+                return false;
+            }
+            bits[baixa >>> 6] |= mascara;
+            cardinalidades[indice]++;
+            return true;
+        }
+
+        char[] valores = (char[]) bloco;
+        int posicao = Arrays.binarySearch(valores, 0, cardinalidade, baixa);
+        if (posicao >= 0) {
+            return false;
+        }
+        posicao = -posicao - 1;
+        if (cardinalidade == LIMITE_ARRAY) {
+            long[] bits = paraMapaDeBits(valores, cardinalidade);
+            bits[baixa >>> 6] |= 1L << baixa;
+            blocos[indice] = bits;
+        } else {
+            if (cardinalidade == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(LIMITE_ARRAY, valores.length * 2));
+                blocos[indice] = valores;
+            }
+            System.arraycopy(valores, posicao, valores, posicao + 1, cardinalidade - posicao);
+            valores[posicao] = baixa;
+        }
+        cardinalidades[indice]++;
+        return true;
+    }
+
+    /**
+     * Remove um valor do conjunto
+     * @param valor Valor a ser removido
+     * @return true se o valor estava presente
+     */
+    public boolean remover(int valor) {
+        char alta = (char) (valor >>> 16);
+        char baixa = (char) valor;
+        int indice = buscarBloco(alta);
+        if (indice < 0) {
+            return false;
+        }
+
+        Object bloco = blocos[indice];
+        int cardinalidade = cardinalidades[indice];
+        if (bloco instanceof long[]) {
+            long[] bits = (long[]) bloco;
+            long mascara = 1L << baixa;
+            if ((bits[baixa >>> 6] & mascara) == 0) {
+                return false;
+            }
+            bits[baixa >>> 6] &= ~mascara;
+            cardinalidade--;
+            if (cardinalidade <= LIMITE_ARRAY) {
+                blocos[indice] = paraArray(bits, cardinalidade);
+            }
+        } else {
+            char[] valores = (char[]) bloco;
+            int posicao = Arrays.binarySearch(valores, 0, cardinalidade, baixa);
+            if (posicao < 0) {
+                return false;
+            }
+            System.arraycopy(valores, posicao + 1, valores, posicao, cardinalidade - posicao - 1);
+            cardinalidade--;
+        }
+
+        if (cardinalidade == 0) {
+            removerBloco(indice);
+        } else {
+            cardinalidades[indice] = cardinalidade;
+        }
+        return true;
+    }
+
+    /**
+     * Verifica se um valor pertence ao conjunto
+     * @param valor Valor a ser verificado
+     * @return true se o valor está presente
+     */
+    public boolean contem(int valor) {
+        int indice = buscarBloco((char) (valor >>> 16));
+        if (indice < 0) {
+            return false;
+        }
+        char baixa = (char) valor;
+        Object bloco = blocos[indice];
+        if (bloco instanceof long[]) {
+            return (((long[]) bloco)[baixa >>> 6] & (1L << baixa)) != 0;
+        }
+        return Arrays.binarySearch((char[]) bloco, 0, cardinalidades[indice], baixa) >= 0;
+    }
+
+    /**
+     * Obtém a quantidade de valores no conjunto
+     * @return Número de valores
+     */
+    public int getCardinalidade() {
+        int total = 0;
+        for (int i = 0; i < quantidadeBlocos; i++) {
+            total += cardinalidades[i];
+        }
+        return total;
+    }
+
+    /**
+     * Verifica se o conjunto está vazio
+     * @return true se não há valores
+     */
+    public boolean estaVazio() {
+        return quantidadeBlocos == 0;
+    }
+
+    /**
+     * Percorre os valores do conjunto em ordem crescente
+     * @param acao Ação executada para cada valor
+     */
+    public void paraCada(IntConsumer acao) {
+        for (int i = 0; i < quantidadeBlocos; i++) {
+            int base = chaves[i] << 16;
+            Object bloco = blocos[i];
+            if (bloco instanceof long[]) {
+                long[] bits = (long[]) bloco;
+                for (int palavra = 0; palavra < PALAVRAS_POR_BLOCO; palavra++) {
+                    long restante = bits[palavra];
+                    while (restante != 0) {
+                        acao.accept(base | (palavra << 6) | Long.numberOfTrailingZeros(restante));
+                        restante &= restante - 1;
+                    }
+                }
+            } else {
+                char[] valores = (char[]) bloco;
+                for (int j = 0; j < cardinalidades[i]; j++) {
+                    acao.accept(base | valores[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cria uma cópia independente do conjunto
+     * @return Novo conjunto com os mesmos valores
+     */
+    public BitmapCompactado copiar() {
+        BitmapCompactado copia = new BitmapCompactado();
+        copia.chaves = Arrays.copyOf(chaves, Math.max(4, quantidadeBlocos));
+        copia.blocos = new Object[copia.chaves.length];
+        copia.cardinalidades = Arrays.copyOf(cardinalidades, copia.chaves.length);
+        copia.quantidadeBlocos = quantidadeBlocos;
+        for (int i = 0; i < quantidadeBlocos; i++) {
+            Object bloco = blocos[i];
+            copia.blocos[i] = bloco instanceof long[] ? ((long[]) bloco).clone() : ((char[]) bloco).clone();
+        }
+        return copia;
+    }
+
+    /**
+     * Grava os blocos do conjunto como estão em memória, para serem lidos sem reinserir os valores
+     * @param saida Destino dos dados
+     * @throws IOException se a gravação falhar
+     */
+    void gravar(DataOutput saida) throws IOException {
+        saida.writeInt(quantidadeBlocos);
+        for (int i = 0; i < quantidadeBlocos; i++) {
+            saida.writeChar(chaves[i]);
+            saida.writeInt(cardinalidades[i]);
+            Object bloco = blocos[i];
+            if (bloco instanceof long[]) {
+                saida.writeBoolean(true);
+                for (long palavra : (long[]) bloco) {
+                    saida.writeLong(palavra);
+                }
+            } else {
+                saida.writeBoolean(false);
+                char[] valores = (char[]) bloco;
+                for (int j = 0; j < cardinalidades[i]; j++) {
+                    saida.writeChar(valores[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lê um conjunto gravado por gravar
+     * @param entrada Origem dos dados
+     * @return Conjunto com os blocos lidos
+     * @throws IOException se a leitura falhar
+     */
+    static BitmapCompactado ler(DataInput entrada) throws IOException {
+        BitmapCompactado bitmap = new BitmapCompactado();
+        int quantidade = entrada.readInt();
+        int capacidade = Math.max(4, quantidade);
+        bitmap.chaves = new char[capacidade];
+        bitmap.blocos = new Object[capacidade];
+        bitmap.cardinalidades = new int[capacidade];
+        for (int i = 0; i < quantidade; i++) {
+            bitmap.chaves[i] = entrada.readChar();
+            int cardinalidade = entrada.readInt();
+            bitmap.cardinalidades[i] = cardinalidade;
+            if (entrada.readBoolean()) {
+                long[] bits = new long[PALAVRAS_POR_BLOCO];
+                for (int palavra = 0; palavra < PALAVRAS_POR_BLOCO; palavra++) {
+                    bits[palavra] = entrada.readLong();
+                }
+                bitmap.blocos[i] = bits;
+            } else {
+                // Mantém folga para inserções sem realocar de imediato
+                char[] valores = new char[Math.max(4, cardinalidade)];
+                for (int j = 0; j < cardinalidade; j++) {
+                    valores[j] = entrada.readChar();
+                }
+                bitmap.blocos[i] = valores;
+            }
+        }
+        bitmap.quantidadeBlocos = quantidade;
+        return bitmap;
+    }
+
+    /**
+     * Calcula a interseção (E) de dois conjuntos
+     * @param a Primeiro conjunto
+     * @param b Segundo conjunto
+     * @return Novo conjunto com os valores presentes em ambos
+     */
+    public static BitmapCompactado e(BitmapCompactado a, BitmapCompactado b) {
+        BitmapCompactado resultado = new BitmapCompactado();
+        int i = 0;
+        int j = 0;
+        while (i < a.quantidadeBlocos && j < b.quantidadeBlocos) {
+            if (a.chaves[i] < b.chaves[j]) {
+                i++;
+            } else if (a.chaves[i] > b.chaves[j]) {
+                j++;
+            } else {
+                resultado.anexarInterseccao(a.chaves[i], a.blocos[i], a.cardinalidades[i], b.blocos[j], b.cardinalidades[j]);
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula a união (OU) de dois conjuntos
+     * @param a Primeiro conjunto
+     * @param b Segundo conjunto
+     * @return Novo conjunto com os valores presentes em pelo menos um deles
+     */
+    public static BitmapCompactado ou(BitmapCompactado a, BitmapCompactado b) {
+        BitmapCompactado resultado = new BitmapCompactado();
+        int i = 0;
+        int j = 0;
+        while (i < a.quantidadeBlocos || j < b.quantidadeBlocos) {
+            if (j >= b.quantidadeBlocos || (i < a.quantidadeBlocos && a.chaves[i] < b.chaves[j])) {
+                resultado.anexarCopia(a.chaves[i], a.blocos[i], a.cardinalidades[i]);
+                i++;
+            } else if (i >= a.quantidadeBlocos || a.chaves[i] > b.chaves[j]) {
+                resultado.anexarCopia(b.chaves[j], b.blocos[j], b.cardinalidades[j]);
+                j++;
+            } else {
+                resultado.anexarUniao(a.chaves[i], a.blocos[i], a.cardinalidades[i], b.blocos[j], b.cardinalidades[j]);
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    // Métodos auxiliares de manipulação dos blocos
+
+    private int buscarBloco(char alta) {
+        return Arrays.binarySearch(chaves, 0, quantidadeBlocos, alta);
+    }
+
+    private void inserirBloco(int indice, char alta, Object bloco, int cardinalidade) {
+        if (quantidadeBlocos == chaves.length) {
+            int novoTamanho = chaves.length * 2;
+            chaves = Arrays.copyOf(chaves, novoTamanho);
+            blocos = Arrays.copyOf(blocos, novoTamanho);
+            cardinalidades = Arrays.copyOf(cardinalidades, novoTamanho);
+        }
+        System.arraycopy(chaves, indice, chaves, indice + 1, quantidadeBlocos - indice);
+        System.arraycopy(blocos, indice, blocos, indice + 1, quantidadeBlocos - indice);
+        System.arraycopy(cardinalidades, indice, cardinalidades, indice + 1, quantidadeBlocos - indice);
+        chaves[indice] = alta;
+        blocos[indice] = bloco;
+        cardinalidades[indice] = cardinalidade;
+        quantidadeBlocos++;
+    }
+
+    private void removerBloco(int indice) {
+        int mover = quantidadeBlocos - indice - 1;
+        System.arraycopy(chaves, indice + 1, chaves, indice, mover);
+        System.arraycopy(blocos, indice + 1, blocos, indice, mover);
+        System.arraycopy(cardinalidades, indice + 1, cardinalidades, indice, mover);
+        quantidadeBlocos--;
+        blocos[quantidadeBlocos] = null;
+    }
+
+    /**
+     * Anexa um bloco no final (as chaves devem chegar em ordem crescente)
+     */
+    private void anexar(char alta, Object bloco, int cardinalidade) {
+        if (cardinalidade > 0) {
+            inserirBloco(quantidadeBlocos, alta, bloco, cardinalidade);
+        }
+    }
+
+    private void anexarCopia(char alta, Object bloco, int cardinalidade) {
+        Object copia = bloco instanceof long[]
+                ? ((long[]) bloco).clone()
+                : Arrays.copyOf((char[]) bloco, cardinalidade);
+        anexar(alta, copia, cardinalidade);
+    }
+
+    private void anexarInterseccao(char alta, Object blocoA, int cardA, Object blocoB, int cardB) {
+        if (blocoA instanceof long[] && blocoB instanceof long[]) {
+            long[] bitsA = (long[]) blocoA;
+            long[] bitsB = (long[]) blocoB;
+            long[] bits = new long[PALAVRAS_POR_BLOCO];
+            int cardinalidade = 0;
+            for (int p = 0; p < PALAVRAS_POR_BLOCO; p++) {
+                bits[p] = bitsA[p] & bitsB[p];
+                cardinalidade += Long.bitCount(bits[p]);
+            }
+            anexar(alta, cardinalidade <= LIMITE_ARRAY ? paraArray(bits, cardinalidade) : bits, cardinalidade);
+        } else if (blocoA instanceof long[] || blocoB instanceof long[]) {
+            // Filtra os valores do array pelo mapa de bits
+            long[] bits = (long[]) (blocoA instanceof long[] ? blocoA : blocoB);
+            char[] valores = (char[]) (blocoA instanceof long[] ? blocoB : blocoA);
+            int total = blocoA instanceof long[] ? cardB : cardA;
+            char[] saida = new char[total];
+            int cardinalidade = 0;
+            for (int k = 0; k < total; k++) {
+                char v = valores[k];
+                if ((bits[v >>> 6] & (1L << v)) != 0) {
+                    saida[cardinalidade++] = v;
+                }
+            }
+            anexar(alta, saida, cardinalidade);
+        } else {
+            // Interseção de dois arrays ordenados
+            char[] valoresA = (char[]) blocoA;
+            char[] valoresB = (char[]) blocoB;
+            char[] saida = new char[Math.min(cardA, cardB)];
+            int cardinalidade = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardA && j < cardB) {
+                if (valoresA[i] < valoresB[j]) {
+                    i++;
+                } else if (valoresA[i] > valoresB[j]) {
+                    j++;
+                } else {
+                    saida[cardinalidade++] = valoresA[i];
+                    i++;
+                    j++;
+                }
+            }
+            anexar(alta, saida, cardinalidade);
+        }
+    }
+
+    private void anexarUniao(char alta, Object blocoA, int cardA, Object blocoB, int cardB) {
+        if (blocoA instanceof long[] || blocoB instanceof long[]) {
+            long[] bits = blocoA instanceof long[] ? ((long[]) blocoA).clone() : paraMapaDeBits((char[]) blocoA, cardA);
+            if (blocoB instanceof long[]) {
+                long[] bitsB = (long[]) blocoB;
+                for (int p = 0; p < PALAVRAS_POR_BLOCO; p++) {
+                    bits[p] |= bitsB[p];
+                }
+            } else {
+                char[] valoresB = (char[]) blocoB;
+                for (int k = 0; k < cardB; k++) {
+                    bits[valoresB[k] >>> 6] |= 1L << valoresB[k];
+                }
+            }
+            int cardinalidade = 0;
+            for (long palavra : bits) {
+                cardinalidade += Long.bitCount(palavra);
+            }
+            anexar(alta, bits, cardinalidade);
+            return;
+        }
+
+        // União de dois arrays ordenados
+        char[] valoresA = (char[]) blocoA;
+        char[] valoresB = (char[]) blocoB;
+        char[] saida = new char[cardA + cardB];
+        int cardinalidade = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cardA || j < cardB) {
+            if (j >= cardB || (i < cardA && valoresA[i] < valoresB[j])) {
+                saida[cardinalidade++] = valoresA[i++];
+            } else if (i >= cardA || valoresA[i] > valoresB[j]) {
+                saida[cardinalidade++] = valoresB[j++];
+            } else {
+                saida[cardinalidade++] = valoresA[i];
+                i++;
+                j++;
+            }
+        }
+        anexar(alta, cardinalidade > LIMITE_ARRAY ? paraMapaDeBits(saida, cardinalidade) : saida, cardinalidade);
+    }
+
+    private static long[] paraMapaDeBits(char[] valores, int cardinalidade) {
+        long[] bits = new long[PALAVRAS_POR_BLOCO];
+        for (int k = 0; k < cardinalidade; k++) {
+            bits[valores[k] >>> 6] |= 1L << valores[k];
+        }
+        return bits;
+    }
+
+    private static char[] paraArray(long[] bits, int cardinalidade) {
+        char[] valores = new char[Math.max(cardinalidade, 4)];
+        int posicao = 0;
+        for (int palavra = 0; palavra < PALAVRAS_POR_BLOCO; palavra++) {
+            long restante = bits[palavra];
+            while (restante != 0) {
+                valores[posicao++] = (char) ((palavra << 6) | Long.numberOfTrailingZeros(restante));
+                restante &= restante - 1;
+            }
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,150 @@
+package managers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache limitado para resultados de consultas do catálogo
+ * Usa despejo LRU (menos usado recentemente), expiração por tempo (TTL)
+ * e carimbos de versão para descartar entradas afetadas por alterações
+ * @param <V> Tipo do valor armazenado
+ */
+public class CacheConsultas<V> {
+    private final int capacidade;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entrada<V>> entradas;
+
+    // Estatísticas de uso
+    private long acertos;
+    private long falhas;
+    private long expiracoes;
+    private long invalidacoes;
+    private long despejos;
+
+    /**
+     * Entrada do cache com a versão e o instante em que foi carregada
+     */
+    private static class Entrada<V> {
+        private final V valor;
+        private final long versao;
+        private final long criadoEm;
+
+        private Entrada(V valor, long versao, long criadoEm) {
+            this.valor = valor;
+            this.versao = versao;
+            this.criadoEm = criadoEm;
+        }
+    }
+
+    /**
+     * Construtor do cache
+     * @param capacidade Número máximo de entradas mantidas
+     * @param ttlMillis Tempo de vida de cada entrada em milissegundos
+     */
+    public CacheConsultas(int capacidade, long ttlMillis) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do cache deve ser positiva");
+        }
+        this.capacidade = capacidade;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // accessOrder = true mantém a entrada menos usada recentemente no início
+        this.entradas = new LinkedHashMap<String, Entrada<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada<V>> maisAntiga) {
+                if (size() > CacheConsultas.this.capacidade) {
+                    despejos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtém um valor do cache ou o carrega caso esteja ausente, expirado ou desatualizado
+     * @param chave Chave da consulta
+     * @param versaoAtual Versão atual dos dados dos quais o valor depende
+     * @param carregador Função que calcula o valor quando não há entrada válida
+     * @return Valor em cache ou recém-carregado
+     */
+    public V obter(String chave, long versaoAtual, Supplier<V> carregador) {
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(chave);
+            if (entrada != null) {
+                if (entrada.versao != versaoAtual) {
+                    invalidacoes++;
+                    entradas.remove(chave);
+                } else if (System.nanoTime() - entrada.criadoEm > ttlNanos) {
+                    expiracoes++;
+                    entradas.remove(chave);
+                } else {
+                    acertos++;
+                    return entrada.valor;
+                }
+            }
+            falhas++;
+        }
+
+        // O carregamento acontece fora do bloqueio para não segurar outras consultas
+        V valor = carregador.get();
+        synchronized (this) {
+            entradas.put(chave, new Entrada<>(valor, versaoAtual, System.nanoTime()));
+        }
+        return valor;
+    }
+
+    /**
+     * Remove todas as entradas do cache (as estatísticas são mantidas)
+     */
+    public synchronized void limpar() {
+        entradas.clear();
+    }
+
+    public synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public synchronized long getAcertos() {
+        return acertos;
+    }
+
+    public synchronized long getFalhas() {
+        return falhas;
+    }
+
+    public synchronized long getExpiracoes() {
+        return expiracoes;
+    }
+
+    public synchronized long getInvalidacoes() {
+        return invalidacoes;
+    }
+
+    public synchronized long getDespejos() {
+        return despejos;
+    }
+
+    /**
+     * Calcula a taxa de acerto do cache
+     * @return Fração de consultas atendidas pelo cache (0.0 a 1.0)
+     */
+    public synchronized double getTaxaAcerto() {
+        long total = acertos + falhas;
+        return total == 0 ? 0.0 : (double) acertos / total;
+    }
+
+    /**
+     * Retorna uma representação em string das estatísticas do cache
+     * @return String formatada com as estatísticas
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("Entradas: %d/%d | Acertos: %d | Falhas: %d | Taxa de acerto: %.1f%% | Invalidações: %d | Expirações: %d | Despejos: %d",
+                entradas.size(), capacidade, acertos, falhas, getTaxaAcerto() * 100, invalidacoes, expiracoes, despejos);
+    }
+}
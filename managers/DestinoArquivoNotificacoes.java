@@ -0,0 +1,87 @@
+package managers;
+
+import models.NotificacaoVencimento;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Destino que acrescenta os avisos a um arquivo local (UTF-8), um por linha:
+ * chave, e-mail e texto separados por tabulação, com as quebras de linha do texto
+ * trocadas por " | ". As chaves já gravadas são lidas na abertura, de modo que
+ * reenvios (inclusive depois de reiniciar o sistema) não duplicam linhas
+ */
+public class DestinoArquivoNotificacoes implements DestinoNotificacoes {
+    private final Path arquivo;
+    private final Set<String> chavesGravadas;
+
+    /**
+     * Construtor
+     * @param arquivo Arquivo de destino (criado se não existir)
+     * @throws IOException se o arquivo existente não puder ser lido
+     */
+    public DestinoArquivoNotificacoes(Path arquivo) throws IOException {
+        this.arquivo = arquivo;
+        this.chavesGravadas = new HashSet<>();
+        if (Files.exists(arquivo)) {
+            try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    int separador = linha.indexOf('\t');
+                    if (separador > 0) {
+                        chavesGravadas.add(linha.substring(0, separador));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava os avisos ainda não gravados e força a escrita em disco antes de retornar
+     */
+    @Override
+    public synchronized void enviar(List<NotificacaoVencimento> lote) throws IOException {
+        StringBuilder conteudo = new StringBuilder();
+        for (NotificacaoVencimento notificacao : lote) {
+            if (chavesGravadas.contains(notificacao.getChave())) {
+                continue;
+            }
+            String texto = notificacao.getTexto().trim().replace("\n", " | ").replace('\t', ' ');
+            conteudo.append(notificacao.getChave()).append('\t')
+                    .append(notificacao.getEmail()).append('\t')
+                    .append(texto).append('\n');
+        }
+        if (conteudo.length() == 0) {
+            return;
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(conteudo.toString());
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                canal.write(bytes);
+            }
+            canal.force(false);
+        }
+        // As chaves só são registradas depois que o lote chegou ao disco
+        for (NotificacaoVencimento notificacao : lote) {
+            chavesGravadas.add(notificacao.getChave());
+        }
+    }
+
+    /**
+     * Obtém a quantidade de avisos gravados no arquivo
+     * @return Quantidade de chaves distintas
+     */
+    public synchronized int getQuantidadeGravada() {
+        return chavesGravadas.size();
+    }
+}
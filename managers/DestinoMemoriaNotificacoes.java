@@ -0,0 +1,58 @@
+package managers;
+
+import models.NotificacaoVencimento;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Destino que apenas guarda os avisos em memória, para testes e simulações
+ * Pode ser configurado para falhar nas próximas entregas, simulando um serviço indisponível
+ */
+public class DestinoMemoriaNotificacoes implements DestinoNotificacoes {
+    private final Map<String, NotificacaoVencimento> recebidas;
+    private int lotesRecebidos;
+    private int falhasProgramadas;
+
+    /**
+     * Construtor padrão
+     */
+    public DestinoMemoriaNotificacoes() {
+        this.recebidas = new LinkedHashMap<>();
+    }
+
+    @Override
+    public synchronized void enviar(List<NotificacaoVencimento> lote) throws IOException {
+        if (falhasProgramadas > 0) {
+            falhasProgramadas--;
+            throw new IOException("Falha simulada na entrega");
+        }
+        lotesRecebidos++;
+        for (NotificacaoVencimento notificacao : lote) {
+            recebidas.putIfAbsent(notificacao.getChave(), notificacao);
+        }
+    }
+
+    /**
+     * Faz as próximas entregas falharem
+     * @param quantidade Quantidade de entregas que lançarão IOException
+     */
+    public synchronized void programarFalhas(int quantidade) {
+        this.falhasProgramadas = quantidade;
+    }
+
+    /**
+     * Obtém os avisos recebidos, sem repetições, na ordem de chegada
+     * @return Cópia da lista de avisos
+     */
+    public synchronized List<NotificacaoVencimento> getRecebidas() {
+        return new ArrayList<>(recebidas.values());
+    }
+
+    public synchronized int getLotesRecebidos() {
+        return lotesRecebidos;
+    }
+}
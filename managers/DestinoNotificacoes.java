@@ -0,0 +1,20 @@
+package managers;
+
+import models.NotificacaoVencimento;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino para onde os avisos de vencimento são entregues (e-mail, SMS, arquivo...)
+ * Uma entrega pode ser repetida depois de uma falha, inclusive com avisos que já tinham
+ * sido aceitos; o destino deve ignorar avisos cuja chave já recebeu
+ */
+public interface DestinoNotificacoes {
+    /**
+     * Entrega um lote de avisos
+     * @param lote Avisos a serem entregues
+     * @throws IOException se a entrega falhar (o lote inteiro será tentado novamente)
+     */
+    void enviar(List<NotificacaoVencimento> lote) throws IOException;
+}
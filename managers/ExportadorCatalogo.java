@@ -0,0 +1,399 @@
+package managers;
+
+import models.Emprestimo;
+import models.Livro;
+import models.Usuario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação do catálogo e do histórico de empréstimos em arquivos CSV (UTF-8)
+ * Livros e usuários são divididos em partições, e cada partição é gravada em um arquivo
+ * próprio por um pool de threads, através de canais NIO com buffer e, opcionalmente, GZIP.
+ * Os livros são divididos por faixa de ordinal, que não muda enquanto a exportação roda, e cada
+ * tarefa busca a sua faixa no momento em que começa. Os usuários são divididos a partir de uma única
+ * cópia da lista (apenas as referências), tirada antes da divisão, para que inclusões e remoções
+ * durante a exportação não desloquem as partições. O histórico é lido do disco sem manter o
+ * bloqueio do arquivo nem o do catálogo
+ */
+public class ExportadorCatalogo {
+    private static final int TAMANHO_PARTICAO_PADRAO = 10_000;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    // Quantidade de registros do histórico entre dois avisos de progresso
+    private static final int INTERVALO_PROGRESSO = 10_000;
+    private static final char SEPARADOR = ',';
+
+    /**
+     * Recebe o andamento da exportação
+     * Pode ser chamado a partir de qualquer uma das threads da exportação
+     */
+    public interface OuvinteProgresso {
+        /**
+         * @param registrosExportados Registros gravados até o momento
+         * @param totalEstimado Total de registros previsto no início da exportação
+         */
+        void progresso(long registrosExportados, long totalEstimado);
+    }
+
+    private final BibliotecaManager biblioteca;
+    private int tamanhoParticao;
+    private int threads;
+    private boolean compactar;
+    private OuvinteProgresso ouvinte;
+
+    /**
+     * Construtor com as configurações padrão (sem compactação, uma thread por processador)
+     * @param biblioteca Gerenciador da biblioteca
+     */
+    public ExportadorCatalogo(BibliotecaManager biblioteca) {
+        this.biblioteca = biblioteca;
+        this.tamanhoParticao = TAMANHO_PARTICAO_PADRAO;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.compactar = false;
+    }
+
+    public void setTamanhoParticao(int tamanhoParticao) {
+        if (tamanhoParticao <= 0) {
+            throw new IllegalArgumentException("Tamanho da partição deve ser positivo");
+        }
+        this.tamanhoParticao = tamanhoParticao;
+    }
+
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Quantidade de threads deve ser positiva");
+        }
+        this.threads = threads;
+    }
+
+    public void setCompactar(boolean compactar) {
+        this.compactar = compactar;
+    }
+
+    public void setOuvinte(OuvinteProgresso ouvinte) {
+        this.ouvinte = ouvinte;
+    }
+
+    /**
+     * Exporta livros, usuários, empréstimos em aberto e histórico para o diretório informado
+     * @param diretorio Diretório de destino (criado se não existir)
+     * @return Arquivos gravados
+     * @throws IOException se alguma gravação falhar (as demais tarefas são canceladas)
+     */
+    public List<Path> exportar(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        int limiteOrdinais = biblioteca.getLimiteOrdinais();
+        List<Usuario> usuarios = biblioteca.getUsuarios();
+        long totalEstimado = biblioteca.getQuantidadeLivros() + usuarios.size()
+                + biblioteca.getArquivoHistorico().getQuantidade();
+        AtomicLong exportados = new AtomicLong();
+
+        List<Callable<Path>> tarefas = new ArrayList<>();
+        int particao = 0;
+        for (int inicio = 0; inicio < limiteOrdinais; inicio += tamanhoParticao) {
+            int primeiro = inicio;
+            Path arquivo = diretorio.resolve(nomeArquivo("livros-" + numero(++particao)));
+            tarefas.add(() -> exportarLivros(arquivo, primeiro, primeiro + tamanhoParticao, exportados, totalEstimado));
+        }
+        particao = 0;
+        for (int inicio = 0; inicio < usuarios.size(); inicio += tamanhoParticao) {
+            List<Usuario> fatia = usuarios.subList(inicio, Math.min(usuarios.size(), inicio + tamanhoParticao));
+            Path arquivo = diretorio.resolve(nomeArquivo("usuarios-" + numero(++particao)));
+            tarefas.add(() -> exportarUsuarios(arquivo, fatia, exportados, totalEstimado));
+        }
+        Path abertos = diretorio.resolve(nomeArquivo("emprestimos-abertos"));
+        tarefas.add(() -> exportarEmprestimosEmAberto(abertos));
+        Path historico = diretorio.resolve(nomeArquivo("emprestimos-historico"));
+        tarefas.add(() -> exportarHistorico(historico, exportados, totalEstimado));
+
+        return executar(tarefas);
+    }
+
+    private List<Path> executar(List<Callable<Path>> tarefas) throws IOException {
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "exportacao-catalogo-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Path>> futuros = new ArrayList<>();
+            for (Callable<Path> tarefa : tarefas) {
+                futuros.add(executor.submit(tarefa));
+            }
+            List<Path> arquivos = new ArrayList<>();
+            for (Future<Path> futuro : futuros) {
+                try {
+                    arquivos.add(futuro.get());
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause();
+                    if (causa instanceof IOException) {
+                        throw (IOException) causa;
+                    }
+                    if (causa instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException) causa).getCause();
+                    }
+                    throw new IOException("Falha na exportação do catálogo", causa);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Exportação do catálogo interrompida", e);
+                }
+            }
+            return arquivos;
+        } finally {
+            // Em caso de falha as tarefas restantes são interrompidas
+            executor.shutdownNow();
+        }
+    }
+
+    // Tarefas de exportação
+
+    private Path exportarLivros(Path arquivo, int inicio, int fim, AtomicLong exportados, long total)
+            throws IOException {
+        List<Livro> particao = biblioteca.getLivrosPorOrdinal(inicio, fim);
+        try (EscritorCsv escritor = new EscritorCsv(arquivo, compactar)) {
+            escritor.linha("ordinal,isbn,titulo,autor,genero,editora,anoPublicacao,disponivel");
+            for (Livro livro : particao) {
+                escritor.numero(livro.getOrdinal()).campo(livro.getIsbn()).campo(livro.getTitulo())
+                        .campo(livro.getAutor()).campo(livro.getGenero()).campo(livro.getEditora())
+                        .numero(livro.getAnoPublicacao()).campo(String.valueOf(livro.isDisponivel()))
+                        .fimLinha();
+            }
+        }
+        avisar(exportados.addAndGet(particao.size()), total);
+        return arquivo;
+    }
+
+    private Path exportarUsuarios(Path arquivo, List<Usuario> particao, AtomicLong exportados, long total)
+            throws IOException {
+        try (EscritorCsv escritor = new EscritorCsv(arquivo, compactar)) {
+            escritor.linha("id,nome,email,telefone,categoria,limiteEmprestimos,ativo,livrosEmprestados,saldoDevedor");
+            for (Usuario usuario : particao) {
+                escritor.campo(usuario.getId()).campo(usuario.getNome()).campo(usuario.getEmail())
+                        .campo(usuario.getTelefone()).campo(usuario.getCategoria())
+                        .numero(usuario.getLimiteEmprestimos()).campo(String.valueOf(usuario.isAtivo()))
+                        .numero(usuario.getQuantidadeLivrosEmprestados())
+                        .centavos(usuario.getSaldoDevedorCentavos()).fimLinha();
+            }
+        }
+        avisar(exportados.addAndGet(particao.size()), total);
+        return arquivo;
+    }
+
+    private Path exportarEmprestimosEmAberto(Path arquivo) throws IOException {
+        try (EscritorCsv escritor = new EscritorCsv(arquivo, compactar)) {
+            escreverCabecalhoEmprestimos(escritor);
+            for (Emprestimo emprestimo : biblioteca.getEmprestimosEmAberto()) {
+                escreverEmprestimo(escritor, emprestimo);
+            }
+        }
+        return arquivo;
+    }
+
+    private Path exportarHistorico(Path arquivo, AtomicLong exportados, long total) throws IOException {
+        try (EscritorCsv escritor = new EscritorCsv(arquivo, compactar)) {
+            escreverCabecalhoEmprestimos(escritor);
+            long[] pendentes = new long[1];
+            // O histórico é lido partição a partição do disco; usuários e livros não são resolvidos no catálogo
+            biblioteca.getArquivoHistorico().paraCada(null, null, id -> null, isbn -> null, emprestimo -> {
+                try {
+                    escreverEmprestimo(escritor, emprestimo);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++pendentes[0] == INTERVALO_PROGRESSO) {
+                    avisar(exportados.addAndGet(pendentes[0]), total);
+                    pendentes[0] = 0;
+                }
+            });
+            avisar(exportados.addAndGet(pendentes[0]), total);
+        }
+        return arquivo;
+    }
+
+    private static void escreverCabecalhoEmprestimos(EscritorCsv escritor) throws IOException {
+        escritor.linha("idUsuario,isbn,dataEmprestimo,dataDevolucaoPrevista,dataDevolucao,status,multa,renovacoes");
+    }
+
+    private static void escreverEmprestimo(EscritorCsv escritor, Emprestimo emprestimo) throws IOException {
+        escritor.campo(emprestimo.getUsuario().getId()).campo(emprestimo.getLivro().getIsbn())
+                .data(emprestimo.getDataEmprestimo()).data(emprestimo.getDataDevolucaoPrevista())
+                .data(emprestimo.getDataDevolucao()).campo(emprestimo.getStatus())
+                .centavos(Math.round(emprestimo.getMulta() * 100)).numero(emprestimo.getRenovacoes())
+                .fimLinha();
+    }
+
+    private void avisar(long exportados, long total) {
+        if (ouvinte != null) {
+            ouvinte.progresso(exportados, total);
+        }
+    }
+
+    private String nomeArquivo(String base) {
+        return compactar ? base + ".csv.gz" : base + ".csv";
+    }
+
+    private static String numero(int particao) {
+        return String.format("%04d", particao);
+    }
+
+    /**
+     * Escritor de linhas CSV sobre um canal de arquivo
+     * As linhas são montadas em um StringBuilder e codificadas em UTF-8 para um buffer de bytes
+     * reaproveitado, que é gravado no canal (ou no GZIP) quando enche
+     */
+    private static class EscritorCsv implements Closeable {
+        private final WritableByteChannel destino;
+        private final CharsetEncoder codificador;
+        private final ByteBuffer bytes;
+        private final StringBuilder texto;
+        private boolean inicioLinha;
+
+        private EscritorCsv(Path arquivo, boolean compactar) throws IOException {
+            FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.destino = compactar
+                    ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(canal), TAMANHO_BUFFER))
+                    : canal;
+            this.codificador = StandardCharsets.UTF_8.newEncoder();
+            this.bytes = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+            this.texto = new StringBuilder(TAMANHO_BUFFER);
+            this.inicioLinha = true;
+        }
+
+        private void linha(String conteudo) throws IOException {
+            texto.append(conteudo);
+            fimLinha();
+        }
+
+        private EscritorCsv campo(String valor) {
+            separar();
+            if (valor == null) {
+                return this;
+            }
+            boolean aspas = false;
+            for (int i = 0; i < valor.length() && !aspas; i++) {
+                char c = valor.charAt(i);
+                aspas = c == SEPARADOR || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!aspas) {
+                texto.append(valor);
+                return this;
+            }
+            texto.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"') {
+                    texto.append('"');
+                }
+                texto.append(c);
+            }
+            texto.append('"');
+            return this;
+        }
+
+        private EscritorCsv numero(long valor) {
+            separar();
+            texto.append(valor);
+            return this;
+        }
+
+        private EscritorCsv data(LocalDate data) {
+            separar();
+            if (data != null) {
+                texto.append(data);
+            }
+            return this;
+        }
+
+        /**
+         * Escreve um valor em centavos com duas casas decimais, sem String.format
+         */
+        private EscritorCsv centavos(long valor) {
+            separar();
+            if (valor < 0) {
+                texto.append('-');
+                valor = -valor;
+            }
+            long centavos = valor % 100;
+            texto.append(valor / 100).append('.');
+            if (centavos < 10) {
+                texto.append('0');
+            }
+            texto.append(centavos);
+            return this;
+        }
+
+        private void fimLinha() throws IOException {
+            texto.append('\n');
+            inicioLinha = true;
+            if (texto.length() >= TAMANHO_BUFFER) {
+                descarregar(false);
+            }
+        }
+
+        private void separar() {
+            if (!inicioLinha) {
+                texto.append(SEPARADOR);
+            }
+            inicioLinha = false;
+        }
+
+        private void descarregar(boolean fim) throws IOException {
+            CharBuffer caracteres = CharBuffer.wrap(texto);
+            CoderResult resultado;
+            do {
+                resultado = codificador.encode(caracteres, bytes, fim);
+                gravarBytes();
+            } while (resultado.isOverflow());
+            if (fim) {
+                while (codificador.flush(bytes).isOverflow()) {
+                    gravarBytes();
+                }
+                gravarBytes();
+            }
+            texto.delete(0, caracteres.position());
+        }
+
+        private void gravarBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                destino.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                descarregar(true);
+            } finally {
+                destino.close();
+            }
+        }
+    }
+}
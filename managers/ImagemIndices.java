@@ -0,0 +1,230 @@
+package managers;
+
+import models.Livro;
+import models.MapaDisponibilidade;
+import models.TabelaSimbolos;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Imagem em disco dos índices do catálogo, gravada ao lado do arquivo de dados
+ * Guarda as tabelas de símbolos, os ordinais dos livros, os contadores de empréstimos,
+ * os índices de bitmap e os índices de busca aproximada de títulos e autores, para que
+ * a carga não precise recalculá-los livro a livro.
+ * A imagem registra o tamanho e o CRC32 do arquivo de dados a que corresponde e tem
+ * o próprio CRC32; qualquer divergência faz a imagem ser descartada
+ */
+class ImagemIndices {
+    // "BTIX" seguido da versão do formato da imagem
+    private static final int ASSINATURA = 0x42544958;
+    private static final int VERSAO = 3;
+
+    // Tabelas na ordem em que são gravadas
+    private static final TabelaSimbolos[] TABELAS = {
+            TabelaSimbolos.AUTORES, TabelaSimbolos.GENEROS, TabelaSimbolos.EDITORAS, TabelaSimbolos.CATEGORIAS
+    };
+
+    private final String[][] termos;
+    private final int proximoOrdinal;
+    private final int[] ordinais;
+    private final int[] emprestimosPorOrdinal;
+    private final IndiceBitmapLivros indiceBitmap;
+    private final IndiceBuscaAproximada indiceTitulos;
+    private final IndiceBuscaAproximada indiceAutores;
+
+    private ImagemIndices(String[][] termos, int proximoOrdinal, int[] ordinais, int[] emprestimosPorOrdinal,
+                          IndiceBitmapLivros indiceBitmap, IndiceBuscaAproximada indiceTitulos,
+                          IndiceBuscaAproximada indiceAutores) {
+        this.termos = termos;
+        this.proximoOrdinal = proximoOrdinal;
+        this.ordinais = ordinais;
+        this.emprestimosPorOrdinal = emprestimosPorOrdinal;
+        this.indiceBitmap = indiceBitmap;
+        this.indiceTitulos = indiceTitulos;
+        this.indiceAutores = indiceAutores;
+    }
+
+    /**
+     * Grava a imagem dos índices
+     * @param arquivo Caminho da imagem
+     * @param tamanhoDados Tamanho do arquivo de dados correspondente
+     * @param crcDados CRC32 do arquivo de dados correspondente
+     * @param livros Livros na mesma ordem em que foram gravados no arquivo de dados
+     * @param proximoOrdinal Próximo ordinal a ser atribuído
+     * @param emprestimosPorOrdinal Quantidade de empréstimos de cada livro
+     * @param indiceBitmap Índices de bitmap do catálogo
+     * @param indiceTitulos Índice de busca aproximada dos títulos
+     * @param indiceAutores Índice de busca aproximada dos autores
+     * @throws IOException se a gravação falhar
+     */
+    static void gravar(Path arquivo, long tamanhoDados, long crcDados, List<Livro> livros, int proximoOrdinal,
+                       int[] emprestimosPorOrdinal, IndiceBitmapLivros indiceBitmap,
+                       IndiceBuscaAproximada indiceTitulos, IndiceBuscaAproximada indiceAutores) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream conteudo = new DataOutputStream(bytes)) {
+            for (TabelaSimbolos tabela : TABELAS) {
+                int tamanho = tabela.getTamanho();
+                conteudo.writeInt(tamanho);
+                for (int codigo = 0; codigo < tamanho; codigo++) {
+                    conteudo.writeUTF(tabela.decodificar(codigo));
+                }
+            }
+            conteudo.writeInt(proximoOrdinal);
+            conteudo.writeInt(livros.size());
+            for (Livro livro : livros) {
+                conteudo.writeInt(livro.getOrdinal());
+            }
+            conteudo.writeInt(emprestimosPorOrdinal.length);
+            for (int quantidade : emprestimosPorOrdinal) {
+                conteudo.writeInt(quantidade);
+            }
+            indiceBitmap.gravar(conteudo);
+            indiceTitulos.gravar(conteudo);
+            indiceAutores.gravar(conteudo);
+        }
+        byte[] corpo = bytes.toByteArray();
+
+        ByteBuffer imagem = ByteBuffer.allocate(32 + corpo.length);
+        imagem.putInt(ASSINATURA);
+        imagem.putInt(VERSAO);
+        imagem.putLong(tamanhoDados);
+        imagem.putLong(crcDados);
+        imagem.putLong(calcularCrc(ByteBuffer.wrap(corpo)));
+        imagem.put(corpo);
+        imagem.flip();
+        gravarAtomicamente(arquivo, imagem);
+    }
+
+    /**
+     * Lê a imagem dos índices, se ela corresponder ao arquivo de dados informado
+     * @param arquivo Caminho da imagem
+     * @param tamanhoDados Tamanho do arquivo de dados carregado
+     * @param crcDados CRC32 do arquivo de dados carregado
+     * @param disponibilidade Mapa de disponibilidade consultado pelo índice de bitmap lido
+     * @return Imagem lida, ou null se não existir, estiver corrompida, for de outra versão ou estiver desatualizada
+     */
+    static ImagemIndices ler(Path arquivo, long tamanhoDados, long crcDados, MapaDisponibilidade disponibilidade) {
+        if (!Files.isRegularFile(arquivo)) {
+            return null;
+        }
+        try {
+            ByteBuffer imagem = ByteBuffer.wrap(Files.readAllBytes(arquivo));
+            if (imagem.remaining() < 32 || imagem.getInt() != ASSINATURA || imagem.getInt() != VERSAO
+                    || imagem.getLong() != tamanhoDados || imagem.getLong() != crcDados) {
+                return null;
+            }
+            long crcCorpo = imagem.getLong();
+            if (calcularCrc(imagem.duplicate()) != crcCorpo) {
+                return null;
+            }
+
+            DataInputStream conteudo = new DataInputStream(new ByteArrayInputStream(
+                    imagem.array(), imagem.position(), imagem.remaining()));
+            String[][] termos = new String[TABELAS.length][];
+            for (int i = 0; i < TABELAS.length; i++) {
+                termos[i] = new String[conteudo.readInt()];
+                for (int codigo = 0; codigo < termos[i].length; codigo++) {
+                    termos[i][codigo] = conteudo.readUTF();
+                }
+            }
+            int proximoOrdinal = conteudo.readInt();
+            int[] ordinais = new int[conteudo.readInt()];
+            for (int i = 0; i < ordinais.length; i++) {
+                ordinais[i] = conteudo.readInt();
+            }
+            int[] emprestimosPorOrdinal = new int[conteudo.readInt()];
+            for (int i = 0; i < emprestimosPorOrdinal.length; i++) {
+                emprestimosPorOrdinal[i] = conteudo.readInt();
+            }
+            IndiceBitmapLivros indiceBitmap = IndiceBitmapLivros.ler(conteudo, disponibilidade);
+            IndiceBuscaAproximada indiceTitulos = IndiceBuscaAproximada.ler(conteudo);
+            IndiceBuscaAproximada indiceAutores = IndiceBuscaAproximada.ler(conteudo);
+            return new ImagemIndices(termos, proximoOrdinal, ordinais, emprestimosPorOrdinal, indiceBitmap,
+                    indiceTitulos, indiceAutores);
+        } catch (IOException | RuntimeException e) {
+            // Imagem ilegível: os índices serão reconstruídos a partir dos dados
+            return null;
+        }
+    }
+
+    /**
+     * Restaura as tabelas de símbolos com os mesmos códigos usados pelos índices gravados
+     * Deve ser chamado antes de decodificar os livros, que codificam seus atributos ao serem criados
+     * @return false se alguma tabela já tiver um código diferente para o mesmo termo (imagem inutilizável)
+     */
+    boolean restaurarTabelas() {
+        for (int i = 0; i < TABELAS.length; i++) {
+            TabelaSimbolos tabela = TABELAS[i];
+            for (int codigo = 0; codigo < termos[i].length; codigo++) {
+                if (tabela.codificar(termos[i][codigo]) != codigo) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    int getProximoOrdinal() {
+        return proximoOrdinal;
+    }
+
+    /**
+     * Obtém os ordinais dos livros, na ordem do arquivo de dados
+     */
+    int[] getOrdinais() {
+        return ordinais;
+    }
+
+    int[] getEmprestimosPorOrdinal() {
+        return emprestimosPorOrdinal;
+    }
+
+    IndiceBitmapLivros getIndiceBitmap() {
+        return indiceBitmap;
+    }
+
+    IndiceBuscaAproximada getIndiceTitulos() {
+        return indiceTitulos;
+    }
+
+    IndiceBuscaAproximada getIndiceAutores() {
+        return indiceAutores;
+    }
+
+    /**
+     * Calcula o CRC32 do conteúdo restante do buffer (consome o buffer)
+     */
+    static long calcularCrc(ByteBuffer conteudo) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        return crc.getValue();
+    }
+
+    /**
+     * Grava o conteúdo em um arquivo temporário e o move sobre o destino,
+     * de modo que uma falha no meio da gravação não deixa um arquivo pela metade
+     */
+    static void gravarAtomicamente(Path arquivo, ByteBuffer conteudo) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (conteudo.hasRemaining()) {
+                canal.write(conteudo);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,229 @@
+package managers;
+
+import models.Livro;
+import models.MapaDisponibilidade;
+import models.TabelaSimbolos;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índices de bitmap sobre os livros do catálogo, endereçados pelo ordinal de cada livro
+ * Mantém um bitmap por gênero, um por editora e um por ano de publicação, permitindo combinar
+ * filtros com operações E/OU em vez de percorrer todos os livros. A disponibilidade não tem
+ * bitmap próprio: o filtro de disponíveis consulta o mapa de disponibilidade do catálogo,
+ * o mesmo que empréstimos e devoluções alteram
+ */
+public class IndiceBitmapLivros {
+    private final MapaDisponibilidade disponibilidade;
+    private List<BitmapCompactado> porGenero;   // indexado pelo código do gênero
+    private List<BitmapCompactado> porEditora;  // indexado pelo código da editora
+    private TreeMap<Integer, BitmapCompactado> porAno;
+
+    /**
+     * Construtor (índices vazios)
+     * @param disponibilidade Mapa de disponibilidade do catálogo, usado pelo filtro de disponíveis
+     */
+    public IndiceBitmapLivros(MapaDisponibilidade disponibilidade) {
+        this.disponibilidade = disponibilidade;
+        this.porGenero = new ArrayList<>();
+        this.porEditora = new ArrayList<>();
+        this.porAno = new TreeMap<>();
+    }
+
+    /**
+     * Indexa um livro recém-adicionado ao catálogo
+     * @param livro Livro com ordinal já atribuído
+     */
+    public void adicionar(Livro livro) {
+        int ordinal = livro.getOrdinal();
+        bitmapDoCodigo(porGenero, livro.getCodigoGenero(), true).adicionar(ordinal);
+        bitmapDoCodigo(porEditora, livro.getCodigoEditora(), true).adicionar(ordinal);
+        porAno.computeIfAbsent(livro.getAnoPublicacao(), ano -> new BitmapCompactado()).adicionar(ordinal);
+    }
+
+    /**
+     * Remove um livro de todos os índices
+     * @param livro Livro que está saindo do catálogo
+     */
+    public void remover(Livro livro) {
+        int ordinal = livro.getOrdinal();
+        removerDoCodigo(porGenero, livro.getCodigoGenero(), ordinal);
+        removerDoCodigo(porEditora, livro.getCodigoEditora(), ordinal);
+        removerDoAno(livro.getAnoPublicacao(), ordinal);
+    }
+
+    /**
+     * Atualiza os índices após a alteração de um campo do livro
+     * @param livro Livro alterado
+     * @param campo Nome do campo alterado (constantes CAMPO_* de Livro)
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    public void atualizar(Livro livro, String campo, Object valorAnterior) {
+        int ordinal = livro.getOrdinal();
+        if (Livro.CAMPO_GENERO.equals(campo)) {
+            removerDoCodigo(porGenero, TabelaSimbolos.GENEROS.buscarCodigo((String) valorAnterior), ordinal);
+            bitmapDoCodigo(porGenero, livro.getCodigoGenero(), true).adicionar(ordinal);
+        } else if (Livro.CAMPO_EDITORA.equals(campo)) {
+            removerDoCodigo(porEditora, TabelaSimbolos.EDITORAS.buscarCodigo((String) valorAnterior), ordinal);
+            bitmapDoCodigo(porEditora, livro.getCodigoEditora(), true).adicionar(ordinal);
+        } else if (Livro.CAMPO_ANO_PUBLICACAO.equals(campo)) {
+            removerDoAno((Integer) valorAnterior, ordinal);
+            porAno.computeIfAbsent(livro.getAnoPublicacao(), ano -> new BitmapCompactado()).adicionar(ordinal);
+        }
+    }
+
+    /**
+     * Combina os filtros informados com operações de bitmap
+     * Filtros nulos são ignorados; se nenhum filtro for informado o resultado é null (todos os livros)
+     * @param genero Gênero exato ou null
+     * @param editora Editora exata ou null
+     * @param anoMinimo Ano mínimo de publicação (inclusivo) ou null
+     * @param anoMaximo Ano máximo de publicação (inclusivo) ou null
+     * @param somenteDisponiveis true para manter apenas livros disponíveis
+     * @return Bitmap com os ordinais que atendem a todos os filtros, ou null se não houver filtros
+     *         (pode ser um dos bitmaps internos, portanto não deve ser alterado)
+     */
+    public BitmapCompactado filtrar(String genero, String editora, Integer anoMinimo, Integer anoMaximo,
+                                    boolean somenteDisponiveis) {
+        BitmapCompactado resultado = null;
+        if (genero != null) {
+            resultado = combinar(resultado, bitmapDoCodigo(porGenero, TabelaSimbolos.GENEROS.buscarCodigo(genero), false));
+        }
+        if (editora != null) {
+            resultado = combinar(resultado, bitmapDoCodigo(porEditora, TabelaSimbolos.EDITORAS.buscarCodigo(editora), false));
+        }
+        if (anoMinimo != null || anoMaximo != null) {
+            // Faixa de anos: união (OU) dos bitmaps de cada ano da faixa; uma faixa invertida fica vazia
+            int de = anoMinimo != null ? anoMinimo : Integer.MIN_VALUE;
+            int ate = anoMaximo != null ? anoMaximo : Integer.MAX_VALUE;
+            BitmapCompactado anos = new BitmapCompactado();
+            if (de <= ate) {
+                for (BitmapCompactado bitmapAno : porAno.subMap(de, true, ate, true).values()) {
+                    anos = BitmapCompactado.ou(anos, bitmapAno);
+                }
+            }
+            resultado = combinar(resultado, anos);
+        }
+        if (somenteDisponiveis) {
+            resultado = manterDisponiveis(resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Mantém apenas os ordinais disponíveis no mapa de disponibilidade
+     * @param candidatos Ordinais já filtrados, ou null para partir de todos os livros
+     */
+    private BitmapCompactado manterDisponiveis(BitmapCompactado candidatos) {
+        BitmapCompactado resultado = new BitmapCompactado();
+        if (candidatos == null) {
+            disponibilidade.paraCada(resultado::adicionar);
+        } else {
+            candidatos.paraCada(ordinal -> {
+                if (disponibilidade.estaDisponivel(ordinal)) {
+                    resultado.adicionar(ordinal);
+                }
+            });
+        }
+        return resultado;
+    }
+
+    /**
+     * Grava todos os bitmaps do índice (os códigos de gênero e editora são os das tabelas de símbolos)
+     * @param saida Destino dos dados
+     * @throws IOException se a gravação falhar
+     */
+    void gravar(DataOutput saida) throws IOException {
+        gravarPorCodigo(saida, porGenero);
+        gravarPorCodigo(saida, porEditora);
+        saida.writeInt(porAno.size());
+        for (Map.Entry<Integer, BitmapCompactado> ano : porAno.entrySet()) {
+            saida.writeInt(ano.getKey());
+            ano.getValue().gravar(saida);
+        }
+    }
+
+    /**
+     * Lê um índice gravado por gravar
+     * @param entrada Origem dos dados
+     * @param disponibilidade Mapa de disponibilidade do catálogo
+     * @return Índice pronto para uso
+     * @throws IOException se a leitura falhar
+     */
+    static IndiceBitmapLivros ler(DataInput entrada, MapaDisponibilidade disponibilidade) throws IOException {
+        IndiceBitmapLivros indice = new IndiceBitmapLivros(disponibilidade);
+        lerPorCodigo(entrada, indice.porGenero);
+        lerPorCodigo(entrada, indice.porEditora);
+        int anos = entrada.readInt();
+        for (int i = 0; i < anos; i++) {
+            int ano = entrada.readInt();
+            indice.porAno.put(ano, BitmapCompactado.ler(entrada));
+        }
+        return indice;
+    }
+
+    private static void gravarPorCodigo(DataOutput saida, List<BitmapCompactado> indice) throws IOException {
+        saida.writeInt(indice.size());
+        for (BitmapCompactado bitmap : indice) {
+            saida.writeBoolean(bitmap != null);
+            if (bitmap != null) {
+                bitmap.gravar(saida);
+            }
+        }
+    }
+
+    private static void lerPorCodigo(DataInput entrada, List<BitmapCompactado> indice) throws IOException {
+        int tamanho = entrada.readInt();
+        for (int codigo = 0; codigo < tamanho; codigo++) {
+            indice.add(entrada.readBoolean() ? BitmapCompactado.ler(entrada) : null);
+        }
+    }
+
+    private static BitmapCompactado combinar(BitmapCompactado atual, BitmapCompactado filtro) {
+        if (filtro == null) {
+            return new BitmapCompactado();
+        }
+        return atual == null ? filtro : BitmapCompactado.e(atual, filtro);
+    }
+
+    private static BitmapCompactado bitmapDoCodigo(List<BitmapCompactado> indice, int codigo, boolean criar) {
+        if (codigo == TabelaSimbolos.CODIGO_NULO) {
+            // Valores nulos não são indexados; uma consulta por eles não encontra nada
+            return criar ? new BitmapCompactado() : null;
+        }
+        while (criar && indice.size() <= codigo) {
+            indice.add(null);
+        }
+        if (codigo >= indice.size()) {
+            return null;
+        }
+        BitmapCompactado bitmap = indice.get(codigo);
+        if (bitmap == null && criar) {
+            bitmap = new BitmapCompactado();
+            indice.set(codigo, bitmap);
+        }
+        return bitmap;
+    }
+
+    private static void removerDoCodigo(List<BitmapCompactado> indice, int codigo, int ordinal) {
+        if (codigo >= 0 && codigo < indice.size() && indice.get(codigo) != null) {
+            indice.get(codigo).remover(ordinal);
+        }
+    }
+
+    private void removerDoAno(int ano, int ordinal) {
+        BitmapCompactado bitmap = porAno.get(ano);
+        if (bitmap != null) {
+            bitmap.remover(ordinal);
+            if (bitmap.estaVazio()) {
+                porAno.remove(ano);
+            }
+        }
+    }
+}
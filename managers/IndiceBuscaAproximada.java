@@ -0,0 +1,345 @@
+package managers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de busca tolerante a erros de digitação sobre um campo de texto dos livros
+ * Os textos são normalizados (minúsculas, sem acentos) e divididos em palavras. Cada palavra
+ * distinta guarda o bitmap dos livros (ordinais) em que aparece, e um índice de trigramas
+ * aponta para as palavras que contêm cada trigrama. Uma consulta só calcula a distância de
+ * edição das palavras que compartilham trigramas suficientes com a palavra digitada, e o
+ * cálculo é interrompido assim que a distância ultrapassa o limite permitido
+ */
+public class IndiceBuscaAproximada {
+    private static final char BORDA = '$';
+
+    // Vocabulário: código de cada palavra, o texto e os livros em que ela aparece
+    private final Map<String, Integer> codigosPalavras;
+    private final List<String> palavras;
+    private final List<BitmapCompactado> livrosPorPalavra;
+    // Códigos das palavras que contêm cada trigrama, em ordem crescente
+    private final Map<String, ListaCodigos> palavrasPorTrigrama;
+
+    /**
+     * Lista crescente de códigos de palavras
+     */
+    private static class ListaCodigos {
+        private int[] codigos = new int[4];
+        private int tamanho;
+
+        private void adicionar(int codigo) {
+            if (tamanho == codigos.length) {
+                codigos = Arrays.copyOf(codigos, tamanho * 2);
+            }
+            codigos[tamanho++] = codigo;
+        }
+    }
+
+    /**
+     * Construtor padrão (índice vazio)
+     */
+    public IndiceBuscaAproximada() {
+        this.codigosPalavras = new HashMap<>();
+        this.palavras = new ArrayList<>();
+        this.livrosPorPalavra = new ArrayList<>();
+        this.palavrasPorTrigrama = new HashMap<>();
+    }
+
+    /**
+     * Indexa as palavras de um texto para um livro
+     * @param ordinal Ordinal do livro
+     * @param texto Texto do campo (null é ignorado)
+     */
+    public void adicionar(int ordinal, String texto) {
+        for (String palavra : tokenizar(texto)) {
+            livrosPorPalavra.get(codificarPalavra(palavra)).adicionar(ordinal);
+        }
+    }
+
+    /**
+     * Retira um livro das palavras de um texto (o vocabulário é mantido)
+     * @param ordinal Ordinal do livro
+     * @param texto Texto do campo que havia sido indexado
+     */
+    public void remover(int ordinal, String texto) {
+        for (String palavra : tokenizar(texto)) {
+            Integer codigo = codigosPalavras.get(palavra);
+            if (codigo != null) {
+                livrosPorPalavra.get(codigo).remover(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Busca os livros que contêm, para cada palavra da consulta, uma palavra parecida
+     * A distância permitida depende do tamanho da palavra (ver distanciaMaxima)
+     * @param consulta Texto digitado
+     * @return Ordinais encontrados, do mais parecido para o menos parecido
+     */
+    public int[] buscar(String consulta) {
+        List<String> termos = tokenizar(consulta);
+        if (termos.isEmpty()) {
+            return new int[0];
+        }
+
+        // Para cada termo: palavras parecidas, suas distâncias e a união dos livros delas
+        int quantidadeTermos = termos.size();
+        int[][] codigosPorTermo = new int[quantidadeTermos][];
+        int[][] distanciasPorTermo = new int[quantidadeTermos][];
+        BitmapCompactado candidatos = null;
+        for (int i = 0; i < quantidadeTermos; i++) {
+            MapaInteiros parecidas = palavrasParecidas(termos.get(i));
+            int[] codigos = parecidas.getChaves();
+            int[] distancias = new int[codigos.length];
+            BitmapCompactado livrosDoTermo = new BitmapCompactado();
+            for (int j = 0; j < codigos.length; j++) {
+                distancias[j] = parecidas.obter(codigos[j]);
+                livrosDoTermo = BitmapCompactado.ou(livrosDoTermo, livrosPorPalavra.get(codigos[j]));
+            }
+            codigosPorTermo[i] = codigos;
+            distanciasPorTermo[i] = distancias;
+            // Todos os termos precisam ser atendidos
+            candidatos = candidatos == null ? livrosDoTermo : BitmapCompactado.e(candidatos, livrosDoTermo);
+            if (candidatos.estaVazio()) {
+                return new int[0];
+            }
+        }
+
+        // Pontua cada candidato pela soma da menor distância obtida em cada termo
+        int total = candidatos.getCardinalidade();
+        long[] pontuados = new long[total];
+        int[] posicao = new int[1];
+        candidatos.paraCada(ordinal -> {
+            int soma = 0;
+            for (int i = 0; i < quantidadeTermos; i++) {
+                int melhor = Integer.MAX_VALUE;
+                for (int j = 0; j < codigosPorTermo[i].length; j++) {
+                    if (distanciasPorTermo[i][j] < melhor && livrosPorPalavra.get(codigosPorTermo[i][j]).contem(ordinal)) {
+                        melhor = distanciasPorTermo[i][j];
+                    }
+                }
+                soma += melhor;
+            }
+            // Distância na parte alta e ordinal na parte baixa: a ordenação já desempata pelo ordinal
+            pontuados[posicao[0]++] = ((long) soma << 32) | ordinal;
+        });
+        Arrays.sort(pontuados);
+        int[] resultado = new int[total];
+        for (int i = 0; i < total; i++) {
+            resultado[i] = (int) pontuados[i];
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtém a quantidade de palavras distintas já indexadas
+     * @return Tamanho do vocabulário
+     */
+    public int getQuantidadePalavras() {
+        return palavras.size();
+    }
+
+    /**
+     * Distância de edição permitida para uma palavra da consulta
+     * Palavras curtas precisam ser exatas, pois qualquer erro as torna parecidas com muitas outras
+     * @param tamanho Quantidade de caracteres da palavra
+     * @return Número máximo de inserções, remoções ou trocas aceitas
+     */
+    public static int distanciaMaxima(int tamanho) {
+        if (tamanho <= 3) {
+            return 0;
+        }
+        return tamanho <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Normaliza um texto para comparação: minúsculas, sem acentos e com apenas letras e dígitos
+     * @param texto Texto original
+     * @return Texto normalizado, com as palavras separadas por um espaço
+     */
+    public static String normalizar(String texto) {
+        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder resultado = new StringBuilder(semAcentos.length());
+        boolean espaco = false;
+        for (int i = 0; i < semAcentos.length(); i++) {
+            char c = semAcentos.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (espaco && resultado.length() > 0) {
+                    resultado.append(' ');
+                }
+                resultado.append(Character.toLowerCase(c));
+                espaco = false;
+            } else {
+                espaco = true;
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Grava o vocabulário e os livros de cada palavra (os trigramas são refeitos na leitura)
+     * @param saida Destino dos dados
+     * @throws IOException se a gravação falhar
+     */
+    void gravar(DataOutput saida) throws IOException {
+        saida.writeInt(palavras.size());
+        for (int codigo = 0; codigo < palavras.size(); codigo++) {
+            saida.writeUTF(palavras.get(codigo));
+            livrosPorPalavra.get(codigo).gravar(saida);
+        }
+    }
+
+    /**
+     * Lê um índice gravado por gravar
+     * Os trigramas são recalculados a partir do vocabulário, cujo tamanho não depende da quantidade de livros
+     * @param entrada Origem dos dados
+     * @return Índice pronto para uso
+     * @throws IOException se a leitura falhar
+     */
+    static IndiceBuscaAproximada ler(DataInput entrada) throws IOException {
+        IndiceBuscaAproximada indice = new IndiceBuscaAproximada();
+        int quantidade = entrada.readInt();
+        for (int i = 0; i < quantidade; i++) {
+            int codigo = indice.codificarPalavra(entrada.readUTF());
+            indice.livrosPorPalavra.set(codigo, BitmapCompactado.ler(entrada));
+        }
+        return indice;
+    }
+
+    // Métodos auxiliares
+
+    private static List<String> tokenizar(String texto) {
+        List<String> palavrasDoTexto = new ArrayList<>();
+        if (texto == null) {
+            return palavrasDoTexto;
+        }
+        String normalizado = normalizar(texto);
+        if (!normalizado.isEmpty()) {
+            palavrasDoTexto.addAll(Arrays.asList(normalizado.split(" ")));
+        }
+        return palavrasDoTexto;
+    }
+
+    private int codificarPalavra(String palavra) {
+        Integer codigo = codigosPalavras.get(palavra);
+        if (codigo != null) {
+            return codigo;
+        }
+        int novo = palavras.size();
+        codigosPalavras.put(palavra, novo);
+        palavras.add(palavra);
+        livrosPorPalavra.add(new BitmapCompactado());
+        for (String trigrama : trigramas(palavra)) {
+            ListaCodigos lista = palavrasPorTrigrama.computeIfAbsent(trigrama, t -> new ListaCodigos());
+            // Uma palavra com trigramas repetidos entra uma única vez na lista
+            if (lista.tamanho == 0 || lista.codigos[lista.tamanho - 1] != novo) {
+                lista.adicionar(novo);
+            }
+        }
+        return novo;
+    }
+
+    /**
+     * Encontra as palavras do vocabulário dentro da distância permitida para o termo
+     * Cada edição altera no máximo três trigramas, portanto uma palavra a distância d
+     * compartilha pelo menos (trigramas do termo - 3d) trigramas com ele
+     * @return Mapa de código da palavra para a distância até o termo
+     */
+    private MapaInteiros palavrasParecidas(String termo) {
+        MapaInteiros parecidas = new MapaInteiros();
+        int limite = distanciaMaxima(termo.length());
+        if (limite == 0) {
+            Integer codigo = codigosPalavras.get(termo);
+            if (codigo != null) {
+                parecidas.definir(codigo, 0);
+            }
+            return parecidas;
+        }
+
+        List<String> trigramasDoTermo = trigramas(termo);
+        MapaInteiros compartilhados = new MapaInteiros();
+        for (String trigrama : trigramasDoTermo) {
+            ListaCodigos lista = palavrasPorTrigrama.get(trigrama);
+            if (lista != null) {
+                for (int i = 0; i < lista.tamanho; i++) {
+                    compartilhados.somar(lista.codigos[i], 1);
+                }
+            }
+        }
+        int minimoCompartilhado = Math.max(1, trigramasDoTermo.size() - 3 * limite);
+        for (int codigo : compartilhados.getChaves()) {
+            if (compartilhados.obter(codigo) < minimoCompartilhado) {
+                continue;
+            }
+            String palavra = palavras.get(codigo);
+            if (Math.abs(palavra.length() - termo.length()) > limite) {
+                continue;
+            }
+            int distancia = distanciaLimitada(termo, palavra, limite);
+            if (distancia <= limite) {
+                parecidas.definir(codigo, distancia);
+            }
+        }
+        return parecidas;
+    }
+
+    private static List<String> trigramas(String palavra) {
+        String comBordas = BORDA + palavra + BORDA;
+        List<String> resultado = new ArrayList<>(comBordas.length() - 2);
+        for (int i = 0; i + 3 <= comBordas.length(); i++) {
+            resultado.add(comBordas.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    /**
+     * Distância de Levenshtein calculada apenas na faixa diagonal de largura 2 * limite + 1
+     * @return A distância, ou limite + 1 se ela ultrapassar o limite
+     */
+    static int distanciaLimitada(String a, String b, int limite) {
+        int n = a.length();
+        int m = b.length();
+        int acima = limite + 1;
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j <= limite ? j : acima;
+        }
+        for (int i = 1; i <= n; i++) {
+            int inicio = Math.max(1, i - limite);
+            int fim = Math.min(m, i + limite);
+            atual[0] = i <= limite ? i : acima;
+            if (inicio > 1) {
+                atual[inicio - 1] = acima;
+            }
+            int menorDaLinha = atual[0];
+            for (int j = inicio; j <= fim; j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(anterior[j - 1] + custo, Math.min(anterior[j] + 1, atual[j - 1] + 1));
+                atual[j] = Math.min(valor, acima);
+                menorDaLinha = Math.min(menorDaLinha, atual[j]);
+            }
+            if (fim < m) {
+                atual[fim + 1] = acima;
+            }
+            if (menorDaLinha > limite) {
+                return acima;
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[m];
+    }
+}
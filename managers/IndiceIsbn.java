@@ -0,0 +1,88 @@
+package managers;
+
+import models.Isbn;
+import models.Livro;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice dos livros do catálogo pelo ISBN
+ * ISBNs válidos são procurados pela chave numérica do ISBN-13 em um mapa primitivo, sem
+ * calcular o hash de textos nem criar objetos; identificadores que não são ISBNs válidos
+ * ficam em um mapa auxiliar pela forma normalizada (inclusive o ISBN nulo)
+ */
+public class IndiceIsbn {
+    private final MapaLongos<Livro> porChave;
+    private final Map<String, Livro> porTexto;
+
+    /**
+     * Construtor padrão (índice vazio)
+     */
+    public IndiceIsbn() {
+        this.porChave = new MapaLongos<>();
+        this.porTexto = new HashMap<>();
+    }
+
+    /**
+     * Busca um livro pelo ISBN, em qualquer forma (com ou sem hífens, ISBN-10 ou ISBN-13)
+     * @param isbn ISBN procurado
+     * @return Livro encontrado ou null
+     */
+    public Livro buscar(String isbn) {
+        long chave = Isbn.chave(isbn);
+        if (chave != Isbn.CHAVE_INVALIDA) {
+            return porChave.obter(chave);
+        }
+        return porTexto.get(Isbn.normalizar(isbn));
+    }
+
+    /**
+     * Verifica se já existe um livro com o mesmo ISBN
+     * @param livro Livro a ser verificado
+     * @return true se o ISBN já está em uso
+     */
+    public boolean contem(Livro livro) {
+        return buscarPorChaveDo(livro) != null;
+    }
+
+    /**
+     * Inclui ou substitui o livro pelo seu ISBN atual
+     * @param livro Livro do catálogo
+     */
+    public void colocar(Livro livro) {
+        if (livro.getChaveIsbn() != Isbn.CHAVE_INVALIDA) {
+            porChave.definir(livro.getChaveIsbn(), livro);
+        } else {
+            porTexto.put(livro.getIsbnNormalizado(), livro);
+        }
+    }
+
+    /**
+     * Retira o livro registrado com o ISBN informado, se for o próprio livro
+     * @param isbn ISBN com que o livro foi registrado
+     * @param livro Livro a ser retirado
+     */
+    public void remover(String isbn, Livro livro) {
+        if (buscar(isbn) != livro) {
+            return;
+        }
+        long chave = Isbn.chave(isbn);
+        if (chave != Isbn.CHAVE_INVALIDA) {
+            porChave.remover(chave);
+        } else {
+            porTexto.remove(Isbn.normalizar(isbn));
+        }
+    }
+
+    public int getTamanho() {
+        return porChave.getTamanho() + porTexto.size();
+    }
+
+    private Livro buscarPorChaveDo(Livro livro) {
+        if (livro.getChaveIsbn() != Isbn.CHAVE_INVALIDA) {
+            return porChave.obter(livro.getChaveIsbn());
+        }
+        return porTexto.get(livro.getIsbnNormalizado());
+    }
+}
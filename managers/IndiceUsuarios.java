@@ -0,0 +1,238 @@
+package managers;
+
+import models.Usuario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Índice de autocompletar sobre nome, e-mail e telefone dos usuários
+ * Os campos são normalizados (minúsculas, sem acentos) e divididos em palavras, que ficam em um mapa
+ * ordenado apontando para os códigos dos usuários. Uma consulta percorre apenas as palavras que
+ * começam pelo termo mais longo digitado e confere os demais termos nas palavras do próprio usuário,
+ * parando ao atingir o limite de resultados. Os dígitos do telefone também são indexados juntos,
+ * para que "1199" encontre o telefone "(11) 99999-8888"
+ */
+public class IndiceUsuarios {
+    // Usuários pelo código atribuído na entrada do índice (null após remoção)
+    private final List<Usuario> usuariosPorCodigo;
+    private final Map<Usuario, Entrada> entradas;
+    // Palavras indexadas e os códigos dos usuários em que aparecem, em ordem crescente
+    private final TreeMap<String, ListaCodigos> codigosPorPalavra;
+
+    /**
+     * Palavras indexadas de um usuário
+     */
+    private static class Entrada {
+        private final int codigo;
+        private String[] palavrasNome;
+        private String[] palavrasContato;
+
+        private Entrada(int codigo) {
+            this.codigo = codigo;
+        }
+    }
+
+    /**
+     * Lista crescente de códigos de usuários
+     */
+    private static class ListaCodigos {
+        private int[] codigos = new int[2];
+        private int tamanho;
+
+        private void adicionar(int codigo) {
+            int posicao = Arrays.binarySearch(codigos, 0, tamanho, codigo);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            if (tamanho == codigos.length) {
+                codigos = Arrays.copyOf(codigos, tamanho * 2);
+            }
+            System.arraycopy(codigos, posicao, codigos, posicao + 1, tamanho - posicao);
+            codigos[posicao] = codigo;
+            tamanho++;
+        }
+
+        private void remover(int codigo) {
+            int posicao = Arrays.binarySearch(codigos, 0, tamanho, codigo);
+            if (posicao >= 0) {
+                System.arraycopy(codigos, posicao + 1, codigos, posicao, tamanho - posicao - 1);
+                tamanho--;
+            }
+        }
+    }
+
+    /**
+     * Construtor padrão (índice vazio)
+     */
+    public IndiceUsuarios() {
+        this.usuariosPorCodigo = new ArrayList<>();
+        this.entradas = new IdentityHashMap<>();
+        this.codigosPorPalavra = new TreeMap<>();
+    }
+
+    /**
+     * Indexa um usuário recém-cadastrado
+     * @param usuario Usuário a indexar
+     */
+    public void adicionar(Usuario usuario) {
+        if (entradas.containsKey(usuario)) {
+            return;
+        }
+        Entrada entrada = new Entrada(usuariosPorCodigo.size());
+        usuariosPorCodigo.add(usuario);
+        entradas.put(usuario, entrada);
+        indexar(usuario, entrada);
+    }
+
+    /**
+     * Remove um usuário do índice
+     * @param usuario Usuário que está saindo do cadastro
+     */
+    public void remover(Usuario usuario) {
+        Entrada entrada = entradas.remove(usuario);
+        if (entrada != null) {
+            desindexar(entrada);
+            usuariosPorCodigo.set(entrada.codigo, null);
+        }
+    }
+
+    /**
+     * Reindexa um usuário depois da alteração do nome, do e-mail ou do telefone
+     * @param usuario Usuário alterado
+     */
+    public void atualizar(Usuario usuario) {
+        Entrada entrada = entradas.get(usuario);
+        if (entrada != null) {
+            desindexar(entrada);
+            indexar(usuario, entrada);
+        }
+    }
+
+    /**
+     * Busca os usuários em que cada termo digitado é o começo de alguma palavra
+     * @param consulta Texto digitado (os termos são separados por espaços ou pontuação)
+     * @param limite Quantidade máxima de usuários (0 para sem limite)
+     * @param somenteNome true para procurar apenas no nome, false para incluir e-mail e telefone
+     * @return Usuários encontrados; os que têm uma palavra igual ao termo mais longo vêm primeiro
+     */
+    public List<Usuario> buscar(String consulta, int limite, boolean somenteNome) {
+        List<Usuario> resultado = new ArrayList<>();
+        String[] termos = palavras(consulta);
+        if (termos.length == 0) {
+            return resultado;
+        }
+        // O termo mais longo costuma ser o mais seletivo e guia a varredura
+        String guia = termos[0];
+        for (String termo : termos) {
+            if (termo.length() > guia.length()) {
+                guia = termo;
+            }
+        }
+
+        Set<Integer> vistos = new HashSet<>();
+        for (ListaCodigos lista : codigosPorPalavra.subMap(guia, true, guia + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < lista.tamanho; i++) {
+                int codigo = lista.codigos[i];
+                if (!vistos.add(codigo)) {
+                    continue;
+                }
+                Usuario usuario = usuariosPorCodigo.get(codigo);
+                if (atende(entradas.get(usuario), termos, somenteNome)) {
+                    resultado.add(usuario);
+                    if (resultado.size() == limite) {
+                        return resultado;
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Métodos auxiliares
+
+    private void indexar(Usuario usuario, Entrada entrada) {
+        entrada.palavrasNome = palavras(usuario.getNome());
+        entrada.palavrasContato = palavrasContato(usuario);
+        indexarPalavras(entrada.palavrasNome, entrada.codigo);
+        indexarPalavras(entrada.palavrasContato, entrada.codigo);
+    }
+
+    private void indexarPalavras(String[] palavras, int codigo) {
+        for (String palavra : palavras) {
+            ListaCodigos lista = codigosPorPalavra.get(palavra);
+            if (lista == null) {
+                lista = new ListaCodigos();
+                codigosPorPalavra.put(palavra, lista);
+            }
+            lista.adicionar(codigo);
+        }
+    }
+
+    private void desindexar(Entrada entrada) {
+        removerPalavras(entrada.palavrasNome, entrada.codigo);
+        removerPalavras(entrada.palavrasContato, entrada.codigo);
+    }
+
+    private void removerPalavras(String[] palavras, int codigo) {
+        for (String palavra : palavras) {
+            ListaCodigos lista = codigosPorPalavra.get(palavra);
+            if (lista != null) {
+                lista.remover(codigo);
+                if (lista.tamanho == 0) {
+                    codigosPorPalavra.remove(palavra);
+                }
+            }
+        }
+    }
+
+    /**
+     * Confere se todos os termos começam alguma palavra do usuário
+     */
+    private static boolean atende(Entrada entrada, String[] termos, boolean somenteNome) {
+        for (String termo : termos) {
+            if (!algumaComeca(entrada.palavrasNome, termo)
+                    && (somenteNome || !algumaComeca(entrada.palavrasContato, termo))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean algumaComeca(String[] palavras, String termo) {
+        for (String palavra : palavras) {
+            if (palavra.startsWith(termo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Palavras do e-mail e do telefone, mais os dígitos do telefone juntos
+     */
+    private static String[] palavrasContato(Usuario usuario) {
+        List<String> palavras = new ArrayList<>(Arrays.asList(palavras(usuario.getEmail())));
+        String[] partesTelefone = palavras(usuario.getTelefone());
+        palavras.addAll(Arrays.asList(partesTelefone));
+        if (partesTelefone.length > 1) {
+            palavras.add(String.join("", partesTelefone));
+        }
+        return palavras.toArray(new String[0]);
+    }
+
+    private static String[] palavras(String texto) {
+        if (texto == null) {
+            return new String[0];
+        }
+        String normalizado = IndiceBuscaAproximada.normalizar(texto);
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+}
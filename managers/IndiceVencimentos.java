@@ -0,0 +1,259 @@
+package managers;
+
+import models.Emprestimo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice dos empréstimos em aberto pela data prevista de devolução
+ * Cada dia tem o seu grupo de empréstimos, de modo que incluir, retirar ou mudar
+ * a data de um empréstimo mexe apenas nos grupos envolvidos, sem varrer os demais.
+ * Os dias com empréstimos ficam ordenados para consultar vencidos ou vencimentos próximos.
+ * Os grupos são vetores em que cada empréstimo guarda a própria posição, e os dias são chaves
+ * primitivas: incluir e retirar não alocam nada enquanto o dia já tiver o seu grupo
+ */
+public class IndiceVencimentos {
+    // Torna não negativos os dias (epoch day) usados como chave do MapaLongos
+    private static final long DESLOCAMENTO_DIA = 1L << 40;
+    private static final int CAPACIDADE_INICIAL_GRUPO = 8;
+
+    // Grupo de empréstimos de cada dia, pelo dia deslocado
+    private final MapaLongos<Grupo> porDia;
+    // Dias que possuem grupo, em ordem crescente
+    private long[] dias;
+    private int quantidadeDias;
+    // Dia do empréstimo mais recente incluído: dias previstos anteriores a ele não recebem
+    // mais empréstimos novos, e os seus grupos são descartados quando esvaziam
+    private long diaReferencia;
+    private int quantidade;
+
+    /**
+     * Empréstimos com a mesma data prevista de devolução
+     */
+    private static class Grupo {
+        private Emprestimo[] itens;
+        private int tamanho;
+
+        private Grupo() {
+            this.itens = new Emprestimo[CAPACIDADE_INICIAL_GRUPO];
+        }
+    }
+
+    /**
+     * Construtor padrão
+     */
+    public IndiceVencimentos() {
+        this.porDia = new MapaLongos<>();
+        this.dias = new long[16];
+        this.quantidadeDias = 0;
+        this.diaReferencia = Long.MIN_VALUE;
+        this.quantidade = 0;
+    }
+
+    /**
+     * Inclui um empréstimo pela sua data prevista de devolução
+     * @param emprestimo Empréstimo em aberto
+     */
+    public void adicionar(Emprestimo emprestimo) {
+        long dia = emprestimo.getDataDevolucaoPrevista().toEpochDay();
+        if (emprestimo.getDataEmprestimo() != null) {
+            diaReferencia = Math.max(diaReferencia, emprestimo.getDataEmprestimo().toEpochDay());
+        }
+        Grupo grupo = porDia.obter(dia + DESLOCAMENTO_DIA);
+        if (grupo == null) {
+            grupo = new Grupo();
+            porDia.definir(dia + DESLOCAMENTO_DIA, grupo);
+            descartarDiasVazios();
+            incluirDia(dia);
+        } else if (estaNaPosicao(grupo, emprestimo)) {
+            return; // Já indexado neste dia
+        }
+        if (grupo.tamanho == grupo.itens.length) {
+            grupo.itens = Arrays.copyOf(grupo.itens, grupo.tamanho * 2);
+        }
+        emprestimo.setPosicaoVencimento(grupo.tamanho);
+        grupo.itens[grupo.tamanho++] = emprestimo;
+        quantidade++;
+    }
+
+    /**
+     * Retira um empréstimo do índice (devolvido ou descartado)
+     * @param emprestimo Empréstimo a ser retirado
+     * @return true se o empréstimo estava no índice
+     */
+    public boolean remover(Emprestimo emprestimo) {
+        if (removerDoDia(emprestimo, emprestimo.getDataDevolucaoPrevista().toEpochDay())) {
+            return true;
+        }
+        // A data prevista foi alterada fora do gerenciador: procura o empréstimo nos demais dias
+        for (int i = 0; i < quantidadeDias; i++) {
+            if (removerDoDia(emprestimo, dias[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move um empréstimo cuja data prevista de devolução foi alterada
+     * @param emprestimo Empréstimo já com a nova data prevista
+     * @param dataPrevistaAnterior Data prevista antes da alteração
+     */
+    public void reindexar(Emprestimo emprestimo, LocalDate dataPrevistaAnterior) {
+        if (removerDoDia(emprestimo, dataPrevistaAnterior.toEpochDay())) {
+            adicionar(emprestimo);
+        }
+    }
+
+    /**
+     * Obtém os empréstimos vencidos, isto é, com devolução prevista antes da data informada
+     * @param hoje Data de referência
+     * @return Empréstimos em ordem crescente de data prevista
+     */
+    public List<Emprestimo> getVencidos(LocalDate hoje) {
+        List<Emprestimo> resultado = new ArrayList<>();
+        coletar(0, primeiraPosicaoDesde(hoje.toEpochDay()), resultado);
+        return resultado;
+    }
+
+    /**
+     * Conta os empréstimos vencidos na data informada, sem montar a lista nem alterar os empréstimos
+     * @param hoje Data de referência
+     * @return Quantidade de empréstimos com devolução prevista antes da data
+     */
+    public int contarVencidos(LocalDate hoje) {
+        int total = 0;
+        int ate = primeiraPosicaoDesde(hoje.toEpochDay());
+        for (int i = 0; i < ate; i++) {
+            total += porDia.obter(dias[i] + DESLOCAMENTO_DIA).tamanho;
+        }
+        return total;
+    }
+
+    /**
+     * Obtém os empréstimos com devolução prevista dentro do período informado
+     * @param inicio Data inicial (inclusiva)
+     * @param fim Data final (inclusiva)
+     * @return Empréstimos em ordem crescente de data prevista
+     */
+    public List<Emprestimo> getVencimentosEntre(LocalDate inicio, LocalDate fim) {
+        List<Emprestimo> resultado = new ArrayList<>();
+        if (fim.isBefore(inicio)) {
+            return resultado;
+        }
+        coletar(primeiraPosicaoDesde(inicio.toEpochDay()), primeiraPosicaoDesde(fim.toEpochDay() + 1), resultado);
+        return resultado;
+    }
+
+    /**
+     * Obtém a quantidade de empréstimos indexados
+     * @return Número de empréstimos em aberto no índice
+     */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    // Métodos auxiliares
+
+    private boolean removerDoDia(Emprestimo emprestimo, long dia) {
+        Grupo grupo = porDia.obter(dia + DESLOCAMENTO_DIA);
+        if (grupo == null) {
+            return false;
+        }
+        int posicao = posicaoNoGrupo(grupo, emprestimo);
+        if (posicao < 0) {
+            return false;
+        }
+        // O último empréstimo do grupo ocupa a posição liberada
+        int ultima = --grupo.tamanho;
+        if (posicao != ultima) {
+            Emprestimo movido = grupo.itens[ultima];
+            grupo.itens[posicao] = movido;
+            movido.setPosicaoVencimento(posicao);
+        }
+        grupo.itens[ultima] = null;
+        emprestimo.setPosicaoVencimento(-1);
+        quantidade--;
+        if (grupo.tamanho == 0 && dia < diaReferencia) {
+            porDia.remover(dia + DESLOCAMENTO_DIA);
+            retirarDia(dia);
+        }
+        return true;
+    }
+
+    /**
+     * Posição de um empréstimo no grupo (comparado por identidade)
+     * A posição guardada no empréstimo é conferida antes de recorrer à varredura do grupo
+     */
+    private static int posicaoNoGrupo(Grupo grupo, Emprestimo emprestimo) {
+        if (estaNaPosicao(grupo, emprestimo)) {
+            return emprestimo.getPosicaoVencimento();
+        }
+        for (int i = 0; i < grupo.tamanho; i++) {
+            if (grupo.itens[i] == emprestimo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean estaNaPosicao(Grupo grupo, Emprestimo emprestimo) {
+        int posicao = emprestimo.getPosicaoVencimento();
+        return posicao >= 0 && posicao < grupo.tamanho && grupo.itens[posicao] == emprestimo;
+    }
+
+    private void coletar(int de, int ate, List<Emprestimo> resultado) {
+        for (int i = de; i < ate; i++) {
+            Grupo grupo = porDia.obter(dias[i] + DESLOCAMENTO_DIA);
+            for (int j = 0; j < grupo.tamanho; j++) {
+                resultado.add(grupo.itens[j]);
+            }
+        }
+    }
+
+    /**
+     * Primeira posição do vetor de dias com dia maior ou igual ao informado
+     */
+    private int primeiraPosicaoDesde(long dia) {
+        int posicao = Arrays.binarySearch(dias, 0, quantidadeDias, dia);
+        return posicao >= 0 ? posicao : -posicao - 1;
+    }
+
+    /**
+     * Descarta os grupos vazios que ficaram para trás do dia de referência
+     * Roda apenas quando um dia novo ganha grupo, isto é, poucas vezes por dia de movimento
+     */
+    private void descartarDiasVazios() {
+        int mantidos = 0;
+        for (int i = 0; i < quantidadeDias; i++) {
+            long dia = dias[i];
+            if (dia < diaReferencia && porDia.obter(dia + DESLOCAMENTO_DIA).tamanho == 0) {
+                porDia.remover(dia + DESLOCAMENTO_DIA);
+            } else {
+                dias[mantidos++] = dia;
+            }
+        }
+        quantidadeDias = mantidos;
+    }
+
+    private void incluirDia(long dia) {
+        int posicao = primeiraPosicaoDesde(dia);
+        if (quantidadeDias == dias.length) {
+            dias = Arrays.copyOf(dias, quantidadeDias * 2);
+        }
+        System.arraycopy(dias, posicao, dias, posicao + 1, quantidadeDias - posicao);
+        dias[posicao] = dia;
+        quantidadeDias++;
+    }
+
+    private void retirarDia(long dia) {
+        int posicao = Arrays.binarySearch(dias, 0, quantidadeDias, dia);
+        if (posicao >= 0) {
+            System.arraycopy(dias, posicao + 1, dias, posicao, quantidadeDias - posicao - 1);
+            quantidadeDias--;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package managers;
+
+import models.Emprestimo;
+import models.LancamentoMulta;
+import models.Usuario;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Livro-caixa de multas, somente de acréscimo
+ * Cada multa gerada numa devolução e cada pagamento vira um lançamento, e o saldo
+ * devedor do usuário é atualizado junto, de modo que consultar quanto um usuário deve
+ * não exige percorrer o histórico de empréstimos
+ */
+public class LivroCaixaMultas {
+    private final List<LancamentoMulta> lancamentos;
+    private long totalMultasCentavos;
+    private long totalPagamentosCentavos;
+    private int quantidadeMultas;
+
+    /**
+     * Construtor padrão
+     */
+    public LivroCaixaMultas() {
+        this.lancamentos = new ArrayList<>();
+    }
+
+    /**
+     * Lança a multa de um empréstimo devolvido com atraso
+     * @param emprestimo Empréstimo já devolvido, com a multa calculada
+     * @return Lançamento criado, ou null se o empréstimo não tem multa
+     */
+    public synchronized LancamentoMulta registrarMulta(Emprestimo emprestimo) {
+        long centavos = paraCentavos(emprestimo.getMulta());
+        if (centavos <= 0) {
+            return null;
+        }
+        LocalDate data = emprestimo.getDataDevolucao() != null ? emprestimo.getDataDevolucao() : LocalDate.now();
+        LancamentoMulta lancamento = new LancamentoMulta(LancamentoMulta.TIPO_MULTA, emprestimo.getUsuario(),
+                centavos, data, emprestimo.getLivro().getTitulo(), emprestimo.getDiasAtraso());
+        acrescentar(lancamento);
+        totalMultasCentavos += centavos;
+        quantidadeMultas++;
+        return lancamento;
+    }
+
+    /**
+     * Lança um pagamento de multas
+     * @param usuario Usuário que pagou
+     * @param valor Valor pago, limitado ao saldo devedor do usuário
+     * @param data Data do pagamento
+     * @return Lançamento criado, ou null se o valor não é positivo ou o usuário não deve nada
+     */
+    public synchronized LancamentoMulta registrarPagamento(Usuario usuario, double valor, LocalDate data) {
+        long centavos = Math.min(paraCentavos(valor), usuario.getSaldoDevedorCentavos());
+        if (centavos <= 0) {
+            return null;
+        }
+        LancamentoMulta lancamento = new LancamentoMulta(LancamentoMulta.TIPO_PAGAMENTO, usuario,
+                centavos, data, null, 0);
+        acrescentar(lancamento);
+        totalPagamentosCentavos += centavos;
+        return lancamento;
+    }
+
+    /**
+     * Retira o último lançamento, desfazendo o seu efeito nos totais e no saldo do usuário
+     * Usado pelo catálogo quando a operação que gerou o lançamento não pôde ser gravada
+     * @param lancamento Lançamento devolvido por registrarMulta ou registrarPagamento
+     * @throws IllegalStateException se o lançamento não for o último do livro-caixa
+     */
+    public synchronized void estornar(LancamentoMulta lancamento) {
+        int ultimo = lancamentos.size() - 1;
+        if (ultimo < 0 || lancamentos.get(ultimo) != lancamento) {
+            throw new IllegalStateException("Apenas o último lançamento pode ser estornado");
+        }
+        lancamentos.remove(ultimo);
+        lancamento.getUsuario().ajustarSaldoDevedor(-lancamento.getEfeitoNoSaldoCentavos());
+        if (lancamento.ehMulta()) {
+            totalMultasCentavos -= lancamento.getValorCentavos();
+            quantidadeMultas--;
+        } else {
+            totalPagamentosCentavos -= lancamento.getValorCentavos();
+        }
+    }
+
+    /**
+     * Acrescenta um lançamento lido do armazenamento
+     * O saldo devedor do usuário não é alterado, pois ele é gravado junto com o próprio usuário
+     * @param lancamento Lançamento restaurado
+     */
+    public synchronized void restaurar(LancamentoMulta lancamento) {
+        lancamentos.add(lancamento);
+        if (lancamento.ehMulta()) {
+            totalMultasCentavos += lancamento.getValorCentavos();
+            quantidadeMultas++;
+        } else {
+            totalPagamentosCentavos += lancamento.getValorCentavos();
+        }
+    }
+    
+    /**
+     * Percorre os lançamentos na ordem em que foram registrados
+     * @param acao Ação executada para cada lançamento
+     */
+    public synchronized void paraCada(Consumer<LancamentoMulta> acao) {
+        for (LancamentoMulta lancamento : lancamentos) {
+            acao.accept(lancamento);
+        }
+    }
+
+    /**
+     * Obtém uma cópia dos lançamentos
+     * @return Lista de lançamentos em ordem de registro
+     */
+    public synchronized List<LancamentoMulta> getLancamentos() {
+        return new ArrayList<>(lancamentos);
+    }
+
+    public synchronized int getQuantidadeMultas() {
+        return quantidadeMultas;
+    }
+
+    /**
+     * Obtém o total ainda não pago de todas as multas
+     * @return Soma dos saldos devedores, em reais
+     */
+    public synchronized double getTotalEmAberto() {
+        return (totalMultasCentavos - totalPagamentosCentavos) / 100.0;
+    }
+
+    private void acrescentar(LancamentoMulta lancamento) {
+        lancamentos.add(lancamento);
+        lancamento.getUsuario().ajustarSaldoDevedor(lancamento.getEfeitoNoSaldoCentavos());
+    }
+
+    private static long paraCentavos(double valor) {
+        return Math.round(valor * 100);
+    }
+}
@@ -0,0 +1,174 @@
+package managers;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de int para int com endereçamento aberto (sondagem linear)
+ * Guarda chaves e valores em arrays primitivos, sem objetos por entrada nem autoboxing.
+ * As chaves devem ser não negativas (ordinais); ausência de valor é representada por 0
+ */
+public class MapaInteiros {
+    private static final int VAZIO = -1;
+    private static final float FATOR_CARGA = 0.6f;
+
+    private int[] chaves;
+    private int[] valores;
+    private int tamanho;
+    private int limiteRedimensionamento;
+
+    /**
+     * Construtor padrão
+     */
+    public MapaInteiros() {
+        this(8);
+    }
+
+    /**
+     * Construtor com capacidade inicial
+     * @param capacidadeInicial Quantidade de entradas esperada
+     */
+    public MapaInteiros(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(4, (int) (capacidadeInicial / FATOR_CARGA)) - 1) << 1;
+        alocar(capacidade);
+    }
+
+    /**
+     * Obtém o valor de uma chave
+     * @param chave Chave não negativa
+     * @return Valor associado, ou 0 se a chave não existir
+     */
+    public int obter(int chave) {
+        int posicao = buscarPosicao(chave);
+        return chaves[posicao] == chave ? valores[posicao] : 0;
+    }
+
+    /**
+     * Verifica se a chave existe no mapa
+     * @param chave Chave não negativa
+     * @return true se a chave existe
+     */
+    public boolean contem(int chave) {
+        return chaves[buscarPosicao(chave)] == chave;
+    }
+
+    /**
+     * Associa um valor a uma chave
+     * @param chave Chave não negativa
+     * @param valor Valor a ser associado
+     */
+    public void definir(int chave, int valor) {
+        int posicao = buscarPosicao(chave);
+        if (chaves[posicao] != chave) {
+            chaves[posicao] = chave;
+            tamanho++;
+            valores[posicao] = valor;
+            crescerSeNecessario();
+        } else {
+            valores[posicao] = valor;
+        }
+    }
+
+    /**
+     * Soma um valor ao valor atual da chave (0 se ausente)
+     * @param chave Chave não negativa
+     * @param delta Valor a ser somado
+     * @return Novo valor da chave
+     */
+    public int somar(int chave, int delta) {
+        int posicao = buscarPosicao(chave);
+        if (chaves[posicao] != chave) {
+            chaves[posicao] = chave;
+            valores[posicao] = delta;
+            tamanho++;
+            crescerSeNecessario();
+            return delta;
+        }
+        valores[posicao] += delta;
+        return valores[posicao];
+    }
+
+    /**
+     * Remove uma chave do mapa
+     * @param chave Chave não negativa
+     * @return true se a chave existia
+     */
+    public boolean remover(int chave) {
+        int posicao = buscarPosicao(chave);
+        if (chaves[posicao] != chave) {
+            return false;
+        }
+        // Reinsere o restante do agrupamento para não quebrar a sondagem linear
+        int mascara = chaves.length - 1;
+        chaves[posicao] = VAZIO;
+        tamanho--;
+        int proxima = (posicao + 1) & mascara;
+        while (chaves[proxima] != VAZIO) {
+            int chaveMovida = chaves[proxima];
+            int valorMovido = valores[proxima];
+            chaves[proxima] = VAZIO;
+            int destino = buscarPosicao(chaveMovida);
+            chaves[destino] = chaveMovida;
+            valores[destino] = valorMovido;
+            proxima = (proxima + 1) & mascara;
+        }
+        return true;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Copia as chaves presentes para um array
+     * @return Array com as chaves, em ordem arbitrária
+     */
+    public int[] getChaves() {
+        int[] resultado = new int[tamanho];
+        int i = 0;
+        for (int chave : chaves) {
+            if (chave != VAZIO) {
+                resultado[i++] = chave;
+            }
+        }
+        return resultado;
+    }
+
+    // Métodos auxiliares
+
+    private int buscarPosicao(int chave) {
+        int mascara = chaves.length - 1;
+        int posicao = espalhar(chave) & mascara;
+        while (chaves[posicao] != VAZIO && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new int[capacidade];
+        Arrays.fill(chaves, VAZIO);
+        valores = new int[capacidade];
+        limiteRedimensionamento = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private void crescerSeNecessario() {
+        if (tamanho <= limiteRedimensionamento) {
+            return;
+        }
+        int[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        alocar(chaves.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != VAZIO) {
+                int posicao = buscarPosicao(chavesAntigas[i]);
+                chaves[posicao] = chavesAntigas[i];
+                valores[posicao] = valoresAntigos[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package managers;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de long para objeto com endereçamento aberto (sondagem linear)
+ * As chaves ficam em um array primitivo, sem autoboxing nem objetos por entrada.
+ * As chaves devem ser não negativas (por exemplo, a chave numérica do ISBN) e os valores não nulos
+ * @param <V> Tipo dos valores
+ */
+public class MapaLongos<V> {
+    private static final long VAZIO = -1;
+    private static final float FATOR_CARGA = 0.6f;
+
+    private long[] chaves;
+    private Object[] valores;
+    private int tamanho;
+    private int limiteRedimensionamento;
+
+    /**
+     * Construtor padrão
+     */
+    public MapaLongos() {
+        alocar(16);
+    }
+
+    /**
+     * Obtém o valor de uma chave
+     * @param chave Chave não negativa
+     * @return Valor associado, ou null se a chave não existir
+     */
+    @SuppressWarnings("unchecked")
+    public V obter(long chave) {
+        int posicao = buscarPosicao(chave);
+        return chaves[posicao] == chave ? (V) valores[posicao] : null;
+    }
+
+    /**
+     * Verifica se a chave existe no mapa
+     * @param chave Chave não negativa
+     * @return true se a chave existe
+     */
+    public boolean contem(long chave) {
+        return chaves[buscarPosicao(chave)] == chave;
+    }
+
+    /**
+     * Associa um valor a uma chave
+     * @param chave Chave não negativa
+     * @param valor Valor não nulo
+     */
+    public void definir(long chave, V valor) {
+        int posicao = buscarPosicao(chave);
+        if (chaves[posicao] != chave) {
+            chaves[posicao] = chave;
+            valores[posicao] = valor;
+            tamanho++;
+            crescerSeNecessario();
+        } else {
+            valores[posicao] = valor;
+        }
+    }
+
+    /**
+     * Remove uma chave do mapa
+     * @param chave Chave não negativa
+     * @return true se a chave existia
+     */
+    public boolean remover(long chave) {
+        int posicao = buscarPosicao(chave);
+        if (chaves[posicao] != chave) {
+            return false;
+        }
+        // Reinsere o restante do agrupamento para não quebrar a sondagem linear
+        int mascara = chaves.length - 1;
+        chaves[posicao] = VAZIO;
+        valores[posicao] = null;
+        tamanho--;
+        int proxima = (posicao + 1) & mascara;
+        while (chaves[proxima] != VAZIO) {
+            long chaveMovida = chaves[proxima];
+            Object valorMovido = valores[proxima];
+            chaves[proxima] = VAZIO;
+            valores[proxima] = null;
+            int destino = buscarPosicao(chaveMovida);
+            chaves[destino] = chaveMovida;
+            valores[destino] = valorMovido;
+            proxima = (proxima + 1) & mascara;
+        }
+        return true;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    // Métodos auxiliares
+
+    private int buscarPosicao(long chave) {
+        int mascara = chaves.length - 1;
+        int posicao = espalhar(chave) & mascara;
+        while (chaves[posicao] != VAZIO && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    private static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        Arrays.fill(chaves, VAZIO);
+        valores = new Object[capacidade];
+        limiteRedimensionamento = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private void crescerSeNecessario() {
+        if (tamanho <= limiteRedimensionamento) {
+            return;
+        }
+        long[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        alocar(chaves.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != VAZIO) {
+                int posicao = buscarPosicao(chavesAntigas[i]);
+                chaves[posicao] = chavesAntigas[i];
+                valores[posicao] = valoresAntigos[i];
+            }
+        }
+    }
+}
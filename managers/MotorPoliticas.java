@@ -0,0 +1,177 @@
+package managers;
+
+import models.Livro;
+import models.PoliticaEmprestimo;
+import models.TabelaSimbolos;
+import models.Usuario;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Motor de políticas de empréstimo por categoria de usuário e gênero de livro
+ * As regras são lidas de um arquivo de propriedades no formato
+ * <pre>
+ * politica.&lt;categoria|*&gt;.&lt;genero|*&gt;.&lt;atributo&gt;=valor
+ * politica.*.*.prazoDias=15
+ * politica.PROFESSOR.*.prazoDias=30
+ * politica.*.Infantil.multaPorDia=0.25
+ * </pre>
+ * Atributos: prazoDias, multaPorDia, multaMaxima, maxRenovacoes e limiteEmprestimos.
+ * Cada atributo é resolvido da regra mais específica para a mais geral:
+ * categoria e gênero, categoria, gênero, regra geral e por fim a política padrão.
+ * O resultado é compilado em uma tabela indexada pelos códigos de categoria e gênero,
+ * de modo que a consulta a cada empréstimo é apenas o acesso a um array
+ */
+public class MotorPoliticas {
+    private static final String PREFIXO = "politica.";
+    private static final String CURINGA = "*";
+
+    private static final String ATRIBUTO_PRAZO = "prazoDias";
+    private static final String ATRIBUTO_MULTA_DIA = "multaPorDia";
+    private static final String ATRIBUTO_MULTA_MAXIMA = "multaMaxima";
+    private static final String ATRIBUTO_RENOVACOES = "maxRenovacoes";
+    private static final String ATRIBUTO_LIMITE = "limiteEmprestimos";
+
+    // Tabela compilada: [código da categoria + 1][código do gênero + 1]; índice 0 = sem regra específica
+    private volatile PoliticaEmprestimo[][] tabela;
+
+    /**
+     * Construtor padrão (todas as combinações usam a política padrão)
+     */
+    public MotorPoliticas() {
+        this.tabela = new PoliticaEmprestimo[][] {{PoliticaEmprestimo.PADRAO}};
+    }
+
+    /**
+     * Carrega e compila as políticas de um arquivo de propriedades (UTF-8)
+     * @param arquivo Caminho do arquivo de configuração
+     * @throws IOException se o arquivo não puder ser lido
+     * @throws IllegalArgumentException se alguma regra for inválida
+     */
+    public void carregar(Path arquivo) throws IOException {
+        Properties propriedades = new Properties();
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            propriedades.load(leitor);
+        }
+        compilar(propriedades);
+    }
+
+    /**
+     * Compila as regras informadas, substituindo a tabela atual de uma só vez
+     * @param propriedades Regras no formato politica.categoria.genero.atributo
+     * @throws IllegalArgumentException se alguma regra for inválida
+     */
+    public void compilar(Properties propriedades) {
+        // Agrupa os atributos por (categoria, gênero), antes de resolver a precedência
+        Map<String, Map<String, Map<String, String>>> regras = new HashMap<>();
+        for (String chave : propriedades.stringPropertyNames()) {
+            if (!chave.startsWith(PREFIXO)) {
+                continue;
+            }
+            String resto = chave.substring(PREFIXO.length());
+            int primeiroPonto = resto.indexOf('.');
+            int ultimoPonto = resto.lastIndexOf('.');
+            if (primeiroPonto < 0 || ultimoPonto <= primeiroPonto) {
+                throw new IllegalArgumentException("Regra de política inválida: " + chave);
+            }
+            // O gênero fica entre o primeiro e o último ponto, pois pode conter pontos
+            String categoria = resto.substring(0, primeiroPonto);
+            String genero = resto.substring(primeiroPonto + 1, ultimoPonto);
+            String atributo = resto.substring(ultimoPonto + 1);
+            regras.computeIfAbsent(categoria, c -> new HashMap<>())
+                    .computeIfAbsent(genero, g -> new HashMap<>())
+                    .put(atributo, propriedades.getProperty(chave).trim());
+
+            // Garante códigos para os nomes citados, para que tenham linha e coluna na tabela
+            if (!CURINGA.equals(categoria)) {
+                TabelaSimbolos.CATEGORIAS.codificar(categoria);
+            }
+            if (!CURINGA.equals(genero)) {
+                TabelaSimbolos.GENEROS.codificar(genero);
+            }
+        }
+
+        int linhas = TabelaSimbolos.CATEGORIAS.getTamanho() + 1;
+        int colunas = TabelaSimbolos.GENEROS.getTamanho() + 1;
+        PoliticaEmprestimo[][] novaTabela = new PoliticaEmprestimo[linhas][colunas];
+        // Políticas com os mesmos valores (comparados por equals, sem arredondamento) são compartilhadas entre as células
+        Map<PoliticaEmprestimo, PoliticaEmprestimo> unicas = new HashMap<>();
+        for (int linha = 0; linha < linhas; linha++) {
+            String categoria = linha == 0 ? CURINGA : TabelaSimbolos.CATEGORIAS.decodificar(linha - 1);
+            for (int coluna = 0; coluna < colunas; coluna++) {
+                String genero = coluna == 0 ? CURINGA : TabelaSimbolos.GENEROS.decodificar(coluna - 1);
+                PoliticaEmprestimo politica = resolver(regras, categoria, genero);
+                novaTabela[linha][coluna] = unicas.computeIfAbsent(politica, p -> p);
+            }
+        }
+        this.tabela = novaTabela;
+    }
+
+    /**
+     * Obtém a política aplicável a um usuário e um livro
+     * Categorias e gêneros criados depois da compilação usam as regras gerais
+     * @param usuario Usuário do empréstimo
+     * @param livro Livro do empréstimo
+     * @return Política compilada
+     */
+    public PoliticaEmprestimo politicaPara(Usuario usuario, Livro livro) {
+        PoliticaEmprestimo[][] atual = tabela;
+        int linha = usuario.getCodigoCategoria() + 1;
+        if (linha >= atual.length) {
+            linha = 0;
+        }
+        PoliticaEmprestimo[] politicas = atual[linha];
+        int coluna = livro.getCodigoGenero() + 1;
+        if (coluna >= politicas.length) {
+            coluna = 0;
+        }
+        return politicas[coluna];
+    }
+
+    /**
+     * Resolve cada atributo pela regra mais específica que o define
+     */
+    private static PoliticaEmprestimo resolver(Map<String, Map<String, Map<String, String>>> regras,
+                                               String categoria, String genero) {
+        List<Map<String, String>> precedencia = Arrays.asList(
+                buscarRegra(regras, categoria, genero),
+                buscarRegra(regras, categoria, CURINGA),
+                buscarRegra(regras, CURINGA, genero),
+                buscarRegra(regras, CURINGA, CURINGA));
+        PoliticaEmprestimo padrao = PoliticaEmprestimo.PADRAO;
+        try {
+            return new PoliticaEmprestimo(
+                    Integer.parseInt(valor(precedencia, ATRIBUTO_PRAZO, String.valueOf(padrao.getPrazoDias()))),
+                    Double.parseDouble(valor(precedencia, ATRIBUTO_MULTA_DIA, String.valueOf(padrao.getMultaPorDia()))),
+                    Double.parseDouble(valor(precedencia, ATRIBUTO_MULTA_MAXIMA, String.valueOf(padrao.getMultaMaxima()))),
+                    Integer.parseInt(valor(precedencia, ATRIBUTO_RENOVACOES, String.valueOf(padrao.getMaxRenovacoes()))),
+                    Integer.parseInt(valor(precedencia, ATRIBUTO_LIMITE, String.valueOf(padrao.getLimiteEmprestimos()))));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido na política " + categoria + "." + genero, e);
+        }
+    }
+
+    private static Map<String, String> buscarRegra(Map<String, Map<String, Map<String, String>>> regras,
+                                                   String categoria, String genero) {
+        Map<String, Map<String, String>> porGenero = regras.get(categoria);
+        return porGenero != null ? porGenero.get(genero) : null;
+    }
+
+    private static String valor(List<Map<String, String>> precedencia, String atributo, String padrao) {
+        for (Map<String, String> regra : precedencia) {
+            if (regra != null && regra.containsKey(atributo)) {
+                return regra.get(atributo);
+            }
+        }
+        return padrao;
+    }
+}
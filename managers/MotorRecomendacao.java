@@ -0,0 +1,243 @@
+package managers;
+
+import models.Usuario;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de recomendações "quem emprestou este livro também emprestou"
+ * Mantém uma matriz esparsa de coocorrência entre livros (pelo ordinal), atualizada
+ * a cada empréstimo, e os N livros mais coocorrentes de cada livro já ordenados,
+ * de modo que uma recomendação custa apenas a leitura dessa lista
+ */
+public class MotorRecomendacao {
+    private static final int TAMANHO_TOP_PADRAO = 10;
+
+    private final int tamanhoTop;
+    // Livros (ordinais) já emprestados por cada usuário
+    private final Map<Usuario, MapaInteiros> livrosPorUsuario;
+    // Linha da matriz de coocorrência de cada livro, indexada pelo ordinal
+    private final List<Linha> linhas;
+    // Ordinais de livros removidos do catálogo, descartados dos históricos dos usuários quando encontrados
+    private final BitSet removidos;
+
+    /**
+     * Linha da matriz: contagens esparsas e os N maiores em ordem decrescente
+     */
+    private static class Linha {
+        private final MapaInteiros contagens = new MapaInteiros();
+        private final int[] topOrdinais;
+        private final int[] topContagens;
+        private int tamanhoTop;
+
+        private Linha(int capacidadeTop) {
+            this.topOrdinais = new int[capacidadeTop];
+            this.topContagens = new int[capacidadeTop];
+        }
+
+        /**
+         * Incrementa a coocorrência com outro livro e mantém o top N ordenado
+         * Como as contagens só crescem, um livro entra no top assim que supera o menor valor dele
+         */
+        private void incrementar(int outro) {
+            int contagem = contagens.somar(outro, 1);
+
+            int posicao = posicaoNoTop(outro);
+            if (posicao < 0) {
+                if (tamanhoTop < topOrdinais.length) {
+                    posicao = tamanhoTop++;
+                } else if (contagem > topContagens[tamanhoTop - 1]) {
+                    posicao = tamanhoTop - 1;
+                } else {
+                    return;
+                }
+                topOrdinais[posicao] = outro;
+            }
+            topContagens[posicao] = contagem;
+
+            // Sobe a entrada até a posição correta (ordem decrescente de contagem)
+            while (posicao > 0 && topContagens[posicao - 1] < topContagens[posicao]) {
+                trocar(posicao, posicao - 1);
+                posicao--;
+            }
+        }
+
+        /**
+         * Retira um livro da linha e, se ele estava no top N, promove a maior contagem que tinha ficado de fora
+         */
+        private void retirar(int outro) {
+            if (!contagens.remover(outro)) {
+                return;
+            }
+            int posicao = posicaoNoTop(outro);
+            if (posicao < 0) {
+                return;
+            }
+            int seguintes = tamanhoTop - posicao - 1;
+            System.arraycopy(topOrdinais, posicao + 1, topOrdinais, posicao, seguintes);
+            System.arraycopy(topContagens, posicao + 1, topContagens, posicao, seguintes);
+            tamanhoTop--;
+
+            int melhor = -1;
+            int melhorContagem = 0;
+            for (int candidato : contagens.getChaves()) {
+                int contagem = contagens.obter(candidato);
+                if (contagem > melhorContagem && posicaoNoTop(candidato) < 0) {
+                    melhor = candidato;
+                    melhorContagem = contagem;
+                }
+            }
+            if (melhor >= 0) {
+                // Nenhuma contagem de fora supera as do top, então o promovido entra no fim
+                topOrdinais[tamanhoTop] = melhor;
+                topContagens[tamanhoTop] = melhorContagem;
+                tamanhoTop++;
+            }
+        }
+
+        private int posicaoNoTop(int ordinal) {
+            for (int i = 0; i < tamanhoTop; i++) {
+                if (topOrdinais[i] == ordinal) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void trocar(int a, int b) {
+            int ordinal = topOrdinais[a];
+            topOrdinais[a] = topOrdinais[b];
+            topOrdinais[b] = ordinal;
+            int contagem = topContagens[a];
+            topContagens[a] = topContagens[b];
+            topContagens[b] = contagem;
+        }
+    }
+
+    /**
+     * Construtor padrão (mantém os 10 livros mais coocorrentes de cada livro)
+     */
+    public MotorRecomendacao() {
+        this(TAMANHO_TOP_PADRAO);
+    }
+
+    /**
+     * Construtor com tamanho do top personalizado
+     * @param tamanhoTop Quantidade máxima de recomendações mantidas por livro
+     */
+    public MotorRecomendacao(int tamanhoTop) {
+        if (tamanhoTop <= 0) {
+            throw new IllegalArgumentException("Tamanho do top deve ser positivo");
+        }
+        this.tamanhoTop = tamanhoTop;
+        this.livrosPorUsuario = new IdentityHashMap<>();
+        this.linhas = new ArrayList<>();
+        this.removidos = new BitSet();
+    }
+
+    /**
+     * Atualiza a matriz com um novo empréstimo
+     * Custa O(k), onde k é a quantidade de livros distintos já emprestados pelo usuário
+     * @param usuario Usuário do empréstimo
+     * @param ordinal Ordinal do livro emprestado
+     */
+    public synchronized void registrarEmprestimo(Usuario usuario, int ordinal) {
+        if (usuario == null || ordinal < 0 || removidos.get(ordinal)) {
+            return;
+        }
+        MapaInteiros jaEmprestados = livrosPorUsuario.computeIfAbsent(usuario, u -> new MapaInteiros());
+        if (jaEmprestados.contem(ordinal)) {
+            return; // Reempréstimos do mesmo livro não geram novas coocorrências
+        }
+
+        Linha linhaDoLivro = linha(ordinal);
+        for (int outro : jaEmprestados.getChaves()) {
+            if (removidos.get(outro)) {
+                jaEmprestados.remover(outro);
+                continue;
+            }
+            linhaDoLivro.incrementar(outro);
+            linha(outro).incrementar(ordinal);
+        }
+        jaEmprestados.definir(ordinal, 1);
+    }
+
+    /**
+     * Obtém os livros mais emprestados junto com um livro
+     * @param ordinal Ordinal do livro
+     * @param quantidade Quantidade máxima de recomendações
+     * @return Ordinais recomendados em ordem decrescente de coocorrência
+     */
+    public synchronized int[] recomendar(int ordinal, int quantidade) {
+        if (ordinal < 0 || ordinal >= linhas.size() || linhas.get(ordinal) == null) {
+            return new int[0];
+        }
+        Linha linha = linhas.get(ordinal);
+        int total = Math.min(quantidade, linha.tamanhoTop);
+        int[] resultado = new int[total];
+        System.arraycopy(linha.topOrdinais, 0, resultado, 0, total);
+        return resultado;
+    }
+
+    /**
+     * Obtém quantas vezes dois livros foram emprestados pelo mesmo usuário
+     * @param ordinalA Ordinal do primeiro livro
+     * @param ordinalB Ordinal do segundo livro
+     * @return Número de usuários que emprestaram os dois livros
+     */
+    public synchronized int getCoocorrencia(int ordinalA, int ordinalB) {
+        if (ordinalA < 0 || ordinalA >= linhas.size() || linhas.get(ordinalA) == null) {
+            return 0;
+        }
+        return linhas.get(ordinalA).contagens.obter(ordinalB);
+    }
+
+    /**
+     * Esquece o histórico de um usuário removido do catálogo
+     * As coocorrências já contabilizadas são mantidas
+     * @param usuario Usuário removido
+     */
+    public synchronized void removerUsuario(Usuario usuario) {
+        livrosPorUsuario.remove(usuario);
+    }
+
+    /**
+     * Esquece um livro removido do catálogo
+     * A linha do livro é descartada e ele sai da coluna e do top N de cada livro com que coocorria;
+     * os tops afetados são completados com a próxima maior coocorrência
+     * @param ordinal Ordinal do livro removido
+     */
+    public synchronized void removerLivro(int ordinal) {
+        if (ordinal < 0 || removidos.get(ordinal)) {
+            return;
+        }
+        removidos.set(ordinal);
+        if (ordinal >= linhas.size() || linhas.get(ordinal) == null) {
+            return;
+        }
+        // A matriz é simétrica: a linha do livro lista todos os livros cuja linha o contém
+        for (int outro : linhas.get(ordinal).contagens.getChaves()) {
+            Linha linhaOutro = linhas.get(outro);
+            if (linhaOutro != null) {
+                linhaOutro.retirar(ordinal);
+            }
+        }
+        linhas.set(ordinal, null);
+    }
+
+    private Linha linha(int ordinal) {
+        while (linhas.size() <= ordinal) {
+            linhas.add(null);
+        }
+        Linha linha = linhas.get(ordinal);
+        if (linha == null) {
+            linha = new Linha(tamanhoTop);
+            linhas.set(ordinal, linha);
+        }
+        return linha;
+    }
+}
@@ -0,0 +1,222 @@
+package managers;
+
+import models.Emprestimo;
+import models.NotificacaoVencimento;
+import models.Usuario;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gera e entrega os avisos de vencimento do dia
+ * Os empréstimos são obtidos do índice de vencimentos apenas para as datas de interesse:
+ * os que vencem daqui a N dias (para cada antecedência configurada) e os que venceram ontem,
+ * isto é, entraram em atraso hoje. Os empréstimos de cada usuário são reunidos em um único aviso,
+ * e os avisos são entregues ao destino em lotes, com limite de lotes por segundo e novas tentativas
+ * com espera crescente. Avisos já entregues não são reenviados quando o dia é processado de novo
+ */
+public class NotificadorVencimentos {
+    private static final int TAMANHO_LOTE_PADRAO = 100;
+    private static final int MAX_TENTATIVAS_PADRAO = 3;
+    private static final long ESPERA_INICIAL_PADRAO_MILLIS = 500;
+    // Por quantos dias as chaves entregues são lembradas
+    private static final int DIAS_RETENCAO_CHAVES = 7;
+
+    private final BibliotecaManager biblioteca;
+    private final DestinoNotificacoes destino;
+    private int[] diasAntecedencia;
+    private int tamanhoLote;
+    private double lotesPorSegundo;
+    private int maxTentativas;
+    private long esperaInicialMillis;
+
+    // Chaves dos avisos já entregues, com a data de referência de cada um
+    private final Map<String, LocalDate> entregues;
+    private int pendentes;
+    private long proximoLoteNanos;
+
+    /**
+     * Construtor com avisos 3 dias antes do vencimento, lotes de 100 avisos sem limite de vazão
+     * e até 3 tentativas por lote
+     * @param biblioteca Gerenciador da biblioteca
+     * @param destino Destino dos avisos
+     */
+    public NotificadorVencimentos(BibliotecaManager biblioteca, DestinoNotificacoes destino) {
+        if (biblioteca == null || destino == null) {
+            throw new IllegalArgumentException("Biblioteca e destino são obrigatórios");
+        }
+        this.biblioteca = biblioteca;
+        this.destino = destino;
+        this.diasAntecedencia = new int[] {3};
+        this.tamanhoLote = TAMANHO_LOTE_PADRAO;
+        this.lotesPorSegundo = 0;
+        this.maxTentativas = MAX_TENTATIVAS_PADRAO;
+        this.esperaInicialMillis = ESPERA_INICIAL_PADRAO_MILLIS;
+        this.entregues = new HashMap<>();
+    }
+
+    /**
+     * @param diasAntecedencia Com quantos dias de antecedência avisar (0 avisa no próprio dia do vencimento)
+     */
+    public synchronized void setDiasAntecedencia(int... diasAntecedencia) {
+        for (int dias : diasAntecedencia) {
+            if (dias < 0) {
+                throw new IllegalArgumentException("Antecedência não pode ser negativa");
+            }
+        }
+        this.diasAntecedencia = Arrays.copyOf(diasAntecedencia, diasAntecedencia.length);
+    }
+
+    public synchronized void setTamanhoLote(int tamanhoLote) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser positivo");
+        }
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * @param lotesPorSegundo Máximo de lotes entregues por segundo (0 para sem limite)
+     */
+    public synchronized void setLotesPorSegundo(double lotesPorSegundo) {
+        if (lotesPorSegundo < 0) {
+            throw new IllegalArgumentException("Limite de lotes não pode ser negativo");
+        }
+        this.lotesPorSegundo = lotesPorSegundo;
+    }
+
+    /**
+     * @param maxTentativas Tentativas de entrega de cada lote
+     * @param esperaInicialMillis Espera antes da segunda tentativa; dobra a cada nova tentativa
+     */
+    public synchronized void setTentativas(int maxTentativas, long esperaInicialMillis) {
+        if (maxTentativas <= 0 || esperaInicialMillis < 0) {
+            throw new IllegalArgumentException("Configuração de tentativas inválida");
+        }
+        this.maxTentativas = maxTentativas;
+        this.esperaInicialMillis = esperaInicialMillis;
+    }
+
+    /**
+     * Processa os avisos da data de hoje segundo o relógio da biblioteca
+     * @return Quantidade de avisos entregues nesta execução
+     * @throws InterruptedException se a thread for interrompida durante uma espera
+     */
+    public int executar() throws InterruptedException {
+        return executar(biblioteca.getDataAtual());
+    }
+
+    /**
+     * Processa os avisos de uma data
+     * Pode ser chamado novamente para a mesma data: apenas os avisos ainda não entregues são enviados
+     * @param hoje Data de referência
+     * @return Quantidade de avisos entregues nesta execução
+     * @throws InterruptedException se a thread for interrompida durante uma espera
+     */
+    public synchronized int executar(LocalDate hoje) throws InterruptedException {
+        esquecerChavesAntigas(hoje);
+        List<NotificacaoVencimento> notificacoes = montarNotificacoes(hoje);
+
+        int entreguesAgora = 0;
+        pendentes = notificacoes.size();
+        for (int inicio = 0; inicio < notificacoes.size(); inicio += tamanhoLote) {
+            List<NotificacaoVencimento> lote = notificacoes.subList(inicio, Math.min(notificacoes.size(), inicio + tamanhoLote));
+            aguardarVez();
+            if (!entregar(lote)) {
+                // Destino indisponível: os avisos restantes ficam para a próxima execução
+                break;
+            }
+            for (NotificacaoVencimento notificacao : lote) {
+                entregues.put(notificacao.getChave(), hoje);
+            }
+            entreguesAgora += lote.size();
+            pendentes -= lote.size();
+        }
+        return entreguesAgora;
+    }
+
+    /**
+     * Obtém a quantidade de avisos que não puderam ser entregues na última execução
+     * @return Avisos pendentes
+     */
+    public synchronized int getQuantidadePendentes() {
+        return pendentes;
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Reúne por usuário os empréstimos que vencem nas datas de aviso ou que venceram ontem
+     * @return Avisos ainda não entregues, um por usuário
+     */
+    private List<NotificacaoVencimento> montarNotificacoes(LocalDate hoje) {
+        Map<Usuario, List<NotificacaoVencimento.Item>> itensPorUsuario = new LinkedHashMap<>();
+        adicionarItens(itensPorUsuario, hoje.minusDays(1));
+        for (int dias : diasAntecedencia) {
+            adicionarItens(itensPorUsuario, hoje.plusDays(dias));
+        }
+
+        List<NotificacaoVencimento> notificacoes = new ArrayList<>(itensPorUsuario.size());
+        for (Map.Entry<Usuario, List<NotificacaoVencimento.Item>> entrada : itensPorUsuario.entrySet()) {
+            NotificacaoVencimento notificacao = new NotificacaoVencimento(entrada.getKey(), hoje, entrada.getValue());
+            if (!entregues.containsKey(notificacao.getChave())) {
+                notificacoes.add(notificacao);
+            }
+        }
+        return notificacoes;
+    }
+
+    private void adicionarItens(Map<Usuario, List<NotificacaoVencimento.Item>> itensPorUsuario, LocalDate data) {
+        for (Emprestimo emprestimo : biblioteca.getVencimentosEntre(data, data)) {
+            itensPorUsuario.computeIfAbsent(emprestimo.getUsuario(), u -> new ArrayList<>())
+                    .add(new NotificacaoVencimento.Item(emprestimo.getLivro().getTitulo(),
+                            emprestimo.getLivro().getIsbn(), emprestimo.getDataDevolucaoPrevista()));
+        }
+    }
+
+    /**
+     * Tenta entregar um lote, esperando entre as tentativas
+     * @return true se o destino aceitou o lote
+     */
+    private boolean entregar(List<NotificacaoVencimento> lote) throws InterruptedException {
+        long espera = esperaInicialMillis;
+        for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
+            try {
+                destino.enviar(lote);
+                return true;
+            } catch (IOException e) {
+                if (tentativa < maxTentativas) {
+                    Thread.sleep(espera);
+                    espera *= 2;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Espera o intervalo mínimo entre lotes definido por lotesPorSegundo
+     */
+    private void aguardarVez() throws InterruptedException {
+        if (lotesPorSegundo <= 0) {
+            return;
+        }
+        long agora = System.nanoTime();
+        if (proximoLoteNanos - agora > 0) {
+            TimeUnit.NANOSECONDS.sleep(proximoLoteNanos - agora);
+            agora = proximoLoteNanos;
+        }
+        proximoLoteNanos = agora + (long) (1_000_000_000L / lotesPorSegundo);
+    }
+
+    private void esquecerChavesAntigas(LocalDate hoje) {
+        LocalDate limite = hoje.minusDays(DIAS_RETENCAO_CHAVES);
+        entregues.values().removeIf(data -> data.isBefore(limite));
+    }
+}
@@ -0,0 +1,130 @@
+package managers;
+
+import models.Livro;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Estado do catálogo publicado para os retratos da biblioteca, por cópia na escrita
+ * Os ordinais dos livros são divididos em páginas de tamanho fixo, e cada página publicada é imutável:
+ * guarda as cópias dos livros emprestados, os títulos e os contadores de empréstimos da sua faixa.
+ * Quem escreve apenas marca a página do ordinal alterado, sem alocar. A publicação recopia somente
+ * as páginas marcadas e reaproveita as demais, de modo que o bloqueio do catálogo dura o tamanho
+ * das alterações desde o último retrato, e não o tamanho do catálogo. As páginas devolvidas podem
+ * ser lidas sem bloqueio
+ */
+public class PaginasCatalogo {
+    private static final int TAMANHO_PAGINA = 64;
+
+    private Pagina[] publicadas;
+    private final BitSet alteradas;
+    private boolean todasAlteradas;
+
+    /**
+     * Faixa imutável de ordinais do catálogo
+     */
+    public static class Pagina {
+        // Cópias desvinculadas dos livros emprestados (null se disponível ou sem livro)
+        private final Livro[] emprestados;
+        // Títulos dos livros (null se o ordinal não tem livro)
+        private final String[] titulos;
+        private final int[] emprestimos;
+
+        private Pagina(int tamanho) {
+            this.emprestados = new Livro[tamanho];
+            this.titulos = new String[tamanho];
+            this.emprestimos = new int[tamanho];
+        }
+
+        public int getTamanho() {
+            return titulos.length;
+        }
+
+        public Livro getEmprestado(int posicao) {
+            return emprestados[posicao];
+        }
+
+        public String getTitulo(int posicao) {
+            return titulos[posicao];
+        }
+
+        public int getEmprestimos(int posicao) {
+            return emprestimos[posicao];
+        }
+    }
+
+    /**
+     * Construtor padrão
+     */
+    public PaginasCatalogo() {
+        this.publicadas = new Pagina[0];
+        this.alteradas = new BitSet();
+        this.todasAlteradas = false;
+    }
+
+    /**
+     * Marca a página de um livro alterado, para ser recopiada na próxima publicação
+     * @param ordinal Ordinal do livro (ordinais negativos são ignorados)
+     */
+    public void marcar(int ordinal) {
+        if (ordinal >= 0) {
+            alteradas.set(ordinal / TAMANHO_PAGINA);
+        }
+    }
+
+    /**
+     * Marca todas as páginas (por exemplo, depois de carregar o catálogo)
+     */
+    public void marcarTodas() {
+        todasAlteradas = true;
+    }
+
+    /**
+     * Publica o estado atual, recopiando apenas as páginas marcadas
+     * Deve ser chamado sob o bloqueio de quem altera o catálogo
+     * @param livrosPorOrdinal Livros do catálogo pelo ordinal (null após remoção)
+     * @param emprestimosPorOrdinal Quantidade de empréstimos de cada livro, pelo ordinal
+     * @return Páginas publicadas em ordem de ordinal; o vetor não é alterado depois de devolvido
+     */
+    public Pagina[] publicar(List<Livro> livrosPorOrdinal, int[] emprestimosPorOrdinal) {
+        int totalOrdinais = livrosPorOrdinal.size();
+        int quantidade = (totalOrdinais + TAMANHO_PAGINA - 1) / TAMANHO_PAGINA;
+        if (quantidade == publicadas.length && !todasAlteradas && alteradas.isEmpty()) {
+            return publicadas;
+        }
+        Pagina[] novas = Arrays.copyOf(publicadas, quantidade);
+        for (int pagina = 0; pagina < quantidade; pagina++) {
+            int inicio = pagina * TAMANHO_PAGINA;
+            int tamanho = Math.min(TAMANHO_PAGINA, totalOrdinais - inicio);
+            if (todasAlteradas || alteradas.get(pagina) || novas[pagina] == null
+                    || novas[pagina].getTamanho() != tamanho) {
+                novas[pagina] = copiar(livrosPorOrdinal, emprestimosPorOrdinal, inicio, tamanho);
+            }
+        }
+        alteradas.clear();
+        todasAlteradas = false;
+        publicadas = novas;
+        return novas;
+    }
+
+    // Métodos auxiliares
+
+    private static Pagina copiar(List<Livro> livrosPorOrdinal, int[] emprestimosPorOrdinal, int inicio, int tamanho) {
+        Pagina pagina = new Pagina(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            int ordinal = inicio + i;
+            Livro livro = livrosPorOrdinal.get(ordinal);
+            if (livro == null) {
+                continue;
+            }
+            pagina.titulos[i] = livro.getTitulo();
+            pagina.emprestimos[i] = ordinal < emprestimosPorOrdinal.length ? emprestimosPorOrdinal[ordinal] : 0;
+            if (!livro.estaDisponivel()) {
+                pagina.emprestados[i] = new Livro(livro);
+            }
+        }
+        return pagina;
+    }
+}
@@ -0,0 +1,349 @@
+package managers;
+
+import models.TabelaSimbolos;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Série temporal da circulação (empréstimos e devoluções), agregada em baldes de minuto, hora e dia
+ * Cada evento incrementa os três níveis no momento em que acontece, no total e no gênero do livro,
+ * de modo que as consultas nunca percorrem os empréstimos. Os baldes de minuto e de hora mais antigos
+ * que a retenção de cada nível são descartados (o dado continua somado nos níveis mais grossos);
+ * os baldes de dia são mantidos para sempre, e um intervalo de anos ocupa poucos milhares deles
+ */
+public class SerieCirculacao {
+    // Granularidades aceitas nas consultas
+    public static final String GRANULARIDADE_MINUTO = "minuto";
+    public static final String GRANULARIDADE_HORA = "hora";
+    public static final String GRANULARIDADE_DIA = "dia";
+
+    private static final String[] GRANULARIDADES = {GRANULARIDADE_MINUTO, GRANULARIDADE_HORA, GRANULARIDADE_DIA};
+    private static final long[] SEGUNDOS_BALDE = {60, 3600, 86400};
+    private static final int MINUTO = 0;
+    private static final int DIA = 2;
+
+    // Código usado internamente para gêneros que nunca foram cadastrados
+    private static final int CODIGO_DESCONHECIDO = -2;
+    // Código usado internamente para a soma de todos os gêneros
+    private static final int TODOS_GENEROS = -3;
+
+    // Baldes de cada nível, pelo número do balde (segundos desde a época divididos pelo tamanho do balde)
+    private final List<TreeMap<Long, Balde>> niveis;
+    private final Duration[] retencao;
+    // Evento mais recente já registrado, em segundos desde a época no horário local
+    private long maisRecente = Long.MIN_VALUE;
+    private long ultimaHoraDescarte = Long.MIN_VALUE;
+    // Último balde usado em cada nível: eventos seguidos no mesmo balde não consultam o mapa
+    private final long[] numeroUltimoBalde;
+    private final Balde[] ultimoBalde;
+
+    /**
+     * Construtor com 2 dias de baldes de minuto e 400 dias de baldes de hora
+     */
+    public SerieCirculacao() {
+        this.niveis = new ArrayList<>(GRANULARIDADES.length);
+        for (int i = 0; i < GRANULARIDADES.length; i++) {
+            niveis.add(new TreeMap<>());
+        }
+        this.retencao = new Duration[] {Duration.ofDays(2), Duration.ofDays(400), null};
+        this.numeroUltimoBalde = new long[GRANULARIDADES.length];
+        this.ultimoBalde = new Balde[GRANULARIDADES.length];
+    }
+
+    /**
+     * @param retencaoMinutos Por quanto tempo os baldes de minuto são mantidos
+     * @param retencaoHoras Por quanto tempo os baldes de hora são mantidos
+     */
+    public synchronized void setRetencao(Duration retencaoMinutos, Duration retencaoHoras) {
+        if (retencaoMinutos == null || retencaoHoras == null || retencaoMinutos.isNegative()
+                || retencaoHoras.compareTo(retencaoMinutos) < 0) {
+            throw new IllegalArgumentException("A retenção das horas deve ser maior ou igual à dos minutos");
+        }
+        retencao[0] = retencaoMinutos;
+        retencao[1] = retencaoHoras;
+        if (maisRecente != Long.MIN_VALUE) {
+            descartarAntigos();
+        }
+    }
+
+    /**
+     * Registra um empréstimo
+     * @param instante Data e hora local do empréstimo
+     * @param codigoGenero Código do gênero do livro (TabelaSimbolos.GENEROS)
+     */
+    public synchronized void registrarEmprestimo(LocalDateTime instante, int codigoGenero) {
+        registrar(segundos(instante), codigoGenero, true);
+    }
+
+    /**
+     * Registra um empréstimo sem criar um LocalDateTime
+     * @param segundosLocais Data e hora local do empréstimo em segundos desde a época (sem fuso)
+     * @param codigoGenero Código do gênero do livro (TabelaSimbolos.GENEROS)
+     */
+    public synchronized void registrarEmprestimo(long segundosLocais, int codigoGenero) {
+        registrar(segundosLocais, codigoGenero, true);
+    }
+
+    /**
+     * Registra uma devolução
+     * @param instante Data e hora local da devolução
+     * @param codigoGenero Código do gênero do livro (TabelaSimbolos.GENEROS)
+     */
+    public synchronized void registrarDevolucao(LocalDateTime instante, int codigoGenero) {
+        registrar(segundos(instante), codigoGenero, false);
+    }
+
+    /**
+     * Registra uma devolução sem criar um LocalDateTime
+     * @param segundosLocais Data e hora local da devolução em segundos desde a época (sem fuso)
+     * @param codigoGenero Código do gênero do livro (TabelaSimbolos.GENEROS)
+     */
+    public synchronized void registrarDevolucao(long segundosLocais, int codigoGenero) {
+        registrar(segundosLocais, codigoGenero, false);
+    }
+
+    /**
+     * Consulta a série em uma granularidade
+     * Baldes sem movimento não aparecem. Intervalos anteriores à retenção da granularidade
+     * pedida voltam vazios; para eles deve-se usar uma granularidade mais grossa
+     * @param granularidade Constante GRANULARIDADE_*
+     * @param inicio Início do intervalo (inclusivo)
+     * @param fim Fim do intervalo (exclusivo)
+     * @param genero Gênero dos livros, ou null para todos
+     * @return Pontos em ordem cronológica
+     */
+    public synchronized List<Ponto> consultar(String granularidade, LocalDateTime inicio, LocalDateTime fim,
+                                              String genero) {
+        int nivel = nivel(granularidade);
+        int codigo = codigoGenero(genero);
+        List<Ponto> pontos = new ArrayList<>();
+        if (codigo == CODIGO_DESCONHECIDO) {
+            return pontos;
+        }
+        long tamanho = SEGUNDOS_BALDE[nivel];
+        Map<Long, Balde> faixa = niveis.get(nivel).subMap(
+                Math.floorDiv(segundos(inicio), tamanho), true, tetoDiv(segundos(fim), tamanho), false);
+        for (Map.Entry<Long, Balde> entrada : faixa.entrySet()) {
+            Balde balde = entrada.getValue();
+            long emprestimos = balde.emprestimos(codigo);
+            long devolucoes = balde.devolucoes(codigo);
+            if (emprestimos > 0 || devolucoes > 0) {
+                LocalDateTime instante = LocalDateTime.ofEpochSecond(entrada.getKey() * tamanho, 0, ZoneOffset.UTC);
+                pontos.add(new Ponto(instante, emprestimos, devolucoes));
+            }
+        }
+        return pontos;
+    }
+
+    /**
+     * Soma a circulação de um intervalo usando os baldes mais grossos que cabem nele
+     * Dias inteiros vêm dos baldes de dia e as pontas, dos de hora e de minuto. Pontas que caem
+     * antes da retenção dos níveis mais finos não são contadas, e frações de minuto são ignoradas
+     * @param inicio Início do intervalo (inclusivo)
+     * @param fim Fim do intervalo (exclusivo)
+     * @param genero Gênero dos livros, ou null para todos
+     * @return Ponto com o início do intervalo e os totais
+     */
+    public synchronized Ponto somar(LocalDateTime inicio, LocalDateTime fim, String genero) {
+        int codigo = codigoGenero(genero);
+        long[] totais = new long[2];
+        if (codigo != CODIGO_DESCONHECIDO && inicio.isBefore(fim)) {
+            somarNivel(DIA, segundos(inicio), segundos(fim), codigo, totais);
+        }
+        return new Ponto(inicio, totais[0], totais[1]);
+    }
+
+    /**
+     * Obtém a quantidade de baldes mantidos em uma granularidade
+     * @param granularidade Constante GRANULARIDADE_*
+     * @return Quantidade de baldes
+     */
+    public synchronized int getQuantidadeBaldes(String granularidade) {
+        return niveis.get(nivel(granularidade)).size();
+    }
+
+    // Métodos auxiliares
+
+    private void registrar(long segundos, int codigoGenero, boolean emprestimo) {
+        if (segundos > maisRecente) {
+            maisRecente = segundos;
+        }
+        for (int nivel = 0; nivel < niveis.size(); nivel++) {
+            long balde = Math.floorDiv(segundos, SEGUNDOS_BALDE[nivel]);
+            if (balde < limiteRetencao(nivel)) {
+                // Evento atrasado além da retenção deste nível: fica apenas nos níveis mais grossos
+                continue;
+            }
+            baldeDoNivel(nivel, balde).incrementar(codigoGenero, emprestimo);
+        }
+        // O descarte roda no máximo uma vez por hora de eventos
+        long hora = Math.floorDiv(maisRecente, SEGUNDOS_BALDE[1]);
+        if (hora != ultimaHoraDescarte) {
+            ultimaHoraDescarte = hora;
+            descartarAntigos();
+        }
+    }
+
+    private Balde baldeDoNivel(int nivel, long numero) {
+        Balde balde = ultimoBalde[nivel];
+        if (balde == null || numeroUltimoBalde[nivel] != numero) {
+            balde = niveis.get(nivel).computeIfAbsent(numero, b -> new Balde());
+            ultimoBalde[nivel] = balde;
+            numeroUltimoBalde[nivel] = numero;
+        }
+        return balde;
+    }
+
+    private void descartarAntigos() {
+        for (int nivel = 0; nivel < DIA; nivel++) {
+            niveis.get(nivel).headMap(limiteRetencao(nivel), false).clear();
+            ultimoBalde[nivel] = null; // o balde guardado pode ter sido descartado
+        }
+    }
+
+    /**
+     * Primeiro balde ainda mantido em um nível
+     */
+    private long limiteRetencao(int nivel) {
+        if (retencao[nivel] == null || maisRecente == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return Math.floorDiv(maisRecente - retencao[nivel].getSeconds(), SEGUNDOS_BALDE[nivel]);
+    }
+
+    /**
+     * Soma o intervalo [inicio, fim) em segundos com os baldes inteiros do nível e delega as pontas ao nível de baixo
+     */
+    private void somarNivel(int nivel, long inicio, long fim, int codigo, long[] totais) {
+        long tamanho = SEGUNDOS_BALDE[nivel];
+        long primeiro = tetoDiv(inicio, tamanho);
+        long ultimo = Math.floorDiv(fim, tamanho);
+        if (primeiro >= ultimo) {
+            if (nivel > MINUTO) {
+                somarNivel(nivel - 1, inicio, fim, codigo, totais);
+            }
+            return;
+        }
+        for (Balde balde : niveis.get(nivel).subMap(primeiro, true, ultimo, false).values()) {
+            totais[0] += balde.emprestimos(codigo);
+            totais[1] += balde.devolucoes(codigo);
+        }
+        if (nivel > MINUTO) {
+            somarNivel(nivel - 1, inicio, primeiro * tamanho, codigo, totais);
+            somarNivel(nivel - 1, ultimo * tamanho, fim, codigo, totais);
+        }
+    }
+
+    private static int nivel(String granularidade) {
+        for (int i = 0; i < GRANULARIDADES.length; i++) {
+            if (GRANULARIDADES[i].equals(granularidade)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Granularidade desconhecida: " + granularidade);
+    }
+
+    private static int codigoGenero(String genero) {
+        if (genero == null) {
+            return TODOS_GENEROS;
+        }
+        int codigo = TabelaSimbolos.GENEROS.buscarCodigo(genero);
+        return codigo == TabelaSimbolos.CODIGO_NULO ? CODIGO_DESCONHECIDO : codigo;
+    }
+
+    /**
+     * Converte a data e hora local em segundos desde a época, sem aplicar fuso:
+     * os baldes de dia e de hora seguem o calendário local da biblioteca
+     */
+    private static long segundos(LocalDateTime instante) {
+        return instante.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long tetoDiv(long valor, long divisor) {
+        return -Math.floorDiv(-valor, divisor);
+    }
+
+    /**
+     * Contadores de um balde, no total e por código de gênero
+     */
+    private static class Balde {
+        private long emprestimos;
+        private long devolucoes;
+        private long[] emprestimosPorGenero = new long[0];
+        private long[] devolucoesPorGenero = new long[0];
+
+        void incrementar(int codigoGenero, boolean emprestimo) {
+            if (emprestimo) {
+                emprestimos++;
+            } else {
+                devolucoes++;
+            }
+            if (codigoGenero < 0) {
+                return; // Livros sem gênero entram apenas no total
+            }
+            if (codigoGenero >= emprestimosPorGenero.length) {
+                int tamanho = Math.max(codigoGenero + 1, emprestimosPorGenero.length * 2);
+                emprestimosPorGenero = Arrays.copyOf(emprestimosPorGenero, tamanho);
+                devolucoesPorGenero = Arrays.copyOf(devolucoesPorGenero, tamanho);
+            }
+            if (emprestimo) {
+                emprestimosPorGenero[codigoGenero]++;
+            } else {
+                devolucoesPorGenero[codigoGenero]++;
+            }
+        }
+
+        long emprestimos(int codigo) {
+            if (codigo == TODOS_GENEROS) {
+                return emprestimos;
+            }
+            return codigo < emprestimosPorGenero.length ? emprestimosPorGenero[codigo] : 0;
+        }
+
+        long devolucoes(int codigo) {
+            if (codigo == TODOS_GENEROS) {
+                return devolucoes;
+            }
+            return codigo < devolucoesPorGenero.length ? devolucoesPorGenero[codigo] : 0;
+        }
+    }
+
+    /**
+     * Totais de circulação de um balde ou de um intervalo
+     */
+    public static class Ponto {
+        private final LocalDateTime inicio;
+        private final long emprestimos;
+        private final long devolucoes;
+
+        Ponto(LocalDateTime inicio, long emprestimos, long devolucoes) {
+            this.inicio = inicio;
+            this.emprestimos = emprestimos;
+            this.devolucoes = devolucoes;
+        }
+
+        public LocalDateTime getInicio() {
+            return inicio;
+        }
+
+        public long getEmprestimos() {
+            return emprestimos;
+        }
+
+        public long getDevolucoes() {
+            return devolucoes;
+        }
+
+        @Override
+        public String toString() {
+            return inicio + " empréstimos=" + emprestimos + " devoluções=" + devolucoes;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package managers;
+
+import models.Livro;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Retrato imutável do estado da biblioteca em uma versão
+ * Todos os números e listas foram capturados juntos, portanto um relatório gerado a partir
+ * do retrato nunca mistura valores de versões diferentes, mesmo com empréstimos acontecendo
+ */
+public class SnapshotBiblioteca {
+    private final long versao;
+    private final LocalDate dataCaptura;
+    private final int totalLivros;
+    private final int livrosDisponiveis;
+    private final int totalUsuarios;
+    private final int usuariosAtivos;
+    private final long totalEmprestimos;
+    private final int emprestimosAtivos;
+    private final int emprestimosAtrasados;
+    private final List<Livro> livrosEmprestados;
+    private final String trechoLivrosPopulares;
+
+    /**
+     * Construtor usado pelo BibliotecaManager ao capturar o retrato
+     * @param versao Versão dos dados no momento da captura
+     * @param dataCaptura Data usada para avaliar atrasos
+     * @param totalLivros Quantidade de livros do catálogo
+     * @param livrosDisponiveis Quantidade de livros disponíveis
+     * @param totalUsuarios Quantidade de usuários
+     * @param usuariosAtivos Quantidade de usuários ativos
+     * @param totalEmprestimos Quantidade de empréstimos, em aberto e do histórico
+     * @param emprestimosAtivos Quantidade de empréstimos ativos
+     * @param emprestimosAtrasados Quantidade de empréstimos em atraso
+     * @param livrosEmprestados Cópias desvinculadas dos livros emprestados
+     * @param trechoLivrosPopulares Trecho já formatado com os livros mais populares
+     */
+    SnapshotBiblioteca(long versao, LocalDate dataCaptura, int totalLivros, int livrosDisponiveis,
+                       int totalUsuarios, int usuariosAtivos, long totalEmprestimos, int emprestimosAtivos,
+                       int emprestimosAtrasados, List<Livro> livrosEmprestados, String trechoLivrosPopulares) {
+        this.versao = versao;
+        this.dataCaptura = dataCaptura;
+        this.totalLivros = totalLivros;
+        this.livrosDisponiveis = livrosDisponiveis;
+        this.totalUsuarios = totalUsuarios;
+        this.usuariosAtivos = usuariosAtivos;
+        this.totalEmprestimos = totalEmprestimos;
+        this.emprestimosAtivos = emprestimosAtivos;
+        this.emprestimosAtrasados = emprestimosAtrasados;
+        this.livrosEmprestados = Collections.unmodifiableList(livrosEmprestados);
+        this.trechoLivrosPopulares = trechoLivrosPopulares;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public LocalDate getDataCaptura() {
+        return dataCaptura;
+    }
+
+    public int getTotalLivros() {
+        return totalLivros;
+    }
+
+    public int getLivrosDisponiveis() {
+        return livrosDisponiveis;
+    }
+
+    public int getQuantidadeLivrosEmprestados() {
+        return livrosEmprestados.size();
+    }
+
+    public int getTotalUsuarios() {
+        return totalUsuarios;
+    }
+
+    public int getUsuariosAtivos() {
+        return usuariosAtivos;
+    }
+
+    public long getTotalEmprestimos() {
+        return totalEmprestimos;
+    }
+
+    public int getEmprestimosAtivos() {
+        return emprestimosAtivos;
+    }
+
+    public int getEmprestimosAtrasados() {
+        return emprestimosAtrasados;
+    }
+
+    /**
+     * Obtém as cópias dos livros emprestados no momento da captura
+     * @return Lista imutável de cópias desvinculadas do catálogo
+     */
+    public List<Livro> getLivrosEmprestados() {
+        return livrosEmprestados;
+    }
+
+    public String getTrechoLivrosPopulares() {
+        return trechoLivrosPopulares;
+    }
+}
@@ -17,13 +17,19 @@ public class Emprestimo {
     private String status; // "ATIVO", "DEVOLVIDO", "ATRASADO"
     private double multa;
     private String observacoes;
+    private PoliticaEmprestimo politica; // regras de multa aplicadas a este empréstimo
+    private int renovacoes; // quantidade de renovações já realizadas
+    
+    // Posição do empréstimo no grupo do seu dia no índice de vencimentos (-1 se fora do índice)
+    private int posicaoVencimento = -1;
+    // Posição do empréstimo na lista de empréstimos em aberto do catálogo (-1 se fora dela)
+    private int posicaoEmAberto = -1;
     
     // Constantes para status e configurações
-    private static final String STATUS_ATIVO = "ATIVO";
-    private static final String STATUS_DEVOLVIDO = "DEVOLVIDO";
-    private static final String STATUS_ATRASADO = "ATRASADO";
-    private static final int PRAZO_PADRAO_DIAS = 15;
-    private static final double VALOR_MULTA_POR_DIA = 0.50;
+    public static final String STATUS_ATIVO = "ATIVO";
+    public static final String STATUS_DEVOLVIDO = "DEVOLVIDO";
+    public static final String STATUS_ATRASADO = "ATRASADO";
+    private static final int PRAZO_PADRAO_DIAS = PoliticaEmprestimo.PADRAO.getPrazoDias();
     
     /**
      * Construtor padrão
@@ -31,6 +37,7 @@ public class Emprestimo {
     public Emprestimo() {
         this.status = STATUS_ATIVO;
         this.multa = 0.0;
+        this.politica = PoliticaEmprestimo.PADRAO;
     }
     
     /**
@@ -46,6 +53,7 @@ public class Emprestimo {
         this.dataDevolucaoPrevista = dataEmprestimo.plusDays(PRAZO_PADRAO_DIAS);
         this.status = STATUS_ATIVO;
         this.multa = 0.0;
+        this.politica = PoliticaEmprestimo.PADRAO;
     }
     
     /**
@@ -62,6 +70,45 @@ public class Emprestimo {
         this.dataDevolucaoPrevista = dataEmprestimo.plusDays(prazoDias);
         this.status = STATUS_ATIVO;
         this.multa = 0.0;
+        this.politica = PoliticaEmprestimo.PADRAO;
+    }
+    
+    /**
+     * Construtor com política de empréstimo
+     * O prazo e as regras de multa vêm da política informada
+     * @param usuario Usuário que fez o empréstimo
+     * @param livro Livro emprestado
+     * @param dataEmprestimo Data do empréstimo
+     * @param politica Política aplicada ao empréstimo
+     */
+    public Emprestimo(Usuario usuario, Livro livro, LocalDate dataEmprestimo, PoliticaEmprestimo politica) {
+        this.usuario = usuario;
+        this.livro = livro;
+        this.dataEmprestimo = dataEmprestimo;
+        this.dataDevolucaoPrevista = dataEmprestimo.plusDays(politica.getPrazoDias());
+        this.status = STATUS_ATIVO;
+        this.multa = 0.0;
+        this.politica = politica;
+    }
+    
+    /**
+     * Construtor com política e data prevista de devolução já calculada
+     * Usado pelo catálogo, que reaproveita a data prevista do dia para todos os empréstimos com o mesmo prazo
+     * @param usuario Usuário que fez o empréstimo
+     * @param livro Livro emprestado
+     * @param dataEmprestimo Data do empréstimo
+     * @param dataDevolucaoPrevista Data prevista de devolução (data do empréstimo mais o prazo da política)
+     * @param politica Política aplicada ao empréstimo
+     */
+    public Emprestimo(Usuario usuario, Livro livro, LocalDate dataEmprestimo, LocalDate dataDevolucaoPrevista,
+                      PoliticaEmprestimo politica) {
+        this.usuario = usuario;
+        this.livro = livro;
+        this.dataEmprestimo = dataEmprestimo;
+        this.dataDevolucaoPrevista = dataDevolucaoPrevista;
+        this.status = STATUS_ATIVO;
+        this.multa = 0.0;
+        this.politica = politica;
     }
     
     // Getters e Setters para acesso controlado aos atributos
@@ -121,6 +168,48 @@ public class Emprestimo {
         this.multa = multa;
     }
     
+    public PoliticaEmprestimo getPolitica() {
+        return politica;
+    }
+    
+    public void setPolitica(PoliticaEmprestimo politica) {
+        this.politica = politica;
+    }
+    
+    public int getRenovacoes() {
+        return renovacoes;
+    }
+    
+    public void setRenovacoes(int renovacoes) {
+        this.renovacoes = renovacoes;
+    }
+    
+    public int getPosicaoVencimento() {
+        return posicaoVencimento;
+    }
+    
+    /**
+     * Define a posição do empréstimo no índice de vencimentos do catálogo
+     * Uso exclusivo do índice que contém o empréstimo
+     * @param posicaoVencimento Posição no grupo do dia previsto, ou -1 ao sair do índice
+     */
+    public void setPosicaoVencimento(int posicaoVencimento) {
+        this.posicaoVencimento = posicaoVencimento;
+    }
+    
+    public int getPosicaoEmAberto() {
+        return posicaoEmAberto;
+    }
+    
+    /**
+     * Define a posição do empréstimo na lista de empréstimos em aberto do catálogo
+     * Uso exclusivo do catálogo que contém o empréstimo
+     * @param posicaoEmAberto Posição na lista, ou -1 ao sair dela
+     */
+    public void setPosicaoEmAberto(int posicaoEmAberto) {
+        this.posicaoEmAberto = posicaoEmAberto;
+    }
+    
     public String getObservacoes() {
         return observacoes;
     }
@@ -134,17 +223,25 @@ public class Emprestimo {
      * @return Valor da multa calculada
      */
     public double calcularMulta() {
+        return calcularMulta(LocalDate.now());
+    }
+    
+    /**
+     * Calcula a multa baseada na data de devolução, usando a data informada como hoje
+     * @param hoje Data de referência para empréstimos ainda em aberto
+     * @return Valor da multa calculada
+     */
+    public double calcularMulta(LocalDate hoje) {
         if (status.equals(STATUS_DEVOLVIDO) && dataDevolucao != null) {
             if (dataDevolucao.isAfter(dataDevolucaoPrevista)) {
                 long diasAtraso = ChronoUnit.DAYS.between(dataDevolucaoPrevista, dataDevolucao);
-                this.multa = diasAtraso * VALOR_MULTA_POR_DIA;
+                this.multa = politica.calcularMulta(diasAtraso);
                 return this.multa;
             }
         } else if (status.equals(STATUS_ATIVO) || status.equals(STATUS_ATRASADO)) {
-            LocalDate hoje = LocalDate.now();
             if (hoje.isAfter(dataDevolucaoPrevista)) {
                 long diasAtraso = ChronoUnit.DAYS.between(dataDevolucaoPrevista, hoje);
-                this.multa = diasAtraso * VALOR_MULTA_POR_DIA;
+                this.multa = politica.calcularMulta(diasAtraso);
                 return this.multa;
             }
         }
@@ -156,8 +253,16 @@ public class Emprestimo {
      * @return true se está em atraso, false caso contrário
      */
     public boolean verificarAtraso() {
+        return verificarAtraso(LocalDate.now());
+    }
+    
+    /**
+     * Verifica se o empréstimo está em atraso na data informada
+     * @param hoje Data de referência
+     * @return true se está em atraso, false caso contrário
+     */
+    public boolean verificarAtraso(LocalDate hoje) {
         if (status.equals(STATUS_ATIVO)) {
-            LocalDate hoje = LocalDate.now();
             if (hoje.isAfter(dataDevolucaoPrevista)) {
                 this.status = STATUS_ATRASADO;
                 return true;
@@ -175,23 +280,49 @@ public class Emprestimo {
         if (status.equals(STATUS_ATIVO) || status.equals(STATUS_ATRASADO)) {
             this.dataDevolucao = dataDevolucao;
             this.status = STATUS_DEVOLVIDO;
-            calcularMulta(); // Calcula multa se houver atraso
+            calcularMulta(dataDevolucao); // Calcula multa se houver atraso
             return true;
         }
         return false;
     }
     
+    /**
+     * Renova o empréstimo, estendendo a devolução prevista por mais um prazo da política
+     * Empréstimos devolvidos ou em atraso não podem ser renovados
+     * @param hoje Data da renovação (usada para verificar o atraso)
+     * @return true se a renovação foi realizada, false se não é permitida
+     */
+    public boolean renovar(LocalDate hoje) {
+        if (!status.equals(STATUS_ATIVO) || hoje.isAfter(dataDevolucaoPrevista)) {
+            return false;
+        }
+        if (renovacoes >= politica.getMaxRenovacoes()) {
+            return false;
+        }
+        this.dataDevolucaoPrevista = dataDevolucaoPrevista.plusDays(politica.getPrazoDias());
+        this.renovacoes++;
+        return true;
+    }
+    
     /**
      * Obtém o número de dias de atraso
      * @return Número de dias em atraso, 0 se não há atraso
      */
     public long getDiasAtraso() {
+        return getDiasAtraso(LocalDate.now());
+    }
+    
+    /**
+     * Obtém o número de dias de atraso na data informada
+     * @param hoje Data de referência para empréstimos ainda em aberto
+     * @return Número de dias em atraso, 0 se não há atraso
+     */
+    public long getDiasAtraso(LocalDate hoje) {
         if (status.equals(STATUS_DEVOLVIDO) && dataDevolucao != null) {
             if (dataDevolucao.isAfter(dataDevolucaoPrevista)) {
                 return ChronoUnit.DAYS.between(dataDevolucaoPrevista, dataDevolucao);
             }
         } else if (status.equals(STATUS_ATIVO) || status.equals(STATUS_ATRASADO)) {
-            LocalDate hoje = LocalDate.now();
             if (hoje.isAfter(dataDevolucaoPrevista)) {
                 return ChronoUnit.DAYS.between(dataDevolucaoPrevista, hoje);
             }
@@ -204,8 +335,16 @@ public class Emprestimo {
      * @return Número de dias restantes, negativo se está em atraso
      */
     public long getDiasRestantes() {
+        return getDiasRestantes(LocalDate.now());
+    }
+    
+    /**
+     * Obtém o número de dias restantes para devolução a partir da data informada
+     * @param hoje Data de referência
+     * @return Número de dias restantes, negativo se está em atraso
+     */
+    public long getDiasRestantes(LocalDate hoje) {
         if (status.equals(STATUS_ATIVO)) {
-            LocalDate hoje = LocalDate.now();
             return ChronoUnit.DAYS.between(hoje, dataDevolucaoPrevista);
         }
         return 0;
@@ -0,0 +1,112 @@
+package models;
+
+/**
+ * Utilitários de ISBN: validação do dígito verificador, normalização e chave numérica
+ * ISBN-10 e ISBN-13, com ou sem hífens e espaços, são reduzidos à mesma forma canônica
+ * (os 13 dígitos do ISBN-13), que cabe em um long. Textos que não são ISBNs válidos
+ * continuam aceitos como identificadores, apenas sem hífens e espaços
+ */
+public final class Isbn {
+    // Chave retornada para textos que não são ISBNs válidos
+    public static final long CHAVE_INVALIDA = -1;
+
+    // Soma ponderada do prefixo 978 usado na conversão de ISBN-10 para ISBN-13 (9*1 + 7*3 + 8*1)
+    private static final int SOMA_PREFIXO_978 = 38;
+    private static final long PREFIXO_978 = 9_780_000_000_000L;
+
+    private Isbn() {
+    }
+
+    /**
+     * Calcula a chave numérica de um ISBN sem criar objetos
+     * @param isbn ISBN-10 ou ISBN-13, podendo conter hífens e espaços
+     * @return Os 13 dígitos do ISBN-13 correspondente, ou CHAVE_INVALIDA se o texto não for
+     *         um ISBN com dígito verificador correto
+     */
+    public static long chave(CharSequence isbn) {
+        if (isbn == null) {
+            return CHAVE_INVALIDA;
+        }
+        int digitos = 0;
+        long valor = 0;
+        int soma13 = 0;      // pesos 1 e 3 alternados, para ISBN-13
+        int soma10 = 0;      // pesos 10 a 1, para ISBN-10
+        int somaConversao = 0; // pesos do ISBN-13 aplicados aos 9 primeiros dígitos de um ISBN-10
+        long primeirosNove = 0;
+        boolean terminaEmX = false;
+
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (terminaEmX) {
+                return CHAVE_INVALIDA; // X só pode ser o último caractere
+            }
+            int digito;
+            if (c >= '0' && c <= '9') {
+                digito = c - '0';
+            } else if ((c == 'X' || c == 'x') && digitos == 9) {
+                digito = 10;
+                terminaEmX = true;
+            } else {
+                return CHAVE_INVALIDA;
+            }
+            if (digitos == 13) {
+                return CHAVE_INVALIDA;
+            }
+            soma13 += (digitos % 2 == 0) ? digito : digito * 3;
+            if (digitos < 10) {
+                soma10 += digito * (10 - digitos);
+            }
+            if (digitos < 9) {
+                somaConversao += (digitos % 2 == 0) ? digito * 3 : digito;
+                primeirosNove = primeirosNove * 10 + digito;
+            }
+            valor = valor * 10 + digito;
+            digitos++;
+        }
+
+        if (digitos == 13 && !terminaEmX) {
+            return soma13 % 10 == 0 ? valor : CHAVE_INVALIDA;
+        }
+        if (digitos == 10 && soma10 % 11 == 0) {
+            int verificador = (10 - (SOMA_PREFIXO_978 + somaConversao) % 10) % 10;
+            return PREFIXO_978 + primeirosNove * 10 + verificador;
+        }
+        return CHAVE_INVALIDA;
+    }
+
+    /**
+     * Verifica se o texto é um ISBN-10 ou ISBN-13 com dígito verificador correto
+     * @param isbn Texto a ser verificado
+     * @return true se for um ISBN válido
+     */
+    public static boolean ehValido(CharSequence isbn) {
+        return chave(isbn) != CHAVE_INVALIDA;
+    }
+
+    /**
+     * Obtém a forma canônica de um ISBN
+     * @param isbn ISBN-10 ou ISBN-13, podendo conter hífens e espaços
+     * @return Os 13 dígitos do ISBN-13 para ISBNs válidos; para outros textos, o próprio texto
+     *         sem hífens e espaços e em maiúsculas; null se o ISBN for null
+     */
+    public static String normalizar(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        long chave = chave(isbn);
+        if (chave != CHAVE_INVALIDA) {
+            return String.valueOf(chave);
+        }
+        StringBuilder resultado = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && c != ' ') {
+                resultado.append(Character.toUpperCase(c));
+            }
+        }
+        return resultado.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package models;
+
+import java.time.LocalDate;
+
+/**
+ * Lançamento imutável do livro-caixa de multas
+ * Uma multa aumenta o saldo devedor do usuário e um pagamento o reduz.
+ * Os valores são guardados em centavos para que a soma dos lançamentos seja exata
+ */
+public class LancamentoMulta {
+    // Tipos de lançamento
+    public static final String TIPO_MULTA = "MULTA";
+    public static final String TIPO_PAGAMENTO = "PAGAMENTO";
+
+    private final String tipo;
+    private final Usuario usuario;
+    private final long valorCentavos;
+    private final LocalDate data;
+    private final String tituloLivro; // apenas para multas
+    private final long diasAtraso; // apenas para multas
+
+    /**
+     * Construtor completo
+     * @param tipo TIPO_MULTA ou TIPO_PAGAMENTO
+     * @param usuario Usuário do lançamento
+     * @param valorCentavos Valor positivo, em centavos
+     * @param data Data do lançamento
+     * @param tituloLivro Título do livro que gerou a multa (null para pagamentos)
+     * @param diasAtraso Dias de atraso que geraram a multa (0 para pagamentos)
+     */
+    public LancamentoMulta(String tipo, Usuario usuario, long valorCentavos, LocalDate data,
+                           String tituloLivro, long diasAtraso) {
+        this.tipo = tipo;
+        this.usuario = usuario;
+        this.valorCentavos = valorCentavos;
+        this.data = data;
+        this.tituloLivro = tituloLivro;
+        this.diasAtraso = diasAtraso;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public long getValorCentavos() {
+        return valorCentavos;
+    }
+
+    public double getValor() {
+        return valorCentavos / 100.0;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public String getTituloLivro() {
+        return tituloLivro;
+    }
+
+    public long getDiasAtraso() {
+        return diasAtraso;
+    }
+
+    /**
+     * Verifica se o lançamento é uma multa
+     * @return true para multas, false para pagamentos
+     */
+    public boolean ehMulta() {
+        return TIPO_MULTA.equals(tipo);
+    }
+
+    /**
+     * Obtém o efeito do lançamento no saldo devedor
+     * @return Valor positivo para multas e negativo para pagamentos, em centavos
+     */
+    public long getEfeitoNoSaldoCentavos() {
+        return ehMulta() ? valorCentavos : -valorCentavos;
+    }
+
+    /**
+     * Retorna uma representação em string do lançamento
+     * @return String formatada com informações do lançamento
+     */
+    @Override
+    public String toString() {
+        return String.format("%s | Usuário: %s | Valor: R$ %.2f | Data: %s",
+                tipo, usuario.getNome(), getValor(), data);
+    }
+}
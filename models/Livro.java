@@ -9,17 +9,44 @@ import java.util.Date;
 public class Livro {
     // Atributos privados para encapsulamento
     private String titulo;
-    private String autor;
     private boolean disponivel;
     private String isbn;
-    private String genero;
+    private String isbnNormalizado; // forma canônica usada na comparação (ver Isbn.normalizar)
+    private long chaveIsbn; // ISBN-13 numérico, ou Isbn.CHAVE_INVALIDA
     private int anoPublicacao;
-    private String editora;
+    
+    // Autor, gênero e editora se repetem muito entre livros e são guardados
+    // como códigos das tabelas de símbolos compartilhadas (TabelaSimbolos)
+    private int codigoAutor;
+    private int codigoGenero;
+    private int codigoEditora;
+    
+    // Posição do livro nos índices internos do catálogo (-1 se fora de um catálogo)
+    private int ordinal = -1;
+    
+    // Catálogo avisado quando algum atributo é alterado
+    private OuvinteAlteracaoLivro ouvinte;
+    
+    // Mapa de disponibilidade do catálogo; enquanto vinculado, substitui o campo disponivel
+    private volatile MapaDisponibilidade mapaDisponibilidade;
+    
+    // Constantes com os nomes dos campos informados ao ouvinte
+    public static final String CAMPO_TITULO = "titulo";
+    public static final String CAMPO_AUTOR = "autor";
+    public static final String CAMPO_DISPONIVEL = "disponivel";
+    public static final String CAMPO_ISBN = "isbn";
+    public static final String CAMPO_GENERO = "genero";
+    public static final String CAMPO_ANO_PUBLICACAO = "anoPublicacao";
+    public static final String CAMPO_EDITORA = "editora";
     
     /**
      * Construtor padrão
      */
     public Livro() {
+        this.codigoAutor = TabelaSimbolos.CODIGO_NULO;
+        this.codigoGenero = TabelaSimbolos.CODIGO_NULO;
+        this.codigoEditora = TabelaSimbolos.CODIGO_NULO;
+        this.chaveIsbn = Isbn.CHAVE_INVALIDA;
         this.disponivel = true; // Livro inicia como disponível
     }
     
@@ -34,53 +61,119 @@ public class Livro {
      */
     public Livro(String titulo, String autor, String isbn, String genero, int anoPublicacao, String editora) {
         this.titulo = titulo;
-        this.autor = autor;
+        this.codigoAutor = TabelaSimbolos.AUTORES.codificar(autor);
         this.isbn = isbn;
-        this.genero = genero;
+        this.isbnNormalizado = Isbn.normalizar(isbn);
+        this.chaveIsbn = Isbn.chave(isbn);
+        this.codigoGenero = TabelaSimbolos.GENEROS.codificar(genero);
         this.anoPublicacao = anoPublicacao;
-        this.editora = editora;
+        this.codigoEditora = TabelaSimbolos.EDITORAS.codificar(editora);
         this.disponivel = true; // Livro inicia como disponível
     }
     
+    /**
+     * Construtor de cópia
+     * A cópia não pertence a nenhum catálogo (sem ouvinte e sem ordinal)
+     * @param outro Livro a ser copiado
+     */
+    public Livro(Livro outro) {
+        this.titulo = outro.titulo;
+        this.codigoAutor = outro.codigoAutor;
+        this.isbn = outro.isbn;
+        this.isbnNormalizado = outro.isbnNormalizado;
+        this.chaveIsbn = outro.chaveIsbn;
+        this.codigoGenero = outro.codigoGenero;
+        this.anoPublicacao = outro.anoPublicacao;
+        this.codigoEditora = outro.codigoEditora;
+        this.disponivel = outro.estaDisponivel();
+    }
+    
     // Getters e Setters para acesso controlado aos atributos
     public String getTitulo() {
         return titulo;
     }
     
     public void setTitulo(String titulo) {
+        String anterior = this.titulo;
         this.titulo = titulo;
+        notificarAlteracao(CAMPO_TITULO, anterior);
     }
     
     public String getAutor() {
-        return autor;
+        return TabelaSimbolos.AUTORES.decodificar(codigoAutor);
     }
     
     public void setAutor(String autor) {
-        this.autor = autor;
+        String anterior = getAutor();
+        this.codigoAutor = TabelaSimbolos.AUTORES.codificar(autor);
+        notificarAlteracao(CAMPO_AUTOR, anterior);
+    }
+    
+    public int getCodigoAutor() {
+        return codigoAutor;
     }
     
     public boolean isDisponivel() {
-        return disponivel;
+        return estaDisponivel();
     }
     
     public void setDisponivel(boolean disponivel) {
-        this.disponivel = disponivel;
+        MapaDisponibilidade mapa = mapaDisponibilidade;
+        boolean anterior;
+        if (mapa != null) {
+            anterior = mapa.definir(ordinal, disponivel);
+        } else {
+            anterior = this.disponivel;
+            this.disponivel = disponivel;
+        }
+        notificarAlteracao(CAMPO_DISPONIVEL, anterior);
     }
     
     public String getIsbn() {
         return isbn;
     }
     
+    /**
+     * Altera o ISBN do livro
+     * Se o catálogo recusar o novo ISBN (por exemplo, por já estar em uso), o valor anterior é restaurado
+     * @param isbn Novo ISBN do livro
+     */
     public void setIsbn(String isbn) {
+        String anterior = this.isbn;
         this.isbn = isbn;
+        this.isbnNormalizado = Isbn.normalizar(isbn);
+        this.chaveIsbn = Isbn.chave(isbn);
+        notificarAlteracao(CAMPO_ISBN, anterior);
+    }
+    
+    /**
+     * Obtém o ISBN na forma canônica (13 dígitos para ISBNs válidos)
+     * @return ISBN normalizado, ou null se o livro não tem ISBN
+     */
+    public String getIsbnNormalizado() {
+        return isbnNormalizado;
+    }
+    
+    /**
+     * Obtém a chave numérica do ISBN
+     * @return Os 13 dígitos do ISBN-13, ou Isbn.CHAVE_INVALIDA se o ISBN não for válido
+     */
+    public long getChaveIsbn() {
+        return chaveIsbn;
     }
     
     public String getGenero() {
-        return genero;
+        return TabelaSimbolos.GENEROS.decodificar(codigoGenero);
     }
     
     public void setGenero(String genero) {
-        this.genero = genero;
+        String anterior = getGenero();
+        this.codigoGenero = TabelaSimbolos.GENEROS.codificar(genero);
+        notificarAlteracao(CAMPO_GENERO, anterior);
+    }
+    
+    public int getCodigoGenero() {
+        return codigoGenero;
     }
     
     public int getAnoPublicacao() {
@@ -88,25 +181,138 @@ public class Livro {
     }
     
     public void setAnoPublicacao(int anoPublicacao) {
+        int anterior = this.anoPublicacao;
         this.anoPublicacao = anoPublicacao;
+        notificarAlteracao(CAMPO_ANO_PUBLICACAO, anterior);
     }
     
     public String getEditora() {
-        return editora;
+        return TabelaSimbolos.EDITORAS.decodificar(codigoEditora);
     }
     
     public void setEditora(String editora) {
-        this.editora = editora;
+        String anterior = getEditora();
+        this.codigoEditora = TabelaSimbolos.EDITORAS.codificar(editora);
+        notificarAlteracao(CAMPO_EDITORA, anterior);
+    }
+    
+    public int getCodigoEditora() {
+        return codigoEditora;
+    }
+    
+    public int getOrdinal() {
+        return ordinal;
+    }
+    
+    /**
+     * Define a posição do livro nos índices internos do catálogo
+     * Uso exclusivo do catálogo que é dono do livro
+     * @param ordinal Posição atribuída pelo catálogo, ou -1 ao sair dele
+     */
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+    
+    public OuvinteAlteracaoLivro getOuvinte() {
+        return ouvinte;
+    }
+    
+    /**
+     * Define o catálogo que será avisado das alterações deste livro
+     * @param ouvinte Ouvinte das alterações, ou null para desvincular
+     */
+    public void setOuvinte(OuvinteAlteracaoLivro ouvinte) {
+        this.ouvinte = ouvinte;
+    }
+    
+    /**
+     * Passa a guardar a disponibilidade do livro no mapa do catálogo, na posição do ordinal
+     * Uso exclusivo do catálogo que é dono do livro. Ao desvincular, a disponibilidade volta para o livro
+     * @param mapa Mapa de disponibilidade do catálogo, ou null para desvincular
+     */
+    public void setMapaDisponibilidade(MapaDisponibilidade mapa) {
+        MapaDisponibilidade atual = mapaDisponibilidade;
+        if (atual != null) {
+            this.disponivel = atual.estaDisponivel(ordinal);
+        }
+        if (mapa != null) {
+            mapa.definir(ordinal, this.disponivel);
+        }
+        this.mapaDisponibilidade = mapa;
+    }
+    
+    /**
+     * Avisa o ouvinte (se houver) que um campo foi alterado
+     * Se o ouvinte recusar a alteração ou não conseguir gravá-la (lançando uma exceção),
+     * o campo volta ao valor anterior antes de a exceção seguir para quem chamou o setter
+     * @param campo Nome do campo alterado
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    private void notificarAlteracao(String campo, Object valorAnterior) {
+        if (ouvinte != null) {
+            try {
+                ouvinte.livroAlterado(this, campo, valorAnterior);
+            } catch (RuntimeException e) {
+                restaurarCampo(campo, valorAnterior);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Devolve um campo ao valor anterior, sem avisar o ouvinte
+     */
+    private void restaurarCampo(String campo, Object valorAnterior) {
+        switch (campo) {
+            case CAMPO_TITULO:
+                this.titulo = (String) valorAnterior;
+                break;
+            case CAMPO_AUTOR:
+                this.codigoAutor = TabelaSimbolos.AUTORES.codificar((String) valorAnterior);
+                break;
+            case CAMPO_DISPONIVEL:
+                MapaDisponibilidade mapa = mapaDisponibilidade;
+                if (mapa != null) {
+                    mapa.definir(ordinal, (Boolean) valorAnterior);
+                } else {
+                    this.disponivel = (Boolean) valorAnterior;
+                }
+                break;
+            case CAMPO_ISBN:
+                this.isbn = (String) valorAnterior;
+                this.isbnNormalizado = Isbn.normalizar(isbn);
+                this.chaveIsbn = Isbn.chave(isbn);
+                break;
+            case CAMPO_GENERO:
+                this.codigoGenero = TabelaSimbolos.GENEROS.codificar((String) valorAnterior);
+                break;
+            case CAMPO_ANO_PUBLICACAO:
+                this.anoPublicacao = (Integer) valorAnterior;
+                break;
+            case CAMPO_EDITORA:
+                this.codigoEditora = TabelaSimbolos.EDITORAS.codificar((String) valorAnterior);
+                break;
+            default:
+                break;
+        }
     }
     
     /**
      * Método para emprestar o livro
-     * Verifica se o livro está disponível antes de emprestar
+     * Verifica se o livro está disponível antes de emprestar. Num catálogo, a troca é uma única
+     * operação compare-and-set no mapa de disponibilidade, sem bloqueio e sem avisar o ouvinte:
+     * o empréstimo registrado pelo catálogo já guarda a mudança
      * @return true se o empréstimo foi realizado com sucesso, false caso contrário
      */
     public boolean emprestar() {
+        MapaDisponibilidade mapa = mapaDisponibilidade;
+        if (mapa != null) {
+            // O compare-and-set decide qual empréstimo concorrente vence
+            return mapa.emprestar(ordinal);
+        }
         if (this.disponivel) {
             this.disponivel = false;
+            notificarAlteracao(CAMPO_DISPONIVEL, true);
             return true;
         }
         return false;
@@ -114,12 +320,17 @@ public class Livro {
     
     /**
      * Método para devolver o livro
-     * Marca o livro como disponível novamente
+     * Marca o livro como disponível novamente (num catálogo, como em emprestar, sem avisar o ouvinte)
      * @return true se a devolução foi realizada com sucesso
      */
     public boolean devolver() {
+        MapaDisponibilidade mapa = mapaDisponibilidade;
+        if (mapa != null) {
+            return mapa.devolver(ordinal);
+        }
         if (!this.disponivel) {
             this.disponivel = true;
+            notificarAlteracao(CAMPO_DISPONIVEL, false);
             return true;
         }
         return false;
@@ -130,7 +341,8 @@ public class Livro {
      * @return true se o livro está disponível, false caso contrário
      */
     public boolean estaDisponivel() {
-        return this.disponivel;
+        MapaDisponibilidade mapa = mapaDisponibilidade;
+        return mapa != null ? mapa.estaDisponivel(ordinal) : this.disponivel;
     }
     
     /**
@@ -139,13 +351,14 @@ public class Livro {
      */
     @Override
     public String toString() {
-        String status = disponivel ? "Disponível" : "Emprestado";
+        String status = estaDisponivel() ? "Disponível" : "Emprestado";
         return String.format("Título: %s | Autor: %s | ISBN: %s | Gênero: %s | Ano: %d | Editora: %s | Status: %s",
-                titulo, autor, isbn, genero, anoPublicacao, editora, status);
+                titulo, getAutor(), isbn, getGenero(), anoPublicacao, getEditora(), status);
     }
     
     /**
-     * Compara dois livros pelo ISBN
+     * Compara dois livros pelo ISBN normalizado
+     * Formas com e sem hífens, e o ISBN-10 e o ISBN-13 do mesmo livro, são considerados iguais
      * @param obj Objeto a ser comparado
      * @return true se os livros têm o mesmo ISBN
      */
@@ -154,11 +367,17 @@ public class Livro {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Livro livro = (Livro) obj;
-        return isbn != null ? isbn.equals(livro.isbn) : livro.isbn == null;
+        if (chaveIsbn != Isbn.CHAVE_INVALIDA || livro.chaveIsbn != Isbn.CHAVE_INVALIDA) {
+            return chaveIsbn == livro.chaveIsbn;
+        }
+        return isbnNormalizado != null ? isbnNormalizado.equals(livro.isbnNormalizado) : livro.isbnNormalizado == null;
     }
     
     @Override
     public int hashCode() {
-        return isbn != null ? isbn.hashCode() : 0;
+        if (chaveIsbn != Isbn.CHAVE_INVALIDA) {
+            return Long.hashCode(chaveIsbn);
+        }
+        return isbnNormalizado != null ? isbnNormalizado.hashCode() : 0;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,215 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Livros emprestados de um usuário, ligados ao empréstimo em aberto de cada um, na ordem do empréstimo
+ * Cada livro ocupa uma vaga em vetores paralelos; as vagas formam uma lista duplamente encadeada
+ * (ordem dos empréstimos) e as vagas liberadas são reaproveitadas. Uma tabela de endereçamento aberto
+ * pelo ordinal do livro leva à vaga em O(1), sem objetos por entrada: depois que os vetores atingem
+ * o tamanho necessário, incluir e retirar não alocam. Livros fora de um catálogo (ordinal -1)
+ * são procurados percorrendo as vagas, comparados por equals (ISBN)
+ */
+class LivrosEmprestados {
+    private static final int CAPACIDADE_INICIAL = 4;
+    private static final int SEM_VAGA = -1;
+
+    private Livro[] livros;
+    private Emprestimo[] emprestimos;
+    // Ordinal com que cada vaga foi indexada (-1 para livros fora de um catálogo)
+    private int[] ordinais;
+    private int[] proxima;
+    private int[] anterior;
+    private int primeira = SEM_VAGA;
+    private int ultima = SEM_VAGA;
+    private int livre = SEM_VAGA; // lista das vagas liberadas, encadeada por proxima
+    private int vagasUsadas;
+    private int tamanho;
+    private int quantidadeSemOrdinal;
+    // Ordinal do livro -> vaga + 1 (0 marca posição vazia)
+    private int[] tabela;
+
+    LivrosEmprestados() {
+        this.livros = new Livro[0];
+        this.emprestimos = new Emprestimo[0];
+        this.ordinais = new int[0];
+        this.proxima = new int[0];
+        this.anterior = new int[0];
+        this.tabela = new int[0];
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    boolean contem(Livro livro) {
+        return buscarVaga(livro) != SEM_VAGA;
+    }
+
+    /**
+     * @return Empréstimo ligado ao livro, ou null se o livro não está na lista ou foi incluído sem empréstimo
+     */
+    Emprestimo obter(Livro livro) {
+        int vaga = buscarVaga(livro);
+        return vaga != SEM_VAGA ? emprestimos[vaga] : null;
+    }
+
+    /**
+     * Inclui um livro no fim da lista
+     * @return false se o livro já estava na lista
+     */
+    boolean adicionar(Livro livro, Emprestimo emprestimo) {
+        if (buscarVaga(livro) != SEM_VAGA) {
+            return false;
+        }
+        int vaga = livre;
+        if (vaga != SEM_VAGA) {
+            livre = proxima[vaga];
+        } else {
+            if (vagasUsadas == livros.length) {
+                crescer();
+            }
+            vaga = vagasUsadas++;
+        }
+        livros[vaga] = livro;
+        emprestimos[vaga] = emprestimo;
+        ordinais[vaga] = livro.getOrdinal();
+        anterior[vaga] = ultima;
+        proxima[vaga] = SEM_VAGA;
+        if (ultima != SEM_VAGA) {
+            proxima[ultima] = vaga;
+        } else {
+            primeira = vaga;
+        }
+        ultima = vaga;
+        if (ordinais[vaga] >= 0) {
+            inserirNaTabela(vaga);
+        } else {
+            quantidadeSemOrdinal++;
+        }
+        tamanho++;
+        return true;
+    }
+
+    /**
+     * Retira um livro, mantendo a ordem dos demais
+     * @return false se o livro não estava na lista
+     */
+    boolean remover(Livro livro) {
+        int vaga = buscarVaga(livro);
+        if (vaga == SEM_VAGA) {
+            return false;
+        }
+        if (ordinais[vaga] >= 0) {
+            retirarDaTabela(vaga);
+        } else {
+            quantidadeSemOrdinal--;
+        }
+        if (anterior[vaga] != SEM_VAGA) {
+            proxima[anterior[vaga]] = proxima[vaga];
+        } else {
+            primeira = proxima[vaga];
+        }
+        if (proxima[vaga] != SEM_VAGA) {
+            anterior[proxima[vaga]] = anterior[vaga];
+        } else {
+            ultima = anterior[vaga];
+        }
+        livros[vaga] = null;
+        emprestimos[vaga] = null;
+        proxima[vaga] = livre;
+        livre = vaga;
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * @return Cópia dos livros na ordem em que foram incluídos
+     */
+    List<Livro> listar() {
+        List<Livro> resultado = new ArrayList<>(tamanho);
+        for (int vaga = primeira; vaga != SEM_VAGA; vaga = proxima[vaga]) {
+            resultado.add(livros[vaga]);
+        }
+        return resultado;
+    }
+
+    // Métodos auxiliares
+
+    private int buscarVaga(Livro livro) {
+        if (livro == null) {
+            return SEM_VAGA;
+        }
+        int ordinal = livro.getOrdinal();
+        if (ordinal >= 0 && tabela.length > 0) {
+            int mascara = tabela.length - 1;
+            for (int posicao = espalhar(ordinal) & mascara; tabela[posicao] != 0; posicao = (posicao + 1) & mascara) {
+                int vaga = tabela[posicao] - 1;
+                if (ordinais[vaga] == ordinal && livro.equals(livros[vaga])) {
+                    return vaga;
+                }
+            }
+            if (quantidadeSemOrdinal == 0) {
+                return SEM_VAGA;
+            }
+        }
+        // Livro fora de um catálogo, ou cópia de um livro incluído sem ordinal
+        for (int vaga = primeira; vaga != SEM_VAGA; vaga = proxima[vaga]) {
+            if (livro.equals(livros[vaga])) {
+                return vaga;
+            }
+        }
+        return SEM_VAGA;
+    }
+
+    private void inserirNaTabela(int vaga) {
+        int mascara = tabela.length - 1;
+        int posicao = espalhar(ordinais[vaga]) & mascara;
+        while (tabela[posicao] != 0) {
+            posicao = (posicao + 1) & mascara;
+        }
+        tabela[posicao] = vaga + 1;
+    }
+
+    private void retirarDaTabela(int vaga) {
+        int mascara = tabela.length - 1;
+        int posicao = espalhar(ordinais[vaga]) & mascara;
+        while (tabela[posicao] != vaga + 1) {
+            posicao = (posicao + 1) & mascara;
+        }
+        tabela[posicao] = 0;
+        // Reinsere o restante do agrupamento para não quebrar a sondagem linear
+        posicao = (posicao + 1) & mascara;
+        while (tabela[posicao] != 0) {
+            int movida = tabela[posicao] - 1;
+            tabela[posicao] = 0;
+            inserirNaTabela(movida);
+            posicao = (posicao + 1) & mascara;
+        }
+    }
+
+    /**
+     * Dobra os vetores das vagas e reconstrói a tabela (ocupação máxima de 50%)
+     */
+    private void crescer() {
+        int capacidade = Math.max(CAPACIDADE_INICIAL, livros.length * 2);
+        livros = Arrays.copyOf(livros, capacidade);
+        emprestimos = Arrays.copyOf(emprestimos, capacidade);
+        ordinais = Arrays.copyOf(ordinais, capacidade);
+        proxima = Arrays.copyOf(proxima, capacidade);
+        anterior = Arrays.copyOf(anterior, capacidade);
+        tabela = new int[capacidade * 2];
+        for (int vaga = primeira; vaga != SEM_VAGA; vaga = proxima[vaga]) {
+            if (ordinais[vaga] >= 0) {
+                inserirNaTabela(vaga);
+            }
+        }
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
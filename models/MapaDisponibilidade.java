@@ -0,0 +1,150 @@
+package models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Mapa de bits denso com a disponibilidade dos livros de um catálogo, endereçado pelo ordinal de cada livro
+ * Os bits ficam em segmentos de AtomicLongArray que nunca são copiados: crescer o mapa apenas
+ * acrescenta segmentos, de modo que empréstimo e devolução são uma única operação compare-and-set
+ * sobre a palavra do livro, sem bloqueio. Contagens usam popcount e as varreduras percorrem
+ * palavra a palavra, pulando as palavras sem nenhum livro disponível
+ */
+public class MapaDisponibilidade {
+    // Cada segmento guarda 2^16 livros (1024 palavras de 64 bits)
+    private static final int BITS_SEGMENTO = 16;
+    private static final int PALAVRAS_SEGMENTO = (1 << BITS_SEGMENTO) >>> 6;
+    private static final int MASCARA_SEGMENTO = (1 << BITS_SEGMENTO) - 1;
+
+    // Diretório de segmentos; substituído por uma cópia maior quando o mapa cresce
+    private volatile AtomicLongArray[] segmentos;
+
+    /**
+     * Construtor padrão (nenhum livro disponível)
+     */
+    public MapaDisponibilidade() {
+        this.segmentos = new AtomicLongArray[0];
+    }
+
+    /**
+     * Verifica se o livro de um ordinal está disponível
+     * @param ordinal Ordinal do livro
+     * @return true se o bit do livro estiver ligado
+     */
+    public boolean estaDisponivel(int ordinal) {
+        AtomicLongArray[] atual = segmentos;
+        int segmento = ordinal >>> BITS_SEGMENTO;
+        if (ordinal < 0 || segmento >= atual.length) {
+            return false;
+        }
+        return (atual[segmento].get((ordinal & MASCARA_SEGMENTO) >>> 6) & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Marca o livro como emprestado se ele estiver disponível
+     * @param ordinal Ordinal do livro
+     * @return true se esta chamada fez a transição de disponível para emprestado
+     */
+    public boolean emprestar(int ordinal) {
+        return trocar(ordinal, false);
+    }
+
+    /**
+     * Marca o livro como disponível se ele estiver emprestado
+     * @param ordinal Ordinal do livro
+     * @return true se esta chamada fez a transição de emprestado para disponível
+     */
+    public boolean devolver(int ordinal) {
+        return trocar(ordinal, true);
+    }
+
+    /**
+     * Define a disponibilidade de um livro, criando os segmentos necessários
+     * @param ordinal Ordinal do livro
+     * @param disponivel Nova disponibilidade
+     * @return Disponibilidade anterior
+     */
+    public boolean definir(int ordinal, boolean disponivel) {
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Ordinal inválido: " + ordinal);
+        }
+        garantirSegmento(ordinal >>> BITS_SEGMENTO);
+        if (trocar(ordinal, disponivel)) {
+            return !disponivel;
+        }
+        return disponivel;
+    }
+
+    /**
+     * Conta os livros disponíveis
+     * @return Quantidade de bits ligados
+     */
+    public int contar() {
+        int total = 0;
+        for (AtomicLongArray segmento : segmentos) {
+            for (int i = 0; i < PALAVRAS_SEGMENTO; i++) {
+                total += Long.bitCount(segmento.get(i));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Executa uma ação para o ordinal de cada livro disponível, em ordem crescente
+     * Alterações feitas durante a varredura podem ou não ser vistas por ela
+     * @param acao Ação a executar
+     */
+    public void paraCada(IntConsumer acao) {
+        AtomicLongArray[] atual = segmentos;
+        for (int s = 0; s < atual.length; s++) {
+            int base = s << BITS_SEGMENTO;
+            for (int i = 0; i < PALAVRAS_SEGMENTO; i++) {
+                long palavra = atual[s].get(i);
+                while (palavra != 0) {
+                    acao.accept(base + (i << 6) + Long.numberOfTrailingZeros(palavra));
+                    palavra &= palavra - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Liga ou desliga o bit de um livro com compare-and-set
+     * @return true se o bit mudou nesta chamada
+     */
+    private boolean trocar(int ordinal, boolean disponivel) {
+        AtomicLongArray[] atual = segmentos;
+        int segmento = ordinal >>> BITS_SEGMENTO;
+        if (ordinal < 0 || segmento >= atual.length) {
+            return false;
+        }
+        AtomicLongArray palavras = atual[segmento];
+        int indice = (ordinal & MASCARA_SEGMENTO) >>> 6;
+        long mascara = 1L << ordinal;
+        while (true) {
+            long palavra = palavras.get(indice);
+            boolean ligado = (palavra & mascara) != 0;
+            if (ligado == disponivel) {
+                return false;
+            }
+            long nova = disponivel ? palavra | mascara : palavra & ~mascara;
+            if (palavras.compareAndSet(indice, palavra, nova)) {
+                return true;
+            }
+        }
+    }
+
+    private synchronized void garantirSegmento(int segmento) {
+        AtomicLongArray[] atual = segmentos;
+        if (segmento < atual.length) {
+            return;
+        }
+        // Os segmentos existentes são reaproveitados, para que nenhum compare-and-set em curso se perca
+        AtomicLongArray[] maior = new AtomicLongArray[Math.max(segmento + 1, atual.length * 2)];
+        System.arraycopy(atual, 0, maior, 0, atual.length);
+        for (int i = atual.length; i < maior.length; i++) {
+            maior[i] = new AtomicLongArray(PALAVRAS_SEGMENTO);
+        }
+        segmentos = maior;
+    }
+}
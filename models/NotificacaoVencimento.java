@@ -0,0 +1,120 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aviso de vencimento enviado a um usuário, reunindo todos os seus empréstimos
+ * que vencem em breve ou que acabaram de entrar em atraso
+ * Objeto imutável. A chave (usuário e data de referência) identifica o aviso
+ * para que reenvios após uma falha não o dupliquem
+ */
+public class NotificacaoVencimento {
+    private final String chave;
+    private final String idUsuario;
+    private final String nomeUsuario;
+    private final String email;
+    private final LocalDate dataReferencia;
+    private final List<Item> itens;
+
+    /**
+     * Empréstimo citado no aviso
+     */
+    public static class Item {
+        private final String titulo;
+        private final String isbn;
+        private final LocalDate dataDevolucaoPrevista;
+
+        public Item(String titulo, String isbn, LocalDate dataDevolucaoPrevista) {
+            this.titulo = titulo;
+            this.isbn = isbn;
+            this.dataDevolucaoPrevista = dataDevolucaoPrevista;
+        }
+
+        public String getTitulo() {
+            return titulo;
+        }
+
+        public String getIsbn() {
+            return isbn;
+        }
+
+        public LocalDate getDataDevolucaoPrevista() {
+            return dataDevolucaoPrevista;
+        }
+    }
+
+    /**
+     * Construtor completo
+     * @param usuario Destinatário
+     * @param dataReferencia Data em que o aviso foi gerado
+     * @param itens Empréstimos citados (pelo menos um)
+     */
+    public NotificacaoVencimento(Usuario usuario, LocalDate dataReferencia, List<Item> itens) {
+        this.idUsuario = usuario.getId();
+        this.nomeUsuario = usuario.getNome();
+        this.email = usuario.getEmail();
+        this.dataReferencia = dataReferencia;
+        this.itens = Collections.unmodifiableList(new ArrayList<>(itens));
+        this.chave = idUsuario + "@" + dataReferencia;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public String getNomeUsuario() {
+        return nomeUsuario;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDate getDataReferencia() {
+        return dataReferencia;
+    }
+
+    public List<Item> getItens() {
+        return itens;
+    }
+
+    /**
+     * Monta o texto do aviso, com uma linha por empréstimo
+     * @return Mensagem para o usuário
+     */
+    public String getTexto() {
+        StringBuilder texto = new StringBuilder();
+        texto.append("Olá, ").append(nomeUsuario).append("!\n");
+        for (Item item : itens) {
+            long dias = ChronoUnit.DAYS.between(dataReferencia, item.dataDevolucaoPrevista);
+            texto.append("- ").append(item.titulo).append(": ");
+            if (dias < 0) {
+                texto.append("devolução atrasada desde ").append(item.dataDevolucaoPrevista);
+            } else if (dias == 0) {
+                texto.append("devolução prevista para hoje");
+            } else {
+                texto.append("devolução prevista para ").append(item.dataDevolucaoPrevista)
+                        .append(" (em ").append(dias).append(dias == 1 ? " dia)" : " dias)");
+            }
+            texto.append("\n");
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Retorna uma representação em string do aviso
+     * @return String formatada com destinatário e quantidade de empréstimos
+     */
+    @Override
+    public String toString() {
+        return String.format("Aviso %s | Para: %s <%s> | Empréstimos: %d", chave, nomeUsuario, email, itens.size());
+    }
+}
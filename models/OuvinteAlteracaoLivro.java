@@ -0,0 +1,16 @@
+package models;
+
+/**
+ * Interface implementada pelo catálogo que é dono de um livro
+ * Recebe um aviso sempre que um atributo do livro é alterado por um setter
+ */
+public interface OuvinteAlteracaoLivro {
+
+    /**
+     * Chamado logo após a alteração de um atributo do livro
+     * @param livro Livro alterado
+     * @param campo Nome do campo alterado (constantes CAMPO_* de Livro)
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    void livroAlterado(Livro livro, String campo, Object valorAnterior);
+}
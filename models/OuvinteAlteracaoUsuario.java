@@ -0,0 +1,16 @@
+package models;
+
+/**
+ * Interface implementada pelo catálogo que é dono de um usuário
+ * Recebe um aviso sempre que um atributo do usuário é alterado por um setter
+ */
+public interface OuvinteAlteracaoUsuario {
+
+    /**
+     * Chamado logo após a alteração de um atributo do usuário
+     * @param usuario Usuário alterado
+     * @param campo Nome do campo alterado (constantes CAMPO_* de Usuario)
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    void usuarioAlterado(Usuario usuario, String campo, Object valorAnterior);
+}
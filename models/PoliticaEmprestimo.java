@@ -0,0 +1,103 @@
+package models;
+
+/**
+ * Regras de empréstimo aplicadas a uma combinação de categoria de usuário e gênero de livro
+ * Objeto imutável, compartilhado por todos os empréstimos que seguem a mesma política
+ */
+public class PoliticaEmprestimo {
+    // Política usada quando nenhuma configuração foi carregada
+    public static final PoliticaEmprestimo PADRAO = new PoliticaEmprestimo(15, 0.50, 0.0, 2, 0);
+
+    private final int prazoDias;
+    private final double multaPorDia;
+    private final double multaMaxima;
+    private final int maxRenovacoes;
+    private final int limiteEmprestimos;
+
+    /**
+     * Construtor com todas as regras
+     * @param prazoDias Prazo do empréstimo em dias
+     * @param multaPorDia Valor da multa por dia de atraso
+     * @param multaMaxima Teto da multa por empréstimo (0 para sem teto)
+     * @param maxRenovacoes Quantidade máxima de renovações
+     * @param limiteEmprestimos Limite de empréstimos simultâneos (0 para usar o limite do usuário)
+     */
+    public PoliticaEmprestimo(int prazoDias, double multaPorDia, double multaMaxima, int maxRenovacoes,
+                              int limiteEmprestimos) {
+        this.prazoDias = prazoDias;
+        this.multaPorDia = multaPorDia;
+        this.multaMaxima = multaMaxima;
+        this.maxRenovacoes = maxRenovacoes;
+        this.limiteEmprestimos = limiteEmprestimos;
+    }
+
+    public int getPrazoDias() {
+        return prazoDias;
+    }
+
+    public double getMultaPorDia() {
+        return multaPorDia;
+    }
+
+    public double getMultaMaxima() {
+        return multaMaxima;
+    }
+
+    public int getMaxRenovacoes() {
+        return maxRenovacoes;
+    }
+
+    public int getLimiteEmprestimos() {
+        return limiteEmprestimos;
+    }
+
+    /**
+     * Calcula a multa para uma quantidade de dias de atraso, respeitando o teto
+     * @param diasAtraso Dias de atraso
+     * @return Valor da multa
+     */
+    public double calcularMulta(long diasAtraso) {
+        double multa = diasAtraso * multaPorDia;
+        if (multaMaxima > 0 && multa > multaMaxima) {
+            return multaMaxima;
+        }
+        return multa;
+    }
+
+    /**
+     * Compara duas políticas por todas as regras, com os valores exatos das multas
+     * @param obj Objeto a ser comparado
+     * @return true se as políticas têm as mesmas regras
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        PoliticaEmprestimo outra = (PoliticaEmprestimo) obj;
+        return prazoDias == outra.prazoDias
+                && Double.compare(multaPorDia, outra.multaPorDia) == 0
+                && Double.compare(multaMaxima, outra.multaMaxima) == 0
+                && maxRenovacoes == outra.maxRenovacoes
+                && limiteEmprestimos == outra.limiteEmprestimos;
+    }
+    
+    @Override
+    public int hashCode() {
+        int resultado = prazoDias;
+        resultado = 31 * resultado + Double.hashCode(multaPorDia);
+        resultado = 31 * resultado + Double.hashCode(multaMaxima);
+        resultado = 31 * resultado + maxRenovacoes;
+        resultado = 31 * resultado + limiteEmprestimos;
+        return resultado;
+    }
+    
+    /**
+     * Retorna uma representação em string da política
+     * @return String formatada com as regras
+     */
+    @Override
+    public String toString() {
+        return String.format("Prazo: %d dias | Multa/dia: R$ %.2f | Multa máxima: R$ %.2f | Renovações: %d | Limite: %d",
+                prazoDias, multaPorDia, multaMaxima, maxRenovacoes, limiteEmprestimos);
+    }
+}
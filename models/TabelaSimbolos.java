@@ -0,0 +1,94 @@
+package models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabela de símbolos compartilhada para codificação por dicionário
+ * Cada texto distinto recebe um código inteiro sequencial e é armazenado uma única vez,
+ * permitindo que os livros guardem apenas o código e que filtros comparem inteiros
+ */
+public class TabelaSimbolos {
+    // Tabelas compartilhadas pelos atributos repetitivos de Livro
+    public static final TabelaSimbolos AUTORES = new TabelaSimbolos();
+    public static final TabelaSimbolos GENEROS = new TabelaSimbolos();
+    public static final TabelaSimbolos EDITORAS = new TabelaSimbolos();
+
+    // Tabela das categorias de usuário (usada pelas políticas de empréstimo)
+    public static final TabelaSimbolos CATEGORIAS = new TabelaSimbolos();
+
+    // Código usado para valores nulos
+    public static final int CODIGO_NULO = -1;
+
+    private final Map<String, Integer> codigos;
+    private volatile String[] termos;
+    private int tamanho;
+
+    /**
+     * Construtor padrão
+     */
+    public TabelaSimbolos() {
+        this.codigos = new HashMap<>();
+        this.termos = new String[16];
+        this.tamanho = 0;
+    }
+
+    /**
+     * Obtém o código de um texto, cadastrando-o caso ainda não exista
+     * @param termo Texto a ser codificado
+     * @return Código do texto, ou CODIGO_NULO se o texto for null
+     */
+    public synchronized int codificar(String termo) {
+        if (termo == null) {
+            return CODIGO_NULO;
+        }
+        Integer codigo = codigos.get(termo);
+        if (codigo != null) {
+            return codigo;
+        }
+        String[] atual = termos;
+        if (tamanho == atual.length) {
+            String[] maior = new String[atual.length * 2];
+            System.arraycopy(atual, 0, maior, 0, tamanho);
+            atual = maior;
+        }
+        atual[tamanho] = termo;
+        codigos.put(termo, tamanho);
+        // A escrita no campo volatile publica o novo termo para as leituras sem bloqueio
+        termos = atual;
+        return tamanho++;
+    }
+
+    /**
+     * Obtém o código de um texto sem cadastrá-lo
+     * @param termo Texto a ser procurado
+     * @return Código do texto, ou CODIGO_NULO se o texto não estiver na tabela
+     */
+    public synchronized int buscarCodigo(String termo) {
+        if (termo == null) {
+            return CODIGO_NULO;
+        }
+        Integer codigo = codigos.get(termo);
+        return codigo != null ? codigo : CODIGO_NULO;
+    }
+
+    /**
+     * Obtém o texto correspondente a um código
+     * @param codigo Código do texto
+     * @return Texto correspondente, ou null para CODIGO_NULO
+     */
+    public String decodificar(int codigo) {
+        if (codigo == CODIGO_NULO) {
+            return null;
+        }
+        return termos[codigo];
+    }
+
+    /**
+     * Obtém a quantidade de textos distintos cadastrados
+     * @return Número de códigos já atribuídos
+     */
+    public synchronized int getTamanho() {
+        return tamanho;
+    }
+}
@@ -1,6 +1,5 @@
 package models;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,19 +13,44 @@ public class Usuario {
     private String email;
     private String telefone;
     private int limiteEmprestimos;
-    private List<Livro> livrosEmprestados;
+    // Livros emprestados ligados ao empréstimo em aberto correspondente (busca e remoção O(1) pelo ordinal)
+    private LivrosEmprestados livrosEmprestados;
     private boolean ativo;
+    private int codigoCategoria; // código da categoria em TabelaSimbolos.CATEGORIAS
+    private long saldoDevedorCentavos; // multas lançadas menos pagamentos
+    private long limiteDebitoCentavos; // saldo devedor a partir do qual novos empréstimos são bloqueados
     
     // Constante para limite padrão de empréstimos
     private static final int LIMITE_PADRAO = 3;
     
+    // Saldo devedor máximo padrão para continuar emprestando (R$ 10,00)
+    private static final long LIMITE_DEBITO_PADRAO_CENTAVOS = 1000;
+    
+    // Categoria atribuída quando nenhuma é informada
+    public static final String CATEGORIA_PADRAO = "PADRAO";
+    
+    // Catálogo avisado quando algum atributo é alterado
+    private OuvinteAlteracaoUsuario ouvinte;
+    
+    // Constantes com os nomes dos campos informados ao ouvinte
+    public static final String CAMPO_NOME = "nome";
+    public static final String CAMPO_ID = "id";
+    public static final String CAMPO_EMAIL = "email";
+    public static final String CAMPO_TELEFONE = "telefone";
+    public static final String CAMPO_LIMITE_EMPRESTIMOS = "limiteEmprestimos";
+    public static final String CAMPO_ATIVO = "ativo";
+    public static final String CAMPO_CATEGORIA = "categoria";
+    public static final String CAMPO_LIMITE_DEBITO = "limiteDebito";
+    
     /**
      * Construtor padrão
      */
     public Usuario() {
-        this.livrosEmprestados = new ArrayList<>();
+        this.livrosEmprestados = new LivrosEmprestados();
         this.limiteEmprestimos = LIMITE_PADRAO;
         this.ativo = true;
+        this.codigoCategoria = TabelaSimbolos.CATEGORIAS.codificar(CATEGORIA_PADRAO);
+        this.limiteDebitoCentavos = LIMITE_DEBITO_PADRAO_CENTAVOS;
     }
     
     /**
@@ -41,9 +65,11 @@ public class Usuario {
         this.id = id;
         this.email = email;
         this.telefone = telefone;
-        this.livrosEmprestados = new ArrayList<>();
+        this.livrosEmprestados = new LivrosEmprestados();
         this.limiteEmprestimos = LIMITE_PADRAO;
         this.ativo = true;
+        this.codigoCategoria = TabelaSimbolos.CATEGORIAS.codificar(CATEGORIA_PADRAO);
+        this.limiteDebitoCentavos = LIMITE_DEBITO_PADRAO_CENTAVOS;
     }
     
     /**
@@ -60,8 +86,10 @@ public class Usuario {
         this.email = email;
         this.telefone = telefone;
         this.limiteEmprestimos = limiteEmprestimos;
-        this.livrosEmprestados = new ArrayList<>();
+        this.livrosEmprestados = new LivrosEmprestados();
         this.ativo = true;
+        this.codigoCategoria = TabelaSimbolos.CATEGORIAS.codificar(CATEGORIA_PADRAO);
+        this.limiteDebitoCentavos = LIMITE_DEBITO_PADRAO_CENTAVOS;
     }
     
     // Getters e Setters para acesso controlado aos atributos
@@ -70,15 +98,24 @@ public class Usuario {
     }
     
     public void setNome(String nome) {
+        String anterior = this.nome;
         this.nome = nome;
+        notificarAlteracao(CAMPO_NOME, anterior);
     }
     
     public String getId() {
         return id;
     }
     
+    /**
+     * Altera o ID do usuário
+     * Se o catálogo recusar o novo ID (por exemplo, por já estar em uso), o valor anterior é restaurado
+     * @param id Novo ID do usuário
+     */
     public void setId(String id) {
+        String anterior = this.id;
         this.id = id;
+        notificarAlteracao(CAMPO_ID, anterior);
     }
     
     public String getEmail() {
@@ -86,7 +123,9 @@ public class Usuario {
     }
     
     public void setEmail(String email) {
+        String anterior = this.email;
         this.email = email;
+        notificarAlteracao(CAMPO_EMAIL, anterior);
     }
     
     public String getTelefone() {
@@ -94,7 +133,9 @@ public class Usuario {
     }
     
     public void setTelefone(String telefone) {
+        String anterior = this.telefone;
         this.telefone = telefone;
+        notificarAlteracao(CAMPO_TELEFONE, anterior);
     }
     
     public int getLimiteEmprestimos() {
@@ -102,11 +143,13 @@ public class Usuario {
     }
     
     public void setLimiteEmprestimos(int limiteEmprestimos) {
+        int anterior = this.limiteEmprestimos;
         this.limiteEmprestimos = limiteEmprestimos;
+        notificarAlteracao(CAMPO_LIMITE_EMPRESTIMOS, anterior);
     }
     
     public List<Livro> getLivrosEmprestados() {
-        return new ArrayList<>(livrosEmprestados); // Retorna cópia para evitar modificação externa
+        return livrosEmprestados.listar(); // Retorna cópia para evitar modificação externa
     }
     
     public boolean isAtivo() {
@@ -114,16 +157,133 @@ public class Usuario {
     }
     
     public void setAtivo(boolean ativo) {
+        boolean anterior = this.ativo;
         this.ativo = ativo;
+        notificarAlteracao(CAMPO_ATIVO, anterior);
+    }
+    
+    public String getCategoria() {
+        return TabelaSimbolos.CATEGORIAS.decodificar(codigoCategoria);
+    }
+    
+    /**
+     * Define a categoria do usuário (por exemplo ALUNO ou PROFESSOR)
+     * A categoria seleciona a política de empréstimo aplicada ao usuário
+     * @param categoria Nome da categoria
+     */
+    public void setCategoria(String categoria) {
+        String anterior = getCategoria();
+        this.codigoCategoria = TabelaSimbolos.CATEGORIAS.codificar(categoria);
+        notificarAlteracao(CAMPO_CATEGORIA, anterior);
+    }
+    
+    public int getCodigoCategoria() {
+        return codigoCategoria;
+    }
+    
+    public OuvinteAlteracaoUsuario getOuvinte() {
+        return ouvinte;
+    }
+    
+    /**
+     * Define o catálogo que será avisado das alterações deste usuário
+     * @param ouvinte Ouvinte das alterações, ou null para desvincular
+     */
+    public void setOuvinte(OuvinteAlteracaoUsuario ouvinte) {
+        this.ouvinte = ouvinte;
+    }
+    
+    /**
+     * Avisa o ouvinte (se houver) que um campo foi alterado
+     * Se o ouvinte recusar a alteração ou não conseguir gravá-la (lançando uma exceção),
+     * o campo volta ao valor anterior antes de a exceção seguir para quem chamou o setter
+     * @param campo Nome do campo alterado
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    private void notificarAlteracao(String campo, Object valorAnterior) {
+        if (ouvinte != null) {
+            try {
+                ouvinte.usuarioAlterado(this, campo, valorAnterior);
+            } catch (RuntimeException e) {
+                restaurarCampo(campo, valorAnterior);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Devolve um campo ao valor anterior, sem avisar o ouvinte
+     */
+    private void restaurarCampo(String campo, Object valorAnterior) {
+        switch (campo) {
+            case CAMPO_NOME:
+                this.nome = (String) valorAnterior;
+                break;
+            case CAMPO_ID:
+                this.id = (String) valorAnterior;
+                break;
+            case CAMPO_EMAIL:
+                this.email = (String) valorAnterior;
+                break;
+            case CAMPO_TELEFONE:
+                this.telefone = (String) valorAnterior;
+                break;
+            case CAMPO_LIMITE_EMPRESTIMOS:
+                this.limiteEmprestimos = (Integer) valorAnterior;
+                break;
+            case CAMPO_ATIVO:
+                this.ativo = (Boolean) valorAnterior;
+                break;
+            case CAMPO_CATEGORIA:
+                this.codigoCategoria = TabelaSimbolos.CATEGORIAS.codificar((String) valorAnterior);
+                break;
+            case CAMPO_LIMITE_DEBITO:
+                this.limiteDebitoCentavos = (Long) valorAnterior;
+                break;
+            default:
+                break;
+        }
     }
     
     /**
      * Verifica se o usuário pode emprestar mais livros
-     * Considera o limite de empréstimos e se o usuário está ativo
+     * Considera o limite de empréstimos, se o usuário está ativo e se o saldo devedor
+     * de multas não ultrapassa o limite de débito
      * @return true se pode emprestar, false caso contrário
      */
     public boolean podeEmprestar() {
-        return ativo && livrosEmprestados.size() < limiteEmprestimos;
+        return ativo && livrosEmprestados.tamanho() < limiteEmprestimos
+                && saldoDevedorCentavos <= limiteDebitoCentavos;
+    }
+    
+    /**
+     * Obtém o saldo devedor de multas
+     * @return Valor devido, em reais
+     */
+    public double getSaldoDevedor() {
+        return saldoDevedorCentavos / 100.0;
+    }
+    
+    public long getSaldoDevedorCentavos() {
+        return saldoDevedorCentavos;
+    }
+    
+    /**
+     * Ajusta o saldo devedor com o efeito de um lançamento do livro-caixa de multas
+     * @param centavos Valor positivo para multas e negativo para pagamentos
+     */
+    public void ajustarSaldoDevedor(long centavos) {
+        this.saldoDevedorCentavos += centavos;
+    }
+    
+    public double getLimiteDebito() {
+        return limiteDebitoCentavos / 100.0;
+    }
+    
+    public void setLimiteDebito(double limiteDebito) {
+        long anterior = this.limiteDebitoCentavos;
+        this.limiteDebitoCentavos = Math.round(limiteDebito * 100);
+        notificarAlteracao(CAMPO_LIMITE_DEBITO, anterior);
     }
     
     /**
@@ -132,11 +292,32 @@ public class Usuario {
      * @return true se foi adicionado com sucesso, false caso contrário
      */
     public boolean adicionarLivro(Livro livro) {
-        if (podeEmprestar() && livro != null && !livrosEmprestados.contains(livro)) {
-            livrosEmprestados.add(livro);
-            return true;
+        return podeEmprestar() && livro != null && livrosEmprestados.adicionar(livro, null);
+    }
+    
+    /**
+     * Adiciona um livro à lista de livros emprestados já ligado ao seu empréstimo
+     * @param emprestimo Empréstimo em aberto do livro
+     * @return true se foi adicionado com sucesso, false caso contrário
+     */
+    public boolean adicionarEmprestimo(Emprestimo emprestimo) {
+        if (emprestimo == null) {
+            return false;
         }
-        return false;
+        Livro livro = emprestimo.getLivro();
+        return podeEmprestar() && livro != null && livrosEmprestados.adicionar(livro, emprestimo);
+    }
+    
+    /**
+     * Restaura a ligação com um empréstimo em aberto lido do armazenamento
+     * Não passa por podeEmprestar: o empréstimo já existia, mesmo que hoje o usuário esteja inativo,
+     * no limite ou acima do limite de débito. Uso exclusivo do catálogo ao carregar os dados
+     * @param emprestimo Empréstimo em aberto do usuário
+     * @return true se foi ligado, false se o empréstimo não tem livro ou o livro já está ligado ao usuário
+     */
+    public boolean restaurarEmprestimo(Emprestimo emprestimo) {
+        return emprestimo != null && emprestimo.getLivro() != null
+                && livrosEmprestados.adicionar(emprestimo.getLivro(), emprestimo);
     }
     
     /**
@@ -145,11 +326,17 @@ public class Usuario {
      * @return true se foi removido com sucesso, false caso contrário
      */
     public boolean removerLivro(Livro livro) {
-        if (livro != null && livrosEmprestados.contains(livro)) {
-            livrosEmprestados.remove(livro);
-            return true;
-        }
-        return false;
+        return livrosEmprestados.remover(livro);
+    }
+    
+    /**
+     * Obtém o empréstimo em aberto de um livro emprestado pelo usuário
+     * @param livro Livro emprestado
+     * @return Empréstimo correspondente, ou null se o livro não está emprestado ao usuário
+     *         ou foi adicionado sem empréstimo (adicionarLivro)
+     */
+    public Emprestimo getEmprestimoAtivo(Livro livro) {
+        return livrosEmprestados.obter(livro);
     }
     
     /**
@@ -157,7 +344,7 @@ public class Usuario {
      * @return Número de livros emprestados
      */
     public int getQuantidadeLivrosEmprestados() {
-        return livrosEmprestados.size();
+        return livrosEmprestados.tamanho();
     }
     
     /**
@@ -166,7 +353,7 @@ public class Usuario {
      * @return true se o usuário tem o livro emprestado, false caso contrário
      */
     public boolean temLivroEmprestado(Livro livro) {
-        return livrosEmprestados.contains(livro);
+        return livrosEmprestados.contem(livro);
     }
     
     /**
@@ -174,7 +361,7 @@ public class Usuario {
      * @return Número de empréstimos que ainda pode fazer
      */
     public int getEmprestimosDisponiveis() {
-        return limiteEmprestimos - livrosEmprestados.size();
+        return limiteEmprestimos - livrosEmprestados.tamanho();
     }
     
     /**
@@ -185,7 +372,7 @@ public class Usuario {
     public String toString() {
         String status = ativo ? "Ativo" : "Inativo";
         return String.format("Nome: %s | ID: %s | Email: %s | Telefone: %s | Status: %s | Livros Emprestados: %d/%d",
-                nome, id, email, telefone, status, livrosEmprestados.size(), limiteEmprestimos);
+                nome, id, email, telefone, status, livrosEmprestados.tamanho(), limiteEmprestimos);
     }
     
     /**
@@ -0,0 +1,237 @@
+package persistencia;
+
+import models.Emprestimo;
+import models.LancamentoMulta;
+import models.Livro;
+import models.PoliticaEmprestimo;
+import models.Usuario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codificador do formato binário compacto de Livro, Usuario, Emprestimo e LancamentoMulta
+ * Layout: cabeçalho (assinatura e versão), tabela de textos e registros.
+ * Inteiros são gravados como varints, e cada texto aparece uma única vez na tabela,
+ * sendo referenciado pelos registros através do seu índice.
+ * A versão 2 acrescentou categoria, saldo devedor e limite de débito do usuário, renovações e
+ * política do empréstimo e os lançamentos do livro-caixa de multas
+ */
+public class CodificadorBinario {
+    // Assinatura "BTK" seguida da versão do formato
+    static final byte[] ASSINATURA = {'B', 'T', 'K'};
+    public static final int VERSAO = 2;
+
+    // Tipos de registro (primeiro byte de cada registro)
+    public static final int TIPO_LIVRO = 1;
+    public static final int TIPO_USUARIO = 2;
+    public static final int TIPO_EMPRESTIMO = 3;
+    public static final int TIPO_LANCAMENTO = 4;
+
+    private final Map<String, Integer> indicesTextos;
+    private final SaidaBytes textos;
+    private final SaidaBytes registros;
+    private int quantidadeTextos;
+    private int quantidadeRegistros;
+
+    /**
+     * Construtor padrão
+     */
+    public CodificadorBinario() {
+        this.indicesTextos = new HashMap<>();
+        this.textos = new SaidaBytes(256);
+        this.registros = new SaidaBytes(1024);
+    }
+
+    /**
+     * Acrescenta um livro
+     * @param livro Livro a ser codificado
+     */
+    public void escreverLivro(Livro livro) {
+        registros.escreverByte(TIPO_LIVRO);
+        escreverTexto(livro.getTitulo());
+        escreverTexto(livro.getAutor());
+        escreverTexto(livro.getIsbn());
+        escreverTexto(livro.getGenero());
+        registros.escreverVarintComSinal(livro.getAnoPublicacao());
+        escreverTexto(livro.getEditora());
+        registros.escreverByte(livro.isDisponivel() ? 1 : 0);
+        quantidadeRegistros++;
+    }
+
+    /**
+     * Acrescenta um usuário (os livros emprestados são reconstruídos a partir dos empréstimos)
+     * @param usuario Usuário a ser codificado
+     */
+    public void escreverUsuario(Usuario usuario) {
+        registros.escreverByte(TIPO_USUARIO);
+        escreverTexto(usuario.getNome());
+        escreverTexto(usuario.getId());
+        escreverTexto(usuario.getEmail());
+        escreverTexto(usuario.getTelefone());
+        registros.escreverVarintComSinal(usuario.getLimiteEmprestimos());
+        registros.escreverByte(usuario.isAtivo() ? 1 : 0);
+        escreverTexto(usuario.getCategoria());
+        registros.escreverVarintComSinal(usuario.getSaldoDevedorCentavos());
+        registros.escreverVarintComSinal(Math.round(usuario.getLimiteDebito() * 100));
+        quantidadeRegistros++;
+    }
+
+    /**
+     * Acrescenta um empréstimo, referenciando usuário e livro pelo ID e pelo ISBN
+     * @param emprestimo Empréstimo a ser codificado
+     */
+    public void escreverEmprestimo(Emprestimo emprestimo) {
+        registros.escreverByte(TIPO_EMPRESTIMO);
+        escreverTexto(emprestimo.getUsuario().getId());
+        escreverTexto(emprestimo.getLivro().getIsbn());
+        escreverData(emprestimo.getDataEmprestimo());
+        escreverData(emprestimo.getDataDevolucaoPrevista());
+        escreverData(emprestimo.getDataDevolucao());
+        escreverTexto(emprestimo.getStatus());
+        // Multa gravada em centavos para evitar o custo e a imprecisão de um double
+        registros.escreverVarintComSinal(Math.round(emprestimo.getMulta() * 100));
+        escreverTexto(emprestimo.getObservacoes());
+        registros.escreverVarintComSinal(emprestimo.getRenovacoes());
+        // A política fica com o empréstimo: as regras vigentes no empréstimo valem até a devolução
+        PoliticaEmprestimo politica = emprestimo.getPolitica();
+        registros.escreverVarintComSinal(politica.getPrazoDias());
+        registros.escreverDouble(politica.getMultaPorDia());
+        registros.escreverDouble(politica.getMultaMaxima());
+        registros.escreverVarintComSinal(politica.getMaxRenovacoes());
+        registros.escreverVarintComSinal(politica.getLimiteEmprestimos());
+        quantidadeRegistros++;
+    }
+
+    /**
+     * Acrescenta um lançamento do livro-caixa de multas, referenciando o usuário pelo ID
+     * @param lancamento Lançamento a ser codificado
+     */
+    public void escreverLancamento(LancamentoMulta lancamento) {
+        registros.escreverByte(TIPO_LANCAMENTO);
+        escreverTexto(lancamento.getTipo());
+        escreverTexto(lancamento.getUsuario().getId());
+        registros.escreverVarintComSinal(lancamento.getValorCentavos());
+        escreverData(lancamento.getData());
+        escreverTexto(lancamento.getTituloLivro());
+        registros.escreverVarintComSinal(lancamento.getDiasAtraso());
+        quantidadeRegistros++;
+    }
+
+    public int getQuantidadeRegistros() {
+        return quantidadeRegistros;
+    }
+
+    /**
+     * Monta o conteúdo final: cabeçalho, tabela de textos e registros
+     * @return Buffer pronto para leitura (posição 0, limite no fim dos dados)
+     */
+    public ByteBuffer finalizar() {
+        SaidaBytes cabecalho = new SaidaBytes(16);
+        for (byte b : ASSINATURA) {
+            cabecalho.escreverByte(b);
+        }
+        cabecalho.escreverVarint(VERSAO);
+        cabecalho.escreverVarint(quantidadeTextos);
+        cabecalho.escreverVarint(quantidadeRegistros);
+
+        ByteBuffer buffer = ByteBuffer.allocate(cabecalho.tamanho + textos.tamanho + registros.tamanho);
+        buffer.put(cabecalho.dados, 0, cabecalho.tamanho);
+        buffer.put(textos.dados, 0, textos.tamanho);
+        buffer.put(registros.dados, 0, registros.tamanho);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Grava a referência de um texto, incluindo-o na tabela na primeira ocorrência
+     * O índice 0 representa null; os demais são deslocados em uma posição
+     */
+    private void escreverTexto(String texto) {
+        if (texto == null) {
+            registros.escreverVarint(0);
+            return;
+        }
+        Integer indice = indicesTextos.get(texto);
+        if (indice == null) {
+            indice = quantidadeTextos++;
+            indicesTextos.put(texto, indice);
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            textos.escreverVarint(bytes.length);
+            textos.escreverBytes(bytes);
+        }
+        registros.escreverVarint(indice + 1);
+    }
+
+    /**
+     * Grava uma data como dia epoch; 0 representa null
+     */
+    private void escreverData(LocalDate data) {
+        if (data == null) {
+            registros.escreverVarint(0);
+        } else {
+            registros.escreverVarint(zigZag(data.toEpochDay()) + 1);
+        }
+    }
+
+    static long zigZag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    /**
+     * Buffer de bytes que cresce conforme a necessidade
+     */
+    private static class SaidaBytes {
+        private byte[] dados;
+        private int tamanho;
+
+        private SaidaBytes(int capacidade) {
+            this.dados = new byte[capacidade];
+        }
+
+        private void garantir(int adicional) {
+            if (tamanho + adicional > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + adicional));
+            }
+        }
+
+        private void escreverByte(int valor) {
+            garantir(1);
+            dados[tamanho++] = (byte) valor;
+        }
+
+        private void escreverBytes(byte[] bytes) {
+            garantir(bytes.length);
+            System.arraycopy(bytes, 0, dados, tamanho, bytes.length);
+            tamanho += bytes.length;
+        }
+
+        private void escreverVarint(long valor) {
+            garantir(10);
+            while ((valor & ~0x7FL) != 0) {
+                dados[tamanho++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            dados[tamanho++] = (byte) valor;
+        }
+
+        private void escreverVarintComSinal(long valor) {
+            escreverVarint(zigZag(valor));
+        }
+
+        /**
+         * Grava os 8 bytes do double (big-endian), preservando o valor exato
+         */
+        private void escreverDouble(double valor) {
+            long bits = Double.doubleToLongBits(valor);
+            garantir(8);
+            for (int deslocamento = 56; deslocamento >= 0; deslocamento -= 8) {
+                dados[tamanho++] = (byte) (bits >>> deslocamento);
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package persistencia;
+
+import models.Emprestimo;
+import models.LancamentoMulta;
+import models.Livro;
+import models.PoliticaEmprestimo;
+import models.Usuario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Decodificador do formato binário gerado pelo CodificadorBinario
+ * Lê diretamente do ByteBuffer recebido (inclusive de arquivos mapeados em memória), sem copiar
+ * o conteúdo: a tabela de textos é apenas indexada e cada texto é decodificado uma única vez,
+ * na primeira vez em que algum registro o referencia.
+ * Arquivos da versão 1 continuam legíveis: os campos acrescentados na versão 2 recebem os valores padrão
+ */
+public class DecodificadorBinario {
+    private final ByteBuffer buffer;
+    private final int versao;
+    private final int[] posicoesTextos;
+    private final int[] tamanhosTextos;
+    private final String[] textosDecodificados;
+    private final int quantidadeRegistros;
+    private int registrosLidos;
+
+    // Resolução das referências dos empréstimos
+    private final Function<String, Usuario> resolverUsuario;
+    private final Function<String, Livro> resolverLivro;
+    private final Map<String, Usuario> usuariosLidos;
+    private final Map<String, Livro> livrosLidos;
+
+    /**
+     * Construtor que resolve as referências dos empréstimos apenas pelos registros do próprio buffer
+     * @param buffer Buffer com os dados, a partir da posição atual
+     */
+    public DecodificadorBinario(ByteBuffer buffer) {
+        this(buffer, id -> null, isbn -> null);
+    }
+
+    /**
+     * Construtor com resolução das referências dos empréstimos por um catálogo externo
+     * @param buffer Buffer com os dados, a partir da posição atual
+     * @param resolverUsuario Busca o usuário pelo ID quando ele não está no buffer (pode retornar null)
+     * @param resolverLivro Busca o livro pelo ISBN quando ele não está no buffer (pode retornar null)
+     * @throws IllegalArgumentException se a assinatura ou a versão do formato não forem reconhecidas
+     */
+    public DecodificadorBinario(ByteBuffer buffer, Function<String, Usuario> resolverUsuario,
+                                Function<String, Livro> resolverLivro) {
+        this.buffer = buffer.slice();
+        this.resolverUsuario = resolverUsuario;
+        this.resolverLivro = resolverLivro;
+        this.usuariosLidos = new HashMap<>();
+        this.livrosLidos = new HashMap<>();
+
+        for (byte esperado : CodificadorBinario.ASSINATURA) {
+            if (this.buffer.get() != esperado) {
+                throw new IllegalArgumentException("Dados não estão no formato binário do BookTracker");
+            }
+        }
+        this.versao = (int) lerVarint();
+        if (versao < 1 || versao > CodificadorBinario.VERSAO) {
+            throw new IllegalArgumentException("Versão do formato binário não suportada: " + versao);
+        }
+        int quantidadeTextos = (int) lerVarint();
+        this.quantidadeRegistros = (int) lerVarint();
+
+        // Indexa a tabela de textos sem decodificá-la
+        this.posicoesTextos = new int[quantidadeTextos];
+        this.tamanhosTextos = new int[quantidadeTextos];
+        this.textosDecodificados = new String[quantidadeTextos];
+        for (int i = 0; i < quantidadeTextos; i++) {
+            int tamanho = (int) lerVarint();
+            posicoesTextos[i] = this.buffer.position();
+            tamanhosTextos[i] = tamanho;
+            this.buffer.position(this.buffer.position() + tamanho);
+        }
+    }
+
+    /**
+     * Verifica se ainda há registros a serem lidos
+     * @return true se há mais registros
+     */
+    public boolean temProximo() {
+        return registrosLidos < quantidadeRegistros;
+    }
+
+    /**
+     * Consulta o tipo do próximo registro sem consumi-lo
+     * @return Uma das constantes TIPO_* de CodificadorBinario
+     */
+    public int proximoTipo() {
+        return buffer.get(buffer.position());
+    }
+
+    public int getQuantidadeRegistros() {
+        return quantidadeRegistros;
+    }
+
+    /**
+     * Obtém a versão do formato dos dados lidos
+     * @return Versão gravada no cabeçalho
+     */
+    public int getVersao() {
+        return versao;
+    }
+
+    /**
+     * Lê o próximo registro, que deve ser um livro
+     * @return Livro decodificado
+     */
+    public Livro lerLivro() {
+        verificarTipo(CodificadorBinario.TIPO_LIVRO);
+        String titulo = lerTexto();
+        String autor = lerTexto();
+        String isbn = lerTexto();
+        String genero = lerTexto();
+        int anoPublicacao = (int) lerVarintComSinal();
+        String editora = lerTexto();
+        boolean disponivel = buffer.get() != 0;
+
+        Livro livro = new Livro(titulo, autor, isbn, genero, anoPublicacao, editora);
+        livro.setDisponivel(disponivel);
+        livrosLidos.put(isbn, livro);
+        return livro;
+    }
+
+    /**
+     * Lê o próximo registro, que deve ser um usuário
+     * @return Usuário decodificado (sem livros emprestados)
+     */
+    public Usuario lerUsuario() {
+        verificarTipo(CodificadorBinario.TIPO_USUARIO);
+        String nome = lerTexto();
+        String id = lerTexto();
+        String email = lerTexto();
+        String telefone = lerTexto();
+        int limiteEmprestimos = (int) lerVarintComSinal();
+        boolean ativo = buffer.get() != 0;
+
+        Usuario usuario = new Usuario(nome, id, email, telefone, limiteEmprestimos);
+        usuario.setAtivo(ativo);
+        if (versao >= 2) {
+            String categoria = lerTexto();
+            if (categoria != null) {
+                usuario.setCategoria(categoria);
+            }
+            usuario.ajustarSaldoDevedor(lerVarintComSinal());
+            usuario.setLimiteDebito(lerVarintComSinal() / 100.0);
+        }
+        usuariosLidos.put(id, usuario);
+        return usuario;
+    }
+
+    /**
+     * Lê o próximo registro, que deve ser um empréstimo
+     * Usuário e livro são procurados primeiro entre os registros já lidos e depois nos resolvedores;
+     * se não forem encontrados, são reconstruídos de forma parcial apenas com ID e ISBN.
+     * Empréstimos da versão 1 vêm sem renovações e com a política padrão
+     * @return Empréstimo decodificado
+     */
+    public Emprestimo lerEmprestimo() {
+        verificarTipo(CodificadorBinario.TIPO_EMPRESTIMO);
+        String idUsuario = lerTexto();
+        String isbn = lerTexto();
+        LocalDate dataEmprestimo = lerData();
+        LocalDate dataDevolucaoPrevista = lerData();
+        LocalDate dataDevolucao = lerData();
+        String status = lerTexto();
+        long multaCentavos = lerVarintComSinal();
+        String observacoes = lerTexto();
+        int renovacoes = 0;
+        PoliticaEmprestimo politica = PoliticaEmprestimo.PADRAO;
+        if (versao >= 2) {
+            renovacoes = (int) lerVarintComSinal();
+            int prazoDias = (int) lerVarintComSinal();
+            double multaPorDia = lerDouble();
+            double multaMaxima = lerDouble();
+            int maxRenovacoes = (int) lerVarintComSinal();
+            int limiteEmprestimos = (int) lerVarintComSinal();
+            politica = new PoliticaEmprestimo(prazoDias, multaPorDia, multaMaxima, maxRenovacoes, limiteEmprestimos);
+        }
+
+        Usuario usuario = resolverUsuario(idUsuario);
+        Livro livro = livrosLidos.get(isbn);
+        if (livro == null) {
+            livro = resolverLivro.apply(isbn);
+        }
+        if (livro == null) {
+            livro = new Livro(null, null, isbn, null, 0, null);
+        }
+
+        Emprestimo emprestimo = new Emprestimo();
+        emprestimo.setUsuario(usuario);
+        emprestimo.setLivro(livro);
+        emprestimo.setDataEmprestimo(dataEmprestimo);
+        emprestimo.setDataDevolucaoPrevista(dataDevolucaoPrevista);
+        emprestimo.setDataDevolucao(dataDevolucao);
+        emprestimo.setStatus(status);
+        emprestimo.setMulta(multaCentavos / 100.0);
+        emprestimo.setObservacoes(observacoes);
+        emprestimo.setRenovacoes(renovacoes);
+        emprestimo.setPolitica(politica);
+        return emprestimo;
+    }
+
+    /**
+     * Lê o próximo registro, que deve ser um lançamento do livro-caixa de multas (versão 2)
+     * O usuário é resolvido como nos empréstimos
+     * @return Lançamento decodificado
+     */
+    public LancamentoMulta lerLancamento() {
+        verificarTipo(CodificadorBinario.TIPO_LANCAMENTO);
+        String tipo = lerTexto();
+        String idUsuario = lerTexto();
+        long valorCentavos = lerVarintComSinal();
+        LocalDate data = lerData();
+        String tituloLivro = lerTexto();
+        long diasAtraso = lerVarintComSinal();
+        return new LancamentoMulta(tipo, resolverUsuario(idUsuario), valorCentavos, data, tituloLivro, diasAtraso);
+    }
+
+    // Métodos auxiliares de leitura
+
+    private Usuario resolverUsuario(String idUsuario) {
+        Usuario usuario = usuariosLidos.get(idUsuario);
+        if (usuario == null) {
+            usuario = resolverUsuario.apply(idUsuario);
+        }
+        if (usuario == null) {
+            usuario = new Usuario(null, idUsuario, null, null);
+        }
+        return usuario;
+    }
+
+    private void verificarTipo(int esperado) {
+        if (!temProximo()) {
+            throw new IllegalStateException("Não há mais registros para ler");
+        }
+        int tipo = buffer.get();
+        if (tipo != esperado) {
+            throw new IllegalStateException("Registro do tipo " + tipo + " encontrado, esperado " + esperado);
+        }
+        registrosLidos++;
+    }
+
+    private String lerTexto() {
+        int referencia = (int) lerVarint();
+        if (referencia == 0) {
+            return null;
+        }
+        int indice = referencia - 1;
+        String texto = textosDecodificados[indice];
+        if (texto == null) {
+            texto = decodificarTexto(posicoesTextos[indice], tamanhosTextos[indice]);
+            textosDecodificados[indice] = texto;
+        }
+        return texto;
+    }
+
+    private String decodificarTexto(int posicao, int tamanho) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + posicao, tamanho, StandardCharsets.UTF_8);
+        }
+        // Buffers diretos ou mapeados: decodifica a partir de uma fatia, sem mover a posição de leitura
+        ByteBuffer fatia = buffer.duplicate();
+        fatia.position(posicao).limit(posicao + tamanho);
+        return StandardCharsets.UTF_8.decode(fatia).toString();
+    }
+
+    private LocalDate lerData() {
+        long valor = lerVarint();
+        if (valor == 0) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(desfazerZigZag(valor - 1));
+    }
+
+    private long lerVarint() {
+        long resultado = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            resultado |= (long) (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return resultado;
+    }
+
+    private double lerDouble() {
+        return Double.longBitsToDouble(buffer.getLong());
+    }
+
+    private long lerVarintComSinal() {
+        return desfazerZigZag(lerVarint());
+    }
+
+    private static long desfazerZigZag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+}
@@ -0,0 +1,143 @@
+package persistencia;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool simples de conexões JDBC de tamanho fixo
+ * As conexões são abertas sob demanda até o tamanho máximo e reaproveitadas depois de devolvidas.
+ * Quem pede uma conexão com o pool esgotado espera até o tempo limite. Conexões que deixaram de ser
+ * válidas são descartadas e substituídas por novas
+ */
+public class PoolConexoes implements AutoCloseable {
+    // Tempo dado ao driver para confirmar que uma conexão ociosa ainda é válida
+    private static final int SEGUNDOS_VALIDACAO = 2;
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final int tamanhoMaximo;
+    private final long tempoLimiteMillis;
+    private final BlockingQueue<Connection> ociosas;
+    private final List<Connection> abertas;
+    private boolean fechado;
+
+    /**
+     * Construtor
+     * @param url URL JDBC do banco (o driver precisa estar no classpath)
+     * @param usuario Usuário do banco (pode ser null)
+     * @param senha Senha do banco (pode ser null)
+     * @param tamanhoMaximo Quantidade máxima de conexões abertas
+     * @param tempoLimiteMillis Espera máxima por uma conexão livre
+     */
+    public PoolConexoes(String url, String usuario, String senha, int tamanhoMaximo, long tempoLimiteMillis) {
+        if (tamanhoMaximo <= 0) {
+            throw new IllegalArgumentException("Tamanho do pool deve ser positivo");
+        }
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.tempoLimiteMillis = tempoLimiteMillis;
+        this.ociosas = new ArrayBlockingQueue<>(tamanhoMaximo);
+        this.abertas = new ArrayList<>(tamanhoMaximo);
+    }
+
+    /**
+     * Obtém uma conexão do pool, que deve ser devolvida com devolver
+     * @return Conexão em modo de confirmação automática
+     * @throws SQLException se não for possível abrir uma conexão ou se o tempo limite for atingido
+     */
+    public Connection obter() throws SQLException {
+        Connection conexao = ociosas.poll();
+        if (conexao == null) {
+            conexao = abrirSeHouverVaga();
+        }
+        if (conexao == null) {
+            try {
+                conexao = ociosas.poll(tempoLimiteMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrompido enquanto aguardava uma conexão", e);
+            }
+            if (conexao == null) {
+                throw new SQLException("Nenhuma conexão livre após " + tempoLimiteMillis + " ms");
+            }
+        }
+        if (!conexao.isValid(SEGUNDOS_VALIDACAO)) {
+            descartar(conexao);
+            return obter();
+        }
+        return conexao;
+    }
+
+    /**
+     * Devolve uma conexão obtida com obter
+     * Transações deixadas em aberto são desfeitas e a confirmação automática é restaurada
+     * @param conexao Conexão a ser devolvida
+     */
+    public void devolver(Connection conexao) {
+        try {
+            if (!conexao.getAutoCommit()) {
+                conexao.rollback();
+                conexao.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            descartar(conexao);
+            return;
+        }
+        synchronized (this) {
+            if (fechado) {
+                fecharSilenciosamente(conexao);
+                abertas.remove(conexao);
+                return;
+            }
+        }
+        ociosas.offer(conexao);
+    }
+
+    /**
+     * Fecha todas as conexões ociosas e impede a abertura de novas
+     * Conexões em uso são fechadas quando forem devolvidas
+     */
+    @Override
+    public synchronized void close() {
+        fechado = true;
+        Connection conexao;
+        while ((conexao = ociosas.poll()) != null) {
+            fecharSilenciosamente(conexao);
+            abertas.remove(conexao);
+        }
+    }
+
+    private synchronized Connection abrirSeHouverVaga() throws SQLException {
+        if (fechado) {
+            throw new SQLException("Pool de conexões fechado");
+        }
+        if (abertas.size() >= tamanhoMaximo) {
+            return null;
+        }
+        Connection conexao = DriverManager.getConnection(url, usuario, senha);
+        abertas.add(conexao);
+        return conexao;
+    }
+
+    private synchronized void descartar(Connection conexao) {
+        abertas.remove(conexao);
+        fecharSilenciosamente(conexao);
+    }
+
+    private static void fecharSilenciosamente(Connection conexao) {
+        try {
+            conexao.close();
+        } catch (SQLException e) {
+            // A conexão já está sendo descartada
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package persistencia;
+
+import models.Emprestimo;
+import models.Livro;
+import models.Usuario;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Armazenamento de livros, usuários e empréstimos usado pelo BibliotecaManager
+ * O gerenciador grava cada alteração no repositório assim que ela acontece. Livros são
+ * identificados pelo ISBN normalizado e usuários pelo ID; empréstimos são reconhecidos pelo
+ * próprio objeto, de modo que salvar de novo o mesmo empréstimo atualiza o registro existente.
+ * As listagens são paginadas pela chave, para que catálogos maiores que a memória possam ser
+ * percorridos página a página. Falhas do armazenamento são lançadas como IllegalStateException
+ */
+public interface RepositorioBiblioteca extends AutoCloseable {
+
+    // Livros
+
+    /**
+     * Inclui o livro ou atualiza o livro de mesmo ISBN
+     * @param livro Livro a ser gravado
+     */
+    void salvarLivro(Livro livro);
+
+    /**
+     * Inclui ou atualiza vários livros de uma só vez
+     * @param livros Livros a serem gravados
+     */
+    void salvarLivros(Collection<Livro> livros);
+
+    /**
+     * Remove um livro
+     * @param isbn ISBN do livro, com ou sem hífens
+     * @return true se o livro existia
+     */
+    boolean removerLivro(String isbn);
+
+    /**
+     * Remove vários livros de uma só vez
+     * @param isbns ISBNs dos livros, com ou sem hífens
+     */
+    void removerLivros(Collection<String> isbns);
+
+    /**
+     * Busca um livro pelo ISBN
+     * @param isbn ISBN do livro, com ou sem hífens
+     * @return Livro encontrado ou null
+     */
+    Livro buscarLivroPorIsbn(String isbn);
+
+    /**
+     * Busca os livros de um autor (nome exato)
+     * @param autor Nome do autor
+     * @return Livros do autor, em ordem de ISBN
+     */
+    List<Livro> buscarLivrosPorAutor(String autor);
+
+    /**
+     * Lista uma página de livros em ordem de ISBN normalizado
+     * @param aposIsbn ISBN normalizado do último livro da página anterior (null para a primeira página)
+     * @param limite Quantidade máxima de livros
+     * @return Livros da página (vazia quando não há mais livros)
+     */
+    List<Livro> listarLivros(String aposIsbn, int limite);
+
+    int contarLivros();
+
+    // Usuários
+
+    /**
+     * Inclui o usuário ou atualiza o usuário de mesmo ID
+     * @param usuario Usuário a ser gravado
+     */
+    void salvarUsuario(Usuario usuario);
+
+    /**
+     * Inclui ou atualiza vários usuários de uma só vez
+     * @param usuarios Usuários a serem gravados
+     */
+    void salvarUsuarios(Collection<Usuario> usuarios);
+
+    /**
+     * Remove um usuário
+     * @param id ID do usuário
+     * @return true se o usuário existia
+     */
+    boolean removerUsuario(String id);
+
+    /**
+     * Remove vários usuários de uma só vez
+     * @param ids IDs dos usuários
+     */
+    void removerUsuarios(Collection<String> ids);
+
+    /**
+     * Busca um usuário pelo ID
+     * @param id ID do usuário
+     * @return Usuário encontrado ou null
+     */
+    Usuario buscarUsuarioPorId(String id);
+
+    /**
+     * Lista uma página de usuários em ordem de ID
+     * @param aposId ID do último usuário da página anterior (null para a primeira página)
+     * @param limite Quantidade máxima de usuários
+     * @return Usuários da página (vazia quando não há mais usuários)
+     */
+    List<Usuario> listarUsuarios(String aposId, int limite);
+
+    int contarUsuarios();
+
+    // Empréstimos
+
+    /**
+     * Inclui o empréstimo ou atualiza o registro gravado antes para o mesmo objeto
+     * (por exemplo, depois de uma renovação ou da devolução)
+     * @param emprestimo Empréstimo a ser gravado
+     */
+    void salvarEmprestimo(Emprestimo emprestimo);
+
+    /**
+     * Lista os empréstimos ainda não devolvidos
+     * @param resolverUsuario Obtém o usuário de um ID, para implementações que reconstroem os objetos
+     * @param resolverLivro Obtém o livro de um ISBN, para implementações que reconstroem os objetos
+     * @return Empréstimos em aberto, em ordem de data prevista de devolução
+     */
+    List<Emprestimo> listarEmprestimosEmAberto(Function<String, Usuario> resolverUsuario,
+                                               Function<String, Livro> resolverLivro);
+
+    int contarEmprestimosEmAberto();
+
+    /**
+     * Libera os recursos do repositório (conexões, arquivos)
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,582 @@
+package persistencia;
+
+import models.Emprestimo;
+import models.Isbn;
+import models.Livro;
+import models.Usuario;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repositório em um banco de dados local acessado por JDBC (por exemplo H2 ou SQLite em arquivo)
+ * Usa apenas SQL comum a esses bancos: tabelas e índices criados com IF NOT EXISTS, datas gravadas
+ * como epoch day e valores lógicos como 0 ou 1. As gravações em lote usam PreparedStatement com
+ * addBatch em transações de até TAMANHO_LOTE registros, e as listagens são paginadas pela chave
+ * primária (sem OFFSET), de modo que o custo de cada página não cresce com o tamanho das tabelas.
+ * Os objetos devolvidos pelas consultas são novas instâncias, sem vínculo com o gerenciador
+ */
+public class RepositorioJdbc implements RepositorioBiblioteca {
+    private static final int TAMANHO_LOTE = 500;
+    private static final int TAMANHO_POOL_PADRAO = 4;
+    private static final long TEMPO_LIMITE_POOL_MILLIS = 10_000;
+
+    private static final String[] ESQUEMA = {
+            "CREATE TABLE IF NOT EXISTS livros ("
+                    + "chave VARCHAR(64) PRIMARY KEY, isbn VARCHAR(64), titulo VARCHAR(512), autor VARCHAR(256), "
+                    + "genero VARCHAR(128), editora VARCHAR(256), ano_publicacao INTEGER, disponivel INTEGER)",
+            "CREATE TABLE IF NOT EXISTS usuarios ("
+                    + "id VARCHAR(64) PRIMARY KEY, nome VARCHAR(256), email VARCHAR(256), telefone VARCHAR(64), "
+                    + "limite_emprestimos INTEGER, ativo INTEGER, categoria VARCHAR(64), "
+                    + "saldo_devedor_centavos BIGINT, limite_debito_centavos BIGINT)",
+            "CREATE TABLE IF NOT EXISTS emprestimos ("
+                    + "id BIGINT PRIMARY KEY, id_usuario VARCHAR(64), chave_livro VARCHAR(64), "
+                    + "data_emprestimo BIGINT, data_prevista BIGINT, data_devolucao BIGINT, status VARCHAR(16), "
+                    + "multa_centavos BIGINT, renovacoes INTEGER, observacoes VARCHAR(1024))",
+            "CREATE INDEX IF NOT EXISTS idx_livros_autor ON livros (autor)",
+            "CREATE INDEX IF NOT EXISTS idx_livros_titulo ON livros (titulo)",
+            "CREATE INDEX IF NOT EXISTS idx_usuarios_nome ON usuarios (nome)",
+            "CREATE INDEX IF NOT EXISTS idx_emprestimos_status_prevista ON emprestimos (status, data_prevista)",
+            "CREATE INDEX IF NOT EXISTS idx_emprestimos_usuario ON emprestimos (id_usuario)",
+            "CREATE INDEX IF NOT EXISTS idx_emprestimos_livro ON emprestimos (chave_livro)"
+    };
+
+    private static final String COLUNAS_LIVRO = "chave, isbn, titulo, autor, genero, editora, ano_publicacao, disponivel";
+    private static final String INSERIR_LIVRO = "INSERT INTO livros (" + COLUNAS_LIVRO + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ATUALIZAR_LIVRO = "UPDATE livros SET isbn = ?, titulo = ?, autor = ?, genero = ?, "
+            + "editora = ?, ano_publicacao = ?, disponivel = ? WHERE chave = ?";
+    private static final String SELECIONAR_LIVROS = "SELECT " + COLUNAS_LIVRO + " FROM livros";
+
+    private static final String COLUNAS_USUARIO = "id, nome, email, telefone, limite_emprestimos, ativo, categoria, "
+            + "saldo_devedor_centavos, limite_debito_centavos";
+    private static final String INSERIR_USUARIO = "INSERT INTO usuarios (" + COLUNAS_USUARIO + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ATUALIZAR_USUARIO = "UPDATE usuarios SET nome = ?, email = ?, telefone = ?, "
+            + "limite_emprestimos = ?, ativo = ?, categoria = ?, saldo_devedor_centavos = ?, "
+            + "limite_debito_centavos = ? WHERE id = ?";
+    private static final String SELECIONAR_USUARIOS = "SELECT " + COLUNAS_USUARIO + " FROM usuarios";
+
+    private static final String INSERIR_EMPRESTIMO = "INSERT INTO emprestimos (id, id_usuario, chave_livro, "
+            + "data_emprestimo, data_prevista, data_devolucao, status, multa_centavos, renovacoes, observacoes) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ATUALIZAR_EMPRESTIMO = "UPDATE emprestimos SET id_usuario = ?, chave_livro = ?, "
+            + "data_emprestimo = ?, data_prevista = ?, data_devolucao = ?, status = ?, multa_centavos = ?, "
+            + "renovacoes = ?, observacoes = ? WHERE id = ?";
+
+    private final PoolConexoes pool;
+
+    // Ids dos empréstimos em aberto já gravados, pelo próprio objeto (os devolvidos saem do mapa)
+    private final Map<Emprestimo, Long> idsEmprestimos;
+    private long proximoIdEmprestimo;
+
+    /**
+     * Construtor com um pool de 4 conexões
+     * @param url URL JDBC, por exemplo "jdbc:h2:./dados/biblioteca" ou "jdbc:sqlite:biblioteca.db"
+     */
+    public RepositorioJdbc(String url) {
+        this(new PoolConexoes(url, null, null, TAMANHO_POOL_PADRAO, TEMPO_LIMITE_POOL_MILLIS));
+    }
+
+    /**
+     * Construtor com um pool fornecido pelo chamador
+     * Cria as tabelas e índices que ainda não existirem
+     * @param pool Pool de conexões do banco
+     * @throws IllegalStateException se o esquema não puder ser criado
+     */
+    public RepositorioJdbc(PoolConexoes pool) {
+        this.pool = pool;
+        this.idsEmprestimos = new IdentityHashMap<>();
+        Connection conexao = obterConexao();
+        try (Statement comando = conexao.createStatement()) {
+            for (String sql : ESQUEMA) {
+                comando.execute(sql);
+            }
+            try (ResultSet maior = comando.executeQuery("SELECT MAX(id) FROM emprestimos")) {
+                proximoIdEmprestimo = maior.next() ? maior.getLong(1) + 1 : 1;
+            }
+        } catch (SQLException e) {
+            throw falha("criar o esquema", e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    // Livros
+
+    @Override
+    public void salvarLivro(Livro livro) {
+        salvarLivros(Collections.singletonList(livro));
+    }
+
+    @Override
+    public void salvarLivros(Collection<Livro> livros) {
+        gravarEmLotes(new ArrayList<>(livros), ATUALIZAR_LIVRO, INSERIR_LIVRO,
+                RepositorioJdbc::preencherAtualizacaoLivro, RepositorioJdbc::preencherInclusaoLivro, "gravar livros");
+    }
+
+    @Override
+    public boolean removerLivro(String isbn) {
+        return executarAlteracao("DELETE FROM livros WHERE chave = ?",
+                RepositorioMemoria.chaveLivro(Isbn.normalizar(isbn)), "remover livro") > 0;
+    }
+
+    @Override
+    public void removerLivros(Collection<String> isbns) {
+        List<String> chaves = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            chaves.add(RepositorioMemoria.chaveLivro(Isbn.normalizar(isbn)));
+        }
+        removerEmLotes("DELETE FROM livros WHERE chave = ?", chaves, "remover livros");
+    }
+
+    @Override
+    public Livro buscarLivroPorIsbn(String isbn) {
+        List<Livro> encontrados = consultar(SELECIONAR_LIVROS + " WHERE chave = ?", RepositorioJdbc::lerLivro,
+                "buscar livro", RepositorioMemoria.chaveLivro(Isbn.normalizar(isbn)));
+        return encontrados.isEmpty() ? null : encontrados.get(0);
+    }
+
+    @Override
+    public List<Livro> buscarLivrosPorAutor(String autor) {
+        return consultar(SELECIONAR_LIVROS + " WHERE autor = ? ORDER BY chave", RepositorioJdbc::lerLivro,
+                "buscar livros por autor", autor);
+    }
+
+    @Override
+    public List<Livro> listarLivros(String aposIsbn, int limite) {
+        if (aposIsbn == null) {
+            return consultar(SELECIONAR_LIVROS + " ORDER BY chave LIMIT ?", RepositorioJdbc::lerLivro,
+                    "listar livros", limite);
+        }
+        return consultar(SELECIONAR_LIVROS + " WHERE chave > ? ORDER BY chave LIMIT ?", RepositorioJdbc::lerLivro,
+                "listar livros", aposIsbn, limite);
+    }
+
+    @Override
+    public int contarLivros() {
+        return contar("SELECT COUNT(*) FROM livros");
+    }
+
+    // Usuários
+
+    @Override
+    public void salvarUsuario(Usuario usuario) {
+        salvarUsuarios(Collections.singletonList(usuario));
+    }
+
+    @Override
+    public void salvarUsuarios(Collection<Usuario> usuarios) {
+        gravarEmLotes(new ArrayList<>(usuarios), ATUALIZAR_USUARIO, INSERIR_USUARIO,
+                RepositorioJdbc::preencherAtualizacaoUsuario, RepositorioJdbc::preencherInclusaoUsuario,
+                "gravar usuários");
+    }
+
+    @Override
+    public boolean removerUsuario(String id) {
+        return executarAlteracao("DELETE FROM usuarios WHERE id = ?", RepositorioMemoria.chaveUsuario(id),
+                "remover usuário") > 0;
+    }
+
+    @Override
+    public void removerUsuarios(Collection<String> ids) {
+        List<String> chaves = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            chaves.add(RepositorioMemoria.chaveUsuario(id));
+        }
+        removerEmLotes("DELETE FROM usuarios WHERE id = ?", chaves, "remover usuários");
+    }
+
+    @Override
+    public Usuario buscarUsuarioPorId(String id) {
+        List<Usuario> encontrados = consultar(SELECIONAR_USUARIOS + " WHERE id = ?", RepositorioJdbc::lerUsuario,
+                "buscar usuário", RepositorioMemoria.chaveUsuario(id));
+        return encontrados.isEmpty() ? null : encontrados.get(0);
+    }
+
+    @Override
+    public List<Usuario> listarUsuarios(String aposId, int limite) {
+        if (aposId == null) {
+            return consultar(SELECIONAR_USUARIOS + " ORDER BY id LIMIT ?", RepositorioJdbc::lerUsuario,
+                    "listar usuários", limite);
+        }
+        return consultar(SELECIONAR_USUARIOS + " WHERE id > ? ORDER BY id LIMIT ?", RepositorioJdbc::lerUsuario,
+                "listar usuários", aposId, limite);
+    }
+
+    @Override
+    public int contarUsuarios() {
+        return contar("SELECT COUNT(*) FROM usuarios");
+    }
+
+    // Empréstimos
+
+    @Override
+    public void salvarEmprestimo(Emprestimo emprestimo) {
+        Long id;
+        boolean novo;
+        synchronized (idsEmprestimos) {
+            id = idsEmprestimos.get(emprestimo);
+            novo = id == null;
+            if (novo) {
+                id = proximoIdEmprestimo++;
+            }
+        }
+        Connection conexao = obterConexao();
+        try (PreparedStatement comando = conexao.prepareStatement(novo ? INSERIR_EMPRESTIMO : ATUALIZAR_EMPRESTIMO)) {
+            int coluna = 1;
+            if (novo) {
+                comando.setLong(coluna++, id);
+            }
+            comando.setString(coluna++, RepositorioMemoria.chaveUsuario(emprestimo.getUsuario().getId()));
+            comando.setString(coluna++, RepositorioMemoria.chaveLivro(emprestimo.getLivro().getIsbnNormalizado()));
+            definirData(comando, coluna++, emprestimo.getDataEmprestimo());
+            definirData(comando, coluna++, emprestimo.getDataDevolucaoPrevista());
+            definirData(comando, coluna++, emprestimo.getDataDevolucao());
+            comando.setString(coluna++, emprestimo.getStatus());
+            comando.setLong(coluna++, Math.round(emprestimo.getMulta() * 100));
+            comando.setInt(coluna++, emprestimo.getRenovacoes());
+            comando.setString(coluna++, emprestimo.getObservacoes());
+            if (!novo) {
+                comando.setLong(coluna, id);
+            }
+            comando.executeUpdate();
+        } catch (SQLException e) {
+            throw falha("gravar empréstimo", e);
+        } finally {
+            pool.devolver(conexao);
+        }
+        synchronized (idsEmprestimos) {
+            if (emprestimo.foiDevolvido()) {
+                idsEmprestimos.remove(emprestimo);
+            } else {
+                idsEmprestimos.put(emprestimo, id);
+            }
+        }
+    }
+
+    @Override
+    public List<Emprestimo> listarEmprestimosEmAberto(Function<String, Usuario> resolverUsuario,
+                                                      Function<String, Livro> resolverLivro) {
+        String sql = "SELECT id, id_usuario, chave_livro, data_emprestimo, data_prevista, data_devolucao, status, "
+                + "multa_centavos, renovacoes, observacoes FROM emprestimos WHERE status <> ? ORDER BY data_prevista";
+        List<LinhaEmprestimo> linhas = consultar(sql, LinhaEmprestimo::new, "listar empréstimos em aberto",
+                Emprestimo.STATUS_DEVOLVIDO);
+        // Usuários e livros são resolvidos depois que a consulta liberou a conexão
+        List<Emprestimo> emprestimos = new ArrayList<>(linhas.size());
+        for (LinhaEmprestimo linha : linhas) {
+            emprestimos.add(montarEmprestimo(linha, resolverUsuario, resolverLivro));
+        }
+        // Os objetos devolvidos passam a ser reconhecidos nas próximas gravações
+        synchronized (idsEmprestimos) {
+            for (int i = 0; i < emprestimos.size(); i++) {
+                idsEmprestimos.put(emprestimos.get(i), linhas.get(i).id);
+            }
+        }
+        return emprestimos;
+    }
+
+    @Override
+    public int contarEmprestimosEmAberto() {
+        Connection conexao = obterConexao();
+        try (PreparedStatement comando = conexao.prepareStatement("SELECT COUNT(*) FROM emprestimos WHERE status <> ?")) {
+            comando.setString(1, Emprestimo.STATUS_DEVOLVIDO);
+            try (ResultSet resultado = comando.executeQuery()) {
+                return resultado.next() ? resultado.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw falha("contar empréstimos", e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    // Gravação em lote
+
+    /**
+     * Preenche os parâmetros de um comando a partir de um objeto
+     */
+    private interface Preenchedor<T> {
+        void preencher(PreparedStatement comando, T objeto) throws SQLException;
+    }
+
+    /**
+     * Lê um objeto da linha atual de uma consulta
+     */
+    private interface Leitor<T> {
+        T ler(ResultSet resultado) throws SQLException;
+    }
+
+    /**
+     * Grava objetos por atualização seguida de inclusão dos que não existiam, em transações de até
+     * TAMANHO_LOTE registros. Drivers que não informam as linhas afetadas por comando do lote
+     * (SUCCESS_NO_INFO) têm o registro considerado existente
+     */
+    private <T> void gravarEmLotes(List<T> objetos, String sqlAtualizacao, String sqlInclusao,
+                                   Preenchedor<T> preencherAtualizacao, Preenchedor<T> preencherInclusao,
+                                   String operacao) {
+        if (objetos.isEmpty()) {
+            return;
+        }
+        Connection conexao = obterConexao();
+        try (PreparedStatement atualizacao = conexao.prepareStatement(sqlAtualizacao);
+             PreparedStatement inclusao = conexao.prepareStatement(sqlInclusao)) {
+            conexao.setAutoCommit(false);
+            for (int inicio = 0; inicio < objetos.size(); inicio += TAMANHO_LOTE) {
+                List<T> lote = objetos.subList(inicio, Math.min(objetos.size(), inicio + TAMANHO_LOTE));
+                for (T objeto : lote) {
+                    preencherAtualizacao.preencher(atualizacao, objeto);
+                    atualizacao.addBatch();
+                }
+                int[] atualizados = atualizacao.executeBatch();
+                boolean haInclusoes = false;
+                for (int i = 0; i < lote.size(); i++) {
+                    if (atualizados[i] == 0) {
+                        preencherInclusao.preencher(inclusao, lote.get(i));
+                        inclusao.addBatch();
+                        haInclusoes = true;
+                    }
+                }
+                if (haInclusoes) {
+                    inclusao.executeBatch();
+                }
+                conexao.commit();
+            }
+        } catch (SQLException e) {
+            throw falha(operacao, e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    private static void preencherInclusaoLivro(PreparedStatement comando, Livro livro) throws SQLException {
+        comando.setString(1, RepositorioMemoria.chaveLivro(livro.getIsbnNormalizado()));
+        comando.setString(2, livro.getIsbn());
+        comando.setString(3, livro.getTitulo());
+        comando.setString(4, livro.getAutor());
+        comando.setString(5, livro.getGenero());
+        comando.setString(6, livro.getEditora());
+        comando.setInt(7, livro.getAnoPublicacao());
+        comando.setInt(8, livro.isDisponivel() ? 1 : 0);
+    }
+
+    private static void preencherAtualizacaoLivro(PreparedStatement comando, Livro livro) throws SQLException {
+        comando.setString(1, livro.getIsbn());
+        comando.setString(2, livro.getTitulo());
+        comando.setString(3, livro.getAutor());
+        comando.setString(4, livro.getGenero());
+        comando.setString(5, livro.getEditora());
+        comando.setInt(6, livro.getAnoPublicacao());
+        comando.setInt(7, livro.isDisponivel() ? 1 : 0);
+        comando.setString(8, RepositorioMemoria.chaveLivro(livro.getIsbnNormalizado()));
+    }
+
+    private static void preencherInclusaoUsuario(PreparedStatement comando, Usuario usuario) throws SQLException {
+        comando.setString(1, RepositorioMemoria.chaveUsuario(usuario.getId()));
+        preencherDadosUsuario(comando, 2, usuario);
+    }
+
+    private static void preencherAtualizacaoUsuario(PreparedStatement comando, Usuario usuario) throws SQLException {
+        preencherDadosUsuario(comando, 1, usuario);
+        comando.setString(9, RepositorioMemoria.chaveUsuario(usuario.getId()));
+    }
+
+    private static void preencherDadosUsuario(PreparedStatement comando, int primeira, Usuario usuario)
+            throws SQLException {
+        comando.setString(primeira, usuario.getNome());
+        comando.setString(primeira + 1, usuario.getEmail());
+        comando.setString(primeira + 2, usuario.getTelefone());
+        comando.setInt(primeira + 3, usuario.getLimiteEmprestimos());
+        comando.setInt(primeira + 4, usuario.isAtivo() ? 1 : 0);
+        comando.setString(primeira + 5, usuario.getCategoria());
+        comando.setLong(primeira + 6, usuario.getSaldoDevedorCentavos());
+        comando.setLong(primeira + 7, Math.round(usuario.getLimiteDebito() * 100));
+    }
+
+    // Leitura
+
+    private static Livro lerLivro(ResultSet resultado) throws SQLException {
+        Livro livro = new Livro(resultado.getString(3), resultado.getString(4), resultado.getString(2),
+                resultado.getString(5), resultado.getInt(7), resultado.getString(6));
+        livro.setDisponivel(resultado.getInt(8) != 0);
+        return livro;
+    }
+
+    private static Usuario lerUsuario(ResultSet resultado) throws SQLException {
+        String id = resultado.getString(1);
+        Usuario usuario = new Usuario(resultado.getString(2), id.isEmpty() ? null : id, resultado.getString(3),
+                resultado.getString(4), resultado.getInt(5));
+        usuario.setAtivo(resultado.getInt(6) != 0);
+        usuario.setCategoria(resultado.getString(7));
+        usuario.ajustarSaldoDevedor(resultado.getLong(8));
+        usuario.setLimiteDebito(resultado.getLong(9) / 100.0);
+        return usuario;
+    }
+
+    /**
+     * Colunas de um empréstimo lidas do banco, antes de resolver usuário e livro
+     */
+    private static class LinhaEmprestimo {
+        private final long id;
+        private final String idUsuario;
+        private final String chaveLivro;
+        private final LocalDate dataEmprestimo;
+        private final LocalDate dataPrevista;
+        private final LocalDate dataDevolucao;
+        private final String status;
+        private final long multaCentavos;
+        private final int renovacoes;
+        private final String observacoes;
+
+        private LinhaEmprestimo(ResultSet resultado) throws SQLException {
+            this.id = resultado.getLong(1);
+            this.idUsuario = resultado.getString(2);
+            this.chaveLivro = resultado.getString(3);
+            this.dataEmprestimo = lerData(resultado, 4);
+            this.dataPrevista = lerData(resultado, 5);
+            this.dataDevolucao = lerData(resultado, 6);
+            this.status = resultado.getString(7);
+            this.multaCentavos = resultado.getLong(8);
+            this.renovacoes = resultado.getInt(9);
+            this.observacoes = resultado.getString(10);
+        }
+    }
+
+    /**
+     * Reconstrói um empréstimo; usuário e livro vêm dos resolvedores ou, se eles não os encontrarem,
+     * das próprias tabelas do repositório
+     */
+    private Emprestimo montarEmprestimo(LinhaEmprestimo linha, Function<String, Usuario> resolverUsuario,
+                                        Function<String, Livro> resolverLivro) {
+        Usuario usuario = resolverUsuario.apply(linha.idUsuario);
+        if (usuario == null) {
+            usuario = buscarUsuarioPorId(linha.idUsuario);
+        }
+        Livro livro = resolverLivro.apply(linha.chaveLivro);
+        if (livro == null) {
+            livro = buscarLivroPorIsbn(linha.chaveLivro);
+        }
+        Emprestimo emprestimo = new Emprestimo();
+        emprestimo.setUsuario(usuario != null ? usuario : new Usuario(null, linha.idUsuario, null, null));
+        emprestimo.setLivro(livro != null ? livro : new Livro(null, null, linha.chaveLivro, null, 0, null));
+        emprestimo.setDataEmprestimo(linha.dataEmprestimo);
+        emprestimo.setDataDevolucaoPrevista(linha.dataPrevista);
+        emprestimo.setDataDevolucao(linha.dataDevolucao);
+        emprestimo.setStatus(linha.status);
+        emprestimo.setMulta(linha.multaCentavos / 100.0);
+        emprestimo.setRenovacoes(linha.renovacoes);
+        emprestimo.setObservacoes(linha.observacoes);
+        return emprestimo;
+    }
+
+    // Métodos auxiliares
+
+    private <T> List<T> consultar(String sql, Leitor<T> leitor, String operacao, Object... parametros) {
+        Connection conexao = obterConexao();
+        try (PreparedStatement comando = conexao.prepareStatement(sql)) {
+            for (int i = 0; i < parametros.length; i++) {
+                comando.setObject(i + 1, parametros[i]);
+            }
+            List<T> lidos = new ArrayList<>();
+            try (ResultSet resultado = comando.executeQuery()) {
+                while (resultado.next()) {
+                    lidos.add(leitor.ler(resultado));
+                }
+            }
+            return lidos;
+        } catch (SQLException e) {
+            throw falha(operacao, e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    /**
+     * Executa uma exclusão por chave para cada chave, em transações de até TAMANHO_LOTE registros
+     */
+    private void removerEmLotes(String sql, List<String> chaves, String operacao) {
+        if (chaves.isEmpty()) {
+            return;
+        }
+        Connection conexao = obterConexao();
+        try (PreparedStatement comando = conexao.prepareStatement(sql)) {
+            conexao.setAutoCommit(false);
+            for (int inicio = 0; inicio < chaves.size(); inicio += TAMANHO_LOTE) {
+                for (String chave : chaves.subList(inicio, Math.min(chaves.size(), inicio + TAMANHO_LOTE))) {
+                    comando.setString(1, chave);
+                    comando.addBatch();
+                }
+                comando.executeBatch();
+                conexao.commit();
+            }
+        } catch (SQLException e) {
+            throw falha(operacao, e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    private int executarAlteracao(String sql, String chave, String operacao) {
+        Connection conexao = obterConexao();
+        try (PreparedStatement comando = conexao.prepareStatement(sql)) {
+            comando.setString(1, chave);
+            return comando.executeUpdate();
+        } catch (SQLException e) {
+            throw falha(operacao, e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    private int contar(String sql) {
+        Connection conexao = obterConexao();
+        try (Statement comando = conexao.createStatement(); ResultSet resultado = comando.executeQuery(sql)) {
+            return resultado.next() ? resultado.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw falha("contar registros", e);
+        } finally {
+            pool.devolver(conexao);
+        }
+    }
+
+    private Connection obterConexao() {
+        try {
+            return pool.obter();
+        } catch (SQLException e) {
+            throw falha("obter conexão", e);
+        }
+    }
+
+    private static void definirData(PreparedStatement comando, int coluna, LocalDate data) throws SQLException {
+        if (data == null) {
+            comando.setNull(coluna, Types.BIGINT);
+        } else {
+            comando.setLong(coluna, data.toEpochDay());
+        }
+    }
+
+    private static LocalDate lerData(ResultSet resultado, int coluna) throws SQLException {
+        long dia = resultado.getLong(coluna);
+        return resultado.wasNull() ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    private static IllegalStateException falha(String operacao, SQLException e) {
+        return new IllegalStateException("Falha ao " + operacao + " no banco de dados: " + e.getMessage(), e);
+    }
+}
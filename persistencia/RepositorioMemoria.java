@@ -0,0 +1,190 @@
+package persistencia;
+
+import models.Emprestimo;
+import models.Isbn;
+import models.Livro;
+import models.Usuario;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Repositório em memória: guarda as próprias instâncias recebidas, ordenadas pela chave
+ * É o repositório padrão do BibliotecaManager. Empréstimos devolvidos deixam de ser guardados,
+ * pois o histórico fica no arquivo de empréstimos do gerenciador
+ */
+public class RepositorioMemoria implements RepositorioBiblioteca {
+    private final TreeMap<String, Livro> livros;
+    private final TreeMap<String, Usuario> usuarios;
+    private final Set<Emprestimo> emprestimosEmAberto;
+
+    /**
+     * Construtor padrão (repositório vazio)
+     */
+    public RepositorioMemoria() {
+        this.livros = new TreeMap<>();
+        this.usuarios = new TreeMap<>();
+        this.emprestimosEmAberto = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    // Livros
+
+    @Override
+    public synchronized void salvarLivro(Livro livro) {
+        livros.put(chaveLivro(livro.getIsbnNormalizado()), livro);
+    }
+
+    @Override
+    public synchronized void salvarLivros(Collection<Livro> novosLivros) {
+        for (Livro livro : novosLivros) {
+            salvarLivro(livro);
+        }
+    }
+
+    @Override
+    public synchronized boolean removerLivro(String isbn) {
+        return livros.remove(chaveLivro(Isbn.normalizar(isbn))) != null;
+    }
+
+    @Override
+    public synchronized void removerLivros(Collection<String> isbns) {
+        for (String isbn : isbns) {
+            removerLivro(isbn);
+        }
+    }
+
+    @Override
+    public synchronized Livro buscarLivroPorIsbn(String isbn) {
+        return livros.get(chaveLivro(Isbn.normalizar(isbn)));
+    }
+
+    @Override
+    public synchronized List<Livro> buscarLivrosPorAutor(String autor) {
+        List<Livro> resultado = new ArrayList<>();
+        for (Livro livro : livros.values()) {
+            if (autor != null && autor.equals(livro.getAutor())) {
+                resultado.add(livro);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public synchronized List<Livro> listarLivros(String aposIsbn, int limite) {
+        Map<String, Livro> restantes = aposIsbn == null ? livros : livros.tailMap(aposIsbn, false);
+        return primeiros(restantes.values(), limite);
+    }
+
+    @Override
+    public synchronized int contarLivros() {
+        return livros.size();
+    }
+
+    // Usuários
+
+    @Override
+    public synchronized void salvarUsuario(Usuario usuario) {
+        usuarios.put(chaveUsuario(usuario.getId()), usuario);
+    }
+
+    @Override
+    public synchronized void salvarUsuarios(Collection<Usuario> novosUsuarios) {
+        for (Usuario usuario : novosUsuarios) {
+            salvarUsuario(usuario);
+        }
+    }
+
+    @Override
+    public synchronized boolean removerUsuario(String id) {
+        return usuarios.remove(chaveUsuario(id)) != null;
+    }
+
+    @Override
+    public synchronized void removerUsuarios(Collection<String> ids) {
+        for (String id : ids) {
+            removerUsuario(id);
+        }
+    }
+
+    @Override
+    public synchronized Usuario buscarUsuarioPorId(String id) {
+        return usuarios.get(chaveUsuario(id));
+    }
+
+    @Override
+    public synchronized List<Usuario> listarUsuarios(String aposId, int limite) {
+        Map<String, Usuario> restantes = aposId == null ? usuarios : usuarios.tailMap(aposId, false);
+        return primeiros(restantes.values(), limite);
+    }
+
+    @Override
+    public synchronized int contarUsuarios() {
+        return usuarios.size();
+    }
+
+    // Empréstimos
+
+    @Override
+    public synchronized void salvarEmprestimo(Emprestimo emprestimo) {
+        if (emprestimo.foiDevolvido()) {
+            emprestimosEmAberto.remove(emprestimo);
+        } else {
+            emprestimosEmAberto.add(emprestimo);
+        }
+    }
+
+    /**
+     * Lista os empréstimos em aberto guardados (as próprias instâncias, sem usar os resolvedores)
+     */
+    @Override
+    public synchronized List<Emprestimo> listarEmprestimosEmAberto(Function<String, Usuario> resolverUsuario,
+                                                                   Function<String, Livro> resolverLivro) {
+        List<Emprestimo> resultado = new ArrayList<>(emprestimosEmAberto);
+        resultado.sort((a, b) -> a.getDataDevolucaoPrevista().compareTo(b.getDataDevolucaoPrevista()));
+        return resultado;
+    }
+
+    @Override
+    public synchronized int contarEmprestimosEmAberto() {
+        return emprestimosEmAberto.size();
+    }
+
+    @Override
+    public void close() {
+        // Nada a liberar
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Chave de um livro no repositório (livros sem ISBN ficam sob a chave vazia)
+     */
+    static String chaveLivro(String isbnNormalizado) {
+        return isbnNormalizado == null ? "" : isbnNormalizado;
+    }
+
+    /**
+     * Chave de um usuário no repositório (usuários sem ID ficam sob a chave vazia)
+     */
+    static String chaveUsuario(String id) {
+        return id == null ? "" : id;
+    }
+
+    private static <T> List<T> primeiros(Collection<T> valores, int limite) {
+        List<T> resultado = new ArrayList<>(Math.min(limite, valores.size()));
+        for (T valor : valores) {
+            if (resultado.size() >= limite) {
+                break;
+            }
+            resultado.add(valor);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,230 @@
+package simulacao;
+
+import models.Emprestimo;
+import models.LancamentoMulta;
+import models.Livro;
+import models.PoliticaEmprestimo;
+import models.Usuario;
+import persistencia.CodificadorBinario;
+import persistencia.DecodificadorBinario;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Confere a ida e volta do formato binário e mede a vazão de codificação e decodificação
+ * Um catálogo fictício (livros, usuários, empréstimos em aberto e devolvidos e lançamentos de multas)
+ * é codificado e decodificado, e cada campo de cada registro é comparado com o original.
+ * Termina com código de saída 1 se algum campo não voltar igual.
+ * Uso:
+ *   [livros usuarios rodadas]
+ *       a primeira rodada de medição serve de aquecimento
+ */
+public class BenchmarkCodificador {
+    private static final String[] STATUS = {Emprestimo.STATUS_ATIVO, Emprestimo.STATUS_ATRASADO, Emprestimo.STATUS_DEVOLVIDO};
+    private static final String[] CATEGORIAS = {Usuario.CATEGORIA_PADRAO, "ALUNO", "PROFESSOR"};
+
+    private static int divergencias;
+
+    public static void main(String[] args) {
+        int quantidadeLivros = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int quantidadeUsuarios = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int rodadas = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        GeradorCarga gerador = new GeradorCarga(42);
+        gerador.setQuantidadeLivros(quantidadeLivros);
+        gerador.setQuantidadeUsuarios(quantidadeUsuarios);
+        List<Livro> livros = gerador.criarLivros();
+        List<Usuario> usuarios = gerador.criarUsuarios();
+        List<Emprestimo> emprestimos = new ArrayList<>();
+        List<LancamentoMulta> lancamentos = new ArrayList<>();
+        preencher(livros, usuarios, emprestimos, lancamentos, new Random(7));
+        int registros = livros.size() + usuarios.size() + emprestimos.size() + lancamentos.size();
+
+        // Ida e volta, campo a campo
+        ByteBuffer dados = codificar(livros, usuarios, emprestimos, lancamentos);
+        int tamanho = dados.remaining();
+        conferir(new DecodificadorBinario(dados), livros, usuarios, emprestimos, lancamentos);
+        System.out.printf("Ida e volta: %d registros em %d bytes (%.1f bytes/registro), %d divergências%n",
+                registros, tamanho, (double) tamanho / registros, divergencias);
+
+        for (int rodada = 1; rodada <= rodadas; rodada++) {
+            long inicio = System.nanoTime();
+            dados = codificar(livros, usuarios, emprestimos, lancamentos);
+            long nanosCodificacao = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            int lidos = decodificarTudo(new DecodificadorBinario(dados));
+            long nanosDecodificacao = System.nanoTime() - inicio;
+
+            System.out.printf("Rodada %d%s: codificação %.0f registros/s %.1f MB/s | decodificação %.0f registros/s %.1f MB/s%n",
+                    rodada, rodada == 1 ? " (aquecimento)" : "",
+                    registros * 1e9 / nanosCodificacao, tamanho * 1e3 / nanosCodificacao,
+                    lidos * 1e9 / nanosDecodificacao, tamanho * 1e3 / nanosDecodificacao);
+        }
+        if (divergencias > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Preenche os campos que o gerador deixa no padrão e cria empréstimos e lançamentos com valores variados
+     */
+    private static void preencher(List<Livro> livros, List<Usuario> usuarios, List<Emprestimo> emprestimos,
+                                  List<LancamentoMulta> lancamentos, Random aleatorio) {
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        for (Livro livro : livros) {
+            livro.setDisponivel(aleatorio.nextInt(4) != 0);
+        }
+        for (Usuario usuario : usuarios) {
+            usuario.setAtivo(aleatorio.nextInt(10) != 0);
+            usuario.setCategoria(CATEGORIAS[aleatorio.nextInt(CATEGORIAS.length)]);
+            usuario.ajustarSaldoDevedor(aleatorio.nextInt(5000));
+            usuario.setLimiteDebito(aleatorio.nextInt(10_000) / 100.0);
+        }
+        PoliticaEmprestimo[] politicas = {
+                PoliticaEmprestimo.PADRAO,
+                new PoliticaEmprestimo(30, 0.125, 20.0, 5, 10),
+                new PoliticaEmprestimo(7, 1.0 / 3, 0.0, 0, 1)
+        };
+        for (int i = 0; i < livros.size() / 2; i++) {
+            Usuario usuario = usuarios.get(aleatorio.nextInt(usuarios.size()));
+            LocalDate data = base.plusDays(aleatorio.nextInt(700));
+            PoliticaEmprestimo politica = politicas[aleatorio.nextInt(politicas.length)];
+            Emprestimo emprestimo = new Emprestimo(usuario, livros.get(i), data, politica);
+            emprestimo.setStatus(STATUS[aleatorio.nextInt(STATUS.length)]);
+            if (emprestimo.foiDevolvido()) {
+                emprestimo.setDataDevolucao(data.plusDays(aleatorio.nextInt(60)));
+                emprestimo.setMulta(aleatorio.nextInt(3000) / 100.0);
+            }
+            emprestimo.setRenovacoes(aleatorio.nextInt(politica.getMaxRenovacoes() + 1));
+            if (aleatorio.nextInt(5) == 0) {
+                emprestimo.setObservacoes("Observação " + i);
+            }
+            emprestimos.add(emprestimo);
+        }
+        for (int i = 0; i < usuarios.size(); i++) {
+            Usuario usuario = usuarios.get(aleatorio.nextInt(usuarios.size()));
+            LocalDate data = base.plusDays(aleatorio.nextInt(700));
+            if (aleatorio.nextBoolean()) {
+                lancamentos.add(new LancamentoMulta(LancamentoMulta.TIPO_MULTA, usuario, 1 + aleatorio.nextInt(5000),
+                        data, livros.get(aleatorio.nextInt(livros.size())).getTitulo(), 1 + aleatorio.nextInt(90)));
+            } else {
+                lancamentos.add(new LancamentoMulta(LancamentoMulta.TIPO_PAGAMENTO, usuario, 1 + aleatorio.nextInt(5000),
+                        data, null, 0));
+            }
+        }
+    }
+
+    private static ByteBuffer codificar(List<Livro> livros, List<Usuario> usuarios, List<Emprestimo> emprestimos,
+                                        List<LancamentoMulta> lancamentos) {
+        CodificadorBinario codificador = new CodificadorBinario();
+        for (Livro livro : livros) {
+            codificador.escreverLivro(livro);
+        }
+        for (Usuario usuario : usuarios) {
+            codificador.escreverUsuario(usuario);
+        }
+        for (Emprestimo emprestimo : emprestimos) {
+            codificador.escreverEmprestimo(emprestimo);
+        }
+        for (LancamentoMulta lancamento : lancamentos) {
+            codificador.escreverLancamento(lancamento);
+        }
+        return codificador.finalizar();
+    }
+
+    private static int decodificarTudo(DecodificadorBinario decodificador) {
+        int lidos = 0;
+        while (decodificador.temProximo()) {
+            int tipo = decodificador.proximoTipo();
+            if (tipo == CodificadorBinario.TIPO_LIVRO) {
+                decodificador.lerLivro();
+            } else if (tipo == CodificadorBinario.TIPO_USUARIO) {
+                decodificador.lerUsuario();
+            } else if (tipo == CodificadorBinario.TIPO_EMPRESTIMO) {
+                decodificador.lerEmprestimo();
+            } else {
+                decodificador.lerLancamento();
+            }
+            lidos++;
+        }
+        return lidos;
+    }
+
+    private static void conferir(DecodificadorBinario decodificador, List<Livro> livros, List<Usuario> usuarios,
+                                 List<Emprestimo> emprestimos, List<LancamentoMulta> lancamentos) {
+        for (Livro original : livros) {
+            Livro lido = decodificador.lerLivro();
+            String registro = "livro " + original.getIsbn();
+            comparar(registro, "titulo", original.getTitulo(), lido.getTitulo());
+            comparar(registro, "autor", original.getAutor(), lido.getAutor());
+            comparar(registro, "isbn", original.getIsbn(), lido.getIsbn());
+            comparar(registro, "genero", original.getGenero(), lido.getGenero());
+            comparar(registro, "anoPublicacao", original.getAnoPublicacao(), lido.getAnoPublicacao());
+            comparar(registro, "editora", original.getEditora(), lido.getEditora());
+            comparar(registro, "disponivel", original.isDisponivel(), lido.isDisponivel());
+        }
+        for (Usuario original : usuarios) {
+            Usuario lido = decodificador.lerUsuario();
+            String registro = "usuário " + original.getId();
+            comparar(registro, "nome", original.getNome(), lido.getNome());
+            comparar(registro, "id", original.getId(), lido.getId());
+            comparar(registro, "email", original.getEmail(), lido.getEmail());
+            comparar(registro, "telefone", original.getTelefone(), lido.getTelefone());
+            comparar(registro, "limiteEmprestimos", original.getLimiteEmprestimos(), lido.getLimiteEmprestimos());
+            comparar(registro, "ativo", original.isAtivo(), lido.isAtivo());
+            comparar(registro, "categoria", original.getCategoria(), lido.getCategoria());
+            comparar(registro, "saldoDevedor", original.getSaldoDevedorCentavos(), lido.getSaldoDevedorCentavos());
+            comparar(registro, "limiteDebito", original.getLimiteDebito(), lido.getLimiteDebito());
+        }
+        for (Emprestimo original : emprestimos) {
+            Emprestimo lido = decodificador.lerEmprestimo();
+            String registro = "empréstimo " + original.getUsuario().getId() + "/" + original.getLivro().getIsbn();
+            comparar(registro, "usuario", original.getUsuario().getId(), lido.getUsuario().getId());
+            comparar(registro, "livro", original.getLivro().getIsbn(), lido.getLivro().getIsbn());
+            comparar(registro, "dataEmprestimo", original.getDataEmprestimo(), lido.getDataEmprestimo());
+            comparar(registro, "dataDevolucaoPrevista", original.getDataDevolucaoPrevista(), lido.getDataDevolucaoPrevista());
+            comparar(registro, "dataDevolucao", original.getDataDevolucao(), lido.getDataDevolucao());
+            comparar(registro, "status", original.getStatus(), lido.getStatus());
+            comparar(registro, "multa", original.getMulta(), lido.getMulta());
+            comparar(registro, "observacoes", original.getObservacoes(), lido.getObservacoes());
+            comparar(registro, "renovacoes", original.getRenovacoes(), lido.getRenovacoes());
+            PoliticaEmprestimo politica = original.getPolitica();
+            PoliticaEmprestimo politicaLida = lido.getPolitica();
+            comparar(registro, "politica.prazoDias", politica.getPrazoDias(), politicaLida.getPrazoDias());
+            comparar(registro, "politica.multaPorDia", politica.getMultaPorDia(), politicaLida.getMultaPorDia());
+            comparar(registro, "politica.multaMaxima", politica.getMultaMaxima(), politicaLida.getMultaMaxima());
+            comparar(registro, "politica.maxRenovacoes", politica.getMaxRenovacoes(), politicaLida.getMaxRenovacoes());
+            comparar(registro, "politica.limiteEmprestimos", politica.getLimiteEmprestimos(), politicaLida.getLimiteEmprestimos());
+        }
+        for (LancamentoMulta original : lancamentos) {
+            LancamentoMulta lido = decodificador.lerLancamento();
+            String registro = "lançamento " + original.getUsuario().getId() + " " + original.getData();
+            comparar(registro, "tipo", original.getTipo(), lido.getTipo());
+            comparar(registro, "usuario", original.getUsuario().getId(), lido.getUsuario().getId());
+            comparar(registro, "valor", original.getValorCentavos(), lido.getValorCentavos());
+            comparar(registro, "data", original.getData(), lido.getData());
+            comparar(registro, "tituloLivro", original.getTituloLivro(), lido.getTituloLivro());
+            comparar(registro, "diasAtraso", original.getDiasAtraso(), lido.getDiasAtraso());
+        }
+        if (decodificador.temProximo()) {
+            System.out.println("Registros sobrando após a conferência");
+            divergencias++;
+        }
+    }
+
+    private static void comparar(String registro, String campo, Object original, Object lido) {
+        if (!Objects.equals(original, lido)) {
+            // Apenas as primeiras divergências são listadas
+            if (divergencias < 20) {
+                System.out.println("Divergência em " + registro + ", campo " + campo + ": " + original + " -> " + lido);
+            }
+            divergencias++;
+        }
+    }
+}
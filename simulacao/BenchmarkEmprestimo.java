@@ -0,0 +1,73 @@
+package simulacao;
+
+import managers.BibliotecaManager;
+import models.Livro;
+import models.Usuario;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Mede o custo de empréstimo e devolução no gerenciador: tempo e bytes alocados por operação
+ * Os bytes vêm do contador de alocação da própria thread (com.sun.management.ThreadMXBean),
+ * lido antes e depois de cada chamada. Em regime, o empréstimo deve alocar apenas o objeto
+ * Emprestimo, e a devolução apenas o crescimento amortizado da lista do histórico.
+ * Uso:
+ *   [operacoes rodadas]
+ *       povoa um catálogo fictício e executa as rodadas (a primeira serve de aquecimento)
+ */
+public class BenchmarkEmprestimo {
+
+    public static void main(String[] args) {
+        int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rodadas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("A JVM não informa os bytes alocados por thread");
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        GeradorCarga gerador = new GeradorCarga(42);
+        BibliotecaManager biblioteca = BibliotecaManager.getInstancia();
+        gerador.povoar(biblioteca);
+        List<Livro> livros = biblioteca.getLivros();
+        List<Usuario> usuarios = biblioteca.getUsuarios();
+
+        for (int rodada = 1; rodada <= rodadas; rodada++) {
+            long realizados = 0;
+            long bytesEmprestimo = 0;
+            long bytesDevolucao = 0;
+            long nanosEmprestimo = 0;
+            long nanosDevolucao = 0;
+            for (int i = 0; i < operacoes; i++) {
+                Usuario usuario = usuarios.get(i % usuarios.size());
+                Livro livro = livros.get((int) ((i * 7L) % livros.size()));
+
+                long bytes = threads.getThreadAllocatedBytes(thread);
+                long inicio = System.nanoTime();
+                boolean emprestado = biblioteca.realizarEmprestimo(usuario, livro);
+                nanosEmprestimo += System.nanoTime() - inicio;
+                bytesEmprestimo += threads.getThreadAllocatedBytes(thread) - bytes;
+                if (!emprestado) {
+                    continue;
+                }
+
+                bytes = threads.getThreadAllocatedBytes(thread);
+                inicio = System.nanoTime();
+                biblioteca.realizarDevolucao(usuario, livro);
+                nanosDevolucao += System.nanoTime() - inicio;
+                bytesDevolucao += threads.getThreadAllocatedBytes(thread) - bytes;
+                realizados++;
+            }
+            if (realizados == 0) {
+                System.out.println("Nenhum empréstimo realizado");
+                return;
+            }
+            System.out.printf("Rodada %d%s: %d empréstimos | empréstimo %.1f B/op %d ns/op | devolução %.1f B/op %d ns/op%n",
+                    rodada, rodada == 1 ? " (aquecimento)" : "", realizados,
+                    (double) bytesEmprestimo / realizados, nanosEmprestimo / realizados,
+                    (double) bytesDevolucao / realizados, nanosDevolucao / realizados);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package simulacao;
+
+/**
+ * Operação de uma carga de trabalho, com o instante em que deve acontecer
+ * Objeto imutável. Em arquivo, cada evento ocupa uma linha com os campos separados
+ * por tabulação: instante, tipo, id do usuário e argumento ("-" para campos vazios)
+ */
+public class EventoCarga {
+    // Tipos de evento e o argumento de cada um
+    public static final String TIPO_EMPRESTIMO = "EMPRESTIMO";               // ISBN
+    public static final String TIPO_DEVOLUCAO = "DEVOLUCAO";                 // ISBN
+    public static final String TIPO_RENOVACAO = "RENOVACAO";                 // ISBN
+    public static final String TIPO_PAGAMENTO = "PAGAMENTO";                 // sem argumento (quita o saldo)
+    public static final String TIPO_BUSCA_TITULO = "BUSCA_TITULO";           // título
+    public static final String TIPO_BUSCA_AUTOR = "BUSCA_AUTOR";             // autor
+    public static final String TIPO_BUSCA_APROXIMADA = "BUSCA_APROXIMADA";   // título com erros de digitação
+    public static final String TIPO_CONSULTA_ATRASADOS = "CONSULTA_ATRASADOS"; // sem argumento
+
+    // Todos os tipos, na ordem usada pelos relatórios
+    public static final String[] TIPOS = {
+            TIPO_EMPRESTIMO, TIPO_DEVOLUCAO, TIPO_RENOVACAO, TIPO_PAGAMENTO,
+            TIPO_BUSCA_TITULO, TIPO_BUSCA_AUTOR, TIPO_BUSCA_APROXIMADA, TIPO_CONSULTA_ATRASADOS
+    };
+
+    private static final char SEPARADOR = '\t';
+    private static final String VAZIO = "-";
+
+    private final long instante;
+    private final String tipo;
+    private final String idUsuario;
+    private final String argumento;
+
+    /**
+     * Construtor completo
+     * @param instante Instante da operação, em milissegundos desde 1970-01-01T00:00Z
+     * @param tipo Um dos tipos de TIPOS
+     * @param idUsuario Usuário da operação (null para buscas e consultas)
+     * @param argumento ISBN ou texto buscado, conforme o tipo (null se o tipo não tem argumento)
+     */
+    public EventoCarga(long instante, String tipo, String idUsuario, String argumento) {
+        int indice = indiceTipo(tipo);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Tipo de evento desconhecido: " + tipo);
+        }
+        this.tipo = TIPOS[indice];
+        this.instante = instante;
+        this.idUsuario = idUsuario;
+        this.argumento = argumento;
+    }
+
+    public long getInstante() {
+        return instante;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public String getArgumento() {
+        return argumento;
+    }
+
+    /**
+     * Obtém a posição de um tipo em TIPOS
+     * @param tipo Nome do tipo
+     * @return Posição, ou -1 se o tipo não existe
+     */
+    public static int indiceTipo(String tipo) {
+        for (int i = 0; i < TIPOS.length; i++) {
+            if (TIPOS[i].equals(tipo)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converte o evento em uma linha de trace
+     * Tabulações e quebras de linha dos textos são trocadas por espaços
+     * @return Linha sem o terminador
+     */
+    public String paraLinha() {
+        return instante + String.valueOf(SEPARADOR) + tipo + SEPARADOR + campo(idUsuario) + SEPARADOR + campo(argumento);
+    }
+
+    /**
+     * Lê um evento de uma linha de trace
+     * @param linha Linha no formato de paraLinha
+     * @return Evento lido
+     * @throws IllegalArgumentException se a linha estiver mal formada
+     */
+    public static EventoCarga deLinha(String linha) {
+        String[] campos = linha.split(String.valueOf(SEPARADOR), -1);
+        if (campos.length != 4) {
+            throw new IllegalArgumentException("Linha de trace inválida: " + linha);
+        }
+        long instante;
+        try {
+            instante = Long.parseLong(campos[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Instante inválido: " + campos[0], e);
+        }
+        return new EventoCarga(instante, campos[1], valor(campos[2]), valor(campos[3]));
+    }
+
+    private static String campo(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return VAZIO;
+        }
+        return valor.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static String valor(String campo) {
+        return campo.equals(VAZIO) ? null : campo;
+    }
+
+    /**
+     * Retorna uma representação em string do evento
+     * @return Linha de trace do evento
+     */
+    @Override
+    public String toString() {
+        return paraLinha();
+    }
+}
@@ -0,0 +1,470 @@
+package simulacao;
+
+import managers.BibliotecaManager;
+import models.Livro;
+import models.PoliticaEmprestimo;
+import models.Usuario;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gerador determinístico de cargas de trabalho sintéticas para a biblioteca
+ * A partir de uma semente, cria um catálogo e usuários fictícios e uma sequência de eventos
+ * dia a dia: empréstimos com popularidade de Zipf, devoluções no prazo ou em atraso, renovações,
+ * pagamentos de multas, buscas por título, autor e com erros de digitação, e a consulta diária
+ * de atrasos. A mesma semente e a mesma configuração produzem sempre os mesmos dados.
+ * O gerador acompanha quais livros estão emprestados e quantos empréstimos cada usuário tem,
+ * para que as devoluções e renovações correspondam a empréstimos feitos antes
+ */
+public class GeradorCarga {
+    private static final String[] PALAVRAS_TITULO = {
+            "Sombra", "Vento", "Jardim", "Cidade", "Noite", "Mar", "Estrela", "Segredo", "Memória",
+            "Caminho", "Silêncio", "Fogo", "Rio", "Tempo", "Casa", "Ilha", "Espelho", "Floresta",
+            "Viagem", "Guerra", "Sonho", "Labirinto", "Montanha", "Coração", "Herança", "Promessa",
+            "Algoritmo", "Código", "Destino", "Horizonte", "Relógio", "Biblioteca"
+    };
+    private static final String[] CONECTORES = {"do", "da", "de", "e o", "e a", "sem", "sobre o", "além da"};
+    private static final String[] NOMES = {
+            "Ana", "Bruno", "Carla", "Diego", "Elisa", "Fábio", "Gabriela", "Heitor", "Isabel", "João",
+            "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sofia", "Tiago", "Vera", "Yuri"
+    };
+    private static final String[] SOBRENOMES = {
+            "Almeida", "Barbosa", "Cardoso", "Duarte", "Esteves", "Ferreira", "Gomes", "Henriques",
+            "Lima", "Machado", "Nogueira", "Oliveira", "Pereira", "Queiroz", "Rocha", "Santos",
+            "Teixeira", "Vieira"
+    };
+    private static final String[] GENEROS = {
+            "Romance", "Fantasia", "Ficção Científica", "Infantil", "Tecnologia", "História", "Poesia", "Biografia"
+    };
+    private static final String[] EDITORAS = {
+            "Companhia das Letras", "Rocco", "Record", "Intrínseca", "Alta Books", "Nova Fronteira"
+    };
+
+    // Janelas do dia, em horas: devoluções e renovações pela manhã, empréstimos e buscas depois
+    private static final int HORA_ABERTURA = 8;
+    private static final int HORA_FIM_DEVOLUCOES = 10;
+    private static final int HORA_FECHAMENTO = 20;
+    private static final long MILLIS_POR_HORA = 3_600_000L;
+    // Tentativas de encontrar um usuário com espaço para mais um empréstimo
+    private static final int TENTATIVAS_USUARIO = 5;
+
+    private final long semente;
+    private int quantidadeLivros;
+    private int quantidadeUsuarios;
+    private int dias;
+    private int emprestimosPorDia;
+    private double expoenteZipf;
+    private double buscasPorEmprestimo;
+    private double probabilidadeAtraso;
+    private double diasAtrasoMedio;
+    private double probabilidadeRenovacao;
+    private double probabilidadePagamento;
+    private int prazoDias;
+    private int limiteEmprestimosUsuario;
+    private LocalDate dataInicial;
+
+    // Catálogo fictício, gerado uma vez a partir da semente
+    private String[] titulos;
+    private String[] autores;
+    private String[] isbns;
+
+    /**
+     * Devolução ou renovação agendada para um dia da simulação
+     */
+    private static class Agendamento {
+        private final String tipo;
+        private final int usuario;
+        private final int livro;
+        private final boolean atrasado;
+
+        private Agendamento(String tipo, int usuario, int livro, boolean atrasado) {
+            this.tipo = tipo;
+            this.usuario = usuario;
+            this.livro = livro;
+            this.atrasado = atrasado;
+        }
+    }
+
+    /**
+     * Construtor com a configuração padrão: 10.000 livros, 2.000 usuários, 30 dias
+     * e 500 empréstimos por dia
+     * @param semente Semente de todos os sorteios
+     */
+    public GeradorCarga(long semente) {
+        this.semente = semente;
+        this.quantidadeLivros = 10_000;
+        this.quantidadeUsuarios = 2_000;
+        this.dias = 30;
+        this.emprestimosPorDia = 500;
+        this.expoenteZipf = 1.0;
+        this.buscasPorEmprestimo = 3.0;
+        this.probabilidadeAtraso = 0.15;
+        this.diasAtrasoMedio = 5;
+        this.probabilidadeRenovacao = 0.2;
+        this.probabilidadePagamento = 0.8;
+        this.prazoDias = PoliticaEmprestimo.PADRAO.getPrazoDias();
+        this.limiteEmprestimosUsuario = 3;
+        this.dataInicial = LocalDate.of(2024, 1, 1);
+    }
+
+    // Configuração (deve ser feita antes de criar o catálogo ou gerar os eventos)
+
+    public void setQuantidadeLivros(int quantidadeLivros) {
+        if (quantidadeLivros <= 0) {
+            throw new IllegalArgumentException("Quantidade de livros deve ser positiva");
+        }
+        this.quantidadeLivros = quantidadeLivros;
+        this.titulos = null;
+    }
+
+    public void setQuantidadeUsuarios(int quantidadeUsuarios) {
+        if (quantidadeUsuarios <= 0) {
+            throw new IllegalArgumentException("Quantidade de usuários deve ser positiva");
+        }
+        this.quantidadeUsuarios = quantidadeUsuarios;
+    }
+
+    public void setDias(int dias) {
+        this.dias = dias;
+    }
+
+    public void setEmprestimosPorDia(int emprestimosPorDia) {
+        this.emprestimosPorDia = emprestimosPorDia;
+    }
+
+    /**
+     * @param expoenteZipf Concentração da popularidade dos livros (0 para uniforme)
+     */
+    public void setExpoenteZipf(double expoenteZipf) {
+        this.expoenteZipf = expoenteZipf;
+    }
+
+    /**
+     * @param buscasPorEmprestimo Quantidade média de buscas para cada empréstimo do dia
+     */
+    public void setBuscasPorEmprestimo(double buscasPorEmprestimo) {
+        this.buscasPorEmprestimo = buscasPorEmprestimo;
+    }
+
+    /**
+     * @param probabilidadeAtraso Fração dos empréstimos devolvidos depois do prazo
+     * @param diasAtrasoMedio Média dos dias de atraso desses empréstimos (distribuição geométrica)
+     */
+    public void setAtrasos(double probabilidadeAtraso, double diasAtrasoMedio) {
+        if (diasAtrasoMedio < 1) {
+            throw new IllegalArgumentException("A média de dias de atraso deve ser de pelo menos 1 dia");
+        }
+        this.probabilidadeAtraso = probabilidadeAtraso;
+        this.diasAtrasoMedio = diasAtrasoMedio;
+    }
+
+    public void setProbabilidadeRenovacao(double probabilidadeRenovacao) {
+        this.probabilidadeRenovacao = probabilidadeRenovacao;
+    }
+
+    /**
+     * @param probabilidadePagamento Chance de o usuário quitar o saldo ao devolver um livro atrasado
+     */
+    public void setProbabilidadePagamento(double probabilidadePagamento) {
+        this.probabilidadePagamento = probabilidadePagamento;
+    }
+
+    /**
+     * @param prazoDias Prazo dos empréstimos; deve ser o mesmo da política usada na reprodução
+     */
+    public void setPrazoDias(int prazoDias) {
+        if (prazoDias <= 0) {
+            throw new IllegalArgumentException("Prazo deve ser positivo");
+        }
+        this.prazoDias = prazoDias;
+    }
+
+    public void setLimiteEmprestimosUsuario(int limiteEmprestimosUsuario) {
+        this.limiteEmprestimosUsuario = limiteEmprestimosUsuario;
+    }
+
+    public void setDataInicial(LocalDate dataInicial) {
+        this.dataInicial = dataInicial;
+    }
+
+    public LocalDate getDataInicial() {
+        return dataInicial;
+    }
+
+    // Catálogo fictício
+
+    /**
+     * Cria os livros do catálogo fictício, com ISBN-13 válidos e distintos
+     * @return Novos livros, sempre os mesmos para a mesma semente
+     */
+    public List<Livro> criarLivros() {
+        prepararCatalogo();
+        Random aleatorio = new Random(semente + 1);
+        List<Livro> livros = new ArrayList<>(quantidadeLivros);
+        for (int i = 0; i < quantidadeLivros; i++) {
+            livros.add(new Livro(titulos[i], autores[i], isbns[i], GENEROS[aleatorio.nextInt(GENEROS.length)],
+                    1900 + aleatorio.nextInt(125), EDITORAS[aleatorio.nextInt(EDITORAS.length)]));
+        }
+        return livros;
+    }
+
+    /**
+     * Cria os usuários fictícios, com ids "U0000001", "U0000002"...
+     * @return Novos usuários, sempre os mesmos para a mesma semente
+     */
+    public List<Usuario> criarUsuarios() {
+        Random aleatorio = new Random(semente + 2);
+        List<Usuario> usuarios = new ArrayList<>(quantidadeUsuarios);
+        for (int i = 0; i < quantidadeUsuarios; i++) {
+            String nome = NOMES[aleatorio.nextInt(NOMES.length)] + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+            usuarios.add(new Usuario(nome, idUsuario(i), "usuario" + (i + 1) + "@exemplo.com",
+                    String.format("(11) 9%04d-%04d", aleatorio.nextInt(10_000), aleatorio.nextInt(10_000)),
+                    limiteEmprestimosUsuario));
+        }
+        return usuarios;
+    }
+
+    /**
+     * Cadastra o catálogo e os usuários fictícios na biblioteca
+     * @param biblioteca Gerenciador que receberá os dados
+     */
+    public void povoar(BibliotecaManager biblioteca) {
+        biblioteca.adicionarLivros(criarLivros());
+        for (Usuario usuario : criarUsuarios()) {
+            biblioteca.adicionarUsuario(usuario);
+        }
+    }
+
+    // Eventos
+
+    /**
+     * Gera os eventos de todos os dias da simulação
+     * @return Eventos em ordem de instante
+     */
+    public List<EventoCarga> gerar() {
+        prepararCatalogo();
+        Random aleatorio = new Random(semente + 3);
+        GeradorZipf popularidade = new GeradorZipf(quantidadeLivros, expoenteZipf, aleatorio);
+
+        // A posição de popularidade não coincide com a ordem de cadastro dos livros
+        int[] livroDaPosicao = new int[quantidadeLivros];
+        for (int i = 0; i < quantidadeLivros; i++) {
+            livroDaPosicao[i] = i;
+        }
+        for (int i = quantidadeLivros - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int troca = livroDaPosicao[i];
+            livroDaPosicao[i] = livroDaPosicao[j];
+            livroDaPosicao[j] = troca;
+        }
+
+        boolean[] emprestado = new boolean[quantidadeLivros];
+        int[] emprestimosDoUsuario = new int[quantidadeUsuarios];
+        List<List<Agendamento>> agenda = new ArrayList<>(dias);
+        for (int d = 0; d < dias; d++) {
+            agenda.add(new ArrayList<>());
+        }
+
+        List<EventoCarga> eventos = new ArrayList<>();
+        List<EventoCarga> doDia = new ArrayList<>();
+        for (int dia = 0; dia < dias; dia++) {
+            long inicioDia = dataInicial.plusDays(dia).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            doDia.clear();
+
+            // Manhã: renovações e devoluções agendadas
+            for (Agendamento agendamento : agenda.get(dia)) {
+                long instante = inicioDia + horario(aleatorio, HORA_ABERTURA, HORA_FIM_DEVOLUCOES);
+                String idUsuario = idUsuario(agendamento.usuario);
+                doDia.add(new EventoCarga(instante, agendamento.tipo, idUsuario, isbns[agendamento.livro]));
+                if (agendamento.tipo.equals(EventoCarga.TIPO_DEVOLUCAO)) {
+                    emprestado[agendamento.livro] = false;
+                    emprestimosDoUsuario[agendamento.usuario]--;
+                    if (agendamento.atrasado && aleatorio.nextDouble() < probabilidadePagamento) {
+                        doDia.add(new EventoCarga(instante + 1000, EventoCarga.TIPO_PAGAMENTO, idUsuario, null));
+                    }
+                }
+            }
+            agenda.set(dia, null); // libera o dia já processado
+
+            // Restante do dia: empréstimos, com uma variação de 20% para mais ou para menos
+            int quantidadeEmprestimos = (int) Math.round(emprestimosPorDia * (0.8 + 0.4 * aleatorio.nextDouble()));
+            for (int n = 0; n < quantidadeEmprestimos; n++) {
+                long instante = inicioDia + horario(aleatorio, HORA_FIM_DEVOLUCOES, HORA_FECHAMENTO);
+                int usuario = sortearUsuarioComEspaco(aleatorio, emprestimosDoUsuario);
+                if (usuario < 0) {
+                    continue;
+                }
+                int livro = livroDaPosicao[popularidade.proximo()];
+                if (emprestado[livro]) {
+                    // O leitor procura o livro e o encontra emprestado
+                    doDia.add(new EventoCarga(instante, EventoCarga.TIPO_BUSCA_TITULO, null, titulos[livro]));
+                    continue;
+                }
+                doDia.add(new EventoCarga(instante, EventoCarga.TIPO_EMPRESTIMO, idUsuario(usuario), isbns[livro]));
+                emprestado[livro] = true;
+                emprestimosDoUsuario[usuario]++;
+                agendarFimDoEmprestimo(aleatorio, agenda, dia, usuario, livro);
+            }
+
+            // Buscas: metade por título, um quinto por autor e o restante com erros de digitação
+            int quantidadeBuscas = (int) Math.round(quantidadeEmprestimos * buscasPorEmprestimo);
+            for (int n = 0; n < quantidadeBuscas; n++) {
+                long instante = inicioDia + horario(aleatorio, HORA_FIM_DEVOLUCOES, HORA_FECHAMENTO);
+                int livro = livroDaPosicao[popularidade.proximo()];
+                double sorteio = aleatorio.nextDouble();
+                if (sorteio < 0.5) {
+                    doDia.add(new EventoCarga(instante, EventoCarga.TIPO_BUSCA_TITULO, null, titulos[livro]));
+                } else if (sorteio < 0.7) {
+                    doDia.add(new EventoCarga(instante, EventoCarga.TIPO_BUSCA_AUTOR, null, autores[livro]));
+                } else {
+                    doDia.add(new EventoCarga(instante, EventoCarga.TIPO_BUSCA_APROXIMADA, null,
+                            introduzirErro(aleatorio, titulos[livro])));
+                }
+            }
+
+            // Fechamento: consulta dos atrasos do dia
+            doDia.add(new EventoCarga(inicioDia + HORA_FECHAMENTO * MILLIS_POR_HORA,
+                    EventoCarga.TIPO_CONSULTA_ATRASADOS, null, null));
+
+            doDia.sort((a, b) -> Long.compare(a.getInstante(), b.getInstante()));
+            eventos.addAll(doDia);
+        }
+        return eventos;
+    }
+
+    /**
+     * Obtém o id do usuário fictício de uma posição
+     * @param posicao Posição do usuário (a partir de 0)
+     * @return Id no formato "U0000001"
+     */
+    public static String idUsuario(int posicao) {
+        return String.format("U%07d", posicao + 1);
+    }
+
+    // Métodos auxiliares
+
+    private void prepararCatalogo() {
+        if (titulos != null) {
+            return;
+        }
+        Random aleatorio = new Random(semente);
+        int quantidadeAutores = Math.max(1, quantidadeLivros / 5);
+        String[] nomesAutores = new String[quantidadeAutores];
+        for (int i = 0; i < quantidadeAutores; i++) {
+            nomesAutores[i] = NOMES[aleatorio.nextInt(NOMES.length)] + " "
+                    + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)] + " "
+                    + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+        }
+        titulos = new String[quantidadeLivros];
+        autores = new String[quantidadeLivros];
+        isbns = new String[quantidadeLivros];
+        for (int i = 0; i < quantidadeLivros; i++) {
+            StringBuilder titulo = new StringBuilder();
+            titulo.append(aleatorio.nextBoolean() ? "O " : "A ");
+            titulo.append(PALAVRAS_TITULO[aleatorio.nextInt(PALAVRAS_TITULO.length)]).append(' ');
+            titulo.append(CONECTORES[aleatorio.nextInt(CONECTORES.length)]).append(' ');
+            titulo.append(PALAVRAS_TITULO[aleatorio.nextInt(PALAVRAS_TITULO.length)]);
+            titulos[i] = titulo.toString();
+            autores[i] = nomesAutores[aleatorio.nextInt(quantidadeAutores)];
+            isbns[i] = isbn13(i);
+        }
+    }
+
+    /**
+     * Monta um ISBN-13 válido com prefixo 978 a partir de um número sequencial
+     */
+    private static String isbn13(int numero) {
+        String doze = String.format("978%09d", numero);
+        int soma = 0;
+        for (int i = 0; i < 12; i++) {
+            int digito = doze.charAt(i) - '0';
+            soma += (i % 2 == 0) ? digito : digito * 3;
+        }
+        return doze + (10 - soma % 10) % 10;
+    }
+
+    private int sortearUsuarioComEspaco(Random aleatorio, int[] emprestimosDoUsuario) {
+        for (int tentativa = 0; tentativa < TENTATIVAS_USUARIO; tentativa++) {
+            int usuario = aleatorio.nextInt(quantidadeUsuarios);
+            if (emprestimosDoUsuario[usuario] < limiteEmprestimosUsuario) {
+                return usuario;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Agenda a devolução (e, às vezes, uma renovação antes dela) de um empréstimo feito no dia informado
+     * Devoluções que caem depois do último dia simulado não são agendadas
+     */
+    private void agendarFimDoEmprestimo(Random aleatorio, List<List<Agendamento>> agenda, int dia,
+                                        int usuario, int livro) {
+        boolean renovado = aleatorio.nextDouble() < probabilidadeRenovacao;
+        boolean atrasado = aleatorio.nextDouble() < probabilidadeAtraso;
+        int prazoTotal = renovado ? 2 * prazoDias : prazoDias;
+
+        int diasAteDevolucao;
+        if (atrasado) {
+            diasAteDevolucao = prazoTotal + sortearDiasAtraso(aleatorio);
+        } else if (renovado) {
+            // Renovações só fazem sentido para quem fica com o livro além do primeiro prazo
+            diasAteDevolucao = prazoDias + 1 + aleatorio.nextInt(prazoDias);
+        } else {
+            diasAteDevolucao = 1 + aleatorio.nextInt(prazoDias);
+        }
+
+        if (renovado) {
+            // Renova nos últimos dias do primeiro prazo, nunca no próprio dia do empréstimo
+            int diaRenovacao = Math.max(dia + 1, dia + prazoDias - aleatorio.nextInt(Math.min(3, prazoDias)));
+            if (diaRenovacao < agenda.size()) {
+                agenda.get(diaRenovacao).add(new Agendamento(EventoCarga.TIPO_RENOVACAO, usuario, livro, false));
+            }
+        }
+        int diaDevolucao = dia + diasAteDevolucao;
+        if (diaDevolucao < agenda.size()) {
+            agenda.get(diaDevolucao).add(new Agendamento(EventoCarga.TIPO_DEVOLUCAO, usuario, livro, atrasado));
+        }
+    }
+
+    /**
+     * Sorteia os dias de atraso com distribuição geométrica de média diasAtrasoMedio (mínimo de 1 dia)
+     */
+    private int sortearDiasAtraso(Random aleatorio) {
+        if (diasAtrasoMedio <= 1) {
+            return 1;
+        }
+        double continuar = 1 - 1 / diasAtrasoMedio;
+        return 1 + (int) (Math.log(1 - aleatorio.nextDouble()) / Math.log(continuar));
+    }
+
+    private static long horario(Random aleatorio, int horaInicial, int horaFinal) {
+        return horaInicial * MILLIS_POR_HORA + (long) (aleatorio.nextDouble() * (horaFinal - horaInicial) * MILLIS_POR_HORA);
+    }
+
+    /**
+     * Simula um erro de digitação: troca, omite ou inverte um caractere do texto
+     */
+    private static String introduzirErro(Random aleatorio, String texto) {
+        StringBuilder resultado = new StringBuilder(texto);
+        int posicao = aleatorio.nextInt(texto.length());
+        switch (aleatorio.nextInt(3)) {
+            case 0:
+                resultado.setCharAt(posicao, (char) ('a' + aleatorio.nextInt(26)));
+                break;
+            case 1:
+                resultado.deleteCharAt(posicao);
+                break;
+            default:
+                if (posicao + 1 < texto.length()) {
+                    resultado.setCharAt(posicao, texto.charAt(posicao + 1));
+                    resultado.setCharAt(posicao + 1, texto.charAt(posicao));
+                }
+                break;
+        }
+        return resultado.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package simulacao;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Sorteio de posições segundo a distribuição de Zipf
+ * A posição k (a partir de 0) é sorteada com probabilidade proporcional a 1 / (k + 1)^expoente,
+ * o que reproduz a concentração dos empréstimos em poucos livros muito procurados.
+ * A distribuição acumulada é calculada uma vez e cada sorteio é uma busca binária
+ */
+public class GeradorZipf {
+    private final double[] acumulada;
+    private final Random aleatorio;
+
+    /**
+     * Construtor
+     * @param quantidade Quantidade de posições
+     * @param expoente Expoente da distribuição (0 para uniforme; por volta de 1 para catálogos reais)
+     * @param aleatorio Gerador de números usado nos sorteios
+     */
+    public GeradorZipf(int quantidade, double expoente, Random aleatorio) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser positiva");
+        }
+        this.acumulada = new double[quantidade];
+        this.aleatorio = aleatorio;
+        double soma = 0;
+        for (int k = 0; k < quantidade; k++) {
+            soma += 1.0 / Math.pow(k + 1, expoente);
+            acumulada[k] = soma;
+        }
+        for (int k = 0; k < quantidade; k++) {
+            acumulada[k] /= soma;
+        }
+    }
+
+    /**
+     * Sorteia uma posição
+     * @return Posição entre 0 (a mais provável) e quantidade - 1
+     */
+    public int proximo() {
+        int posicao = Arrays.binarySearch(acumulada, aleatorio.nextDouble());
+        if (posicao < 0) {
+            posicao = -posicao - 1;
+        }
+        return Math.min(posicao, acumulada.length - 1);
+    }
+
+    /**
+     * Obtém a probabilidade de uma posição
+     * @param posicao Posição entre 0 e quantidade - 1
+     * @return Probabilidade de a posição ser sorteada
+     */
+    public double probabilidade(int posicao) {
+        return posicao == 0 ? acumulada[0] : acumulada[posicao] - acumulada[posicao - 1];
+    }
+}
@@ -0,0 +1,99 @@
+package simulacao;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências em nanossegundos, seguro para várias threads sem bloqueio
+ * Cada potência de 2 é dividida em 32 faixas, de modo que os percentis têm erro
+ * relativo de no máximo 1/32 (cerca de 3%) e a memória é fixa, qualquer que seja
+ * a quantidade de medições
+ */
+public class HistogramaLatencias {
+    private static final int BITS_SUBFAIXA = 5;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    private static final int QUANTIDADE_FAIXAS = (64 - BITS_SUBFAIXA + 1) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens;
+    private final AtomicLong quantidade;
+    private final AtomicLong soma;
+    private final AtomicLong maximo;
+
+    /**
+     * Construtor padrão (histograma vazio)
+     */
+    public HistogramaLatencias() {
+        this.contagens = new AtomicLongArray(QUANTIDADE_FAIXAS);
+        this.quantidade = new AtomicLong();
+        this.soma = new AtomicLong();
+        this.maximo = new AtomicLong();
+    }
+
+    /**
+     * Registra uma medição
+     * @param nanos Latência em nanossegundos (valores negativos contam como 0)
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        contagens.incrementAndGet(faixa(valor));
+        quantidade.incrementAndGet();
+        soma.addAndGet(valor);
+        maximo.accumulateAndGet(valor, Math::max);
+    }
+
+    public long getQuantidade() {
+        return quantidade.get();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtém a latência média
+     * @return Média em nanossegundos, 0 se não há medições
+     */
+    public double getMedia() {
+        long total = quantidade.get();
+        return total == 0 ? 0 : (double) soma.get() / total;
+    }
+
+    /**
+     * Obtém um percentil das latências
+     * @param percentil Valor entre 0 e 100 (por exemplo 99 para o p99)
+     * @return Limite superior da faixa que contém o percentil, em nanossegundos (0 se não há medições)
+     */
+    public long getPercentil(double percentil) {
+        long total = quantidade.get();
+        if (total == 0) {
+            return 0;
+        }
+        long posicao = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < QUANTIDADE_FAIXAS; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= posicao) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    private static int faixa(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int mantissa = (int) (valor >>> (expoente - BITS_SUBFAIXA));
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + (mantissa - SUBFAIXAS);
+    }
+
+    private static long limiteSuperior(int faixa) {
+        if (faixa < SUBFAIXAS) {
+            return faixa;
+        }
+        int deslocamento = faixa / SUBFAIXAS - 1;
+        long mantissa = SUBFAIXAS + faixa % SUBFAIXAS;
+        return ((mantissa + 1) << deslocamento) - 1;
+    }
+}
@@ -0,0 +1,102 @@
+package simulacao;
+
+/**
+ * Resultado da reprodução de uma carga: vazão geral e, para cada tipo de evento,
+ * quantidades e percentis de latência
+ * Uma operação "recusada" foi executada mas não teve efeito (por exemplo, um empréstimo
+ * de livro indisponível ou uma busca sem resultados); um "erro" lançou uma exceção
+ */
+public class RelatorioCarga {
+    private final long duracaoNanos;
+    private final long[] recusadas;
+    private final long[] erros;
+    private final HistogramaLatencias[] latencias;
+
+    /**
+     * Construtor
+     * @param duracaoNanos Tempo total da reprodução
+     * @param recusadas Operações recusadas, por tipo (na ordem de EventoCarga.TIPOS)
+     * @param erros Operações que lançaram exceção, por tipo
+     * @param latencias Histograma de latências, por tipo
+     */
+    RelatorioCarga(long duracaoNanos, long[] recusadas, long[] erros, HistogramaLatencias[] latencias) {
+        this.duracaoNanos = duracaoNanos;
+        this.recusadas = recusadas;
+        this.erros = erros;
+        this.latencias = latencias;
+    }
+
+    public long getDuracaoNanos() {
+        return duracaoNanos;
+    }
+
+    /**
+     * Obtém a quantidade total de operações executadas
+     * @return Soma de todos os tipos
+     */
+    public long getTotalOperacoes() {
+        long total = 0;
+        for (HistogramaLatencias histograma : latencias) {
+            total += histograma.getQuantidade();
+        }
+        return total;
+    }
+
+    /**
+     * Obtém a vazão da reprodução
+     * @return Operações por segundo
+     */
+    public double getVazao() {
+        return duracaoNanos == 0 ? 0 : getTotalOperacoes() * 1e9 / duracaoNanos;
+    }
+
+    /**
+     * Obtém as latências de um tipo de evento
+     * @param tipo Um dos tipos de EventoCarga.TIPOS
+     * @return Histograma do tipo
+     */
+    public HistogramaLatencias getLatencias(String tipo) {
+        return latencias[posicao(tipo)];
+    }
+
+    public long getRecusadas(String tipo) {
+        return recusadas[posicao(tipo)];
+    }
+
+    public long getErros(String tipo) {
+        return erros[posicao(tipo)];
+    }
+
+    private static int posicao(String tipo) {
+        int indice = EventoCarga.indiceTipo(tipo);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Tipo de evento desconhecido: " + tipo);
+        }
+        return indice;
+    }
+
+    /**
+     * Retorna o relatório formatado, com latências em microssegundos
+     * @return Texto do relatório
+     */
+    @Override
+    public String toString() {
+        StringBuilder relatorio = new StringBuilder();
+        relatorio.append("=== RELATÓRIO DA CARGA ===\n");
+        relatorio.append(String.format("Operações: %d | Duração: %.2f s | Vazão: %.0f op/s%n",
+                getTotalOperacoes(), duracaoNanos / 1e9, getVazao()));
+        relatorio.append(String.format("%-20s %10s %10s %8s %10s %10s %10s %10s%n",
+                "Tipo", "Quantidade", "Recusadas", "Erros", "p50 (µs)", "p95 (µs)", "p99 (µs)", "máx (µs)"));
+        for (int i = 0; i < EventoCarga.TIPOS.length; i++) {
+            HistogramaLatencias histograma = latencias[i];
+            if (histograma.getQuantidade() == 0) {
+                continue;
+            }
+            relatorio.append(String.format("%-20s %10d %10d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    EventoCarga.TIPOS[i], histograma.getQuantidade(), recusadas[i], erros[i],
+                    histograma.getPercentil(50) / 1000.0, histograma.getPercentil(95) / 1000.0,
+                    histograma.getPercentil(99) / 1000.0, histograma.getMaximo() / 1000.0));
+        }
+        return relatorio.toString();
+    }
+}
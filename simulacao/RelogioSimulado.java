@@ -0,0 +1,73 @@
+package simulacao;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relógio controlado pela simulação
+ * O instante só muda quando a simulação o avança, de modo que datas de empréstimo,
+ * vencimentos e multas ficam reproduzíveis. Pode ser lido por várias threads
+ */
+public class RelogioSimulado extends Clock {
+    private final AtomicLong millis;
+    private final ZoneId zona;
+
+    /**
+     * Construtor com o instante inicial, no fuso UTC
+     * @param inicio Instante inicial
+     */
+    public RelogioSimulado(Instant inicio) {
+        this(new AtomicLong(inicio.toEpochMilli()), ZoneOffset.UTC);
+    }
+
+    private RelogioSimulado(AtomicLong millis, ZoneId zona) {
+        this.millis = millis;
+        this.zona = zona;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zona;
+    }
+
+    /**
+     * Obtém uma visão do mesmo relógio em outro fuso (os avanços continuam compartilhados)
+     */
+    @Override
+    public Clock withZone(ZoneId zona) {
+        return zona.equals(this.zona) ? this : new RelogioSimulado(millis, zona);
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis.get());
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    /**
+     * Avança o relógio
+     * @param duracao Tempo a avançar (não pode ser negativo)
+     */
+    public void avancar(Duration duracao) {
+        if (duracao.isNegative()) {
+            throw new IllegalArgumentException("O relógio simulado não volta no tempo");
+        }
+        millis.addAndGet(duracao.toMillis());
+    }
+
+    /**
+     * Avança o relógio até o instante informado; instantes anteriores ao atual são ignorados
+     * @param epochMillis Instante em milissegundos desde 1970-01-01T00:00Z
+     */
+    public void avancarPara(long epochMillis) {
+        millis.accumulateAndGet(epochMillis, Math::max);
+    }
+}
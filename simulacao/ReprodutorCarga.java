@@ -0,0 +1,187 @@
+package simulacao;
+
+import managers.BibliotecaManager;
+import models.Livro;
+import models.Usuario;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduz uma sequência de eventos contra o BibliotecaManager, medindo a latência de cada operação
+ * Durante a reprodução a biblioteca usa o relógio simulado, que é avançado até o instante de cada
+ * evento antes de ele ser despachado. A velocidade define quantas vezes o tempo simulado corre mais
+ * rápido que o real (0 despacha os eventos sem pausas). Com mais de uma thread, os eventos são
+ * despachados em ordem mas executados concorrentemente; o resultado só é determinístico com uma thread
+ */
+public class ReprodutorCarga {
+    // Eventos aguardando execução por thread, para limitar a memória quando o despacho é mais rápido
+    private static final int EVENTOS_PENDENTES_POR_THREAD = 64;
+
+    private final BibliotecaManager biblioteca;
+    private final RelogioSimulado relogio;
+    private double velocidade;
+    private int threads;
+
+    /**
+     * Construtor (sem pausas e com uma thread)
+     * @param biblioteca Gerenciador que receberá as operações
+     * @param relogio Relógio simulado instalado na biblioteca durante a reprodução
+     */
+    public ReprodutorCarga(BibliotecaManager biblioteca, RelogioSimulado relogio) {
+        this.biblioteca = biblioteca;
+        this.relogio = relogio;
+        this.velocidade = 0;
+        this.threads = 1;
+    }
+
+    /**
+     * @param velocidade Fator de aceleração do tempo simulado (1 para tempo real, 0 para sem pausas)
+     */
+    public void setVelocidade(double velocidade) {
+        if (velocidade < 0) {
+            throw new IllegalArgumentException("Velocidade não pode ser negativa");
+        }
+        this.velocidade = velocidade;
+    }
+
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Quantidade de threads deve ser positiva");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Reproduz os eventos e mede o resultado
+     * O relógio anterior da biblioteca é restaurado ao final
+     * @param eventos Eventos em ordem de instante
+     * @return Relatório com vazão e latências
+     * @throws InterruptedException se a thread for interrompida durante a reprodução
+     */
+    public RelatorioCarga reproduzir(List<EventoCarga> eventos) throws InterruptedException {
+        int quantidadeTipos = EventoCarga.TIPOS.length;
+        HistogramaLatencias[] latencias = new HistogramaLatencias[quantidadeTipos];
+        for (int i = 0; i < quantidadeTipos; i++) {
+            latencias[i] = new HistogramaLatencias();
+        }
+        AtomicLongArray recusadas = new AtomicLongArray(quantidadeTipos);
+        AtomicLongArray erros = new AtomicLongArray(quantidadeTipos);
+
+        Clock relogioAnterior = biblioteca.getRelogio();
+        biblioteca.setRelogio(relogio);
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        Semaphore vagas = new Semaphore(threads * EVENTOS_PENDENTES_POR_THREAD);
+        long inicio = System.nanoTime();
+        try {
+            long primeiroInstante = eventos.isEmpty() ? 0 : eventos.get(0).getInstante();
+            for (EventoCarga evento : eventos) {
+                if (velocidade > 0) {
+                    aguardarAte(inicio + (long) ((evento.getInstante() - primeiroInstante) * 1_000_000 / velocidade));
+                }
+                relogio.avancarPara(evento.getInstante());
+                if (executor == null) {
+                    executar(evento, latencias, recusadas, erros);
+                } else {
+                    vagas.acquire();
+                    executor.execute(() -> {
+                        try {
+                            executar(evento, latencias, recusadas, erros);
+                        } finally {
+                            vagas.release();
+                        }
+                    });
+                }
+            }
+            if (executor != null) {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            biblioteca.setRelogio(relogioAnterior);
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        long[] totalRecusadas = new long[quantidadeTipos];
+        long[] totalErros = new long[quantidadeTipos];
+        for (int i = 0; i < quantidadeTipos; i++) {
+            totalRecusadas[i] = recusadas.get(i);
+            totalErros[i] = erros.get(i);
+        }
+        return new RelatorioCarga(duracao, totalRecusadas, totalErros, latencias);
+    }
+
+    private void executar(EventoCarga evento, HistogramaLatencias[] latencias, AtomicLongArray recusadas,
+                          AtomicLongArray erros) {
+        int tipo = EventoCarga.indiceTipo(evento.getTipo());
+        long inicio = System.nanoTime();
+        try {
+            if (!aplicar(evento)) {
+                recusadas.incrementAndGet(tipo);
+            }
+        } catch (RuntimeException e) {
+            erros.incrementAndGet(tipo);
+        }
+        latencias[tipo].registrar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Executa a operação do evento na biblioteca
+     * @return true se a operação teve efeito (ou, nas buscas, encontrou algum livro)
+     */
+    private boolean aplicar(EventoCarga evento) {
+        switch (evento.getTipo()) {
+            case EventoCarga.TIPO_EMPRESTIMO:
+            case EventoCarga.TIPO_DEVOLUCAO:
+            case EventoCarga.TIPO_RENOVACAO: {
+                Usuario usuario = biblioteca.buscarUsuarioPorId(evento.getIdUsuario());
+                Livro livro = biblioteca.buscarLivroPorIsbn(evento.getArgumento());
+                if (usuario == null || livro == null) {
+                    return false;
+                }
+                if (evento.getTipo().equals(EventoCarga.TIPO_EMPRESTIMO)) {
+                    return biblioteca.realizarEmprestimo(usuario, livro);
+                }
+                if (evento.getTipo().equals(EventoCarga.TIPO_DEVOLUCAO)) {
+                    return biblioteca.realizarDevolucao(usuario, livro);
+                }
+                return biblioteca.renovarEmprestimo(usuario, livro);
+            }
+            case EventoCarga.TIPO_PAGAMENTO: {
+                Usuario usuario = biblioteca.buscarUsuarioPorId(evento.getIdUsuario());
+                return usuario != null && usuario.getSaldoDevedorCentavos() > 0
+                        && biblioteca.registrarPagamento(usuario, usuario.getSaldoDevedor());
+            }
+            case EventoCarga.TIPO_BUSCA_TITULO:
+                return !biblioteca.buscarLivroPorTitulo(evento.getArgumento()).isEmpty();
+            case EventoCarga.TIPO_BUSCA_AUTOR:
+                return !biblioteca.buscarLivroPorAutor(evento.getArgumento()).isEmpty();
+            case EventoCarga.TIPO_BUSCA_APROXIMADA:
+                return !biblioteca.buscarLivroPorTituloAproximado(evento.getArgumento()).isEmpty();
+            case EventoCarga.TIPO_CONSULTA_ATRASADOS:
+                biblioteca.getEmprestimosAtrasados();
+                return true;
+            default:
+                throw new IllegalArgumentException("Tipo de evento desconhecido: " + evento.getTipo());
+        }
+    }
+
+    private static void aguardarAte(long instanteNanos) throws InterruptedException {
+        long restante;
+        while ((restante = instanteNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package simulacao;
+
+import managers.BibliotecaManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ponto de entrada para gerar e reproduzir cargas de trabalho da biblioteca
+ * Uso:
+ *   gerar &lt;trace&gt; &lt;diretorioCatalogo&gt; [livros usuarios dias emprestimosPorDia semente]
+ *       cria um catálogo fictício, salva-o no diretório e grava o trace dos eventos
+ *   reproduzir &lt;trace&gt; &lt;diretorioCatalogo&gt; [threads velocidade]
+ *       carrega o catálogo salvo (por exemplo, uma cópia do ambiente de produção) e reproduz o trace
+ *   sem argumentos
+ *       gera uma carga padrão em memória e a reproduz sem pausas
+ */
+public class SimulacaoBiblioteca {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length >= 3 && args[0].equals("gerar")) {
+            gerar(Paths.get(args[1]), Paths.get(args[2]), args);
+        } else if (args.length >= 3 && args[0].equals("reproduzir")) {
+            reproduzir(Paths.get(args[1]), Paths.get(args[2]), inteiro(args, 3, 1), decimal(args, 4, 0));
+        } else if (args.length == 0) {
+            GeradorCarga gerador = new GeradorCarga(42);
+            BibliotecaManager biblioteca = BibliotecaManager.getInstancia();
+            gerador.povoar(biblioteca);
+            List<EventoCarga> eventos = gerador.gerar();
+            System.out.println(reproduzir(biblioteca, eventos, 1, 0));
+        } else {
+            System.out.println("Uso: gerar <trace> <diretorioCatalogo> [livros usuarios dias emprestimosPorDia semente]");
+            System.out.println("     reproduzir <trace> <diretorioCatalogo> [threads velocidade]");
+        }
+    }
+
+    private static void gerar(Path trace, Path diretorioCatalogo, String[] args) throws IOException {
+        GeradorCarga gerador = new GeradorCarga(inteiro(args, 7, 42));
+        gerador.setQuantidadeLivros(inteiro(args, 3, 10_000));
+        gerador.setQuantidadeUsuarios(inteiro(args, 4, 2_000));
+        gerador.setDias(inteiro(args, 5, 30));
+        gerador.setEmprestimosPorDia(inteiro(args, 6, 500));
+
+        BibliotecaManager biblioteca = BibliotecaManager.getInstancia();
+        gerador.povoar(biblioteca);
+        biblioteca.salvarCatalogo(diretorioCatalogo);
+        List<EventoCarga> eventos = gerador.gerar();
+        TraceCarga.gravar(trace, eventos);
+        System.out.println("✓ " + eventos.size() + " eventos gravados em " + trace);
+    }
+
+    private static void reproduzir(Path trace, Path diretorioCatalogo, int threads, double velocidade)
+            throws IOException, InterruptedException {
+        BibliotecaManager biblioteca = BibliotecaManager.getInstancia();
+        biblioteca.carregarCatalogo(diretorioCatalogo);
+        List<EventoCarga> eventos = TraceCarga.ler(trace);
+        System.out.println(reproduzir(biblioteca, eventos, threads, velocidade));
+    }
+
+    private static RelatorioCarga reproduzir(BibliotecaManager biblioteca, List<EventoCarga> eventos,
+                                             int threads, double velocidade) throws InterruptedException {
+        // O relógio simulado começa no instante do primeiro evento
+        long inicio = eventos.isEmpty() ? System.currentTimeMillis() : eventos.get(0).getInstante();
+        ReprodutorCarga reprodutor = new ReprodutorCarga(biblioteca, new RelogioSimulado(Instant.ofEpochMilli(inicio)));
+        reprodutor.setThreads(threads);
+        reprodutor.setVelocidade(velocidade);
+        return reprodutor.reproduzir(eventos);
+    }
+
+    private static int inteiro(String[] args, int posicao, int padrao) {
+        return args.length > posicao ? Integer.parseInt(args[posicao]) : padrao;
+    }
+
+    private static double decimal(String[] args, int posicao, double padrao) {
+        return args.length > posicao ? Double.parseDouble(args[posicao]) : padrao;
+    }
+}
@@ -0,0 +1,82 @@
+package simulacao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Leitura e gravação de traces de carga: um evento por linha (ver EventoCarga.paraLinha),
+ * em UTF-8. Arquivos terminados em ".gz" são compactados com GZIP.
+ * Linhas vazias e linhas iniciadas por '#' são ignoradas na leitura
+ */
+public final class TraceCarga {
+    private static final String EXTENSAO_GZIP = ".gz";
+
+    private TraceCarga() {
+    }
+
+    /**
+     * Grava os eventos em um arquivo
+     * @param arquivo Caminho do trace
+     * @param eventos Eventos em ordem de instante
+     * @throws IOException se a gravação falhar
+     */
+    public static void gravar(Path arquivo, List<EventoCarga> eventos) throws IOException {
+        OutputStream saida = Files.newOutputStream(arquivo);
+        if (ehCompactado(arquivo)) {
+            saida = new GZIPOutputStream(saida, 64 * 1024);
+        }
+        try (BufferedWriter escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8))) {
+            for (EventoCarga evento : eventos) {
+                escritor.write(evento.paraLinha());
+                escritor.newLine();
+            }
+        }
+    }
+
+    /**
+     * Lê os eventos de um arquivo
+     * @param arquivo Caminho do trace
+     * @return Eventos ordenados por instante (a ordem do arquivo é mantida entre eventos do mesmo instante)
+     * @throws IOException se a leitura falhar ou se alguma linha estiver mal formada
+     */
+    public static List<EventoCarga> ler(Path arquivo) throws IOException {
+        InputStream entrada = Files.newInputStream(arquivo);
+        if (ehCompactado(arquivo)) {
+            entrada = new GZIPInputStream(entrada, 64 * 1024);
+        }
+        List<EventoCarga> eventos = new ArrayList<>();
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String linha;
+            int numero = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                if (linha.isEmpty() || linha.charAt(0) == '#') {
+                    continue;
+                }
+                try {
+                    eventos.add(EventoCarga.deLinha(linha));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Linha " + numero + " do trace: " + e.getMessage(), e);
+                }
+            }
+        }
+        eventos.sort((a, b) -> Long.compare(a.getInstante(), b.getInstante()));
+        return eventos;
+    }
+
+    private static boolean ehCompactado(Path arquivo) {
+        return arquivo.getFileName().toString().endsWith(EXTENSAO_GZIP);
+    }
+}